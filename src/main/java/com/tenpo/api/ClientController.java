@@ -1,14 +1,33 @@
 package com.tenpo.api;
 
+import com.tenpo.api.dto.ClientBatchUpsertDTO;
+import com.tenpo.api.dto.ClientOverviewDTO;
+import com.tenpo.api.dto.ClientPatchDTO;
+import com.tenpo.api.dto.ClientPurgeStatusDTO;
 import com.tenpo.api.dto.ClientRequestDTO;
 import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.ClientUpsertDTO;
+import com.tenpo.api.dto.CsvImportReportDTO;
+import com.tenpo.api.dto.MultiGetItemDTO;
+import com.tenpo.api.dto.MultiGetRequestDTO;
+import com.tenpo.api.dto.UpsertResultDTO;
+import com.tenpo.interceptor.RateLimitCost;
+import com.tenpo.model.UpsertOutcome;
+import com.tenpo.service.ClientOverviewService;
+import com.tenpo.service.ClientPurgeService;
 import com.tenpo.service.ClientService;
+import com.tenpo.service.CsvImportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -16,7 +35,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ClientController {
 
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    private static final String TEXT_CSV = "text/csv";
+
     private final ClientService clientService;
+    private final ClientPurgeService clientPurgeService;
+    private final CsvImportService csvImportService;
+    private final ClientOverviewService clientOverviewService;
 
     @PostMapping
     public ResponseEntity<ClientResponseDTO> createClient(@Valid @RequestBody ClientRequestDTO request) {
@@ -24,24 +49,102 @@ public class ClientController {
     }
 
     @GetMapping
+    @RateLimitCost(value = 50, perItem = 0.1)
     public ResponseEntity<List<ClientResponseDTO>> getAllClients() {
         return ResponseEntity.ok(clientService.getAllClients());
     }
 
+    @GetMapping(params = "ids")
+    @RateLimitCost(value = 5, perItem = 0.1)
+    public ResponseEntity<List<MultiGetItemDTO<ClientResponseDTO>>> getClientsByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(clientService.getClientsByIds(ids));
+    }
+
+    // Same as GET ?ids=, for id sets too long for a URL.
+    @PostMapping("/multi-get")
+    @RateLimitCost(value = 5, perItem = 0.1)
+    public ResponseEntity<List<MultiGetItemDTO<ClientResponseDTO>>> multiGetClients(
+            @Valid @RequestBody MultiGetRequestDTO request) {
+        return ResponseEntity.ok(clientService.getClientsByIds(request.ids()));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ClientResponseDTO> getClientById(@PathVariable Integer id) {
-        return ResponseEntity.ok(clientService.getClientById(id));
+        ClientResponseDTO client = clientService.getClientById(id);
+        return ETags.ok(client, client.version());
+    }
+
+    @GetMapping("/{id}/overview")
+    @RateLimitCost(10)
+    public ResponseEntity<ClientOverviewDTO> getClientOverview(@PathVariable Integer id) {
+        return ResponseEntity.ok(clientOverviewService.getOverview(id));
+    }
+
+    @GetMapping("/rut/{rut}")
+    public ResponseEntity<ClientResponseDTO> getClientByRut(@PathVariable String rut) {
+        ClientResponseDTO client = clientService.getClientByRut(rut);
+        return ETags.ok(client, client.version());
+    }
+
+    @PutMapping("/rut/{rut}")
+    public ResponseEntity<UpsertResultDTO<ClientResponseDTO>> upsertClient(@PathVariable String rut,
+            @Valid @RequestBody ClientUpsertDTO request) {
+        UpsertResultDTO<ClientResponseDTO> result = clientService.upsertClient(rut, request);
+        HttpStatus status = result.outcome() == UpsertOutcome.CREATED ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(status).eTag(String.valueOf(result.data().version())).body(result);
+    }
+
+    @PutMapping("/rut")
+    @RateLimitCost(value = 5, perItem = 1)
+    public ResponseEntity<List<UpsertResultDTO<ClientResponseDTO>>> upsertClients(
+            @Valid @RequestBody ClientBatchUpsertDTO request) {
+        return ResponseEntity.ok(clientService.upsertClients(request.clients()));
+    }
+
+    @PostMapping(value = "/import", consumes = { TEXT_CSV, MediaType.TEXT_PLAIN_VALUE })
+    @RateLimitCost(100)
+    public ResponseEntity<CsvImportReportDTO> importClients(InputStream body) throws IOException {
+        return ResponseEntity.ok(csvImportService.importClients(body));
+    }
+
+    @PostMapping(value = "/{id}/employees/import", consumes = { TEXT_CSV, MediaType.TEXT_PLAIN_VALUE })
+    @RateLimitCost(100)
+    public ResponseEntity<CsvImportReportDTO> importEmployees(@PathVariable Integer id, InputStream body)
+            throws IOException {
+        return ResponseEntity.ok(csvImportService.importEmployees(id, body));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<ClientResponseDTO> updateClient(@PathVariable Integer id,
-            @Valid @RequestBody ClientRequestDTO request) {
-        return ResponseEntity.ok(clientService.updateClient(id, request));
+            @Valid @RequestBody ClientRequestDTO request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ClientResponseDTO client = clientService.updateClient(id, request, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(client, client.version());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<ClientResponseDTO> patchClient(@PathVariable Integer id,
+            @Valid @RequestBody ClientPatchDTO patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ClientResponseDTO client = clientService.patchClient(id, patch, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(client, client.version());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteClient(@PathVariable Integer id) {
+    @RateLimitCost(20)
+    public ResponseEntity<ClientPurgeStatusDTO> deleteClient(@PathVariable Integer id) {
+        if (clientPurgeService.requiresBackgroundPurge(id)) {
+            ClientPurgeStatusDTO status = clientPurgeService.startPurge(id);
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/purge").build().toUri())
+                    .body(status);
+        }
         clientService.deleteClient(id);
         return ResponseEntity.noContent().build();
     }
+
+    @GetMapping("/{id}/purge")
+    public ResponseEntity<ClientPurgeStatusDTO> getPurgeStatus(@PathVariable Integer id) {
+        return ResponseEntity.of(clientPurgeService.getPurgeStatus(id));
+    }
 }
@@ -0,0 +1,39 @@
+package com.tenpo.api;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Maps the entity {@code @Version} to a strong ETag and back. {@code *} and an
+ * absent header both mean "no precondition".
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static <T> ResponseEntity<T> ok(T body, Long version) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (version != null) {
+            builder.eTag(String.valueOf(version));
+        }
+        return builder.body(body);
+    }
+
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed If-Match header: " + ifMatch);
+        }
+    }
+}
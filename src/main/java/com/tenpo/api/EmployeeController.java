@@ -1,11 +1,21 @@
 package com.tenpo.api;
 
+import com.tenpo.api.dto.EmployeeBatchUpsertDTO;
+import com.tenpo.api.dto.EmployeePatchDTO;
 import com.tenpo.api.dto.EmployeeRequestDTO;
 import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.api.dto.EmployeeUpsertDTO;
+import com.tenpo.api.dto.MultiGetItemDTO;
+import com.tenpo.api.dto.MultiGetRequestDTO;
+import com.tenpo.api.dto.UpsertResultDTO;
+import com.tenpo.interceptor.RateLimitCost;
+import com.tenpo.model.UpsertOutcome;
 import com.tenpo.service.EmployeeService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +26,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EmployeeController {
 
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     private final EmployeeService employeeService;
 
     @PostMapping
@@ -24,19 +36,66 @@ public class EmployeeController {
     }
 
     @GetMapping
+    @RateLimitCost(value = 50, perItem = 0.1)
     public ResponseEntity<List<EmployeeResponseDTO>> getAllEmployees() {
         return ResponseEntity.ok(employeeService.getAllEmployees());
     }
 
+    @GetMapping(params = "ids")
+    @RateLimitCost(value = 5, perItem = 0.1)
+    public ResponseEntity<List<MultiGetItemDTO<EmployeeResponseDTO>>> getEmployeesByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(employeeService.getEmployeesByIds(ids));
+    }
+
+    // Same as GET ?ids=, for id sets too long for a URL.
+    @PostMapping("/multi-get")
+    @RateLimitCost(value = 5, perItem = 0.1)
+    public ResponseEntity<List<MultiGetItemDTO<EmployeeResponseDTO>>> multiGetEmployees(
+            @Valid @RequestBody MultiGetRequestDTO request) {
+        return ResponseEntity.ok(employeeService.getEmployeesByIds(request.ids()));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<EmployeeResponseDTO> getEmployeeById(@PathVariable Integer id) {
-        return ResponseEntity.ok(employeeService.getEmployeeById(id));
+        EmployeeResponseDTO employee = employeeService.getEmployeeById(id);
+        return ETags.ok(employee, employee.version());
+    }
+
+    @GetMapping("/rut/{rut}")
+    public ResponseEntity<EmployeeResponseDTO> getEmployeeByRut(@PathVariable String rut) {
+        EmployeeResponseDTO employee = employeeService.getEmployeeByRut(rut);
+        return ETags.ok(employee, employee.version());
+    }
+
+    @PutMapping("/rut/{rut}")
+    public ResponseEntity<UpsertResultDTO<EmployeeResponseDTO>> upsertEmployee(@PathVariable String rut,
+            @Valid @RequestBody EmployeeUpsertDTO request) {
+        UpsertResultDTO<EmployeeResponseDTO> result = employeeService.upsertEmployee(rut, request);
+        HttpStatus status = result.outcome() == UpsertOutcome.CREATED ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(status).eTag(String.valueOf(result.data().version())).body(result);
+    }
+
+    @PutMapping("/rut")
+    @RateLimitCost(value = 5, perItem = 1)
+    public ResponseEntity<List<UpsertResultDTO<EmployeeResponseDTO>>> upsertEmployees(
+            @Valid @RequestBody EmployeeBatchUpsertDTO request) {
+        return ResponseEntity.ok(employeeService.upsertEmployees(request.employees()));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<EmployeeResponseDTO> updateEmployee(@PathVariable Integer id,
-            @Valid @RequestBody EmployeeRequestDTO request) {
-        return ResponseEntity.ok(employeeService.updateEmployee(id, request));
+            @Valid @RequestBody EmployeeRequestDTO request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        EmployeeResponseDTO employee = employeeService.updateEmployee(id, request, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(employee, employee.version());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<EmployeeResponseDTO> patchEmployee(@PathVariable Integer id,
+            @Valid @RequestBody EmployeePatchDTO patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        EmployeeResponseDTO employee = employeeService.patchEmployee(id, patch, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(employee, employee.version());
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,29 @@
+package com.tenpo.api;
+
+import com.tenpo.api.dto.SyncResponseDTO;
+import com.tenpo.interceptor.RateLimitCost;
+import com.tenpo.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// Each shard keeps its own change log, and a token can only name a position in one.
+@RestController
+@RequestMapping("/sync")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "tenpo.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    @RateLimitCost(10)
+    public ResponseEntity<SyncResponseDTO> getChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(syncService.getChangesSince(since, limit));
+    }
+}
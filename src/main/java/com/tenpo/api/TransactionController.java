@@ -1,13 +1,21 @@
 package com.tenpo.api;
 
+import com.tenpo.api.dto.MultiGetItemDTO;
+import com.tenpo.api.dto.MultiGetRequestDTO;
+import com.tenpo.api.dto.TransactionPatchDTO;
 import com.tenpo.api.dto.TransactionRequestDTO;
 import com.tenpo.api.dto.TransactionResponseDTO;
+import com.tenpo.interceptor.RateLimitCost;
+import com.tenpo.service.TransactionFeed;
 import com.tenpo.service.TransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -16,32 +24,72 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TransactionController {
 
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     private final TransactionService transactionService;
+    private final TransactionFeed transactionFeed;
 
+    // 3 per minute per client at the default refill of 600 tokens a minute.
     @PostMapping
+    @RateLimitCost(200)
     public ResponseEntity<TransactionResponseDTO> createTransaction(@Valid @RequestBody TransactionRequestDTO request) {
         return new ResponseEntity<>(transactionService.createTransaction(request), HttpStatus.CREATED);
     }
 
     @GetMapping
+    @RateLimitCost(value = 50, perItem = 0.1)
     public ResponseEntity<List<TransactionResponseDTO>> getAllTransactions() {
         return ResponseEntity.ok(transactionService.getAllTransactions());
     }
 
     @GetMapping("/client/{clientId}")
+    @RateLimitCost(value = 10, perItem = 0.1)
     public ResponseEntity<List<TransactionResponseDTO>> getTransactionsByClientId(@PathVariable Integer clientId) {
         return ResponseEntity.ok(transactionService.getTransactionsByClientId(clientId));
     }
 
+    // Transactions committed after connecting; open it before loading the list above.
+    @GetMapping(value = "/client/{clientId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RateLimitCost(10)
+    public SseEmitter streamTransactionsByClientId(@PathVariable Integer clientId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return transactionFeed.subscribe(clientId, lastEventId);
+    }
+
+    @GetMapping(params = "ids")
+    @RateLimitCost(value = 5, perItem = 0.1)
+    public ResponseEntity<List<MultiGetItemDTO<TransactionResponseDTO>>> getTransactionsByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(transactionService.getTransactionsByIds(ids));
+    }
+
+    // Same as GET ?ids=, for id sets too long for a URL.
+    @PostMapping("/multi-get")
+    @RateLimitCost(value = 5, perItem = 0.1)
+    public ResponseEntity<List<MultiGetItemDTO<TransactionResponseDTO>>> multiGetTransactions(
+            @Valid @RequestBody MultiGetRequestDTO request) {
+        return ResponseEntity.ok(transactionService.getTransactionsByIds(request.ids()));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<TransactionResponseDTO> getTransactionById(@PathVariable Integer id) {
-        return ResponseEntity.ok(transactionService.getTransactionById(id));
+        TransactionResponseDTO transaction = transactionService.getTransactionById(id);
+        return ETags.ok(transaction, transaction.version());
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<TransactionResponseDTO> updateTransaction(@PathVariable Integer id,
-            @Valid @RequestBody TransactionRequestDTO request) {
-        return ResponseEntity.ok(transactionService.updateTransaction(id, request));
+            @Valid @RequestBody TransactionRequestDTO request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        TransactionResponseDTO transaction = transactionService.updateTransaction(id, request, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(transaction, transaction.version());
+    }
+
+    @PatchMapping(value = "/{id}", consumes = { MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<TransactionResponseDTO> patchTransaction(@PathVariable Integer id,
+            @Valid @RequestBody TransactionPatchDTO patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        TransactionResponseDTO transaction = transactionService.patchTransaction(id, patch, ETags.parseIfMatch(ifMatch));
+        return ETags.ok(transaction, transaction.version());
     }
 
     @DeleteMapping("/{id}")
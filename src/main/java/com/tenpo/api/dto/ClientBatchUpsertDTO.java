@@ -0,0 +1,14 @@
+package com.tenpo.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record ClientBatchUpsertDTO(
+        @NotEmpty(message = "At least one client is required")
+        @Size(max = 10_000, message = "At most 10000 clients per batch") List<@Valid ClientRequestDTO> clients) {
+}
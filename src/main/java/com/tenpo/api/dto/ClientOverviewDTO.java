@@ -0,0 +1,17 @@
+package com.tenpo.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Everything the client page shows. A part that did not load in time is
+ * absent and named in {@code unavailable}.
+ */
+public record ClientOverviewDTO(
+        ClientResponseDTO client,
+        @JsonInclude(JsonInclude.Include.NON_NULL) List<EmployeeResponseDTO> employees,
+        @JsonInclude(JsonInclude.Include.NON_NULL) TransactionTotalsDTO transactions,
+        @JsonInclude(JsonInclude.Include.NON_NULL) List<TransactionResponseDTO> recentTransactions,
+        List<String> unavailable) {
+}
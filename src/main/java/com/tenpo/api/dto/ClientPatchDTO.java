@@ -0,0 +1,30 @@
+package com.tenpo.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * JSON Merge Patch (RFC 7396) body. Absent members are left unchanged; every
+ * attribute is mandatory, so an explicit {@code null} (removal) is rejected.
+ * A bean rather than a record: Jackson only calls the setter of a member that
+ * is present, which is what lets "absent" and "null" be told apart.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientPatchDTO {
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = ".*\\S.*", message = "Name cannot be blank")
+    private String name;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = ".*\\S.*", message = "RUT cannot be blank")
+    private String rut;
+}
@@ -0,0 +1,24 @@
+package com.tenpo.api.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Builder(toBuilder = true)
+public record ClientPurgeStatusDTO(
+        Integer clientId,
+        State state,
+        long deletedTransactions,
+        long deletedEmployees,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String error) {
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+}
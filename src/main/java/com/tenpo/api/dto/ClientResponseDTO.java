@@ -6,5 +6,10 @@ import lombok.Builder;
 public record ClientResponseDTO(
         Integer id,
         String name,
-        String rut) {
+        String rut,
+        Long version) {
+
+    public ClientResponseDTO(Integer id, String name, String rut) {
+        this(id, name, rut, null);
+    }
 }
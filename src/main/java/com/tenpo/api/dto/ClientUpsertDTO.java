@@ -0,0 +1,12 @@
+package com.tenpo.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Builder;
+
+/**
+ * Body of {@code PUT /client/rut/{rut}}; the RUT comes from the path.
+ */
+@Builder
+public record ClientUpsertDTO(
+        @NotBlank(message = "Name is required") String name) {
+}
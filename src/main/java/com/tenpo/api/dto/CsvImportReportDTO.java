@@ -0,0 +1,19 @@
+package com.tenpo.api.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import. {@code errors} lists at most
+ * {@code tenpo.csv-import.max-reported-errors} rows; {@code failed} counts all
+ * of them.
+ */
+@Builder
+public record CsvImportReportDTO(
+        long totalRows,
+        long imported,
+        long failed,
+        List<CsvImportErrorDTO> errors,
+        boolean errorsTruncated) {
+}
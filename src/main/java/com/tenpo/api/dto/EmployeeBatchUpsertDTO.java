@@ -0,0 +1,14 @@
+package com.tenpo.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record EmployeeBatchUpsertDTO(
+        @NotEmpty(message = "At least one employee is required")
+        @Size(max = 10_000, message = "At most 10000 employees per batch") List<@Valid EmployeeRequestDTO> employees) {
+}
@@ -0,0 +1,30 @@
+package com.tenpo.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * JSON Merge Patch body, see {@link ClientPatchDTO}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeePatchDTO {
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = ".*\\S.*", message = "Name cannot be blank")
+    private String name;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = ".*\\S.*", message = "RUT cannot be blank")
+    private String rut;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    private Integer clientId;
+}
@@ -7,5 +7,10 @@ public record EmployeeResponseDTO(
         Integer id,
         String name,
         String rut,
-        Integer clientId) {
+        Integer clientId,
+        Long version) {
+
+    public EmployeeResponseDTO(Integer id, String name, String rut, Integer clientId) {
+        this(id, name, rut, clientId, null);
+    }
 }
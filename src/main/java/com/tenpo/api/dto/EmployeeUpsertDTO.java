@@ -0,0 +1,14 @@
+package com.tenpo.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+/**
+ * Body of {@code PUT /employee/rut/{rut}}; the RUT comes from the path.
+ */
+@Builder
+public record EmployeeUpsertDTO(
+        @NotBlank(message = "Name is required") String name,
+        @NotNull(message = "Client ID is required") Integer clientId) {
+}
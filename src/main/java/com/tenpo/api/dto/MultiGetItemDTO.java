@@ -0,0 +1,35 @@
+package com.tenpo.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One slot of a multi-get response. Slots follow the order of the requested
+ * ids; an id with no matching row is returned as {@code found: false} instead
+ * of being dropped.
+ */
+public record MultiGetItemDTO<T>(
+        Integer id,
+        boolean found,
+        @JsonInclude(JsonInclude.Include.NON_NULL) T data) {
+
+    public static <T> MultiGetItemDTO<T> of(Integer id, T data) {
+        return new MultiGetItemDTO<>(id, data != null, data);
+    }
+
+    /**
+     * Pairs {@code ids} with {@code entities}, which must be aligned with them
+     * and hold {@code null} for the missing ones.
+     */
+    public static <E, T> List<MultiGetItemDTO<T>> zip(List<Integer> ids, List<E> entities, Function<E, T> mapper) {
+        List<MultiGetItemDTO<T>> items = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            E entity = entities.get(i);
+            items.add(of(ids.get(i), entity != null ? mapper.apply(entity) : null));
+        }
+        return items;
+    }
+}
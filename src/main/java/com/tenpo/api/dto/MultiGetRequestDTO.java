@@ -0,0 +1,12 @@
+package com.tenpo.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record MultiGetRequestDTO(
+        @NotEmpty(message = "At least one id is required") List<@NotNull(message = "Ids cannot be null") Integer> ids) {
+}
@@ -0,0 +1,17 @@
+package com.tenpo.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.tenpo.model.ChangeLogEntry;
+
+/**
+ * One change in a sync page. {@code data} is the row as it is now, not as it
+ * was when the change was made; it is absent for deletes, and for an upsert
+ * whose row has since been deleted, which a later change in the feed reports.
+ */
+public record SyncChangeDTO(
+        long seq,
+        ChangeLogEntry.EntityType type,
+        Integer id,
+        ChangeLogEntry.Operation operation,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Object data) {
+}
@@ -0,0 +1,14 @@
+package com.tenpo.api.dto;
+
+import java.util.List;
+
+/**
+ * A page of changes in commit order. {@code nextToken} is passed back as
+ * {@code since} to continue; while {@code hasMore} is true there is already
+ * another page waiting.
+ */
+public record SyncResponseDTO(
+        List<SyncChangeDTO> changes,
+        String nextToken,
+        boolean hasMore) {
+}
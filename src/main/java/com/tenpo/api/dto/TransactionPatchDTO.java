@@ -0,0 +1,43 @@
+package com.tenpo.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * JSON Merge Patch body, see {@link ClientPatchDTO}. {@code clientId} is not
+ * stored on the transaction; when present it is checked against the owner of
+ * the (possibly new) employee.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPatchDTO {
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Min(value = 0, message = "Amount cannot be negative")
+    private Integer amount;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = ".*\\S.*", message = "Merchant or business cannot be blank")
+    private String merchantOrBusiness;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @PastOrPresent(message = "Date cannot be in the future")
+    private LocalDateTime date;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    private Integer employeeId;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    private Integer clientId;
+}
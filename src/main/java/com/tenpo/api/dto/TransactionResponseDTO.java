@@ -11,5 +11,11 @@ public record TransactionResponseDTO(
                 String merchantOrBusiness,
                 LocalDateTime date,
                 Integer employeeId,
-                Integer clientId) {
+                Integer clientId,
+                Long version) {
+
+        public TransactionResponseDTO(Integer id, Integer amount, String merchantOrBusiness, LocalDateTime date,
+                        Integer employeeId, Integer clientId) {
+                this(id, amount, merchantOrBusiness, date, employeeId, clientId, null);
+        }
 }
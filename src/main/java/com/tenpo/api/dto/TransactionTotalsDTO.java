@@ -0,0 +1,12 @@
+package com.tenpo.api.dto;
+
+/**
+ * A client's transaction count against its quota, and the sum of their
+ * amounts.
+ */
+public record TransactionTotalsDTO(
+        long count,
+        int limit,
+        long remaining,
+        long totalAmount) {
+}
@@ -0,0 +1,8 @@
+package com.tenpo.api.dto;
+
+import com.tenpo.model.UpsertOutcome;
+
+public record UpsertResultDTO<T>(
+        UpsertOutcome outcome,
+        T data) {
+}
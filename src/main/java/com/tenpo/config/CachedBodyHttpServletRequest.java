@@ -20,6 +20,10 @@ public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
         this.cachedBody = StreamUtils.copyToByteArray(request.getInputStream());
     }
 
+    public int getCachedBodySize() {
+        return cachedBody.length;
+    }
+
     @Override
     public ServletInputStream getInputStream() {
         return new CachedBodyServletInputStream(this.cachedBody);
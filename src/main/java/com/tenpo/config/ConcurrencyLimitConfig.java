@@ -0,0 +1,35 @@
+package com.tenpo.config;
+
+import com.tenpo.interceptor.ConcurrencyLimitFilter;
+import com.tenpo.interceptor.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Adaptive admission control, on unless {@code tenpo.concurrency-limit.enabled}
+ * is false.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tenpo.concurrency-limit", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    // Behind request observation, so rejected requests still show up in
+    // http.server.requests, and ahead of everything that does real work.
+    private static final int FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(properties, meterRegistry));
+        registration.setOrder(FILTER_ORDER);
+        return registration;
+    }
+}
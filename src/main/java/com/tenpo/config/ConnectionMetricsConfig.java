@@ -0,0 +1,29 @@
+package com.tenpo.config;
+
+import com.tenpo.observability.ConnectionHoldTimeDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class ConnectionMetricsConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionHoldTimeDataSourcePostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionHoldTimeDataSource) {
+                    return bean;
+                }
+                return new ConnectionHoldTimeDataSource(dataSource, meterRegistry);
+            }
+        };
+    }
+}
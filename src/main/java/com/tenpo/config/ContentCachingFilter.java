@@ -1,9 +1,13 @@
 package com.tenpo.config;
 
+import com.tenpo.jfr.BodyCachingEvent;
+import com.tenpo.observability.LayerObservations;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -13,13 +17,40 @@ import java.io.IOException;
 @Component
 public class ContentCachingFilter extends OncePerRequestFilter {
 
+    // CSV imports can be large and are parsed as a stream; never copy them.
+    private static final String IMPORT_PATH_SUFFIX = "/import";
+    private static final String OPERATION = "ContentCachingFilter.cacheBody";
+
+    private final ObservationRegistry observationRegistry;
+
+    public ContentCachingFilter(ObjectProvider<ObservationRegistry> observationRegistry) {
+        // Web slice tests run without a registry.
+        this.observationRegistry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getRequestURI().endsWith(IMPORT_PATH_SUFFIX);
+    }
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain)
             throws ServletException, IOException {
 
-        CachedBodyHttpServletRequest cachedBodyHttpServletRequest = new CachedBodyHttpServletRequest(request);
+        BodyCachingEvent event = new BodyCachingEvent();
+        event.begin();
+        CachedBodyHttpServletRequest cachedBodyHttpServletRequest = LayerObservations
+                .create(observationRegistry, LayerObservations.FILTER, OPERATION)
+                .observeChecked(() -> new CachedBodyHttpServletRequest(request));
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = request.getMethod();
+            event.uri = request.getRequestURI();
+            event.bytes = cachedBodyHttpServletRequest.getCachedBodySize();
+            event.commit();
+        }
         filterChain.doFilter(cachedBodyHttpServletRequest, response);
     }
 }
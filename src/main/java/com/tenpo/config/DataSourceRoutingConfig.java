@@ -0,0 +1,91 @@
+package com.tenpo.config;
+
+import com.tenpo.datasource.DataSourceRoutingProperties;
+import com.tenpo.datasource.ReadReplicaRoutingDataSource;
+import com.tenpo.datasource.ReadYourWritesFilter;
+import com.tenpo.datasource.ReplicaLagMonitor;
+import com.tenpo.datasource.WriteTrackingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read/write splitting, enabled with {@code tenpo.datasource.routing.enabled}.
+ * The application DataSource becomes a {@link LazyConnectionDataSourceProxy}
+ * over the primary: Hibernate marks the connection of a
+ * {@code readOnly = true} transaction read-only before it runs any statement,
+ * so the proxy fetches it from the replica router instead. Read-only
+ * transactions that never run a statement fetch no connection at all.
+ *
+ * <p>Pools are built from {@code spring.datasource.url/username/password} and
+ * {@code tenpo.datasource.routing.replicas}; {@code spring.datasource.hikari.*}
+ * does not apply to them.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tenpo.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+public class DataSourceRoutingConfig implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceRoutingProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            DataSourceRoutingProperties.Replica replica = properties.getReplicas().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + i);
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername());
+            pool.setPassword(replica.getPassword());
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            // Start even when a replica is down; the lag probe keeps it out of rotation.
+            pool.setInitializationFailTimeout(-1);
+            pools.add(pool);
+            replicas.put(pool.getPoolName(), pool);
+        }
+        return new ReplicaLagMonitor(replicas, properties.getMaxLag(), properties.getLagCheckInterval(),
+                properties.getLagQuery());
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaLagMonitor replicaLagMonitor) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        pools.add(primary);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new WriteTrackingDataSource(primary));
+        dataSource.setReadOnlyDataSource(new ReadReplicaRoutingDataSource(replicaLagMonitor, primary));
+        return dataSource;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,39 @@
+package com.tenpo.config;
+
+import com.tenpo.datasource.FairSchedulingDataSource;
+import com.tenpo.datasource.FairSchedulingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-client fair queuing for database connections, on unless
+ * {@code tenpo.fair-scheduling.enabled} is false.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tenpo.fair-scheduling", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+@EnableConfigurationProperties(FairSchedulingProperties.class)
+public class FairSchedulingConfig {
+
+    @Bean
+    public static BeanPostProcessor fairSchedulingDataSourcePostProcessor(
+            ObjectProvider<FairSchedulingProperties> properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof FairSchedulingDataSource) {
+                    return bean;
+                }
+                return new FairSchedulingDataSource(dataSource, properties.getObject(), meterRegistry);
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.tenpo.config;
+
+import com.tenpo.jfr.FlightRecorderEndpoint;
+import com.tenpo.jfr.FlightRecorderProperties;
+import com.tenpo.jfr.FlightRecordings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Flight Recorder recordings and the {@code jfr} actuator endpoint, on unless
+ * {@code tenpo.jfr.enabled} is false. The endpoint still has to be exposed
+ * under {@code management.endpoints.web.exposure.include}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tenpo.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(FlightRecorderProperties.class)
+public class FlightRecorderConfig {
+
+    @Bean
+    public FlightRecordings flightRecordings(FlightRecorderProperties properties)
+            throws IOException, ParseException {
+        return new FlightRecordings(properties);
+    }
+
+    @Bean
+    public FlightRecorderEndpoint flightRecorderEndpoint(FlightRecordings flightRecordings) {
+        return new FlightRecorderEndpoint(flightRecordings);
+    }
+}
@@ -0,0 +1,45 @@
+package com.tenpo.config;
+
+import com.tenpo.heavyhitters.HeavyHitterEndpoint;
+import com.tenpo.heavyhitters.HeavyHitterProperties;
+import com.tenpo.heavyhitters.LoadTracker;
+import com.tenpo.heavyhitters.LoadTrackingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Top clients and endpoints by load and the {@code heavyhitters} actuator
+ * endpoint, on unless {@code tenpo.heavy-hitters.enabled} is false.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tenpo.heavy-hitters", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+@EnableConfigurationProperties(HeavyHitterProperties.class)
+public class HeavyHitterConfig {
+
+    // Behind admission control, so requests shed with 503 do not count as load.
+    private static final int FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 30;
+
+    @Bean
+    public LoadTracker loadTracker(HeavyHitterProperties properties, MeterRegistry meterRegistry) {
+        return new LoadTracker(properties, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<LoadTrackingFilter> loadTrackingFilter(LoadTracker loadTracker) {
+        FilterRegistrationBean<LoadTrackingFilter> registration =
+                new FilterRegistrationBean<>(new LoadTrackingFilter(loadTracker));
+        registration.setOrder(FILTER_ORDER);
+        return registration;
+    }
+
+    @Bean
+    public HeavyHitterEndpoint heavyHitterEndpoint(LoadTracker loadTracker) {
+        return new HeavyHitterEndpoint(loadTracker);
+    }
+}
@@ -0,0 +1,80 @@
+package com.tenpo.config;
+
+import com.tenpo.observability.LayerMethodInterceptor;
+import com.tenpo.observability.LayerObservationProperties;
+import com.tenpo.observability.LayerObservationSampler;
+import com.tenpo.observability.LayerObservations;
+import com.tenpo.observability.SpanFileHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.lang.NonNull;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Per-layer latency of sampled requests as {@value LayerObservations#NAME}.
+ * Filters, interceptors and JSON conversion are observed where they are set
+ * up; services and repositories through the advice declared here, which is
+ * left out when {@code tenpo.layer-observation.enabled} is false. Repository
+ * calls are observed inside the Spring Data proxy, so they are named after
+ * the repository interface rather than its implementation.
+ */
+@Configuration
+@EnableConfigurationProperties(LayerObservationProperties.class)
+public class LayerObservationConfig {
+
+    @Bean
+    public LayerObservationSampler layerObservationSampler(LayerObservationProperties properties) {
+        return new LayerObservationSampler(properties.isEnabled(), properties.getSampleRate());
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(prefix = "tenpo.layer-observation", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public static Advisor serviceLayerAdvisor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return LayerMethodInterceptor.serviceAdvisor(registryOf(observationRegistry));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tenpo.layer-observation", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public static BeanPostProcessor repositoryLayerPostProcessor(
+            ObjectProvider<ObservationRegistry> observationRegistry) {
+        Supplier<ObservationRegistry> registry = registryOf(observationRegistry);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(new LayerMethodInterceptor(
+                                    LayerObservations.REPOSITORY,
+                                    information.getRepositoryInterface().getSimpleName(), registry))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tenpo.layer-observation.span-file", name = "enabled", havingValue = "true")
+    public SpanFileHandler spanFileHandler(LayerObservationProperties properties) throws IOException {
+        return new SpanFileHandler(properties.getSpanFile().getPath());
+    }
+
+    // Looked up on first use: advice is created before the registry exists.
+    private static Supplier<ObservationRegistry> registryOf(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return SingletonSupplier.of(() -> observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+}
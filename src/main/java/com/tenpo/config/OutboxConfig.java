@@ -0,0 +1,37 @@
+package com.tenpo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.outbox.FileOutboxSink;
+import com.tenpo.outbox.InMemoryOutboxSink;
+import com.tenpo.outbox.OutboxSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The sink the outbox relay delivers to: {@code tenpo.outbox.sink=file}
+ * appends to {@code tenpo.outbox.file.path}; otherwise events are kept in
+ * memory. Any other {@link OutboxSink} bean takes precedence over both.
+ */
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    @ConditionalOnProperty(prefix = "tenpo.outbox", name = "sink", havingValue = "file")
+    public FileOutboxSink fileOutboxSink(@Value("${tenpo.outbox.file.path:outbox/events.jsonl}") Path path,
+            ObjectMapper objectMapper) throws IOException {
+        return new FileOutboxSink(path, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public InMemoryOutboxSink inMemoryOutboxSink(@Value("${tenpo.outbox.memory.capacity:10000}") int capacity) {
+        return new InMemoryOutboxSink(capacity);
+    }
+}
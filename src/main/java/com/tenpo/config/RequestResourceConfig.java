@@ -0,0 +1,34 @@
+package com.tenpo.config;
+
+import com.tenpo.observability.RequestResourceFilter;
+import com.tenpo.observability.RequestResourceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Per-request allocation and CPU accounting, on unless
+ * {@code tenpo.request-resources.enabled} is false.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tenpo.request-resources", name = "enabled", havingValue = "true",
+        matchIfMissing = true)
+@EnableConfigurationProperties(RequestResourceProperties.class)
+public class RequestResourceConfig {
+
+    // Right behind admission control: requests it rejects did no work worth measuring.
+    private static final int FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 20;
+
+    @Bean
+    public FilterRegistrationBean<RequestResourceFilter> requestResourceFilter(
+            RequestResourceProperties properties, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestResourceFilter> registration =
+                new FilterRegistrationBean<>(new RequestResourceFilter(properties, meterRegistry));
+        registration.setOrder(FILTER_ORDER);
+        return registration;
+    }
+}
@@ -0,0 +1,146 @@
+package com.tenpo.config;
+
+import com.tenpo.repository.ShardDirectoryRepository;
+import com.tenpo.sharding.ClientShardMover;
+import com.tenpo.sharding.JdbcShardOwners;
+import com.tenpo.sharding.ShardContext;
+import com.tenpo.sharding.ShardDirectory;
+import com.tenpo.sharding.ShardIdentityLayout;
+import com.tenpo.sharding.ShardMap;
+import com.tenpo.sharding.ShardRoutingDataSource;
+import com.tenpo.sharding.ShardRoutingInterceptor;
+import com.tenpo.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Horizontal sharding by client, enabled with {@code tenpo.sharding.enabled}.
+ * The application DataSource routes to the shard bound by
+ * {@link ShardRoutingInterceptor}, which services and repositories opt into
+ * with {@code @ShardKey} and {@code @ScatterGather}. Flyway migrates, and
+ * Hibernate's {@code create}/{@code create-drop} exports to, every shard.
+ *
+ * <p>Not combinable with {@code tenpo.datasource.routing}; pools are built
+ * from {@code tenpo.sharding.shards} only.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tenpo.sharding", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig implements DisposableBean {
+
+    private static final Set<String> SCHEMA_CREATING_DDL_AUTO = Set.of("create", "create-drop");
+
+    private final Map<Integer, HikariDataSource> shards = new LinkedHashMap<>();
+
+    public ShardingConfig(ShardingProperties properties,
+            @Value("${tenpo.datasource.routing.enabled:false}") boolean replicaRouting) {
+        if (replicaRouting) {
+            throw new IllegalStateException("tenpo.sharding and tenpo.datasource.routing cannot both be enabled");
+        }
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("tenpo.sharding.shards must list at least one shard");
+        }
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = properties.getShards().get(i);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + i);
+            pool.setJdbcUrl(shard.getUrl());
+            pool.setUsername(shard.getUsername());
+            pool.setPassword(shard.getPassword());
+            pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+            shards.put(i, pool);
+        }
+    }
+
+    @Bean
+    public ShardMap shardMap() {
+        return new ShardMap(shards.size(), new JdbcShardOwners(shards));
+    }
+
+    @Bean
+    public ShardRoutingInterceptor shardRoutingInterceptor(ShardMap shardMap, ShardingProperties properties) {
+        return new ShardRoutingInterceptor(shardMap, properties.getFanOutTimeout());
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor shardRoutingAdvisor(ObjectProvider<ShardRoutingInterceptor> shardRoutingInterceptor) {
+        return ShardRoutingInterceptor.advisor(shardRoutingInterceptor::getObject);
+    }
+
+    @Bean
+    public DataSource dataSource() {
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy() {
+        return flyway -> shards.values().forEach(shard -> Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .dataSource(shard)
+                .load()
+                .migrate());
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(ShardDirectoryRepository repository, ShardMap shardMap,
+            PlatformTransactionManager transactionManager, ShardingProperties properties) {
+        return new ShardDirectory(repository, shardMap, transactionManager, properties.getDirectoryRefresh());
+    }
+
+    @Bean
+    public ClientShardMover clientShardMover(ShardMap shardMap, ShardDirectory shardDirectory, DataSource dataSource,
+            PlatformTransactionManager transactionManager) {
+        return new ClientShardMover(shardMap, shardDirectory, dataSource, transactionManager);
+    }
+
+    /**
+     * Runs once Hibernate has bootstrapped against the default shard: brings
+     * the other shards' schema level with it when Hibernate creates the
+     * schema, interleaves the id columns, and loads the directory.
+     */
+    @Bean
+    public SmartInitializingSingleton shardInitializer(EntityManagerFactory entityManagerFactory,
+            HibernateProperties hibernateProperties, ShardDirectory shardDirectory) {
+        return () -> {
+            if (SCHEMA_CREATING_DDL_AUTO.contains(hibernateProperties.getDdlAuto())) {
+                SchemaManager schemaManager = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+                shards.keySet().stream()
+                        .filter(shard -> shard != ShardContext.DEFAULT_SHARD)
+                        .forEach(shard -> ShardContext.runOn(shard, () -> {
+                            schemaManager.dropMappedObjects(false);
+                            schemaManager.exportMappedObjects(false);
+                        }));
+            }
+            ShardIdentityLayout.apply(shards);
+            shardDirectory.start();
+        };
+    }
+
+    @Override
+    public void destroy() {
+        shards.values().forEach(HikariDataSource::close);
+    }
+}
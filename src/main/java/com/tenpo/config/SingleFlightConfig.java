@@ -0,0 +1,36 @@
+package com.tenpo.config;
+
+import com.tenpo.singleflight.SingleFlight;
+import com.tenpo.singleflight.SingleFlightInterceptor;
+import com.tenpo.singleflight.SingleFlightProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+
+/**
+ * Request coalescing for {@link SingleFlight} reads, on unless
+ * {@code tenpo.single-flight.enabled} is false.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tenpo.single-flight", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(SingleFlightProperties.class)
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlightInterceptor singleFlightInterceptor(SingleFlightProperties properties,
+            MeterRegistry meterRegistry) {
+        return new SingleFlightInterceptor(properties, meterRegistry);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor singleFlightAdvisor(ObjectProvider<SingleFlightInterceptor> singleFlightInterceptor) {
+        return SingleFlightInterceptor.advisor(singleFlightInterceptor::getObject);
+    }
+}
@@ -0,0 +1,40 @@
+package com.tenpo.config;
+
+import com.tenpo.observability.SqlLoggingListener;
+import com.tenpo.observability.SqlLoggingProperties;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(SqlLoggingProperties.class)
+public class SqlLoggingConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlLoggingDataSourcePostProcessor(
+            ObjectProvider<SqlLoggingProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                SqlLoggingProperties props = properties.getObject();
+                if (!props.isEnabled()) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new SqlLoggingListener(props))
+                        .build();
+            }
+        };
+    }
+}
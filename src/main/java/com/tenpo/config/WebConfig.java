@@ -1,28 +1,69 @@
 package com.tenpo.config;
 
+import com.tenpo.datasource.ReadYourWrites;
+import com.tenpo.interceptor.ClientMdcInterceptor;
+import com.tenpo.interceptor.EndpointMdcInterceptor;
+import com.tenpo.interceptor.ObservedHandlerInterceptor;
 import com.tenpo.interceptor.RateLimitInterceptor;
+import com.tenpo.observability.ObservedJackson2HttpMessageConverter;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.lang.NonNull;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 @RequiredArgsConstructor
 @SuppressWarnings("null")
 public class WebConfig implements WebMvcConfigurer {
 
+    private final EndpointMdcInterceptor endpointMdcInterceptor;
+    private final ClientMdcInterceptor clientMdcInterceptor;
     private final RateLimitInterceptor rateLimitInterceptor;
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
 
     @Override
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
-        registry.addInterceptor(rateLimitInterceptor)
-                .addPathPatterns("/transaction/**");
+        registry.addInterceptor(observed(endpointMdcInterceptor));
+        registry.addInterceptor(observed(clientMdcInterceptor));
+        registry.addInterceptor(observed(rateLimitInterceptor))
+                .excludePathPatterns("/actuator/**");
+    }
+
+    // Subclasses, such as the XML converter's, are left alone.
+    @Override
+    public void extendMessageConverters(@NonNull List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> converter.getClass() == MappingJackson2HttpMessageConverter.class
+                ? observed((MappingJackson2HttpMessageConverter) converter)
+                : converter);
+    }
+
+    private HandlerInterceptor observed(HandlerInterceptor interceptor) {
+        return new ObservedHandlerInterceptor(interceptor, observationRegistry());
+    }
+
+    private HttpMessageConverter<?> observed(MappingJackson2HttpMessageConverter converter) {
+        ObservedJackson2HttpMessageConverter observed =
+                new ObservedJackson2HttpMessageConverter(converter.getObjectMapper(), observationRegistry());
+        observed.setSupportedMediaTypes(converter.getSupportedMediaTypes());
+        return observed;
+    }
+
+    // Web slice tests run without a registry.
+    private ObservationRegistry observationRegistry() {
+        return observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
     }
 
     @Bean
@@ -33,6 +74,7 @@ public class WebConfig implements WebMvcConfigurer {
         config.addAllowedOrigin("http://localhost:5173");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        config.addExposedHeader(ReadYourWrites.HEADER);
         source.registerCorsConfiguration("/**", config);
         return new CorsFilter(source);
     }
@@ -0,0 +1,44 @@
+package com.tenpo.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "tenpo.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    /**
+     * Sends read-only transactions to the replicas. When disabled the single
+     * {@code spring.datasource} pool serves everything.
+     */
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Replicas lagging further behind than this are skipped.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+
+    /**
+     * Run on each replica; returns its replication lag in milliseconds. The
+     * default reports zero once everything received has been replayed, so an
+     * idle primary does not make its replicas look stale.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS BIGINT) END";
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,151 @@
+package com.tenpo.datasource;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed number of permits shared by tenants with deficit round robin. While
+ * permits are free they are handed out at once; once they run out, callers
+ * wait in a queue of their own tenant, and each freed permit goes to the
+ * tenant whose turn it is. A tenant's turn lasts for {@code weight} grants,
+ * or until its queue empties, so under contention every waiting tenant gets
+ * permits in proportion to its weight however many callers it queues.
+ * Every request costs one unit, which makes this weighted round robin over
+ * the waiting tenants.
+ */
+public class FairScheduler {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, TenantQueue> queues = new HashMap<>();
+    private final ArrayDeque<TenantQueue> turns = new ArrayDeque<>();
+    private int available;
+
+    public FairScheduler(int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be at least 1");
+        }
+        this.available = permits;
+    }
+
+    /**
+     * Waits for a permit for at most {@code timeoutNanos}.
+     *
+     * @return false when no permit was granted in time; the caller then holds
+     *         nothing and must not call {@link #release()}
+     */
+    public boolean acquire(String tenant, int weight, long timeoutNanos) throws InterruptedException {
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (available > 0 && turns.isEmpty()) {
+                available--;
+                return true;
+            }
+            TenantQueue queue = queues.computeIfAbsent(tenant, TenantQueue::new);
+            queue.weight = weight;
+            waiter = new Waiter();
+            queue.waiters.add(waiter);
+            if (queue.waiters.size() == 1) {
+                turns.addLast(queue);
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (waiter.latch.await(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException ex) {
+            if (withdraw(tenant, waiter)) {
+                release();
+            }
+            throw ex;
+        }
+        return withdraw(tenant, waiter);
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            Waiter next = next();
+            if (next == null) {
+                available++;
+            } else {
+                next.granted = true;
+                next.latch.countDown();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        lock.lock();
+        try {
+            return queues.values().stream().mapToInt(queue -> queue.waiters.size()).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // true when the permit was granted just as the wait ended
+    private boolean withdraw(String tenant, Waiter waiter) {
+        lock.lock();
+        try {
+            if (waiter.granted) {
+                return true;
+            }
+            TenantQueue queue = queues.get(tenant);
+            queue.waiters.remove(waiter);
+            if (queue.waiters.isEmpty()) {
+                endTurn(queue);
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Waiter next() {
+        TenantQueue queue = turns.peekFirst();
+        if (queue == null) {
+            return null;
+        }
+        if (queue.credits == 0) {
+            queue.credits = queue.weight;
+        }
+        Waiter waiter = queue.waiters.pollFirst();
+        queue.credits--;
+        if (queue.waiters.isEmpty()) {
+            endTurn(queue);
+        } else if (queue.credits == 0) {
+            turns.addLast(turns.pollFirst());
+        }
+        return waiter;
+    }
+
+    private void endTurn(TenantQueue queue) {
+        turns.remove(queue);
+        queues.remove(queue.tenant);
+    }
+
+    private static final class TenantQueue {
+        private final String tenant;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private int weight;
+        private int credits;
+
+        private TenantQueue(String tenant) {
+            this.tenant = tenant;
+        }
+    }
+
+    private static final class Waiter {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private boolean granted;
+    }
+}
@@ -0,0 +1,171 @@
+package com.tenpo.datasource;
+
+import com.tenpo.interceptor.ClientMdcInterceptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out connections through a {@link FairScheduler} keyed by the client in
+ * the MDC, so a client flooding the service with imports or exports takes
+ * its weighted share of the pool instead of all of it. Connections are
+ * scheduled rather than requests: long operations that commit in chunks give
+ * their connection back between chunks and queue again for the next one.
+ *
+ * <p>A thread that already holds a connection is not queued again. A request
+ * still waiting after {@code max-wait} goes on to the pool without a permit.
+ */
+public class FairSchedulingDataSource extends DelegatingDataSource {
+
+    public static final String QUEUE_TIME_METRIC = "tenpo.fair.queue.time";
+    public static final String TIMEOUTS_METRIC = "tenpo.fair.queue.timeouts";
+
+    private static final String NO_CLIENT = "none";
+    private static final String OTHER_CLIENTS = "other";
+
+    private final FairScheduler scheduler;
+    private final FairSchedulingProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final long maxWaitNanos;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> holding = new ThreadLocal<>();
+
+    public FairSchedulingDataSource(DataSource targetDataSource, FairSchedulingProperties properties,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        super(targetDataSource);
+        properties.weightOf(properties.getDefaultTier());
+        properties.getClients().values().forEach(properties::weightOf);
+        this.scheduler = new FairScheduler(properties.getPermits());
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.maxWaitNanos = properties.getMaxWait().toNanos();
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        if (holding.get() != null) {
+            return obtainTargetDataSource().getConnection();
+        }
+        boolean permit = acquire();
+        try {
+            return scheduled(obtainTargetDataSource().getConnection(), permit);
+        } catch (SQLException | RuntimeException ex) {
+            if (permit) {
+                scheduler.release();
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+        return obtainTargetDataSource().getConnection(username, password);
+    }
+
+    private boolean acquire() throws SQLException {
+        String client = MDC.get(ClientMdcInterceptor.CLIENT_MDC_KEY);
+        String tier = tierOf(client);
+        Meters tenant = meters.computeIfAbsent(metricClient(client) + "/" + tier,
+                key -> register(metricClient(client), tier));
+        long start = System.nanoTime();
+        try {
+            boolean permit = scheduler.acquire(client != null ? client : NO_CLIENT, properties.weightOf(tier),
+                    maxWaitNanos);
+            tenant.queueTime().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!permit) {
+                tenant.timeouts().increment();
+            }
+            return permit;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while queued for a connection", ex);
+        }
+    }
+
+    private String tierOf(String client) {
+        if (client == null) {
+            return properties.getDefaultTier();
+        }
+        try {
+            return properties.getClients().getOrDefault(Integer.valueOf(client), properties.getDefaultTier());
+        } catch (NumberFormatException ex) {
+            return properties.getDefaultTier();
+        }
+    }
+
+    // Only configured clients get their own series; the id space is unbounded.
+    private String metricClient(String client) {
+        if (client == null) {
+            return NO_CLIENT;
+        }
+        try {
+            return properties.getClients().containsKey(Integer.valueOf(client)) ? client : OTHER_CLIENTS;
+        } catch (NumberFormatException ex) {
+            return OTHER_CLIENTS;
+        }
+    }
+
+    private Connection scheduled(Connection connection, boolean permit) {
+        holding.set(Boolean.TRUE);
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                holding.remove();
+                                if (permit) {
+                                    scheduler.release();
+                                }
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                });
+    }
+
+    private Meters register(String client, String tier) {
+        return new Meters(
+                Timer.builder(QUEUE_TIME_METRIC)
+                        .description("Time spent queued for a database connection, per client")
+                        .tag("client", client)
+                        .tag("tier", tier)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry.getObject()),
+                Counter.builder(TIMEOUTS_METRIC)
+                        .description("Connection requests sent to the pool after max-wait without a permit")
+                        .tag("client", client)
+                        .tag("tier", tier)
+                        .register(meterRegistry.getObject()));
+    }
+
+    private record Meters(Timer queueTime, Counter timeouts) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.tenpo.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "tenpo.fair-scheduling")
+public class FairSchedulingProperties {
+
+    /**
+     * Queues connection requests per client once {@link #permits} are in
+     * use. When disabled connections are handed out by the pool, first come
+     * first served.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Connections handed out at once; match the pool size, or the sum of
+     * the shard pools when sharding.
+     */
+    private int permits = 10;
+
+    /**
+     * How long a request waits in its client's queue before it is sent on to
+     * the pool anyway. Bounds the wait of a thread that already holds a
+     * connection on another thread, which could otherwise wait on itself.
+     */
+    private Duration maxWait = Duration.ofSeconds(5);
+
+    /**
+     * Tier of clients not listed in {@link #clients}, and of work not tied to
+     * a client.
+     */
+    private String defaultTier = "standard";
+
+    /**
+     * Weight per tier: a tier with weight 4 gets four connections for every
+     * one of a tier with weight 1 while both are waiting.
+     */
+    private Map<String, Integer> tiers = new LinkedHashMap<>(Map.of("standard", 1));
+
+    /**
+     * Tier per client id. Listed clients also get their own queue-time
+     * metrics; the rest are reported together.
+     */
+    private Map<Integer, String> clients = new LinkedHashMap<>();
+
+    public int weightOf(String tier) {
+        Integer weight = tiers.get(tier);
+        if (weight == null) {
+            throw new IllegalStateException("tenpo.fair-scheduling.tiers has no tier " + tier);
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,32 @@
+package com.tenpo.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection source for read-only transactions: a replica chosen by the
+ * {@link ReplicaLagMonitor}, or the primary when no replica is fresh enough.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor monitor;
+
+    public ReadReplicaRoutingDataSource(ReplicaLagMonitor monitor, DataSource primary) {
+        this.monitor = monitor;
+        Map<Object, Object> targets = new HashMap<>(monitor.dataSources());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return monitor.select(ReadYourWrites.readAfterMillis()).orElse(PRIMARY);
+    }
+}
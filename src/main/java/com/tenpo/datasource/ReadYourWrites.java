@@ -0,0 +1,100 @@
+package com.tenpo.datasource;
+
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Per-request read-your-writes state. The client echoes the time of its last
+ * write in {@link #HEADER}; read-only transactions of that request then only
+ * use a replica known to have replayed up to that time. Requests that write
+ * get the header back with the commit time.
+ */
+public final class ReadYourWrites {
+
+    public static final String HEADER = "X-Last-Write-At";
+
+    private static final ThreadLocal<Session> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    static void open(long readAfterMillis, LongConsumer onWrite) {
+        CURRENT.set(new Session(readAfterMillis, onWrite));
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the time replicas must have caught up to, or 0 when any replica
+     *         within the lag limit will do
+     */
+    public static long readAfterMillis() {
+        Session session = CURRENT.get();
+        return session != null ? session.readAfterMillis : 0;
+    }
+
+    /**
+     * Carries this thread's session to a task the request hands to another
+     * thread, so the task's reads honour the same {@link #HEADER}.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        Session session = CURRENT.get();
+        if (session == null) {
+            return task;
+        }
+        return () -> {
+            Session previous = CURRENT.get();
+            CURRENT.set(session);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Runs the task with read-only transactions on the primary, for reads a
+     * lagging replica must not answer. Only transactions that fetch their
+     * connection inside the task are affected.
+     */
+    public static <T> T onPrimary(Supplier<T> task) {
+        Session previous = CURRENT.get();
+        // No replica has replayed up to the end of time.
+        CURRENT.set(new Session(Long.MAX_VALUE, committedAtMillis -> {
+        }));
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    static void recordWrite(long committedAtMillis) {
+        Session session = CURRENT.get();
+        if (session != null) {
+            session.readAfterMillis = Math.max(session.readAfterMillis, committedAtMillis);
+            session.onWrite.accept(committedAtMillis);
+        }
+    }
+
+    private static final class Session {
+        private long readAfterMillis;
+        private final LongConsumer onWrite;
+
+        private Session(long readAfterMillis, LongConsumer onWrite) {
+            this.readAfterMillis = readAfterMillis;
+            this.onWrite = onWrite;
+        }
+    }
+}
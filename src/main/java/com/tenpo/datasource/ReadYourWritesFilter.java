@@ -0,0 +1,47 @@
+package com.tenpo.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opens the {@link ReadYourWrites} session of a request from its
+ * {@value ReadYourWrites#HEADER} header and writes the header back when the
+ * request commits a write.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadYourWrites.open(parse(request.getHeader(ReadYourWrites.HEADER)), committedAt -> {
+            if (!response.isCommitted()) {
+                response.setHeader(ReadYourWrites.HEADER, Long.toString(committedAt));
+            }
+        });
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.close();
+        }
+    }
+
+    // A malformed value only costs the guarantee, never the request.
+    private static long parse(String header) {
+        if (header == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+}
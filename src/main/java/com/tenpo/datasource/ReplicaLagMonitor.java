@@ -0,0 +1,131 @@
+package com.tenpo.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Probes every replica's replication lag on a fixed interval and picks a
+ * replica for each read-only transaction. A replica qualifies when its last
+ * probe succeeded, its lag is within {@code maxLag}, and it had replayed up to
+ * the caller's read-your-writes time when probed. Qualifying replicas are used
+ * round-robin; when none qualifies the caller falls back to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private final Map<String, Replica> replicas = new LinkedHashMap<>();
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final LongSupplier clock;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicaDataSources, Duration maxLag, Duration checkInterval,
+            String lagQuery) {
+        this(replicaDataSources, maxLag, lagQuery, System::currentTimeMillis);
+        scheduler.scheduleWithFixedDelay(this::refresh, checkInterval.toMillis(), checkInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    ReplicaLagMonitor(Map<String, DataSource> replicaDataSources, Duration maxLag, String lagQuery,
+            LongSupplier clock) {
+        replicaDataSources.forEach((name, dataSource) -> replicas.put(name, new Replica(name, dataSource)));
+        this.maxLagMillis = maxLag.toMillis();
+        this.lagQuery = lagQuery;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-lag-monitor").daemon().factory());
+        refresh();
+    }
+
+    public Map<String, DataSource> dataSources() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        replicas.forEach((name, replica) -> dataSources.put(name, replica.dataSource));
+        return Collections.unmodifiableMap(dataSources);
+    }
+
+    /**
+     * Probes all replicas now. Also runs on the monitor's own schedule.
+     */
+    public void refresh() {
+        replicas.values().forEach(Replica::probe);
+    }
+
+    /**
+     * @param readAfterMillis the time the replica must have replayed up to, or
+     *                        0 for none
+     * @return the replica to read from, or empty to use the primary
+     */
+    public Optional<String> select(long readAfterMillis) {
+        List<Replica> eligible = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas.values()) {
+            if (replica.isEligible(readAfterMillis)) {
+                eligible.add(replica);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(eligible.get(Math.floorMod(next.getAndIncrement(), eligible.size())).name);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile long lagMillis = Long.MAX_VALUE;
+        // Point in time this replica had replayed up to when last probed; -1 when the probe failed.
+        private volatile long caughtUpToMillis = -1;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.jdbcTemplate.setQueryTimeout(1);
+        }
+
+        void probe() {
+            long probedAt = clock.getAsLong();
+            try {
+                Long lag = jdbcTemplate.queryForObject(lagQuery, Long.class);
+                long measured = lag != null ? Math.max(0, lag) : Long.MAX_VALUE;
+                if (caughtUpToMillis < 0) {
+                    log.info("Replica {} is reachable, lag {} ms", name, measured);
+                }
+                lagMillis = measured;
+                caughtUpToMillis = measured == Long.MAX_VALUE ? -1 : probedAt - measured;
+            } catch (RuntimeException ex) {
+                if (caughtUpToMillis >= 0) {
+                    log.warn("Replica {} failed its lag probe, routing its reads to the primary", name, ex);
+                }
+                lagMillis = Long.MAX_VALUE;
+                caughtUpToMillis = -1;
+            }
+        }
+
+        boolean isEligible(long readAfterMillis) {
+            long caughtUpTo = caughtUpToMillis;
+            return caughtUpTo >= 0 && lagMillis <= maxLagMillis && caughtUpTo >= readAfterMillis;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.tenpo.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The primary as seen by read-write transactions. Behind a
+ * {@code LazyConnectionDataSourceProxy} a connection is only fetched here
+ * once a read-write transaction runs a statement, which is treated as a
+ * write: its commit time is reported to {@link ReadYourWrites}.
+ */
+public class WriteTrackingDataSource extends DelegatingDataSource {
+
+    public WriteTrackingDataSource(DataSource primary) {
+        super(primary);
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        Connection connection = obtainTargetDataSource().getConnection();
+        trackWrite();
+        return connection;
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        trackWrite();
+        return connection;
+    }
+
+    private static void trackWrite() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ReadYourWrites.recordWrite(System.currentTimeMillis());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReadYourWrites.recordWrite(System.currentTimeMillis());
+            }
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package com.tenpo.exception;
+
+/**
+ * The request is well formed but breaks a business rule, or refers in its body
+ * to a resource that does not exist.
+ */
+public class BusinessRuleException extends DomainException {
+
+    public static final BusinessRuleException CLIENT_NOT_FOUND = new BusinessRuleException("Client not found");
+    public static final BusinessRuleException EMPLOYEE_NOT_FOUND = new BusinessRuleException("Employee not found");
+    public static final BusinessRuleException EMPLOYEE_NOT_IN_CLIENT =
+            new BusinessRuleException("Employee does not belong to the client");
+    public static final BusinessRuleException TRANSACTION_LIMIT_REACHED =
+            new BusinessRuleException("Client has reached the maximum of 100 transactions");
+
+    public BusinessRuleException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.tenpo.exception;
+
+/**
+ * Base of the failures the services report on purpose. They describe a request
+ * that cannot be served, not a bug, so they carry no stack trace and no
+ * suppressed exceptions: creating one costs an allocation, not a stack walk.
+ * The immutable instances can therefore be shared, and the most frequent
+ * subclasses keep preallocated constants.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,12 @@
+package com.tenpo.exception;
+
+/**
+ * A create or update would break a uniqueness rule, detected before the write
+ * reaches the database.
+ */
+public class DuplicateResourceException extends DomainException {
+
+    public DuplicateResourceException(String message) {
+        super(message);
+    }
+}
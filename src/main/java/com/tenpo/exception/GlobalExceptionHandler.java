@@ -1,11 +1,15 @@
 package com.tenpo.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.net.URI;
 import java.util.stream.Collectors;
 
 @RestControllerAdvice
@@ -14,11 +18,38 @@ public class GlobalExceptionHandler {
 
     private static final String ERRORS_URI_BASE = "https://tenpo.com/errors/";
 
+    // Parsed once here rather than on every error response.
+    private static final URI BUSINESS_LOGIC_TYPE = URI.create(ERRORS_URI_BASE + "business-logic");
+    private static final URI NOT_FOUND_TYPE = URI.create(ERRORS_URI_BASE + "not-found");
+    private static final URI INTEGRITY_TYPE = URI.create(ERRORS_URI_BASE + "integrity");
+    private static final URI PRECONDITION_FAILED_TYPE = URI.create(ERRORS_URI_BASE + "precondition-failed");
+    private static final URI CONCURRENT_MODIFICATION_TYPE = URI.create(ERRORS_URI_BASE + "concurrent-modification");
+    private static final URI TIMEOUT_TYPE = URI.create(ERRORS_URI_BASE + "timeout");
+    private static final URI VALIDATION_TYPE = URI.create(ERRORS_URI_BASE + "validation");
+    private static final URI SERVER_ERROR_TYPE = URI.create(ERRORS_URI_BASE + "server-error");
+
     @ExceptionHandler(RuntimeException.class)
     public ProblemDetail handleRuntimeException(RuntimeException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
         problemDetail.setTitle("Business Logic Error");
-        problemDetail.setType(java.net.URI.create(ERRORS_URI_BASE + "business-logic"));
+        problemDetail.setType(BUSINESS_LOGIC_TYPE);
+        return problemDetail;
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ProblemDetail handleResourceNotFoundException(ResourceNotFoundException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+        problemDetail.setTitle("Resource Not Found");
+        problemDetail.setType(NOT_FOUND_TYPE);
+        return problemDetail;
+    }
+
+    @ExceptionHandler(BusinessRuleException.class)
+    public ProblemDetail handleBusinessRuleException(BusinessRuleException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY,
+                ex.getMessage());
+        problemDetail.setTitle("Business Logic Error");
+        problemDetail.setType(BUSINESS_LOGIC_TYPE);
         return problemDetail;
     }
 
@@ -31,7 +62,49 @@ public class GlobalExceptionHandler {
         }
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, message);
         problemDetail.setTitle("Integrity Error");
-        problemDetail.setType(java.net.URI.create(ERRORS_URI_BASE + "integrity"));
+        problemDetail.setType(INTEGRITY_TYPE);
+        return problemDetail;
+    }
+
+    @ExceptionHandler(DuplicateResourceException.class)
+    public ProblemDetail handleDuplicateResourceException(DuplicateResourceException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
+        problemDetail.setTitle("Integrity Error");
+        problemDetail.setType(INTEGRITY_TYPE);
+        return problemDetail;
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ProblemDetail handlePreconditionFailedException(PreconditionFailedException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+        problemDetail.setTitle("Precondition Failed");
+        problemDetail.setType(PRECONDITION_FAILED_TYPE);
+        return problemDetail;
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ProblemDetail handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "The resource was modified concurrently, reload it and retry");
+        problemDetail.setTitle("Concurrent Modification");
+        problemDetail.setType(CONCURRENT_MODIFICATION_TYPE);
+        return problemDetail;
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ProblemDetail handleQueryTimeoutException(QueryTimeoutException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage());
+        problemDetail.setTitle("Timeout");
+        problemDetail.setType(TIMEOUT_TYPE);
+        return problemDetail;
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ProblemDetail handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                "Malformed request body");
+        problemDetail.setTitle("Validation Error");
+        problemDetail.setType(VALIDATION_TYPE);
         return problemDetail;
     }
 
@@ -43,7 +116,7 @@ public class GlobalExceptionHandler {
 
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, detail);
         problemDetail.setTitle("Validation Error");
-        problemDetail.setType(java.net.URI.create(ERRORS_URI_BASE + "validation"));
+        problemDetail.setType(VALIDATION_TYPE);
         return problemDetail;
     }
 
@@ -52,7 +125,7 @@ public class GlobalExceptionHandler {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR,
                 "An unexpected error occurred");
         problemDetail.setTitle("Server Error");
-        problemDetail.setType(java.net.URI.create(ERRORS_URI_BASE + "server-error"));
+        problemDetail.setType(SERVER_ERROR_TYPE);
         return problemDetail;
     }
 }
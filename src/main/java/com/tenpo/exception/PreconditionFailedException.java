@@ -0,0 +1,12 @@
+package com.tenpo.exception;
+
+/**
+ * The {@code If-Match} version sent by the client no longer matches the stored
+ * version: somebody else updated the resource in between.
+ */
+public class PreconditionFailedException extends DomainException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.tenpo.exception;
+
+/**
+ * The resource addressed by the request URI does not exist.
+ */
+public class ResourceNotFoundException extends DomainException {
+
+    public static final ResourceNotFoundException CLIENT = new ResourceNotFoundException("Client not found");
+    public static final ResourceNotFoundException EMPLOYEE = new ResourceNotFoundException("Employee not found");
+    public static final ResourceNotFoundException TRANSACTION =
+            new ResourceNotFoundException("Transaction not found");
+
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.tenpo.heavyhitters;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * {@code /actuator/heavyhitters}: the top clients and endpoints by requests,
+ * database time and bytes returned, in the current window so far and in the
+ * last complete one.
+ */
+@Endpoint(id = "heavyhitters")
+public class HeavyHitterEndpoint {
+
+    private final LoadTracker tracker;
+
+    public HeavyHitterEndpoint(LoadTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @ReadOperation
+    public LoadTracker.Report heavyHitters() {
+        return tracker.report();
+    }
+}
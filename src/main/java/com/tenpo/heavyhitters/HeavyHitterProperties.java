@@ -0,0 +1,41 @@
+package com.tenpo.heavyhitters;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "tenpo.heavy-hitters")
+public class HeavyHitterProperties {
+
+    /**
+     * Installs the filter and the {@code heavyhitters} endpoint.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Length of a window. Counts start from zero in every window.
+     */
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * Clients and endpoints listed per measure by the endpoint.
+     */
+    private int top = 20;
+
+    /**
+     * Clients and endpoints published as gauges per measure, at most
+     * {@link #top}.
+     */
+    private int gauges = 5;
+
+    /**
+     * Largest overestimate, as a fraction of a window's total, that
+     * estimates exceed the true sum by with probability {@link #confidence}.
+     * Each sketch takes about {@code 22 / error} bytes per row.
+     */
+    private double error = 0.002;
+
+    private double confidence = 0.99;
+}
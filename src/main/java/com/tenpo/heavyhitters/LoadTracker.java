@@ -0,0 +1,179 @@
+package com.tenpo.heavyhitters;
+
+import com.tenpo.util.TopKSketch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * The clients and endpoints that put the most load on the service, per
+ * window: requests, database time and bytes returned, each kept in a
+ * {@link TopKSketch}. Memory is fixed however many clients call, and a
+ * request costs a few lock-free sketch updates.
+ *
+ * <p>When a window ends its top {@code gauges} entries are published as the
+ * {@value #GAUGE_METRIC} gauge, tagged by {@code dimension}, {@code measure},
+ * {@code rank} and {@code key}, so at most that many client series exist at
+ * a time. Windows start on the first request after the previous one ends.
+ */
+public class LoadTracker {
+
+    public static final String GAUGE_METRIC = "tenpo.heavy.hitters";
+
+    public enum Dimension {
+        CLIENTS, ENDPOINTS
+    }
+
+    public enum Measure {
+        REQUESTS, DATABASE_MICROS, BYTES
+    }
+
+    private final HeavyHitterProperties properties;
+    private final long windowMillis;
+    private final LongSupplier clock;
+    private final AtomicReference<Window> current;
+    private final MultiGauge[][] gauges = new MultiGauge[Dimension.values().length][Measure.values().length];
+    private volatile Window previous;
+
+    public LoadTracker(HeavyHitterProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    LoadTracker(HeavyHitterProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        if (properties.getWindow().toMillis() < 1 || properties.getGauges() > properties.getTop()) {
+            throw new IllegalArgumentException("The window must be positive and gauges at most top");
+        }
+        this.properties = properties;
+        this.windowMillis = properties.getWindow().toMillis();
+        this.clock = clock;
+        this.current = new AtomicReference<>(newWindow(clock.getAsLong()));
+        for (Dimension dimension : Dimension.values()) {
+            for (Measure measure : Measure.values()) {
+                gauges[dimension.ordinal()][measure.ordinal()] = MultiGauge.builder(GAUGE_METRIC)
+                        .description("Largest clients and endpoints of the last window, by rank")
+                        .tag("dimension", name(dimension))
+                        .tag("measure", name(measure))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Counts one request.
+     *
+     * @param client the client it acted for, or null when it named none
+     */
+    public void record(@Nullable String client, String endpoint, long databaseNanos, long bytes) {
+        Window window = window(clock.getAsLong());
+        long databaseMicros = databaseNanos / 1_000;
+        if (client != null) {
+            window.add(Dimension.CLIENTS, client, databaseMicros, bytes);
+        }
+        window.add(Dimension.ENDPOINTS, endpoint, databaseMicros, bytes);
+    }
+
+    public Report report() {
+        Window window = window(clock.getAsLong());
+        Window last = previous;
+        return new Report(properties.getWindow(), window.report(), last != null ? last.report() : null);
+    }
+
+    private Window window(long now) {
+        Window window = current.get();
+        if (now < window.end) {
+            return window;
+        }
+        Window next = newWindow(now);
+        if (current.compareAndSet(window, next)) {
+            // An idle gap leaves nothing to compare the new window with.
+            previous = window.end == next.start ? window : null;
+            publish(previous);
+        }
+        return current.get();
+    }
+
+    private Window newWindow(long now) {
+        return new Window(now - now % windowMillis, now - now % windowMillis + windowMillis);
+    }
+
+    private void publish(@Nullable Window window) {
+        for (Dimension dimension : Dimension.values()) {
+            for (Measure measure : Measure.values()) {
+                List<MultiGauge.Row<?>> rows = new ArrayList<>();
+                if (window != null) {
+                    List<TopKSketch.Entry> top = window.top(dimension, measure);
+                    for (int rank = 0; rank < Math.min(properties.getGauges(), top.size()); rank++) {
+                        rows.add(MultiGauge.Row.of(Tags.of("rank", Integer.toString(rank + 1),
+                                "key", top.get(rank).key()), top.get(rank).estimate()));
+                    }
+                }
+                gauges[dimension.ordinal()][measure.ordinal()].register(rows, true);
+            }
+        }
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase();
+    }
+
+    private final class Window {
+
+        private final long start;
+        private final long end;
+        private final TopKSketch[][] sketches = new TopKSketch[Dimension.values().length][Measure.values().length];
+
+        private Window(long start, long end) {
+            this.start = start;
+            this.end = end;
+            for (TopKSketch[] measures : sketches) {
+                for (int i = 0; i < measures.length; i++) {
+                    measures[i] = new TopKSketch(properties.getTop(), properties.getError(),
+                            properties.getConfidence());
+                }
+            }
+        }
+
+        private void add(Dimension dimension, String key, long databaseMicros, long bytes) {
+            TopKSketch[] measures = sketches[dimension.ordinal()];
+            measures[Measure.REQUESTS.ordinal()].add(key, 1);
+            if (databaseMicros > 0) {
+                measures[Measure.DATABASE_MICROS.ordinal()].add(key, databaseMicros);
+            }
+            if (bytes > 0) {
+                measures[Measure.BYTES.ordinal()].add(key, bytes);
+            }
+        }
+
+        private List<TopKSketch.Entry> top(Dimension dimension, Measure measure) {
+            return sketches[dimension.ordinal()][measure.ordinal()].top();
+        }
+
+        private WindowReport report() {
+            Map<String, Map<String, List<TopKSketch.Entry>>> top = new LinkedHashMap<>();
+            for (Dimension dimension : Dimension.values()) {
+                Map<String, List<TopKSketch.Entry>> measures = new LinkedHashMap<>();
+                for (Measure measure : Measure.values()) {
+                    measures.put(name(measure), top(dimension, measure));
+                }
+                top.put(name(dimension), measures);
+            }
+            return new WindowReport(Instant.ofEpochMilli(start), Instant.ofEpochMilli(end), top);
+        }
+    }
+
+    public record Report(Duration window, WindowReport current, @Nullable WindowReport previous) {
+    }
+
+    public record WindowReport(Instant start, Instant end, Map<String, Map<String, List<TopKSketch.Entry>>> top) {
+    }
+}
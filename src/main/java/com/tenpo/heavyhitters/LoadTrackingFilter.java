@@ -0,0 +1,155 @@
+package com.tenpo.heavyhitters;
+
+import com.tenpo.interceptor.ClientMdcInterceptor;
+import com.tenpo.interceptor.EndpointMdcInterceptor;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feeds every request into the {@link LoadTracker}: the client it acted for,
+ * its endpoint, the time it held database connections and the bytes of its
+ * response body. Characters written through the response's writer are
+ * counted as bytes. A stream counts what it wrote while being opened, and
+ * connections used on other threads, such as by the overview fan-out, are
+ * not charged to the request. Actuator requests are not tracked.
+ */
+public class LoadTrackingFilter extends OncePerRequestFilter {
+
+    private static final String ACTUATOR_PATH = "/actuator";
+
+    private final LoadTracker tracker;
+
+    public LoadTrackingFilter(LoadTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getRequestURI().startsWith(ACTUATOR_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        RequestLoad load = RequestLoad.begin();
+        CountingResponse counting = new CountingResponse(response);
+        try {
+            filterChain.doFilter(request, counting);
+        } finally {
+            long databaseNanos = load.end();
+            Object client = request.getAttribute(ClientMdcInterceptor.CLIENT_ATTRIBUTE);
+            tracker.record(client != null ? client.toString() : null, EndpointMdcInterceptor.endpointOf(request),
+                    databaseNanos, counting.bytes.get());
+        }
+    }
+
+    // Streams may be written from other threads once the request goes asynchronous.
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        private final AtomicLong bytes = new AtomicLong();
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        private CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new CountingOutputStream(super.getOutputStream(), bytes);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public synchronized PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new CountingWriter(super.getWriter(), bytes);
+            }
+            return writer;
+        }
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final AtomicLong bytes;
+
+        private CountingOutputStream(ServletOutputStream delegate, AtomicLong bytes) {
+            this.delegate = delegate;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            bytes.incrementAndGet();
+        }
+
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            bytes.addAndGet(len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private static final class CountingWriter extends PrintWriter {
+
+        private final AtomicLong bytes;
+
+        private CountingWriter(PrintWriter delegate, AtomicLong bytes) {
+            super(delegate);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int c) {
+            super.write(c);
+            bytes.incrementAndGet();
+        }
+
+        @Override
+        public void write(@NonNull char[] buf, int off, int len) {
+            super.write(buf, off, len);
+            bytes.addAndGet(len);
+        }
+
+        @Override
+        public void write(@NonNull String s, int off, int len) {
+            super.write(s, off, len);
+            bytes.addAndGet(len);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.tenpo.heavyhitters;
+
+/**
+ * Database time used by the request on the current thread, added up by the
+ * connection wrapper as connections are given back.
+ */
+public final class RequestLoad {
+
+    private static final ThreadLocal<RequestLoad> CURRENT = new ThreadLocal<>();
+
+    private long databaseNanos;
+
+    private RequestLoad() {
+    }
+
+    static RequestLoad begin() {
+        RequestLoad load = new RequestLoad();
+        CURRENT.set(load);
+        return load;
+    }
+
+    /**
+     * Charges a connection held for {@code nanos} to the current request, if
+     * this thread is serving one.
+     */
+    public static void addDatabaseTime(long nanos) {
+        RequestLoad load = CURRENT.get();
+        if (load != null) {
+            load.databaseNanos += nanos;
+        }
+    }
+
+    long end() {
+        CURRENT.remove();
+        return databaseNanos;
+    }
+}
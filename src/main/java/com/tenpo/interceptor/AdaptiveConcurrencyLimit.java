@@ -0,0 +1,109 @@
+package com.tenpo.interceptor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * How many requests of one kind may be in flight at once, adjusted from their
+ * round-trip times (the gradient algorithm of Netflix's concurrency-limits).
+ *
+ * <p>Two moving averages of the RTT are kept: a long one, standing for the RTT
+ * when nothing queues, and a short one for the current RTT. While the short
+ * one stays within {@code tolerance} times the long one the limit grows by
+ * about its square root per sample, but only if the limit is actually being
+ * used; past that the limit shrinks in proportion, by at most half. When the
+ * database slows down, requests start queueing for connections, the RTT
+ * rises and the limit falls until what is admitted can be served without
+ * queueing; the rest is rejected at once instead of waiting.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double SHORT_WINDOW = 10;
+    private static final double LONG_WINDOW = 600;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+            double smoothing) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * @return the requests in flight including this one, or -1, without
+     *         admitting it, when the limit is reached
+     */
+    public int tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            return -1;
+        }
+        return current;
+    }
+
+    /**
+     * Ends an admitted request and adjusts the limit from its RTT.
+     *
+     * @param inFlightAtStart what {@link #tryAcquire()} returned for it
+     */
+    public void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        onSample(rttNanos, inFlightAtStart);
+    }
+
+    /**
+     * Ends an admitted request whose duration says nothing about load, such
+     * as one that went asynchronous.
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) * 2 / (SHORT_WINDOW + 1);
+        longRtt += (rttNanos - longRtt) * 2 / (LONG_WINDOW + 1);
+        // After a sustained slowdown the long average has crept up; let it
+        // come back down quickly once the RTT recovers.
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        // A limit that is not being used tells nothing about whether more would fit.
+        if (target > limit && inFlightAtStart < limit / 2) {
+            return;
+        }
+        double smoothed = limit * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+}
@@ -0,0 +1,103 @@
+package com.tenpo.interceptor;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Publishes the client a request acts for in the MDC, for log lines and for
+ * per-client scheduling of database connections. The client id is taken, in
+ * this order, from a {@code clientId} path variable or the id in
+ * {@code /client/{id}/...}, from the {@link #HEADER} header, or from the
+ * {@code client_id} member of a JSON body. Requests that name no client,
+ * such as {@code GET /employee/{id}}, get no entry. The id is also kept in
+ * the {@link #CLIENT_ATTRIBUTE} request attribute, for filters that run
+ * after the MDC entry is gone.
+ */
+@Component
+public class ClientMdcInterceptor implements HandlerInterceptor {
+
+    public static final String CLIENT_MDC_KEY = "client_id";
+    public static final String HEADER = "X-Client-Id";
+    public static final String CLIENT_ATTRIBUTE = ClientMdcInterceptor.class.getName() + ".clientId";
+
+    private static final String CLIENT_PATH_PREFIX = "/client/{id}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler) {
+        Integer clientId = clientIdOf(request);
+        if (clientId != null) {
+            MDC.put(CLIENT_MDC_KEY, clientId.toString());
+            request.setAttribute(CLIENT_ATTRIBUTE, clientId);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, @Nullable Exception ex) {
+        MDC.remove(CLIENT_MDC_KEY);
+    }
+
+    Integer clientIdOf(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request
+                .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (variables != null) {
+            if (variables.containsKey("clientId")) {
+                return parse(variables.get("clientId"));
+            }
+            if (pattern != null && pattern.toString().startsWith(CLIENT_PATH_PREFIX)) {
+                return parse(variables.get("id"));
+            }
+        }
+        String header = request.getHeader(HEADER);
+        if (header != null) {
+            return parse(header);
+        }
+        return fromBody(request);
+    }
+
+    // Only JSON bodies, which the caching filter has buffered; CSV imports
+    // are streamed and must not be consumed here.
+    private Integer fromBody(HttpServletRequest request) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST || request.getContentType() == null) {
+            return null;
+        }
+        try {
+            if (!MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))) {
+                return null;
+            }
+            JsonNode body = objectMapper.readTree(request.getInputStream());
+            JsonNode clientId = body != null ? body.path(CLIENT_MDC_KEY) : null;
+            return clientId != null && clientId.canConvertToInt() ? clientId.intValue() : null;
+        } catch (IOException | InvalidMediaTypeException ex) {
+            return null;
+        }
+    }
+
+    private static Integer parse(String value) {
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
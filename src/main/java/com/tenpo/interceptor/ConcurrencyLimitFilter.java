@@ -0,0 +1,131 @@
+package com.tenpo.interceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control in front of everything else: a request beyond the
+ * current {@link AdaptiveConcurrencyLimit} of its route is answered
+ * {@code 503} with {@code Retry-After} at once, instead of waiting for a
+ * Tomcat thread and then for a connection. Reads and writes have separate
+ * limits. Actuator requests are never limited, so health checks keep
+ * answering under overload.
+ *
+ * <p>A request that goes asynchronous, such as a transaction stream, gives up
+ * its slot as soon as its handler returns. Neither it nor a CSV import, whose
+ * duration grows with the upload rather than with load, feeds its RTT to the
+ * limit; an import still holds a write slot while it runs.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public static final String LIMIT_METRIC = "tenpo.concurrency.limit";
+    public static final String IN_FLIGHT_METRIC = "tenpo.concurrency.in.flight";
+    public static final String REJECTED_METRIC = "tenpo.concurrency.rejected";
+
+    private static final String ACTUATOR_PATH = "/actuator";
+    private static final String IMPORT_SUFFIX = "/import";
+    private static final String RETRY_AFTER_SECONDS = "1";
+    private static final String OVERLOADED_BODY = "{\"type\":\"https://tenpo.com/errors/overloaded\","
+            + "\"title\":\"Service Unavailable\",\"status\":503,"
+            + "\"detail\":\"The server is at its concurrency limit, retry shortly\"}";
+
+    private final Route read;
+    private final Route write;
+    private final LongSupplier nanoClock;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry,
+            LongSupplier nanoClock) {
+        this.read = new Route("read", properties.getRead(), properties, meterRegistry);
+        this.write = new Route("write", properties.getWrite(), properties, meterRegistry);
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getRequestURI().startsWith(ACTUATOR_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Route route = isRead(request.getMethod()) ? read : write;
+        int inFlight = route.limit.tryAcquire();
+        if (inFlight < 0) {
+            route.rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+            response.getWriter().write(OVERLOADED_BODY);
+            return;
+        }
+        long start = nanoClock.getAsLong();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted() || isImport(request)) {
+                route.limit.releaseWithoutSample();
+            } else {
+                route.limit.release(nanoClock.getAsLong() - start, inFlight);
+            }
+        }
+    }
+
+    AdaptiveConcurrencyLimit readLimit() {
+        return read.limit;
+    }
+
+    AdaptiveConcurrencyLimit writeLimit() {
+        return write.limit;
+    }
+
+    private static boolean isRead(String method) {
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)
+                || HttpMethod.OPTIONS.matches(method);
+    }
+
+    private static boolean isImport(HttpServletRequest request) {
+        return request.getRequestURI().endsWith(IMPORT_SUFFIX);
+    }
+
+    private static final class Route {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final Counter rejected;
+
+        private Route(String name, ConcurrencyLimitProperties.Route settings, ConcurrencyLimitProperties properties,
+                MeterRegistry meterRegistry) {
+            this.limit = new AdaptiveConcurrencyLimit(settings.getInitialLimit(), settings.getMinLimit(),
+                    settings.getMaxLimit(), properties.getTolerance(), properties.getSmoothing());
+            Gauge.builder(LIMIT_METRIC, limit, AdaptiveConcurrencyLimit::limit)
+                    .description("Requests allowed in flight at once")
+                    .tag("route", name)
+                    .register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_METRIC, limit, AdaptiveConcurrencyLimit::inFlight)
+                    .description("Requests in flight")
+                    .tag("route", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder(REJECTED_METRIC)
+                    .description("Requests rejected with 503 because the limit was reached")
+                    .tag("route", name)
+                    .register(meterRegistry);
+        }
+    }
+}
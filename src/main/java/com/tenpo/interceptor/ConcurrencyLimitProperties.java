@@ -0,0 +1,53 @@
+package com.tenpo.interceptor;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "tenpo.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * Installs the admission filter. When disabled every request is let
+     * through to Tomcat's thread pool.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How far the current RTT may rise above the no-load RTT before the limit
+     * shrinks; 1.5 allows 50%.
+     */
+    private double tolerance = 1.5;
+
+    /**
+     * Weight (0.0 - 1.0) of each new estimate in the limit.
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * {@code GET}, {@code HEAD} and {@code OPTIONS} requests.
+     */
+    private Route read = new Route(100, 20, 400);
+
+    /**
+     * Every other method. Writes hold connections longer and lock rows, so
+     * they get a lower ceiling of their own and cannot crowd out reads.
+     */
+    private Route write = new Route(50, 10, 200);
+
+    @Data
+    public static class Route {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+
+        public Route() {
+        }
+
+        Route(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+}
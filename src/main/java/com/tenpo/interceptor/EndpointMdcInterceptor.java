@@ -0,0 +1,38 @@
+package com.tenpo.interceptor;
+
+import com.tenpo.observability.SqlLoggingListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Publishes the matched route ("POST /transaction", "GET /client/{id}") in the
+ * MDC so log lines and SQL emitted while handling the request can be traced
+ * back to the endpoint. The route pattern keeps the value set bounded.
+ */
+@Component
+public class EndpointMdcInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler) {
+        MDC.put(SqlLoggingListener.ENDPOINT_MDC_KEY, endpointOf(request));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, @Nullable Exception ex) {
+        MDC.remove(SqlLoggingListener.ENDPOINT_MDC_KEY);
+    }
+
+    public static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+    }
+}
@@ -0,0 +1,64 @@
+package com.tenpo.interceptor;
+
+import com.tenpo.observability.LayerObservations;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Observes {@code preHandle} and {@code afterCompletion} of another
+ * interceptor as the {@code interceptor} layer. {@code postHandle} is passed
+ * through: none of ours does work there.
+ */
+public class ObservedHandlerInterceptor implements AsyncHandlerInterceptor {
+
+    private final HandlerInterceptor delegate;
+    private final ObservationRegistry registry;
+    private final String preHandle;
+    private final String afterCompletion;
+
+    public ObservedHandlerInterceptor(HandlerInterceptor delegate, ObservationRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+        String type = ClassUtils.getUserClass(delegate).getSimpleName();
+        this.preHandle = type + ".preHandle";
+        this.afterCompletion = type + ".afterCompletion";
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler) throws Exception {
+        return LayerObservations.create(registry, LayerObservations.INTERCEPTOR, preHandle)
+                .observeChecked(() -> delegate.preHandle(request, response, handler));
+    }
+
+    @Override
+    public void postHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, @Nullable ModelAndView modelAndView) throws Exception {
+        delegate.postHandle(request, response, handler, modelAndView);
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, @Nullable Exception ex) throws Exception {
+        LayerObservations.create(registry, LayerObservations.INTERCEPTOR, afterCompletion)
+                .observeChecked(() -> {
+                    delegate.afterCompletion(request, response, handler, ex);
+                    return null;
+                });
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response, @NonNull Object handler) throws Exception {
+        if (delegate instanceof AsyncHandlerInterceptor async) {
+            async.afterConcurrentHandlingStarted(request, response, handler);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.tenpo.interceptor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Tokens a call of a handler method takes from its caller's rate limit bucket.
+ * Handlers without it cost {@code tenpo.rate-limit.default-cost}.
+ *
+ * <p>{@link #value()} is charged before the handler runs, and a request is
+ * rejected when the bucket cannot cover it. {@link #perItem()} is charged
+ * afterwards for every element of a collection response, so a listing costs
+ * in proportion to what it returned; it may leave the bucket in debt, which
+ * the next requests wait out.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimitCost {
+
+    double value();
+
+    double perItem() default 0;
+}
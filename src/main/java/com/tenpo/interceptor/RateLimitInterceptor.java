@@ -1,83 +1,245 @@
 package com.tenpo.interceptor;
 
+import com.tenpo.jfr.RateLimitDecisionEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.lang.NonNull;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.security.Principal;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
+/**
+ * A token bucket per caller, charged by what each endpoint costs (see
+ * {@link RateLimitCost}), so a full listing uses up a caller's allowance far
+ * sooner than point reads do. The caller is the authenticated principal when
+ * there is one, otherwise the remote address. Client ids in the path, body or
+ * headers never pick the bucket: a caller could name a fresh client on every
+ * request, or drain another client's allowance. A request the bucket cannot
+ * cover is answered {@code 429} with {@code Retry-After}.
+ *
+ * <p>At most {@code max-buckets} callers are tracked. Beyond that the least
+ * recently seen caller is forgotten, in constant time.
+ *
+ * <p>Requests and tokens are counted per endpoint and outcome, and the number
+ * of callers tracked is published as a gauge. Each decision is also a
+ * {@link RateLimitDecisionEvent} for Flight Recorder.
+ */
 @Component
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-    private final Map<Integer, ClientRequestInfo> clientRequests = new ConcurrentHashMap<>();
-    private static final int MAX_REQUESTS_PER_MINUTE = 3;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    public static final String REQUESTS_METRIC = "tenpo.ratelimit.requests";
+    public static final String TOKENS_METRIC = "tenpo.ratelimit.tokens";
+    public static final String KEYS_METRIC = "tenpo.ratelimit.keys";
+
+    static final String RESULT_SIZE_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".resultSize";
+
+    private static final String BUCKET_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".bucket";
+    private static final String UNMAPPED = "UNMAPPED";
+
+    private final double capacity;
+    private final double refillPerMinute;
+    private final double defaultCost;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<String, TokenBucket> buckets;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+    private final Meters unmapped;
+
+    @Autowired
+    public RateLimitInterceptor(@Value("${tenpo.rate-limit.capacity:600}") double capacity,
+            @Value("${tenpo.rate-limit.refill-per-minute:600}") double refillPerMinute,
+            @Value("${tenpo.rate-limit.default-cost:1}") double defaultCost,
+            @Value("${tenpo.rate-limit.max-buckets:10000}") int maxBuckets,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        // Web slice tests run without a registry; the global one then counts nothing.
+        this(capacity, refillPerMinute, defaultCost, maxBuckets,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), System::nanoTime);
+    }
+
+    RateLimitInterceptor(double capacity, double refillPerMinute, double defaultCost, int maxBuckets,
+            MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        if (capacity <= 0 || refillPerMinute <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity and refill must be positive");
+        }
+        this.capacity = capacity;
+        this.refillPerMinute = refillPerMinute;
+        this.defaultCost = defaultCost;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxBuckets;
+            }
+        };
+        this.unmapped = register(UNMAPPED);
+        Gauge.builder(KEYS_METRIC, this, RateLimitInterceptor::bucketCount)
+                .description("Callers with a rate limit bucket")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers the meters of every handler method up front, so requests only
+     * look them up. The endpoint tag is the method's mapping, which keeps
+     * their number bounded by the number of handlers.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void registerMeters(ContextRefreshedEvent event) {
+        event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class).values()
+                .forEach(mapping -> mapping.getHandlerMethods().forEach((info, handler) -> meters
+                        .computeIfAbsent(handler.getMethod(), method -> register(endpointOf(info)))));
+    }
 
     @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
-            @NonNull Object handler)
-            throws Exception {
-        // Only rate limit POST requests (specifically for transaction creation)
-        if (!"POST".equalsIgnoreCase(request.getMethod())) {
-            return true;
+            @NonNull Object handler) throws IOException {
+        RateLimitCost annotation = handler instanceof HandlerMethod method
+                ? method.getMethodAnnotation(RateLimitCost.class)
+                : null;
+        double cost = annotation != null ? annotation.value() : defaultCost;
+        RateLimitDecisionEvent decision = new RateLimitDecisionEvent();
+        decision.begin();
+        Caller caller = callerOf(request);
+        Meters endpoint = metersOf(request, handler);
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = bucketOf(caller.key(), now);
+        boolean allowed = bucket.tryConsume(cost, now);
+        decision.end();
+        if (decision.shouldCommit()) {
+            decision.endpoint = endpoint.endpoint();
+            decision.caller = caller.kind();
+            decision.cost = cost;
+            decision.allowed = allowed;
+            decision.commit();
         }
 
-        Integer clientId;
-        try {
-            // Read clientId from the cached body
-            JsonNode node = objectMapper.readTree(request.getInputStream());
-            if (node.has("client_id")) {
-                clientId = node.get("client_id").asInt();
-            } else if (node.has("clientId")) {
-                clientId = node.get("clientId").asInt();
-            } else {
-                // If no clientId is present, maybe allow or block?
-                // Given the requirement, we should probably expect it.
-                return true;
-            }
-        } catch (Exception e) {
-            // If body is not readable or not JSON, skip rate limiting or handle error
-            return true;
+        if (!allowed) {
+            endpoint.rejected().increment();
+            endpoint.rejectedTokens().increment(cost);
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntil(cost, now)) + 1);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"message\": \"Too many requests - Rate limit is "
+                    + perMinute(cost) + " per minute for " + caller.description() + "\"}");
+            return false;
+        }
+        endpoint.allowed().increment();
+        endpoint.tokens().increment(cost);
+        if (annotation != null && annotation.perItem() > 0) {
+            request.setAttribute(BUCKET_ATTRIBUTE, bucket);
         }
+        return true;
+    }
 
-        long currentTime = System.currentTimeMillis();
-        ClientRequestInfo info = clientRequests.computeIfAbsent(clientId, k -> new ClientRequestInfo(currentTime));
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, @Nullable Exception ex) {
+        if (!(request.getAttribute(BUCKET_ATTRIBUTE) instanceof TokenBucket bucket)
+                || !(request.getAttribute(RESULT_SIZE_ATTRIBUTE) instanceof Integer items)
+                || !(handler instanceof HandlerMethod method)) {
+            return;
+        }
+        double cost = items * method.getMethodAnnotation(RateLimitCost.class).perItem();
+        bucket.charge(cost, nanoClock.getAsLong());
+        metersOf(request, handler).tokens().increment(cost);
+    }
 
-        synchronized (info) {
-            if (currentTime - info.startTime.get() > 60000) {
-                info.startTime.set(currentTime);
-                info.count.set(1);
-                return true;
-            }
+    private static Caller callerOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return new Caller("principal", "principal:" + principal.getName(), principal.getName());
+        }
+        return new Caller("address", "address:" + request.getRemoteAddr(), "address " + request.getRemoteAddr());
+    }
 
-            if (info.count.incrementAndGet() > MAX_REQUESTS_PER_MINUTE) {
-                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-                response.setContentType("application/json");
-                response.getWriter().write("{\"message\": \"Too many requests - Rate limit is 3 per minute for client "
-                        + clientId + "\"}");
-                return false;
-            }
+    private TokenBucket bucketOf(String key, long now) {
+        synchronized (buckets) {
+            return buckets.computeIfAbsent(key,
+                    k -> new TokenBucket(capacity, refillPerMinute / TimeUnit.MINUTES.toNanos(1), now));
         }
+    }
 
-        return true;
+    private int bucketCount() {
+        synchronized (buckets) {
+            return buckets.size();
+        }
     }
 
-    private static class ClientRequestInfo {
-        AtomicLong startTime;
-        AtomicInteger count;
+    private long perMinute(double cost) {
+        return (long) Math.floor(refillPerMinute / Math.min(cost, capacity));
+    }
 
-        ClientRequestInfo(long startTime) {
-            this.startTime = new AtomicLong(startTime);
-            this.count = new AtomicInteger(0);
+    private Meters metersOf(HttpServletRequest request, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return unmapped;
         }
+        Meters registered = meters.get(method.getMethod());
+        return registered != null
+                ? registered
+                : meters.computeIfAbsent(method.getMethod(),
+                        key -> register(EndpointMdcInterceptor.endpointOf(request)));
+    }
+
+    private static String endpointOf(RequestMappingInfo info) {
+        Set<RequestMethod> methods = info.getMethodsCondition().getMethods();
+        Set<String> patterns = info.getPatternValues();
+        return (methods.isEmpty() ? "*" : methods.iterator().next().name()) + " "
+                + (patterns.isEmpty() ? UNMAPPED : patterns.iterator().next());
+    }
+
+    private Meters register(String endpoint) {
+        return new Meters(endpoint,
+                requests(endpoint, "allowed"),
+                requests(endpoint, "rejected"),
+                tokens(endpoint, "allowed"),
+                tokens(endpoint, "rejected"));
+    }
+
+    private Counter requests(String endpoint, String outcome) {
+        return Counter.builder(REQUESTS_METRIC)
+                .description("Requests checked against the rate limit")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter tokens(String endpoint, String outcome) {
+        return Counter.builder(TOKENS_METRIC)
+                .description("Rate limit tokens charged, or asked for by rejected requests")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Caller(String kind, String key, String description) {
+    }
+
+    private record Meters(String endpoint, Counter allowed, Counter rejected, Counter tokens, Counter rejectedTokens) {
     }
 }
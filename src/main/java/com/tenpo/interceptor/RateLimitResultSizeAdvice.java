@@ -0,0 +1,41 @@
+package com.tenpo.interceptor;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Collection;
+
+/**
+ * Records how many elements a handler with a per-item {@link RateLimitCost}
+ * returned, for {@link RateLimitInterceptor} to charge once the request
+ * completes.
+ */
+@ControllerAdvice
+public class RateLimitResultSizeAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType,
+            @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        RateLimitCost cost = returnType.getMethodAnnotation(RateLimitCost.class);
+        return cost != null && cost.perItem() > 0;
+    }
+
+    @Override
+    public Object beforeBodyWrite(@Nullable Object body, @NonNull MethodParameter returnType,
+            @NonNull MediaType selectedContentType,
+            @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            @NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response) {
+        if (body instanceof Collection<?> items && request instanceof ServletServerHttpRequest servletRequest) {
+            servletRequest.getServletRequest().setAttribute(RateLimitInterceptor.RESULT_SIZE_ATTRIBUTE, items.size());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,60 @@
+package com.tenpo.interceptor;
+
+/**
+ * Tokens refilled continuously up to a capacity. Callers pass the clock so
+ * that idle buckets need no timer and tests need no sleeps.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double capacity, double tokensPerNano, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerNano;
+        this.tokens = capacity;
+        this.refilledAt = nowNanos;
+    }
+
+    /**
+     * Takes {@code cost} tokens if the bucket holds them. A cost above the
+     * capacity is admitted only from a full bucket.
+     */
+    public synchronized boolean tryConsume(double cost, long nowNanos) {
+        refill(nowNanos);
+        double due = Math.min(cost, capacity);
+        if (tokens < due) {
+            return false;
+        }
+        tokens -= due;
+        return true;
+    }
+
+    /**
+     * Takes {@code cost} tokens whatever the bucket holds, going into debt of
+     * at most one full bucket.
+     */
+    public synchronized void charge(double cost, long nowNanos) {
+        refill(nowNanos);
+        tokens = Math.max(-capacity, tokens - cost);
+    }
+
+    /** Nanoseconds until {@code cost} tokens are available. */
+    public synchronized long nanosUntil(double cost, long nowNanos) {
+        refill(nowNanos);
+        double missing = Math.min(cost, capacity) - tokens;
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / tokensPerNano);
+    }
+
+    public synchronized boolean isFull(long nowNanos) {
+        refill(nowNanos);
+        return tokens >= capacity;
+    }
+
+    private void refill(long nowNanos) {
+        tokens = Math.min(capacity, tokens + (nowNanos - refilledAt) * tokensPerNano);
+        refilledAt = nowNanos;
+    }
+}
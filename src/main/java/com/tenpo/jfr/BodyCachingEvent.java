@@ -0,0 +1,27 @@
+package com.tenpo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.tenpo.BodyCaching")
+@Label("Request Body Caching")
+@Category({ "Tenpo", "HTTP" })
+@Description("A request body read into memory so it can be read again")
+@StackTrace(false)
+public class BodyCachingEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("URI")
+    public String uri;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,63 @@
+package com.tenpo.jfr;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code /actuator/jfr}: {@code GET} lists the recordings, {@code POST}
+ * with an optional {@code duration} starts an on-demand recording
+ * ({@code 409} while one runs),
+ * {@code DELETE} stops it, and {@code GET /actuator/jfr/{name}} dumps
+ * {@code continuous} or {@code on-demand} as a {@code .jfr} file.
+ */
+@Endpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    private final FlightRecordings recordings;
+
+    public FlightRecorderEndpoint(FlightRecordings recordings) {
+        this.recordings = recordings;
+    }
+
+    @ReadOperation
+    public List<FlightRecordings.RecordingStatus> recordings() {
+        return recordings.status();
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<FlightRecordings.RecordingStatus> start(@Nullable Duration duration)
+            throws IOException, ParseException {
+        try {
+            return new WebEndpointResponse<>(recordings.start(duration));
+        } catch (IllegalStateException ex) {
+            return new WebEndpointResponse<>(HttpStatus.CONFLICT.value());
+        }
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<FlightRecordings.RecordingStatus> stop() {
+        return recordings.stop()
+                .map(WebEndpointResponse::new)
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Resource> dump(@Selector String name) throws IOException {
+        return recordings.dump(name)
+                .map(file -> new WebEndpointResponse<Resource>(new FileSystemResource(file)))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+}
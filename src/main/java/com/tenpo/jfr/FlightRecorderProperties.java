@@ -0,0 +1,62 @@
+package com.tenpo.jfr;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "tenpo.jfr")
+public class FlightRecorderProperties {
+
+    /**
+     * Registers the recordings and the {@code jfr} actuator endpoint.
+     */
+    private boolean enabled = true;
+
+    private final Continuous continuous = new Continuous();
+
+    private final OnDemand onDemand = new OnDemand();
+
+    /**
+     * Where dumps are written, one file per recording, replaced by each dump.
+     */
+    private Path dumpDirectory = Path.of(System.getProperty("java.io.tmpdir"), "tenpo-jfr");
+
+    @Data
+    public static class Continuous {
+
+        /**
+         * Records from startup, keeping only the last {@code max-age} or
+         * {@code max-size}, whichever is smaller.
+         */
+        private boolean enabled = true;
+
+        /**
+         * JFR settings: a JDK configuration name or a {@code .jfc} resource.
+         * The JDK's {@code default} costs about 1% CPU; {@code profile}
+         * samples more and costs about 2%.
+         */
+        private String settings = "default";
+
+        private Duration maxAge = Duration.ofMinutes(30);
+
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+    }
+
+    @Data
+    public static class OnDemand {
+
+        private String settings = "profile";
+
+        /**
+         * Used when a start request names no duration; longer requests are
+         * cut to it.
+         */
+        private Duration maxDuration = Duration.ofMinutes(5);
+
+        private DataSize maxSize = DataSize.ofMegabytes(256);
+    }
+}
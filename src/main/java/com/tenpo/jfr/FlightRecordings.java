@@ -0,0 +1,167 @@
+package com.tenpo.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The application's Flight Recorder recordings: a continuous one, bounded by
+ * age and size and started with the application, and at most one on-demand
+ * recording with more detailed settings and a bounded duration. Either can be
+ * dumped to a file while it runs; an on-demand recording also after it stops,
+ * until the next one starts.
+ *
+ * <p>Settings name a JDK configuration ({@code default}, {@code profile}) or
+ * a {@code .jfc} resource. Whichever is used, the events that record the
+ * process environment and system properties are turned off, since dumps
+ * would otherwise carry the database credentials.
+ */
+public class FlightRecordings implements DisposableBean {
+
+    public static final String CONTINUOUS = "continuous";
+    public static final String ON_DEMAND = "on-demand";
+
+    private static final List<String> SECRET_EVENTS = List.of("jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty");
+
+    private final FlightRecorderProperties properties;
+    private final Recording continuous;
+    private Recording onDemand;
+
+    public FlightRecordings(FlightRecorderProperties properties) throws IOException, ParseException {
+        this.properties = properties;
+        FlightRecorderProperties.Continuous settings = properties.getContinuous();
+        if (settings.isEnabled()) {
+            continuous = new Recording(settingsOf(settings.getSettings()));
+            continuous.setName("tenpo-" + CONTINUOUS);
+            continuous.setToDisk(true);
+            continuous.setMaxAge(settings.getMaxAge());
+            continuous.setMaxSize(settings.getMaxSize().toBytes());
+            continuous.start();
+        } else {
+            continuous = null;
+        }
+    }
+
+    public synchronized List<RecordingStatus> status() {
+        List<RecordingStatus> recordings = new ArrayList<>();
+        if (continuous != null) {
+            recordings.add(RecordingStatus.of(CONTINUOUS, continuous));
+        }
+        if (onDemand != null) {
+            recordings.add(RecordingStatus.of(ON_DEMAND, onDemand));
+        }
+        return recordings;
+    }
+
+    /**
+     * Starts the on-demand recording for {@code duration}, at most
+     * {@code max-duration}.
+     *
+     * @throws IllegalStateException when one is already running
+     */
+    public synchronized RecordingStatus start(Duration duration) throws IOException, ParseException {
+        if (onDemand != null && onDemand.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("An on-demand recording is already running");
+        }
+        if (onDemand != null) {
+            onDemand.close();
+        }
+        FlightRecorderProperties.OnDemand settings = properties.getOnDemand();
+        Duration bounded = duration == null || duration.compareTo(settings.getMaxDuration()) > 0
+                ? settings.getMaxDuration()
+                : duration;
+        Recording recording = new Recording(settingsOf(settings.getSettings()));
+        recording.setName("tenpo-" + ON_DEMAND);
+        recording.setToDisk(true);
+        recording.setDuration(bounded);
+        recording.setMaxSize(settings.getMaxSize().toBytes());
+        recording.start();
+        onDemand = recording;
+        return RecordingStatus.of(ON_DEMAND, recording);
+    }
+
+    /**
+     * Stops the on-demand recording; what it recorded can still be dumped.
+     */
+    public synchronized Optional<RecordingStatus> stop() {
+        if (onDemand == null) {
+            return Optional.empty();
+        }
+        if (onDemand.getState() == RecordingState.RUNNING) {
+            onDemand.stop();
+        }
+        return Optional.of(RecordingStatus.of(ON_DEMAND, onDemand));
+    }
+
+    /**
+     * Writes what the named recording holds to {@code <dump-directory>/<name>.jfr}.
+     *
+     * @return the file, or empty when there is no such recording
+     */
+    public synchronized Optional<Path> dump(String name) throws IOException {
+        Recording recording = switch (name) {
+            case CONTINUOUS -> continuous;
+            case ON_DEMAND -> onDemand;
+            default -> null;
+        };
+        if (recording == null || recording.getState() == RecordingState.CLOSED) {
+            return Optional.empty();
+        }
+        Path file = Files.createDirectories(properties.getDumpDirectory()).resolve(name + ".jfr");
+        recording.dump(file);
+        return Optional.of(file);
+    }
+
+    static Map<String, String> settingsOf(String name) throws IOException, ParseException {
+        Configuration configuration;
+        if (name.endsWith(".jfc")) {
+            Resource resource = new DefaultResourceLoader().getResource(name);
+            try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+                configuration = Configuration.create(reader);
+            }
+        } else {
+            configuration = Configuration.getConfiguration(name);
+        }
+        Map<String, String> settings = new HashMap<>(configuration.getSettings());
+        SECRET_EVENTS.forEach(event -> settings.put(event + "#enabled", "false"));
+        return settings;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (continuous != null) {
+            continuous.close();
+        }
+        if (onDemand != null) {
+            onDemand.close();
+        }
+    }
+
+    public record RecordingStatus(String name, String state, Instant startTime, Duration duration,
+            Duration maxAge, long maxSize, long size) {
+
+        static RecordingStatus of(String name, Recording recording) {
+            return new RecordingStatus(name, recording.getState().name(), recording.getStartTime(),
+                    recording.getDuration(), recording.getMaxAge(), recording.getMaxSize(), recording.getSize());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.tenpo.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarizes the latencies of the application's own events in a
+ * {@code .jfr} file, such as a dump from {@code /actuator/jfr/continuous}:
+ *
+ * <pre>
+ * java -cp target/classes com.tenpo.jfr.JfrPhaseReport continuous.jfr
+ * </pre>
+ *
+ * Transaction phases are reported by phase, rate limit decisions by
+ * outcome.
+ */
+public final class JfrPhaseReport {
+
+    private JfrPhaseReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrPhaseReport <recording.jfr>");
+            System.exit(2);
+        }
+        System.out.print(format(summarize(Path.of(args[0]))));
+    }
+
+    public static List<PhaseStats> summarize(Path recording) throws IOException {
+        Map<String, List<Duration>> durations = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String phase = phaseOf(event);
+                if (phase != null) {
+                    durations.computeIfAbsent(phase, key -> new ArrayList<>()).add(event.getDuration());
+                }
+            }
+        }
+        List<PhaseStats> stats = new ArrayList<>();
+        durations.forEach((phase, values) -> stats.add(PhaseStats.of(phase, values)));
+        return stats;
+    }
+
+    public static String format(List<PhaseStats> stats) {
+        StringBuilder out = new StringBuilder(String.format("%-28s %8s %10s %10s %10s %10s%n",
+                "phase", "count", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (PhaseStats phase : stats) {
+            out.append(String.format("%-28s %8d %10.3f %10.3f %10.3f %10.3f%n", phase.phase(), phase.count(),
+                    millis(phase.p50()), millis(phase.p90()), millis(phase.p99()), millis(phase.max())));
+        }
+        return out.toString();
+    }
+
+    private static String phaseOf(RecordedEvent event) {
+        return switch (event.getEventType().getName()) {
+            case "com.tenpo.TransactionPhase" -> "transaction." + event.getString("phase");
+            case "com.tenpo.RateLimitDecision" ->
+                    "rate-limit." + (event.getBoolean("allowed") ? "allowed" : "rejected");
+            case "com.tenpo.BodyCaching" -> "body-caching";
+            default -> null;
+        };
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+
+    public record PhaseStats(String phase, int count, Duration p50, Duration p90, Duration p99, Duration max) {
+
+        static PhaseStats of(String phase, List<Duration> durations) {
+            List<Duration> sorted = durations.stream().sorted().toList();
+            return new PhaseStats(phase, sorted.size(), percentile(sorted, 0.50), percentile(sorted, 0.90),
+                    percentile(sorted, 0.99), sorted.get(sorted.size() - 1));
+        }
+
+        // nearest rank
+        private static Duration percentile(List<Duration> sorted, double quantile) {
+            int rank = (int) Math.ceil(quantile * sorted.size());
+            return sorted.get(Math.max(0, rank - 1));
+        }
+    }
+}
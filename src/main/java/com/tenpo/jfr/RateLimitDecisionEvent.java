@@ -0,0 +1,29 @@
+package com.tenpo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.tenpo.RateLimitDecision")
+@Label("Rate Limit Decision")
+@Category({ "Tenpo", "HTTP" })
+@Description("A request checked against its caller's token bucket")
+@StackTrace(false)
+public class RateLimitDecisionEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Caller")
+    @Description("What identified the caller: client, api-key or address")
+    public String caller;
+
+    @Label("Cost")
+    public double cost;
+
+    @Label("Allowed")
+    public boolean allowed;
+}
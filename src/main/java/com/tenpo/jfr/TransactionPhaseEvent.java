@@ -0,0 +1,35 @@
+package com.tenpo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One phase of creating a transaction: {@code lookup} (employee ownership and
+ * the client's transaction count, read by one query), {@code insert},
+ * {@code record} (change log, outbox and event) or {@code commit}.
+ */
+@Name("com.tenpo.TransactionPhase")
+@Label("Transaction Phase")
+@Category({ "Tenpo", "Transactions" })
+@Description("A phase of TransactionService.createTransaction")
+@StackTrace(false)
+public class TransactionPhaseEvent extends Event {
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Client Id")
+    public int clientId;
+
+    public static TransactionPhaseEvent begin(String phase, int clientId) {
+        TransactionPhaseEvent event = new TransactionPhaseEvent();
+        event.phase = phase;
+        event.clientId = clientId;
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,56 @@
+package com.tenpo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The latest change to an employee or transaction, or the deletion of a
+ * client, tagged with the transaction that wrote it. Read by {@code GET /sync}
+ * in {@code (txnId, seq)} order.
+ */
+@Entity
+@Table(name = "change_log", uniqueConstraints = @UniqueConstraint(
+        name = "ux_change_log_entity", columnNames = { "entity_type", "entity_id" }),
+        indexes = @Index(name = "ix_change_log_txn", columnList = "txn_id, change_seq"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+
+    public enum EntityType {
+        CLIENT,
+        EMPLOYEE,
+        TRANSACTION
+    }
+
+    public enum Operation {
+        UPSERT,
+        DELETE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_log_seq")
+    @SequenceGenerator(name = "change_log_seq", sequenceName = "change_log_seq", allocationSize = 1)
+    @Column(name = "change_seq")
+    private Long seq;
+
+    @Column(name = "txn_id", nullable = false)
+    private Long txnId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Integer entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 8)
+    private Operation operation;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -1,11 +1,14 @@
 package com.tenpo.model;
 
+import com.tenpo.util.RutUtils;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "clients")
 @Data
 @Builder
@@ -14,17 +17,35 @@ import java.util.List;
 public class Client {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "clients_seq")
-    @SequenceGenerator(name = "clients_seq", sequenceName = "clients_client_id_seq", allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "client_id")
     private Integer id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "client_name", nullable = false)
     private String name;
 
     @Column(name = "client_rut", nullable = false, unique = true)
     private String rut;
 
-    @OneToMany(mappedBy = "client", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    // Derived from rut, see RutUtils. Kept in sync by setRut and onPersist.
+    @Setter(AccessLevel.NONE)
+    @Column(name = "client_rut_key", unique = true)
+    private Long rutKey;
+
+    @OneToMany(mappedBy = "client", fetch = FetchType.LAZY)
     private List<Employee> employees;
+
+    public void setRut(String rut) {
+        this.rut = rut;
+        this.rutKey = RutUtils.toKey(rut);
+    }
+
+    @PrePersist
+    void onPersist() {
+        rutKey = RutUtils.toKey(rut);
+    }
 }
@@ -1,11 +1,16 @@
 package com.tenpo.model;
 
+import com.tenpo.util.RutUtils;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.util.List;
 
 @Entity
+@DynamicUpdate
 @Table(name = "employees")
 @Data
 @Builder
@@ -14,21 +19,40 @@ import java.util.List;
 public class Employee {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
-    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_employee_id_seq", allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "employee_id")
     private Integer id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "employee_name", nullable = false)
     private String name;
 
     @Column(name = "employee_rut", nullable = false, unique = true)
     private String rut;
 
+    // Derived from rut, see RutUtils. Kept in sync by setRut and onPersist.
+    @Setter(AccessLevel.NONE)
+    @Column(name = "employee_rut_key", unique = true)
+    private Long rutKey;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Client client;
 
-    @OneToMany(mappedBy = "employee", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "employee", fetch = FetchType.LAZY)
     private List<Transaction> transactions;
+
+    public void setRut(String rut) {
+        this.rut = rut;
+        this.rutKey = RutUtils.toKey(rut);
+    }
+
+    @PrePersist
+    void onPersist() {
+        rutKey = RutUtils.toKey(rut);
+    }
 }
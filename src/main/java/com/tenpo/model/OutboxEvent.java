@@ -0,0 +1,53 @@
+package com.tenpo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A committed change waiting to be relayed to downstream consumers. Ids
+ * follow commit order for each aggregate; rows are deleted once delivered.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "ix_outbox_event_client", columnList = "client_id, event_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    public enum EventType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 1)
+    @Column(name = "event_id")
+    private Long id;
+
+    // Delivery is ordered per client.
+    @Column(name = "client_id", nullable = false)
+    private Integer clientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false, length = 16)
+    private ChangeLogEntry.EntityType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Integer aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 8)
+    private EventType eventType;
+
+    // The API representation as JSON; null for deletions.
+    @Column(name = "payload", length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
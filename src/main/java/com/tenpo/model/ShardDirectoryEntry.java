@@ -0,0 +1,34 @@
+package com.tenpo.model;
+
+import com.tenpo.sharding.ShardKey;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A client, employee or transaction that lives on another shard than the one
+ * its id was generated on.
+ */
+@Entity
+@Table(name = "shard_directory", uniqueConstraints = @UniqueConstraint(
+        name = "ux_shard_directory_entity", columnNames = { "entity_type", "entity_id" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardDirectoryEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "entry_id")
+    private Integer id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private ShardKey.Type entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Integer entityId;
+
+    @Column(name = "shard", nullable = false)
+    private Integer shard;
+}
@@ -0,0 +1,10 @@
+package com.tenpo.model;
+
+/**
+ * What an upsert did to a row.
+ */
+public enum UpsertOutcome {
+    CREATED,
+    UPDATED,
+    UNCHANGED
+}
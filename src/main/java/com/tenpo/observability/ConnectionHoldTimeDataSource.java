@@ -0,0 +1,90 @@
+package com.tenpo.observability;
+
+import com.tenpo.heavyhitters.RequestLoad;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each pooled connection is checked out, tagged by the
+ * endpoint that borrowed it. With Open-Session-In-View disabled this should
+ * match the {@code @Transactional} service call, not the whole request.
+ * The time is also charged to the request being served, see
+ * {@link RequestLoad}.
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    public static final String METRIC_NAME = "tenpo.db.connection.hold";
+    private static final String NO_ENDPOINT = "none";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(targetDataSource);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection() throws SQLException {
+        return track(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    @NonNull
+    public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+        return track(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection track(Connection connection) {
+        long start = System.nanoTime();
+        String endpoint = MDC.get(SqlLoggingListener.ENDPOINT_MDC_KEY);
+        Timer timer = timerFor(endpoint != null ? endpoint : NO_ENDPOINT);
+        boolean[] closed = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (!closed[0]) {
+                                closed[0] = true;
+                                long held = System.nanoTime() - start;
+                                timer.record(held, TimeUnit.NANOSECONDS);
+                                RequestLoad.addDatabaseTime(held);
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                });
+    }
+
+    private Timer timerFor(String endpoint) {
+        return timers.computeIfAbsent(endpoint, e -> Timer.builder(METRIC_NAME)
+                .description("Time a pooled JDBC connection is held, per endpoint")
+                .tag("endpoint", e)
+                .publishPercentileHistogram()
+                .register(meterRegistry.getObject()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.tenpo.observability;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Observes each call of a service or repository method as one
+ * {@link LayerObservations layer}. The operation is named after the bean's
+ * type, or the repository interface, and the method.
+ */
+public class LayerMethodInterceptor implements MethodInterceptor {
+
+    private final String layer;
+    private final String typeName;
+    private final Supplier<ObservationRegistry> registry;
+    private final Map<Method, String> operations = new ConcurrentHashMap<>();
+
+    /**
+     * @param typeName the type the operations are named after, or null for
+     *                 the class of the bean called
+     */
+    public LayerMethodInterceptor(String layer, @Nullable String typeName, Supplier<ObservationRegistry> registry) {
+        this.layer = layer;
+        this.typeName = typeName;
+        this.registry = registry;
+    }
+
+    /**
+     * Observes every method of {@code @Service} beans, around everything
+     * else applied to them, looking the registry up on the first call.
+     */
+    public static Advisor serviceAdvisor(Supplier<ObservationRegistry> registry) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Service.class, true),
+                new LayerMethodInterceptor(LayerObservations.SERVICE, null, registry));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        String operation = operations.get(invocation.getMethod());
+        if (operation == null) {
+            operation = operations.computeIfAbsent(invocation.getMethod(), method -> operationOf(invocation));
+        }
+        return LayerObservations.create(registry.get(), layer, operation).observeChecked(invocation::proceed);
+    }
+
+    private String operationOf(MethodInvocation invocation) {
+        String type = typeName;
+        if (type == null) {
+            type = invocation.getThis() != null
+                    ? ClassUtils.getUserClass(invocation.getThis()).getSimpleName()
+                    : invocation.getMethod().getDeclaringClass().getSimpleName();
+        }
+        return type + "." + invocation.getMethod().getName();
+    }
+}
@@ -0,0 +1,39 @@
+package com.tenpo.observability;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Data
+@ConfigurationProperties(prefix = "tenpo.layer-observation")
+public class LayerObservationProperties {
+
+    /**
+     * Observes filters, interceptors, services, repositories and JSON
+     * (de)serialization as {@code tenpo.layer}. When disabled no service or
+     * repository advice is installed and the remaining layers are never
+     * sampled.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Fraction (0.0 - 1.0) of requests whose layers are observed. Each
+     * observed layer costs a few microseconds; unsampled ones a predicate
+     * call.
+     */
+    private double sampleRate = 0.1;
+
+    private final SpanFile spanFile = new SpanFile();
+
+    @Data
+    public static class SpanFile {
+
+        /**
+         * Appends completed observations to {@link #path} as JSON lines.
+         */
+        private boolean enabled = false;
+
+        private Path path = Path.of("logs/spans.jsonl");
+    }
+}
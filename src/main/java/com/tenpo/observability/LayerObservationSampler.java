@@ -0,0 +1,65 @@
+package com.tenpo.observability;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationView;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples {@link LayerObservations} by request: the first layer observed
+ * under a request decides for all of them, so a sampled request is broken
+ * down completely and the others cost one predicate call per layer. Outside
+ * a request, such as on background or fan-out threads, the outermost layer
+ * decides for the layers within it. Other observations, {@code http.server.requests}
+ * included, are never dropped.
+ */
+public class LayerObservationSampler implements ObservationPredicate {
+
+    private static final String SAMPLED_KEY = LayerObservationSampler.class.getName() + ".sampled";
+
+    private final boolean enabled;
+    private final double sampleRate;
+
+    public LayerObservationSampler(boolean enabled, double sampleRate) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public boolean test(String name, Observation.Context context) {
+        if (!LayerObservations.NAME.equals(name)) {
+            return true;
+        }
+        if (!enabled || sampleRate <= 0) {
+            return false;
+        }
+        ObservationView parent = context.getParentObservation();
+        if (parent == null) {
+            boolean sampled = sample();
+            context.put(SAMPLED_KEY, sampled);
+            return sampled;
+        }
+        ObservationView root = parent;
+        while (root.getContextView().getParentObservation() != null) {
+            root = root.getContextView().getParentObservation();
+        }
+        // A dropped observation stays in scope as a nameless one without a parent.
+        if (root.getContextView().getName() == null) {
+            return false;
+        }
+        Boolean decided = root.getContextView().get(SAMPLED_KEY);
+        if (decided != null) {
+            return decided;
+        }
+        boolean sampled = sample();
+        if (root.getContextView() instanceof Observation.Context rootContext) {
+            rootContext.put(SAMPLED_KEY, sampled);
+        }
+        return sampled;
+    }
+
+    private boolean sample() {
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
@@ -0,0 +1,34 @@
+package com.tenpo.observability;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * The {@value #NAME} observation: time spent in one layer of a request,
+ * tagged by {@code layer} and {@code operation} ({@code Type.method}). Both
+ * come from code, never from request data, so the tag values stay bounded.
+ * Nested layers become child observations of the ones around them, and of
+ * {@code http.server.requests}.
+ */
+public final class LayerObservations {
+
+    public static final String NAME = "tenpo.layer";
+    public static final String LAYER_KEY = "layer";
+    public static final String OPERATION_KEY = "operation";
+
+    public static final String FILTER = "filter";
+    public static final String INTERCEPTOR = "interceptor";
+    public static final String SERVICE = "service";
+    public static final String REPOSITORY = "repository";
+    public static final String SERIALIZATION = "serialization";
+
+    private LayerObservations() {
+    }
+
+    public static Observation create(ObservationRegistry registry, String layer, String operation) {
+        return Observation.createNotStarted(NAME, registry)
+                .lowCardinalityKeyValue(LAYER_KEY, layer)
+                .lowCardinalityKeyValue(OPERATION_KEY, operation)
+                .contextualName(operation);
+    }
+}
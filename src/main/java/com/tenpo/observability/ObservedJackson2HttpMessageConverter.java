@@ -0,0 +1,47 @@
+package com.tenpo.observability;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The JSON converter, with reading and writing observed as the
+ * {@code serialization} layer.
+ */
+public class ObservedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private static final String READ = "Jackson.read";
+    private static final String WRITE = "Jackson.write";
+
+    private final ObservationRegistry registry;
+
+    public ObservedJackson2HttpMessageConverter(ObjectMapper objectMapper, ObservationRegistry registry) {
+        super(objectMapper);
+        this.registry = registry;
+    }
+
+    @Override
+    @NonNull
+    public Object read(@NonNull Type type, @Nullable Class<?> contextClass, @NonNull HttpInputMessage inputMessage)
+            throws IOException {
+        return LayerObservations.create(registry, LayerObservations.SERIALIZATION, READ)
+                .observeChecked(() -> super.read(type, contextClass, inputMessage));
+    }
+
+    @Override
+    protected void writeInternal(@NonNull Object object, @Nullable Type type, @NonNull HttpOutputMessage outputMessage)
+            throws IOException {
+        LayerObservations.create(registry, LayerObservations.SERIALIZATION, WRITE)
+                .observeChecked(() -> {
+                    super.writeInternal(object, type, outputMessage);
+                    return null;
+                });
+    }
+}
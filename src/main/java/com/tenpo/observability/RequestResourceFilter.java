@@ -0,0 +1,132 @@
+package com.tenpo.observability;
+
+import com.tenpo.interceptor.EndpointMdcInterceptor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap allocated and CPU used by the thread serving each request, read from
+ * {@link com.sun.management.ThreadMXBean} before and after the chain and
+ * published per endpoint as the {@value #ALLOCATED_METRIC} summary and the
+ * {@value #CPU_METRIC} timer. Requests over either threshold are logged to
+ * {@code com.tenpo.request.heavy}. Both readings cost well under a
+ * microsecond, so this stays on in production.
+ *
+ * <p>The counters belong to the platform thread. A virtual thread may move
+ * between carriers while it runs, and the JVM does not report its own usage,
+ * so requests served on virtual threads are only counted in
+ * {@value #SKIPPED_METRIC}. Work handed to other threads, such as the
+ * overview fan-out, is not attributed to the request either.
+ */
+public class RequestResourceFilter extends OncePerRequestFilter {
+
+    public static final String ALLOCATED_METRIC = "tenpo.request.allocated";
+    public static final String CPU_METRIC = "tenpo.request.cpu";
+    public static final String SKIPPED_METRIC = "tenpo.request.resources.skipped";
+
+    private static final Logger HEAVY_LOG = LoggerFactory.getLogger("com.tenpo.request.heavy");
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final long allocationThreshold;
+    private final long cpuThresholdNanos;
+    private final MeterRegistry meterRegistry;
+    private final Counter skipped;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public RequestResourceFilter(RequestResourceProperties properties, MeterRegistry meterRegistry) {
+        this(supportedThreadMXBean(), properties, meterRegistry);
+    }
+
+    RequestResourceFilter(com.sun.management.ThreadMXBean threads, RequestResourceProperties properties,
+            MeterRegistry meterRegistry) {
+        this.threads = threads;
+        this.allocationThreshold = properties.getAllocationThreshold().toBytes();
+        this.cpuThresholdNanos = properties.getCpuThreshold().toNanos();
+        this.meterRegistry = meterRegistry;
+        this.skipped = Counter.builder(SKIPPED_METRIC)
+                .description("Requests whose allocation and CPU could not be attributed, such as on virtual threads")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (threads == null || Thread.currentThread().isVirtual()) {
+            skipped.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+            if (allocatedBefore < 0 || cpuBefore < 0) {
+                skipped.increment();
+            } else {
+                record(request, allocated, cpu);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, long allocated, long cpuNanos) {
+        String endpoint = EndpointMdcInterceptor.endpointOf(request);
+        Meters endpointMeters = meters.get(endpoint);
+        if (endpointMeters == null) {
+            endpointMeters = meters.computeIfAbsent(endpoint, this::register);
+        }
+        endpointMeters.allocated().record(allocated);
+        endpointMeters.cpu().record(cpuNanos, TimeUnit.NANOSECONDS);
+        if (allocated >= allocationThreshold || cpuNanos >= cpuThresholdNanos) {
+            HEAVY_LOG.warn("{} {} allocated {} KB and used {} ms of CPU", endpoint, request.getRequestURI(),
+                    allocated / 1024, TimeUnit.NANOSECONDS.toMillis(cpuNanos));
+        }
+    }
+
+    private Meters register(String endpoint) {
+        return new Meters(
+                DistributionSummary.builder(ALLOCATED_METRIC)
+                        .description("Heap allocated by the thread serving the request")
+                        .baseUnit("bytes")
+                        .tag("endpoint", endpoint)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry),
+                Timer.builder(CPU_METRIC)
+                        .description("CPU time used by the thread serving the request")
+                        .tag("endpoint", endpoint)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+    }
+
+    // null when the JVM cannot measure per-thread allocation or CPU time
+    private static com.sun.management.ThreadMXBean supportedThreadMXBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported() || !threads.isCurrentThreadCpuTimeSupported()) {
+            return null;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        threads.setThreadCpuTimeEnabled(true);
+        return threads;
+    }
+
+    private record Meters(DistributionSummary allocated, Timer cpu) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.tenpo.observability;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "tenpo.request-resources")
+public class RequestResourceProperties {
+
+    /**
+     * Installs the filter. When disabled nothing is measured.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Requests allocating at least this much on their thread are written to
+     * the {@code com.tenpo.request.heavy} logger.
+     */
+    private DataSize allocationThreshold = DataSize.ofMegabytes(64);
+
+    /**
+     * Requests using at least this much CPU on their thread are written to
+     * the {@code com.tenpo.request.heavy} logger.
+     */
+    private Duration cpuThreshold = Duration.ofMillis(200);
+}
@@ -0,0 +1,106 @@
+package com.tenpo.observability;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends every observation that completes, sampled layers and the requests
+ * around them, to a local file as one JSON span per line, for looking at
+ * single requests without a tracing backend. Spans carry their own id, the
+ * id of their parent and of the request they belong to ({@code trace}).
+ * Meant for development and short investigations: lines are written and
+ * flushed as observations stop.
+ */
+public class SpanFileHandler implements ObservationHandler<Observation.Context>, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SpanFileHandler.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong ids = new AtomicLong();
+    private final BufferedWriter writer;
+
+    public SpanFileHandler(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return true;
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        long id = ids.incrementAndGet();
+        ObservationView parent = context.getParentObservation();
+        Span parentSpan = parent != null ? parent.getContextView().get(Span.class) : null;
+        context.put(Span.class, new Span(id, parentSpan != null ? parentSpan.id() : 0,
+                parentSpan != null ? parentSpan.trace() : id, Instant.now(), System.nanoTime()));
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        Span span = context.get(Span.class);
+        if (span == null) {
+            return;
+        }
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("trace", span.trace());
+        line.put("id", span.id());
+        line.put("parent", span.parent());
+        line.put("name", context.getName());
+        line.put("operation", context.getContextualName());
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (KeyValue keyValue : context.getLowCardinalityKeyValues()) {
+            tags.put(keyValue.getKey(), keyValue.getValue());
+        }
+        line.put("tags", tags);
+        line.put("start", span.start().truncatedTo(ChronoUnit.MICROS).toString());
+        line.put("duration_us", (System.nanoTime() - span.startNanos()) / 1_000);
+        line.put("thread", Thread.currentThread().getName());
+        if (context.getError() != null) {
+            line.put("error", context.getError().getClass().getName());
+        }
+        try {
+            String json = objectMapper.writeValueAsString(line);
+            synchronized (writer) {
+                writer.write(json);
+                writer.newLine();
+                writer.flush();
+            }
+        } catch (IOException ex) {
+            log.warn("Could not write span {}: {}", context.getContextualName(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+
+    private record Span(long id, long parent, long trace, Instant start, long startNanos) {
+    }
+}
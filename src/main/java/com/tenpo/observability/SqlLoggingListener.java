@@ -0,0 +1,105 @@
+package com.tenpo.observability;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces Hibernate's "log every statement and every bind" output with two
+ * cheap channels: a sampled statement log and a slow-query log. Both render
+ * bind values only when a line is actually going to be written.
+ */
+public class SqlLoggingListener implements QueryExecutionListener {
+
+    public static final String ENDPOINT_MDC_KEY = "endpoint";
+
+    private static final Logger SAMPLED_LOG = LoggerFactory.getLogger("com.tenpo.sql");
+    private static final Logger SLOW_LOG = LoggerFactory.getLogger("com.tenpo.sql.slow");
+    private static final int MAX_LOGGED_BATCH_ENTRIES = 5;
+
+    private final double sampleRate;
+    private final long slowQueryThresholdMs;
+    private final int maxBindValueLength;
+
+    public SqlLoggingListener(SqlLoggingProperties properties) {
+        this.sampleRate = properties.getSampleRate();
+        this.slowQueryThresholdMs = properties.getSlowQueryThreshold().toMillis();
+        this.maxBindValueLength = properties.getMaxBindValueLength();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // Nothing to do before execution, timing is provided by the proxy.
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        if (elapsed >= slowQueryThresholdMs) {
+            if (SLOW_LOG.isWarnEnabled()) {
+                SLOW_LOG.warn("slow query {}ms endpoint=[{}] success={} {}", elapsed, endpoint(),
+                        execInfo.isSuccess(), render(queryInfoList));
+            }
+            return;
+        }
+        if (sampleRate > 0 && SAMPLED_LOG.isDebugEnabled()
+                && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            SAMPLED_LOG.debug("query {}ms endpoint=[{}] {}", elapsed, endpoint(), render(queryInfoList));
+        }
+    }
+
+    private static String endpoint() {
+        String endpoint = MDC.get(ENDPOINT_MDC_KEY);
+        return endpoint != null ? endpoint : "-";
+    }
+
+    private String render(List<QueryInfo> queryInfoList) {
+        StringBuilder sb = new StringBuilder(256);
+        for (QueryInfo queryInfo : queryInfoList) {
+            sb.append("sql=[").append(queryInfo.getQuery()).append(']');
+            List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+            int entries = Math.min(parametersList.size(), MAX_LOGGED_BATCH_ENTRIES);
+            for (int i = 0; i < entries; i++) {
+                sb.append(" params=");
+                appendParameters(sb, parametersList.get(i));
+            }
+            if (parametersList.size() > entries) {
+                sb.append(" (+").append(parametersList.size() - entries).append(" batch entries)");
+            }
+        }
+        return sb.toString();
+    }
+
+    private void appendParameters(StringBuilder sb, List<ParameterSetOperation> operations) {
+        sb.append('[');
+        for (int i = 0; i < operations.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            ParameterSetOperation operation = operations.get(i);
+            Object[] args = operation.getArgs();
+            if (ParameterSetOperation.isSetNullParameterOperation(operation)) {
+                sb.append("null");
+            } else if (args.length > 1) {
+                appendValue(sb, args[1]);
+            }
+        }
+        sb.append(']');
+    }
+
+    private void appendValue(StringBuilder sb, Object value) {
+        String text = String.valueOf(value);
+        if (text.length() > maxBindValueLength) {
+            sb.append(text, 0, maxBindValueLength).append("...");
+        } else {
+            sb.append(text);
+        }
+    }
+}
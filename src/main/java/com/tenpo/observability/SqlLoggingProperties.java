@@ -0,0 +1,34 @@
+package com.tenpo.observability;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "tenpo.sql-logging")
+public class SqlLoggingProperties {
+
+    /**
+     * Wraps the DataSource with the statement listener. When disabled no proxy is
+     * installed at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Fraction (0.0 - 1.0) of statements written to the {@code com.tenpo.sql}
+     * logger, bind values included.
+     */
+    private double sampleRate = 0.0;
+
+    /**
+     * Statements running at least this long are written to the
+     * {@code com.tenpo.sql.slow} logger regardless of sampling.
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+
+    /**
+     * Bind values longer than this are truncated in the log line.
+     */
+    private int maxBindValueLength = 64;
+}
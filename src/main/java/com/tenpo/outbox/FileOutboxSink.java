@@ -0,0 +1,67 @@
+package com.tenpo.outbox;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.model.OutboxEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends each event to a JSON Lines file, one object per line with the
+ * event's payload embedded as is. A batch is forced to disk before the
+ * relay deletes it, so a crash can repeat lines but never lose them.
+ */
+public class FileOutboxSink implements OutboxSink, AutoCloseable {
+
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+
+    public FileOutboxSink(Path path, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void send(List<OutboxEvent> events) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(events.size() * 256);
+        for (OutboxEvent event : events) {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(buffer)) {
+                json.writeStartObject();
+                json.writeNumberField("id", event.getId());
+                json.writeNumberField("client_id", event.getClientId());
+                json.writeStringField("aggregate_type", event.getAggregateType().name());
+                json.writeNumberField("aggregate_id", event.getAggregateId());
+                json.writeStringField("event_type", event.getEventType().name());
+                json.writeStringField("created_at", event.getCreatedAt().toString());
+                if (event.getPayload() != null) {
+                    json.writeFieldName("payload");
+                    json.writeRawValue(event.getPayload());
+                }
+                json.writeEndObject();
+            }
+            buffer.write('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.tenpo.outbox;
+
+import com.tenpo.model.OutboxEvent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * In-process stand-in for a downstream consumer: keeps the last
+ * {@code capacity} events delivered, oldest first.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<OutboxEvent> events = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void send(List<OutboxEvent> batch) {
+        for (OutboxEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    public synchronized List<OutboxEvent> events() {
+        return List.copyOf(events);
+    }
+}
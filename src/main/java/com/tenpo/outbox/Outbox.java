@@ -0,0 +1,97 @@
+package com.tenpo.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.model.ChangeLogEntry.EntityType;
+import com.tenpo.model.OutboxEvent;
+import com.tenpo.repository.OutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes events for {@link OutboxRelay} in the transaction of the change
+ * they describe, so an event exists if and only if its change committed.
+ *
+ * <p>Events are collected for the current transaction and inserted with one
+ * JDBC batch just before it commits, taking their ids from the
+ * {@code outbox_event_seq} sequence. Writers of the same client take a lock
+ * on it first and hold it until they complete, so a client's ids follow
+ * commit order; events of different clients may still commit out of id
+ * order.
+ */
+@Component
+@RequiredArgsConstructor
+public class Outbox {
+
+    /**
+     * Order of the synchronization that writes the events, after the
+     * change log's.
+     */
+    public static final int SYNCHRONIZATION_ORDER = 2;
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param payload serialized as the event body; {@code null} for deletions
+     */
+    public void append(Integer clientId, EntityType aggregateType, Integer aggregateId,
+            OutboxEvent.EventType eventType, Object payload) {
+        String json;
+        try {
+            json = payload != null ? objectMapper.writeValueAsString(payload) : null;
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Cannot serialize the outbox payload of "
+                    + aggregateType + " " + aggregateId, ex);
+        }
+        pending().add(OutboxEvent.builder()
+                .clientId(clientId)
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(json)
+                .build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> pending() {
+        List<OutboxEvent> pending = (List<OutboxEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Outbox events can only be written inside a transaction");
+        }
+        List<OutboxEvent> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return SYNCHRONIZATION_ORDER;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                write(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(Outbox.this);
+            }
+        });
+        return created;
+    }
+
+    private void write(List<OutboxEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        events.forEach(event -> event.setCreatedAt(now));
+        outboxRepository.insertAllInBatch(events);
+    }
+}
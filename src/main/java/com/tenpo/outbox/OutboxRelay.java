@@ -0,0 +1,211 @@
+package com.tenpo.outbox;
+
+import com.tenpo.model.OutboxEvent;
+import com.tenpo.repository.OutboxRepository;
+import com.tenpo.sharding.ShardContext;
+import com.tenpo.sharding.ShardMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers {@link Outbox} events to the {@link OutboxSink}, at least once and
+ * in id order per client.
+ *
+ * <p>Every {@code poll-interval} the relay locks the oldest
+ * {@code batch-size} events with {@code FOR UPDATE SKIP LOCKED}, sends them,
+ * deletes them and commits, repeating while batches come back full. Writers
+ * never wait on it: they only insert, and the relay reads and deletes by
+ * primary key. Several instances can relay concurrently, each skipping the
+ * rows another holds; a client's events are sent only up to the first
+ * pending one held elsewhere, so a client's committed events are never
+ * delivered out of id order. If the sink fails the transaction rolls back and the batch is
+ * retried on the next poll; if the delete fails after a successful send the
+ * batch is sent again.
+ *
+ * <p>With sharding enabled every shard's outbox is relayed in turn.
+ */
+@Slf4j
+@Component
+public class OutboxRelay implements SmartLifecycle {
+
+    public static final String LAG_METRIC = "tenpo.outbox.lag";
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int shardCount;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Counter relayed;
+    private final Counter failures;
+    private final Timer lag;
+    private volatile long oldestPendingMillis;
+    private volatile ScheduledExecutorService scheduler;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+            OutboxSink sink,
+            PlatformTransactionManager transactionManager,
+            ObjectProvider<ShardMap> shardMap,
+            MeterRegistry meterRegistry,
+            @Value("${tenpo.outbox.relay.enabled:true}") boolean enabled,
+            @Value("${tenpo.outbox.relay.batch-size:500}") int batchSize,
+            @Value("${tenpo.outbox.relay.poll-interval:100ms}") Duration pollInterval) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        ShardMap shards = shardMap.getIfAvailable();
+        this.shardCount = shards != null ? shards.shardCount() : 1;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.relayed = Counter.builder("tenpo.outbox.relayed")
+                .description("Outbox events delivered to the sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("tenpo.outbox.failures")
+                .description("Relay polls that failed and left their batch for a retry")
+                .register(meterRegistry);
+        this.lag = Timer.builder(LAG_METRIC)
+                .description("Time from an event's commit to its delivery")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("tenpo.outbox.oldest.age", this, relay -> relay.oldestPendingMillis / 1000.0)
+                .description("Age of the oldest undelivered event at the last poll; 0 when none was pending")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Relays every shard until no full batch remains.
+     *
+     * @return the number of events delivered
+     */
+    public int relayPending() {
+        int delivered = 0;
+        long oldest = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            long[] shardOldest = new long[1];
+            delivered += ShardContext.callOn(shard, () -> relayShard(shardOldest));
+            oldest = Math.max(oldest, shardOldest[0]);
+        }
+        oldestPendingMillis = oldest;
+        return delivered;
+    }
+
+    private int relayShard(long[] oldestMillis) {
+        int delivered = 0;
+        int sent;
+        do {
+            sent = transactionTemplate.execute(status -> relayBatch(oldestMillis));
+            delivered += sent;
+        } while (sent == batchSize);
+        return delivered;
+    }
+
+    private int relayBatch(long[] oldestMillis) {
+        List<OutboxEvent> batch = outboxRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (oldestMillis[0] == 0) {
+            oldestMillis[0] = Math.max(1, Duration.between(batch.get(0).getCreatedAt(), now).toMillis());
+        }
+        List<OutboxEvent> deliverable = inClientOrder(batch);
+        if (deliverable.isEmpty()) {
+            return 0;
+        }
+        try {
+            sink.send(deliverable);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Outbox sink rejected a batch of " + deliverable.size(), ex);
+        }
+        outboxRepository.deleteAllByIds(deliverable.stream().map(OutboxEvent::getId).toList());
+        relayed.increment(deliverable.size());
+        deliverable.forEach(event -> lag.record(Duration.between(event.getCreatedAt(), now)));
+        return deliverable.size();
+    }
+
+    // Drops each client's events from the first one that has a pending
+    // predecessor outside the batch, i.e. locked by another relay.
+    private List<OutboxEvent> inClientOrder(List<OutboxEvent> batch) {
+        Set<Long> locked = batch.stream().map(OutboxEvent::getId).collect(Collectors.toSet());
+        Set<Integer> clientIds = batch.stream().map(OutboxEvent::getClientId).collect(Collectors.toSet());
+        long maxId = batch.get(batch.size() - 1).getId();
+        Map<Integer, Long> firstForeign = new HashMap<>();
+        outboxRepository.findPendingIdsByClient(clientIds, maxId).forEach((clientId, ids) -> ids.stream()
+                .filter(id -> !locked.contains(id))
+                .findFirst()
+                .ifPresent(id -> firstForeign.put(clientId, id)));
+        if (firstForeign.isEmpty()) {
+            return batch;
+        }
+        List<OutboxEvent> deliverable = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            if (event.getId() < firstForeign.getOrDefault(event.getClientId(), Long.MAX_VALUE)) {
+                deliverable.add(event);
+            }
+        }
+        return deliverable;
+    }
+
+    private void poll() {
+        try {
+            relayPending();
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.warn("Outbox relay failed; retrying in {}", pollInterval, ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("outbox-relay").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = scheduler;
+        scheduler = null;
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.tenpo.outbox;
+
+import com.tenpo.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Where {@link OutboxRelay} delivers events. Declaring a bean of this type
+ * replaces the sink chosen by {@code tenpo.outbox.sink}.
+ */
+public interface OutboxSink {
+
+    /**
+     * Delivers the events, ordered by id. Returning means all of them were
+     * accepted; throwing means none is considered delivered and the whole
+     * batch is sent again, so consumers must tolerate duplicates (matching on
+     * the event id).
+     */
+    void send(List<OutboxEvent> events) throws Exception;
+}
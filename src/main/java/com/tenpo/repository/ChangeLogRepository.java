@@ -0,0 +1,9 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.ChangeLogEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long>, ChangeLogRepositoryCustom {
+}
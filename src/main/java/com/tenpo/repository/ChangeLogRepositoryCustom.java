@@ -0,0 +1,29 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.ChangeLogEntry;
+
+import java.util.List;
+
+public interface ChangeLogRepositoryCustom {
+
+    /**
+     * JDBC batch that writes each entry over the existing row for the same
+     * entity, or inserts it. Each row gets a new {@code change_seq} from the
+     * {@code change_log_seq} sequence and the id of the current transaction
+     * as {@code txn_id}.
+     */
+    void mergeAllInBatch(List<ChangeLogEntry> entries);
+
+    /**
+     * The first {@code limit} entries written by transactions after
+     * {@code sinceTxnId}, by {@code (txn_id, change_seq)}, stopping below the
+     * oldest transaction that may still commit, so no entry can later appear
+     * before the last one returned.
+     */
+    List<ChangeLogEntry> findCommittedAfter(long sinceTxnId, int limit);
+
+    /**
+     * All entries of one transaction, by {@code change_seq}.
+     */
+    List<ChangeLogEntry> findByTxnId(long txnId);
+}
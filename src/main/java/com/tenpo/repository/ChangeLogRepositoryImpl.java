@@ -0,0 +1,148 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.ChangeLogEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * On PostgreSQL {@code txn_id} is the writer's transaction id and readers stop
+ * at the oldest transaction still running in their snapshot
+ * ({@code pg_snapshot_xmin}), which holds across instances and on replicas.
+ * Other databases, H2 in tests and development, are used by a single
+ * instance: ids are handed out here and the running ones are tracked in
+ * memory.
+ */
+class ChangeLogRepositoryImpl implements ChangeLogRepositoryCustom {
+
+    private static final String POSTGRES_TXN_ID = "CAST(CAST(pg_current_xact_id() AS TEXT) AS BIGINT)";
+    private static final String POSTGRES_HORIZON =
+            "CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)";
+
+    // Standard MERGE (PostgreSQL 15+, H2): the entity's existing row, if any, takes the new number.
+    private static final String MERGE_SQL = "MERGE INTO change_log t USING (VALUES (%s, "
+            + "CAST(? AS VARCHAR(16)), CAST(? AS INTEGER), CAST(? AS VARCHAR(8)), CAST(? AS TIMESTAMP))) "
+            + "AS s (txn_id, entity_type, entity_id, operation, changed_at) "
+            + "ON t.entity_type = s.entity_type AND t.entity_id = s.entity_id "
+            + "WHEN MATCHED THEN UPDATE SET change_seq = nextval('change_log_seq'), txn_id = s.txn_id, "
+            + "operation = s.operation, changed_at = s.changed_at "
+            + "WHEN NOT MATCHED THEN INSERT (change_seq, txn_id, entity_type, entity_id, operation, changed_at) "
+            + "VALUES (nextval('change_log_seq'), s.txn_id, s.entity_type, s.entity_id, s.operation, s.changed_at)";
+    private static final String COLUMNS = "SELECT change_seq, txn_id, entity_type, entity_id, operation, changed_at "
+            + "FROM change_log ";
+    private static final String AFTER_SQL = COLUMNS + "WHERE txn_id > ? AND txn_id < %s "
+            + "ORDER BY txn_id, change_seq LIMIT ?";
+    private static final String TXN_SQL = COLUMNS + "WHERE txn_id = ? ORDER BY change_seq";
+
+    private static final RowMapper<ChangeLogEntry> ROW_MAPPER = (rs, row) -> ChangeLogEntry.builder()
+            .seq(rs.getLong("change_seq"))
+            .txnId(rs.getLong("txn_id"))
+            .entityType(ChangeLogEntry.EntityType.valueOf(rs.getString("entity_type")))
+            .entityId(rs.getInt("entity_id"))
+            .operation(ChangeLogEntry.Operation.valueOf(rs.getString("operation")))
+            .changedAt(rs.getTimestamp("changed_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalTransactions local = new LocalTransactions();
+    private volatile Boolean postgres;
+
+    ChangeLogRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void mergeAllInBatch(List<ChangeLogEntry> entries) {
+        boolean onPostgres = isPostgres();
+        long txnId = onPostgres ? 0 : local.enter();
+        int offset = onPostgres ? 0 : 1;
+        jdbcTemplate.batchUpdate(MERGE_SQL.formatted(onPostgres ? POSTGRES_TXN_ID : "CAST(? AS BIGINT)"),
+                entries, entries.size(), (ps, entry) -> {
+                    if (!onPostgres) {
+                        ps.setLong(1, txnId);
+                    }
+                    ps.setString(1 + offset, entry.getEntityType().name());
+                    ps.setInt(2 + offset, entry.getEntityId());
+                    ps.setString(3 + offset, entry.getOperation().name());
+                    ps.setTimestamp(4 + offset, Timestamp.valueOf(entry.getChangedAt()));
+                });
+    }
+
+    @Override
+    public List<ChangeLogEntry> findCommittedAfter(long sinceTxnId, int limit) {
+        if (isPostgres()) {
+            return jdbcTemplate.query(AFTER_SQL.formatted(POSTGRES_HORIZON), ROW_MAPPER, sinceTxnId, limit);
+        }
+        return jdbcTemplate.query(AFTER_SQL.formatted("?"), ROW_MAPPER, sinceTxnId, local.horizon(), limit);
+    }
+
+    @Override
+    public List<ChangeLogEntry> findByTxnId(long txnId) {
+        return jdbcTemplate.query(TXN_SQL, ROW_MAPPER, txnId);
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                        DatabaseMetaData::getDatabaseProductName);
+                result = "PostgreSQL".equals(product);
+            } catch (MetaDataAccessException ex) {
+                throw new IllegalStateException("Cannot determine the database product", ex);
+            }
+            postgres = result;
+        }
+        return result;
+    }
+
+    /**
+     * Transaction ids for a single instance: increasing, and above the wall
+     * clock in units of 1/1024 ms, so that ids keep growing across restarts
+     * without reading the table. A transaction holds its id from writing its
+     * entries until it completes.
+     */
+    static final class LocalTransactions {
+
+        private final NavigableSet<Long> running = new TreeSet<>();
+        private long last;
+
+        synchronized long enter() {
+            long txnId = next();
+            running.add(txnId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    leave(txnId);
+                }
+            });
+            return txnId;
+        }
+
+        /**
+         * The smallest id a transaction that has not completed holds or can
+         * still be given.
+         */
+        synchronized long horizon() {
+            return running.isEmpty() ? Math.max(last + 1, System.currentTimeMillis() << 10) : running.first();
+        }
+
+        private long next() {
+            last = Math.max(last + 1, System.currentTimeMillis() << 10);
+            return last;
+        }
+
+        private synchronized void leave(long txnId) {
+            running.remove(txnId);
+        }
+    }
+}
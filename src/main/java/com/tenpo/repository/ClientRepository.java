@@ -1,9 +1,64 @@
 package com.tenpo.repository;
 
 import com.tenpo.model.Client;
+import com.tenpo.sharding.ScatterGather;
+import com.tenpo.sharding.ShardKey;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static com.tenpo.sharding.ShardKey.Type.CLIENT;
+
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Integer> {
+public interface ClientRepository extends JpaRepository<Client, Integer>, ClientRepositoryCustom {
+
+    Optional<Client> findByRut(String rut);
+
+    Optional<Client> findByRutKey(Long rutKey);
+
+    @ScatterGather(ScatterGather.Merge.ANY)
+    boolean existsByRutKey(Long rutKey);
+
+    @Query("SELECT c.id FROM Client c WHERE c.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @ScatterGather
+    @Query("SELECT c.rutKey FROM Client c WHERE c.rutKey IN :rutKeys")
+    List<Long> findExistingRutKeys(@Param("rutKeys") Collection<Long> rutKeys);
+
+    @ScatterGather
+    @Query("SELECT new com.tenpo.repository.RutKeyId(c.rutKey, c.id) FROM Client c WHERE c.rutKey IN :rutKeys")
+    List<RutKeyId> findIdsByRutKeys(@Param("rutKeys") Collection<Long> rutKeys);
+
+    @ScatterGather(ScatterGather.Merge.SUM)
+    long countByRutKeyIsNotNull();
+
+    // Keyset page of RUT keys above after, in key order.
+    @ScatterGather
+    @Query("SELECT c.rutKey FROM Client c WHERE c.rutKey > :after ORDER BY c.rutKey")
+    List<Long> findRutKeysAfter(@Param("after") long after, Limit limit);
+
+    @ScatterGather(ScatterGather.Merge.MAX)
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM Client c")
+    int findMaxId();
+
+    @Query("SELECT c.version FROM Client c WHERE c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+
+    @Modifying
+    @Query("UPDATE Client c SET c.name = :name, c.rut = :rut, c.rutKey = :rutKey, c.version = c.version + 1 "
+            + "WHERE c.id = :id AND c.version = :version")
+    int updateIfVersionMatches(@Param("id") Integer id, @Param("name") String name, @Param("rut") String rut,
+            @Param("rutKey") Long rutKey, @Param("version") Long version);
+
+    // Redeclared so that the background purge, which has no shard bound, deletes on the client's shard.
+    @Override
+    void deleteAllByIdInBatch(@ShardKey(CLIENT) Iterable<Integer> ids);
 }
@@ -0,0 +1,23 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.Client;
+import com.tenpo.sharding.ShardKey;
+
+import java.util.List;
+
+public interface ClientRepositoryCustom {
+
+    /**
+     * Inserts or updates each client by its RUT key in a handful of set-based
+     * statements. The RUT keys must be non-null and distinct.
+     *
+     * @return one result per client, in input order
+     */
+    List<RutUpsertResult> upsertAllByRut(List<Client> clients);
+
+    /**
+     * Plain JDBC batch insert, bypassing the persistence context. The RUT keys
+     * must already be set; a conflict on them fails the whole call.
+     */
+    void insertAllInBatch(@ShardKey(value = ShardKey.Type.PLACEMENT, property = "rut") List<Client> clients);
+}
@@ -0,0 +1,38 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.Client;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+class ClientRepositoryImpl implements ClientRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO clients (client_name, client_rut, client_rut_key, version) VALUES (?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RutUpsertTemplate upsertTemplate;
+
+    ClientRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.upsertTemplate = new RutUpsertTemplate(jdbcTemplate, "clients", "client_id", "client_rut_key",
+                List.of(new RutUpsertTemplate.Column("client_name", "VARCHAR(255)"),
+                        new RutUpsertTemplate.Column("client_rut", "VARCHAR(255)")));
+    }
+
+    @Override
+    public List<RutUpsertResult> upsertAllByRut(List<Client> clients) {
+        return upsertTemplate.upsert(clients.stream()
+                .map(client -> new Object[] { client.getRutKey(), client.getName(), client.getRut() })
+                .toList());
+    }
+
+    @Override
+    public void insertAllInBatch(List<Client> clients) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, clients, clients.size(), (ps, client) -> {
+            ps.setString(1, client.getName());
+            ps.setString(2, client.getRut());
+            ps.setLong(3, client.getRutKey());
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.tenpo.repository;
+
+/**
+ * Everything the transaction write paths need to validate a request, read in
+ * one statement: which client owns the employee and how many transactions that
+ * client already has.
+ */
+public record EmployeeOwnership(
+        Integer employeeId,
+        Integer clientId,
+        long clientTransactionCount) {
+}
@@ -1,15 +1,79 @@
 package com.tenpo.repository;
 
 import com.tenpo.model.Employee;
+import com.tenpo.sharding.ScatterGather;
+import com.tenpo.sharding.ShardKey;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import static com.tenpo.sharding.ShardKey.Type.CLIENT;
+
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
+public interface EmployeeRepository extends JpaRepository<Employee, Integer>, EmployeeRepositoryCustom {
 
     @EntityGraph(attributePaths = { "client" })
     Optional<Employee> findByRut(String rut);
+
+    @EntityGraph(attributePaths = { "client" })
+    Optional<Employee> findByRutKey(Long rutKey);
+
+    @ScatterGather(ScatterGather.Merge.ANY)
+    boolean existsByRutKey(Long rutKey);
+
+    @ScatterGather
+    @Query("SELECT e.rutKey FROM Employee e WHERE e.rutKey IN :rutKeys")
+    List<Long> findExistingRutKeys(@Param("rutKeys") Collection<Long> rutKeys);
+
+    @Query("SELECT new com.tenpo.repository.RutKeyId(e.rutKey, e.id) FROM Employee e WHERE e.rutKey IN :rutKeys")
+    List<RutKeyId> findIdsByRutKeys(@Param("rutKeys") Collection<Long> rutKeys);
+
+    @ScatterGather(ScatterGather.Merge.SUM)
+    long countByRutKeyIsNotNull();
+
+    // Keyset page of RUT keys above after, in key order.
+    @ScatterGather
+    @Query("SELECT e.rutKey FROM Employee e WHERE e.rutKey > :after ORDER BY e.rutKey")
+    List<Long> findRutKeysAfter(@Param("after") long after, Limit limit);
+
+    long countByClientId(@ShardKey(CLIENT) Integer clientId);
+
+    List<Employee> findByClientId(Integer clientId);
+
+    @Query("SELECT new com.tenpo.repository.EmployeeOwnership(e.id, e.client.id, "
+            + "(SELECT COUNT(t) FROM Transaction t WHERE t.employee.client.id = e.client.id)) "
+            + "FROM Employee e WHERE e.id = :id")
+    Optional<EmployeeOwnership> findOwnershipById(@Param("id") Integer id);
+
+    @ScatterGather(ScatterGather.Merge.MAX)
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM Employee e")
+    int findMaxId();
+
+    @Query("SELECT e.client.id FROM Employee e WHERE e.id = :id")
+    Optional<Integer> findClientIdById(@Param("id") Integer id);
+
+    @Query("SELECT e.version FROM Employee e WHERE e.id = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+
+    @Modifying
+    @Query(value = "UPDATE employees SET employee_name = :name, employee_rut = :rut, employee_rut_key = :rutKey, "
+            + "client_id = :clientId, version = version + 1 WHERE employee_id = :id AND version = :version "
+            + "AND EXISTS (SELECT 1 FROM clients c WHERE c.client_id = :clientId)", nativeQuery = true)
+    int updateIfVersionMatches(@Param("id") Integer id, @Param("name") String name, @Param("rut") String rut,
+            @Param("rutKey") Long rutKey, @Param("clientId") Integer clientId, @Param("version") Long version);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM employees WHERE employee_id IN ("
+            + "SELECT employee_id FROM employees WHERE client_id = :clientId LIMIT :limit)", nativeQuery = true)
+    int deleteChunkByClientId(@ShardKey(CLIENT) @Param("clientId") Integer clientId, @Param("limit") int limit);
 }
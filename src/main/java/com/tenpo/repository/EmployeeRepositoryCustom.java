@@ -0,0 +1,20 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.Employee;
+
+import java.util.List;
+
+public interface EmployeeRepositoryCustom {
+
+    /**
+     * Employee counterpart of {@link ClientRepositoryCustom#upsertAllByRut}.
+     * Every employee must reference an existing client.
+     */
+    List<RutUpsertResult> upsertAllByRut(List<Employee> employees);
+
+    /**
+     * Plain JDBC batch insert, bypassing the persistence context. The RUT keys
+     * must already be set; a conflict on them fails the whole call.
+     */
+    void insertAllInBatch(List<Employee> employees);
+}
@@ -0,0 +1,41 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.Employee;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO employees "
+            + "(employee_name, employee_rut, employee_rut_key, client_id, version) VALUES (?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RutUpsertTemplate upsertTemplate;
+
+    EmployeeRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.upsertTemplate = new RutUpsertTemplate(jdbcTemplate, "employees", "employee_id", "employee_rut_key",
+                List.of(new RutUpsertTemplate.Column("employee_name", "VARCHAR(255)"),
+                        new RutUpsertTemplate.Column("employee_rut", "VARCHAR(255)"),
+                        new RutUpsertTemplate.Column("client_id", "INTEGER")));
+    }
+
+    @Override
+    public List<RutUpsertResult> upsertAllByRut(List<Employee> employees) {
+        return upsertTemplate.upsert(employees.stream()
+                .map(employee -> new Object[] { employee.getRutKey(), employee.getName(), employee.getRut(),
+                        employee.getClient().getId() })
+                .toList());
+    }
+
+    @Override
+    public void insertAllInBatch(List<Employee> employees) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, employees, employees.size(), (ps, employee) -> {
+            ps.setString(1, employee.getName());
+            ps.setString(2, employee.getRut());
+            ps.setLong(3, employee.getRutKey());
+            ps.setInt(4, employee.getClient().getId());
+        });
+    }
+}
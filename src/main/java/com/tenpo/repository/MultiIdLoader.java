@@ -0,0 +1,66 @@
+package com.tenpo.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads entities by a list of ids through Hibernate's multi-load: ids already
+ * in the persistence context (or the second-level cache, when one is
+ * configured) are served from there and the rest are fetched with
+ * {@code IN} queries of at most {@code default_batch_fetch_size} ids each.
+ * Must be called inside a transaction.
+ */
+@Component
+public class MultiIdLoader {
+
+    private final EntityManager entityManager;
+    private final int batchSize;
+    private final int maxIds;
+
+    public MultiIdLoader(EntityManager entityManager,
+            @Value("${spring.jpa.properties.hibernate.default_batch_fetch_size:20}") int batchSize,
+            @Value("${tenpo.multi-get.max-ids:1000}") int maxIds) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * Returns one element per requested id, in request order, {@code null}
+     * where no row exists. Duplicate ids are loaded once.
+     */
+    public <T> List<T> findAllInRequestOrder(Class<T> entityType, List<Integer> ids) {
+        if (ids.size() > maxIds) {
+            throw new RuntimeException("At most " + maxIds + " ids can be requested at once");
+        }
+        LinkedHashSet<Integer> distinct = new LinkedHashSet<>(ids);
+        if (distinct.contains(null)) {
+            throw new RuntimeException("Ids cannot be null");
+        }
+        List<Integer> distinctIds = List.copyOf(distinct);
+        List<T> loaded = entityManager.unwrap(Session.class)
+                .byMultipleIds(entityType)
+                .withBatchSize(batchSize)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(true)
+                .multiLoad(distinctIds);
+
+        Map<Integer, T> byId = new HashMap<>(distinctIds.size() * 2);
+        for (int i = 0; i < distinctIds.size(); i++) {
+            byId.put(distinctIds.get(i), loaded.get(i));
+        }
+        List<T> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            result.add(byId.get(id));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,30 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.OutboxEvent;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface OutboxRepositoryCustom {
+
+    /**
+     * Plain JDBC batch INSERT, ids from {@code outbox_event_seq}, after locking
+     * the events' clients until the current transaction completes.
+     */
+    void insertAllInBatch(List<OutboxEvent> events);
+
+    /**
+     * The oldest {@code limit} events not locked by another relay, locked
+     * until the current transaction ends ({@code FOR UPDATE SKIP LOCKED}).
+     */
+    List<OutboxEvent> lockNextBatch(int limit);
+
+    /**
+     * Ids of all pending events of the given clients up to {@code maxId},
+     * including those locked by other relays, ascending per client.
+     */
+    Map<Integer, List<Long>> findPendingIdsByClient(Collection<Integer> clientIds, long maxId);
+
+    void deleteAllByIds(Collection<Long> ids);
+}
@@ -0,0 +1,148 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.ChangeLogEntry;
+import com.tenpo.model.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Before taking ids, a writer locks each client its events belong to until
+ * it completes: {@code pg_advisory_xact_lock} on PostgreSQL, which holds
+ * across instances, and a lock in memory on the single-instance databases
+ * used in tests and development. Ids of one client are therefore taken in
+ * commit order, and the relay can never see a later event of a client while
+ * an earlier one is still uncommitted.
+ */
+class OutboxRepositoryImpl implements OutboxRepositoryCustom {
+
+    // First key of the two-key advisory lock, so the second can be the client id.
+    private static final int ADVISORY_LOCK_SPACE = 0x6f757462;
+    private static final String ADVISORY_LOCK_SQL = "SELECT pg_advisory_xact_lock(?, ?)";
+    private static final int LOCAL_STRIPES = 256;
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_event "
+            + "(event_id, client_id, aggregate_type, aggregate_id, event_type, payload, created_at) "
+            + "VALUES (nextval('outbox_event_seq'), ?, ?, ?, ?, ?, ?)";
+    private static final String LOCK_SQL = "SELECT event_id, client_id, aggregate_type, aggregate_id, event_type, "
+            + "payload, created_at FROM outbox_event ORDER BY event_id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String PENDING_SQL = "SELECT client_id, event_id FROM outbox_event "
+            + "WHERE client_id IN (:clientIds) AND event_id <= :maxId ORDER BY event_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ReentrantLock[] localLocks = new ReentrantLock[LOCAL_STRIPES];
+    private volatile Boolean postgres;
+
+    OutboxRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        for (int i = 0; i < LOCAL_STRIPES; i++) {
+            localLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void insertAllInBatch(List<OutboxEvent> events) {
+        lockClients(events.stream().map(OutboxEvent::getClientId).collect(Collectors.toCollection(TreeSet::new)));
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setInt(1, event.getClientId());
+            ps.setString(2, event.getAggregateType().name());
+            ps.setInt(3, event.getAggregateId());
+            ps.setString(4, event.getEventType().name());
+            if (event.getPayload() != null) {
+                ps.setString(5, event.getPayload());
+            } else {
+                ps.setNull(5, Types.VARCHAR);
+            }
+            ps.setTimestamp(6, Timestamp.valueOf(event.getCreatedAt()));
+        });
+    }
+
+    // In ascending order, so two writers never wait on each other's clients.
+    private void lockClients(SortedSet<Integer> clientIds) {
+        if (isPostgres()) {
+            clientIds.forEach(clientId -> jdbcTemplate.query(ADVISORY_LOCK_SQL, rs -> {
+            }, ADVISORY_LOCK_SPACE, clientId));
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Outbox events can only be written inside a transaction");
+        }
+        SortedSet<Integer> stripes = new TreeSet<>();
+        clientIds.forEach(clientId -> stripes.add(Math.floorMod(clientId, LOCAL_STRIPES)));
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                held.forEach(ReentrantLock::unlock);
+            }
+        });
+        for (int stripe : stripes) {
+            localLocks[stripe].lock();
+            held.add(localLocks[stripe]);
+        }
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                        DatabaseMetaData::getDatabaseProductName);
+                result = "PostgreSQL".equals(product);
+            } catch (MetaDataAccessException ex) {
+                throw new IllegalStateException("Cannot determine the database product", ex);
+            }
+            postgres = result;
+        }
+        return result;
+    }
+
+    @Override
+    public List<OutboxEvent> lockNextBatch(int limit) {
+        return jdbcTemplate.query(LOCK_SQL, (rs, row) -> OutboxEvent.builder()
+                .id(rs.getLong("event_id"))
+                .clientId(rs.getInt("client_id"))
+                .aggregateType(ChangeLogEntry.EntityType.valueOf(rs.getString("aggregate_type")))
+                .aggregateId(rs.getInt("aggregate_id"))
+                .eventType(OutboxEvent.EventType.valueOf(rs.getString("event_type")))
+                .payload(rs.getString("payload"))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .build(), limit);
+    }
+
+    @Override
+    public Map<Integer, List<Long>> findPendingIdsByClient(Collection<Integer> clientIds, long maxId) {
+        Map<Integer, List<Long>> pending = new HashMap<>();
+        namedJdbcTemplate.query(PENDING_SQL, new MapSqlParameterSource()
+                .addValue("clientIds", clientIds)
+                .addValue("maxId", maxId), rs -> {
+            pending.computeIfAbsent(rs.getInt("client_id"), id -> new ArrayList<>()).add(rs.getLong("event_id"));
+        });
+        return pending;
+    }
+
+    @Override
+    public void deleteAllByIds(Collection<Long> ids) {
+        namedJdbcTemplate.update("DELETE FROM outbox_event WHERE event_id IN (:ids)",
+                new MapSqlParameterSource("ids", ids));
+    }
+}
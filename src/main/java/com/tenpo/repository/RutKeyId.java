@@ -0,0 +1,8 @@
+package com.tenpo.repository;
+
+/**
+ * The id a row was given, found by its RUT key after a JDBC batch insert,
+ * which does not return generated keys.
+ */
+public record RutKeyId(Long rutKey, Integer id) {
+}
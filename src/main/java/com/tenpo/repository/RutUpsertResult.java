@@ -0,0 +1,13 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.UpsertOutcome;
+
+/**
+ * Row-level result of an upsert keyed by the canonical RUT.
+ */
+public record RutUpsertResult(
+        long rutKey,
+        Integer id,
+        long version,
+        UpsertOutcome outcome) {
+}
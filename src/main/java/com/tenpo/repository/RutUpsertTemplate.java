@@ -0,0 +1,213 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.UpsertOutcome;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based upsert on a table with a unique RUT key column, shared by the
+ * client and employee repositories.
+ *
+ * <p>On PostgreSQL each chunk is one statement: {@code INSERT ... ON CONFLICT
+ * DO UPDATE} that only touches rows whose values differ, plus a read of the
+ * untouched ones. H2 has no {@code ON CONFLICT}, so the tests run a read to
+ * classify rows, a {@code MERGE}, and a read of the ids.
+ *
+ * <p>A row inserted concurrently with identical values is left untouched by
+ * {@code ON CONFLICT}, yet committed after the statement's snapshot, so the
+ * read of untouched rows misses it. Such keys are read again by a second
+ * statement, which sees the committed row.
+ */
+final class RutUpsertTemplate {
+
+    // Keeps every statement well under PostgreSQL's 65535 bind parameter limit.
+    static final int CHUNK_SIZE = 1000;
+
+    record Column(String name, String sqlType) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String idColumn;
+    private final String keyColumn;
+    private final List<Column> columns;
+    private volatile Boolean postgres;
+
+    RutUpsertTemplate(JdbcTemplate jdbcTemplate, String table, String idColumn, String keyColumn,
+            List<Column> columns) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.idColumn = idColumn;
+        this.keyColumn = keyColumn;
+        this.columns = columns;
+    }
+
+    /**
+     * @param rows one array per row: the RUT key followed by the values of
+     *             {@code columns}; keys must be distinct
+     * @return one result per row, in input order
+     */
+    List<RutUpsertResult> upsert(List<Object[]> rows) {
+        List<RutUpsertResult> results = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            List<Object[]> chunk = rows.subList(from, Math.min(rows.size(), from + CHUNK_SIZE));
+            Map<Long, RutUpsertResult> byKey = isPostgres() ? upsertPostgres(chunk) : upsertMerge(chunk);
+            for (Object[] row : chunk) {
+                results.add(byKey.get((Long) row[0]));
+            }
+        }
+        return results;
+    }
+
+    private Map<Long, RutUpsertResult> upsertPostgres(List<Object[]> chunk) {
+        String columnList = columnNames("");
+        String sql = "WITH input (k, " + aliases() + ") AS (VALUES " + valuesRows(chunk.size()) + "), "
+                + "upsert AS (INSERT INTO " + table + " (" + keyColumn + ", " + columnList + ", version) "
+                + "SELECT k, " + aliases() + ", 0 FROM input "
+                + "ON CONFLICT (" + keyColumn + ") DO UPDATE SET "
+                + columns.stream().map(c -> c.name() + " = EXCLUDED." + c.name()).collect(Collectors.joining(", "))
+                + ", version = " + table + ".version + 1 "
+                + "WHERE (" + columnNames(table + ".") + ") IS DISTINCT FROM (" + columnNames("EXCLUDED.") + ") "
+                + "RETURNING " + idColumn + ", " + keyColumn + ", version, (xmax = 0) AS inserted) "
+                + "SELECT " + idColumn + ", " + keyColumn + ", version, "
+                + "CASE WHEN inserted THEN 'CREATED' ELSE 'UPDATED' END AS outcome FROM upsert "
+                + "UNION ALL SELECT t." + idColumn + ", t." + keyColumn + ", t.version, 'UNCHANGED' "
+                + "FROM " + table + " t JOIN input i ON t." + keyColumn + " = i.k "
+                + "WHERE NOT EXISTS (SELECT 1 FROM upsert u WHERE u." + keyColumn + " = t." + keyColumn + ")";
+        Map<Long, RutUpsertResult> byKey = new HashMap<>(chunk.size() * 2);
+        jdbcTemplate.query(sql, rs -> {
+            long key = rs.getLong(2);
+            byKey.put(key, new RutUpsertResult(key, rs.getInt(1), rs.getLong(3),
+                    UpsertOutcome.valueOf(rs.getString(4))));
+        }, flatten(chunk));
+        if (byKey.size() < chunk.size()) {
+            List<Object[]> missing = missingRows(chunk, byKey);
+            selectByKeys(missing, "version").forEach((key, stored) -> byKey.put(key,
+                    new RutUpsertResult(key, (Integer) stored[0], ((Number) stored[1]).longValue(),
+                            UpsertOutcome.UNCHANGED)));
+            if (byKey.size() < chunk.size()) {
+                // Deleted again between the two statements.
+                throw new OptimisticLockingFailureException("Rows for RUT keys "
+                        + missingRows(chunk, byKey).stream().map(row -> row[0]).toList()
+                        + " changed concurrently");
+            }
+        }
+        return byKey;
+    }
+
+    private static List<Object[]> missingRows(List<Object[]> chunk, Map<Long, RutUpsertResult> byKey) {
+        return chunk.stream().filter(row -> !byKey.containsKey((Long) row[0])).toList();
+    }
+
+    private Map<Long, RutUpsertResult> upsertMerge(List<Object[]> chunk) {
+        Map<Long, Object[]> existing = selectByKeys(chunk, columnNames(""));
+        Map<Long, UpsertOutcome> outcomes = new HashMap<>(chunk.size() * 2);
+        for (Object[] row : chunk) {
+            Object[] stored = existing.get((Long) row[0]);
+            UpsertOutcome outcome = stored == null ? UpsertOutcome.CREATED
+                    : sameValues(row, stored) ? UpsertOutcome.UNCHANGED : UpsertOutcome.UPDATED;
+            outcomes.put((Long) row[0], outcome);
+        }
+
+        String sql = "MERGE INTO " + table + " t USING (VALUES " + valuesRows(chunk.size()) + ") "
+                + "AS s (k, " + aliases() + ") ON t." + keyColumn + " = s.k "
+                + "WHEN MATCHED AND (" + columnsDiffer() + ") THEN UPDATE SET "
+                + columns.stream().map(c -> c.name() + " = s." + alias(c)).collect(Collectors.joining(", "))
+                + ", version = t.version + 1 "
+                + "WHEN NOT MATCHED THEN INSERT (" + keyColumn + ", " + columnNames("") + ", version) "
+                + "VALUES (s.k, " + columns.stream().map(c -> "s." + alias(c)).collect(Collectors.joining(", "))
+                + ", 0)";
+        jdbcTemplate.update(sql, flatten(chunk));
+
+        Map<Long, RutUpsertResult> byKey = new HashMap<>(chunk.size() * 2);
+        selectByKeys(chunk, "version").forEach((key, stored) -> byKey.put(key,
+                new RutUpsertResult(key, (Integer) stored[0], ((Number) stored[1]).longValue(), outcomes.get(key))));
+        return byKey;
+    }
+
+    // Returns id followed by the selected columns, by RUT key.
+    private Map<Long, Object[]> selectByKeys(List<Object[]> chunk, String selectedColumns) {
+        String sql = "SELECT " + idColumn + ", " + keyColumn + ", " + selectedColumns + " FROM " + table
+                + " WHERE " + keyColumn + " IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+        Map<Long, Object[]> byKey = new HashMap<>(chunk.size() * 2);
+        jdbcTemplate.query(sql, rs -> {
+            int count = rs.getMetaData().getColumnCount();
+            Object[] values = new Object[count - 1];
+            values[0] = rs.getInt(1);
+            for (int i = 3; i <= count; i++) {
+                values[i - 2] = rs.getObject(i);
+            }
+            byKey.put(rs.getLong(2), values);
+        }, chunk.stream().map(row -> row[0]).toArray());
+        return byKey;
+    }
+
+    private boolean sameValues(Object[] row, Object[] stored) {
+        for (int i = 0; i < columns.size(); i++) {
+            Object requested = row[i + 1];
+            Object current = stored[i + 1];
+            if (requested instanceof Number n && current instanceof Number m) {
+                if (n.longValue() != m.longValue()) {
+                    return false;
+                }
+            } else if (!Objects.equals(requested, current)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String columnsDiffer() {
+        return columns.stream().map(c -> "t." + c.name() + " <> s." + alias(c)).collect(Collectors.joining(" OR "));
+    }
+
+    private String valuesRows(int rows) {
+        String row = "(CAST(? AS BIGINT), "
+                + columns.stream().map(c -> "CAST(? AS " + c.sqlType() + ")").collect(Collectors.joining(", "))
+                + ")";
+        return String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    private String columnNames(String prefix) {
+        return columns.stream().map(c -> prefix + c.name()).collect(Collectors.joining(", "));
+    }
+
+    private String aliases() {
+        return columns.stream().map(this::alias).collect(Collectors.joining(", "));
+    }
+
+    private String alias(Column column) {
+        return "v_" + column.name();
+    }
+
+    private static Object[] flatten(List<Object[]> rows) {
+        return rows.stream().flatMap(Arrays::stream).toArray();
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                        DatabaseMetaData::getDatabaseProductName);
+                result = "PostgreSQL".equals(product);
+            } catch (MetaDataAccessException ex) {
+                throw new IllegalStateException("Cannot determine the database product", ex);
+            }
+            postgres = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.ShardDirectoryEntry;
+import com.tenpo.sharding.ShardKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface ShardDirectoryRepository extends JpaRepository<ShardDirectoryEntry, Integer> {
+
+    @Modifying
+    @Query("DELETE FROM ShardDirectoryEntry e WHERE e.entityType = :type AND e.entityId IN :ids")
+    int deleteEntries(@Param("type") ShardKey.Type type, @Param("ids") Collection<Integer> ids);
+}
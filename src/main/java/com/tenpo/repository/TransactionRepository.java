@@ -1,13 +1,22 @@
 package com.tenpo.repository;
 
 import com.tenpo.model.Transaction;
+import com.tenpo.sharding.ScatterGather;
+import com.tenpo.sharding.ShardKey;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+
+import static com.tenpo.sharding.ShardKey.Type.CLIENT;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Integer> {
@@ -20,7 +29,44 @@ public interface TransactionRepository extends JpaRepository<Transaction, Intege
     @Query("SELECT t FROM Transaction t WHERE t.employee.client.id = :clientId")
     List<Transaction> findByClientId(@Param("clientId") Integer clientId);
 
+    @EntityGraph(attributePaths = { "employee" })
+    @Query("SELECT t FROM Transaction t WHERE t.employee.client.id = :clientId ORDER BY t.date DESC, t.id DESC")
+    List<Transaction> findRecentByClientId(@Param("clientId") Integer clientId, Limit limit);
+
+    @Query("SELECT new com.tenpo.repository.TransactionTotals(COUNT(t), COALESCE(SUM(t.amount), 0)) "
+            + "FROM Transaction t WHERE t.employee.client.id = :clientId")
+    TransactionTotals findTotalsByClientId(@Param("clientId") Integer clientId);
+
     @EntityGraph(attributePaths = { "employee" })
     @Query("SELECT t FROM Transaction t WHERE t.employee.id = :employeeId")
     List<Transaction> findByEmployeeId(@Param("employeeId") Integer employeeId);
+
+    @EntityGraph(attributePaths = { "employee" })
+    @Query("SELECT t FROM Transaction t WHERE t.id = :id")
+    Optional<Transaction> findWithEmployeeById(@Param("id") Integer id);
+
+    @ScatterGather(ScatterGather.Merge.MAX)
+    @Query("SELECT COALESCE(MAX(t.id), 0) FROM Transaction t")
+    int findMaxId();
+
+    @Query("SELECT t.version FROM Transaction t WHERE t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Integer id);
+
+    @Modifying
+    @Query(value = "UPDATE transactions SET transaction_amount = :amount, merchant_or_business = :merchant, "
+            + "transaction_date = :date, employee_id = :employeeId, version = version + 1 "
+            + "WHERE transaction_id = :id AND version = :version AND EXISTS (SELECT 1 FROM employees e "
+            + "WHERE e.employee_id = :employeeId AND e.client_id = :clientId)", nativeQuery = true)
+    int updateIfVersionMatches(@Param("id") Integer id, @Param("amount") Integer amount,
+            @Param("merchant") String merchantOrBusiness, @Param("date") LocalDateTime date,
+            @Param("employeeId") Integer employeeId, @Param("clientId") Integer clientId,
+            @Param("version") Long version);
+
+    // Each call is its own short transaction so a purge never holds long locks.
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM transactions WHERE transaction_id IN ("
+            + "SELECT t.transaction_id FROM transactions t JOIN employees e ON e.employee_id = t.employee_id "
+            + "WHERE e.client_id = :clientId LIMIT :limit)", nativeQuery = true)
+    int deleteChunkByClientId(@ShardKey(CLIENT) @Param("clientId") Integer clientId, @Param("limit") int limit);
 }
@@ -0,0 +1,10 @@
+package com.tenpo.repository;
+
+/**
+ * How many transactions a client has and what they add up to, read in one
+ * aggregate query.
+ */
+public record TransactionTotals(
+        long count,
+        long totalAmount) {
+}
@@ -0,0 +1,109 @@
+package com.tenpo.service;
+
+import com.tenpo.model.ChangeLogEntry;
+import com.tenpo.model.ChangeLogEntry.EntityType;
+import com.tenpo.model.ChangeLogEntry.Operation;
+import com.tenpo.repository.ChangeLogRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records changes to employees and transactions for {@code GET /sync}.
+ *
+ * <p>Changes are collected for the current transaction and written just before
+ * it commits, in one JDBC batch. Each row is numbered from a sequence and
+ * tagged with the id of the transaction that wrote it. Writers share no lock,
+ * so transactions can commit out of id order; readers instead stop below the
+ * oldest transaction that is still running (see
+ * {@link ChangeLogRepository#findCommittedAfter}), so once a reader has seen
+ * transaction {@code t}, no change from a transaction up to {@code t} can
+ * still appear.
+ *
+ * <p>Each write replaces the entity's previous row, so the log holds one row
+ * per entity and a sync from the start reads each live row once. A deleted
+ * client is a single tombstone; its employees and transactions, removed by
+ * cascade, get none of their own, and neither do the transactions of a
+ * deleted employee.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeLog {
+
+    /**
+     * Order of the synchronization that writes the log, ahead of other
+     * {@code beforeCommit} writers such as the outbox.
+     */
+    public static final int SYNCHRONIZATION_ORDER = 1;
+
+    private final ChangeLogRepository changeLogRepository;
+
+    public void upserted(EntityType type, Integer id) {
+        pending().put(new Change(type, id), Operation.UPSERT);
+    }
+
+    public void upserted(EntityType type, Collection<Integer> ids) {
+        Map<Change, Operation> pending = pending();
+        ids.forEach(id -> pending.put(new Change(type, id), Operation.UPSERT));
+    }
+
+    public void deleted(EntityType type, Integer id) {
+        pending().put(new Change(type, id), Operation.DELETE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Change, Operation> pending() {
+        Map<Change, Operation> pending = (Map<Change, Operation>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Changes can only be recorded inside a transaction");
+        }
+        Map<Change, Operation> created = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return SYNCHRONIZATION_ORDER;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                write(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLog.this);
+            }
+        });
+        return created;
+    }
+
+    private void write(Map<Change, Operation> pending) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ChangeLogEntry> entries = new ArrayList<>(pending.size());
+        for (Map.Entry<Change, Operation> change : pending.entrySet()) {
+            Change key = change.getKey();
+            entries.add(ChangeLogEntry.builder()
+                    .entityType(key.type())
+                    .entityId(key.id())
+                    .operation(change.getValue())
+                    .changedAt(now)
+                    .build());
+        }
+        changeLogRepository.mergeAllInBatch(entries);
+    }
+
+    private record Change(EntityType type, Integer id) {
+    }
+}
@@ -0,0 +1,173 @@
+package com.tenpo.service;
+
+import com.tenpo.api.dto.ClientOverviewDTO;
+import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.api.dto.TransactionResponseDTO;
+import com.tenpo.api.dto.TransactionTotalsDTO;
+import com.tenpo.datasource.ReadYourWrites;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Builds {@code GET /client/{id}/overview} from four independent reads, run at
+ * once on virtual threads: the client, its employees, its transaction totals
+ * and its latest transactions. The response takes as long as the slowest read
+ * rather than their sum, at the price of holding up to four connections.
+ *
+ * <p>Every read has its own timeout, counted from the start of the request. The
+ * client is required: if it is missing the other reads are cancelled and the
+ * request fails, and if it is late the request fails with a timeout. Any other
+ * read that is late is cancelled and reported in {@code unavailable}. A read
+ * that fails cancels the rest and fails the request.
+ */
+@Slf4j
+@Service
+public class ClientOverviewService implements DisposableBean {
+
+    public static final String PART_METRIC = "tenpo.client.overview.part";
+
+    enum Part {
+        CLIENT("client"),
+        EMPLOYEES("employees"),
+        TRANSACTIONS("transactions"),
+        RECENT_TRANSACTIONS("recent_transactions");
+
+        private final String field;
+
+        Part(String field) {
+            this.field = field;
+        }
+    }
+
+    private final ClientService clientService;
+    private final EmployeeService employeeService;
+    private final TransactionService transactionService;
+    private final int recentTransactions;
+    private final Map<Part, Long> timeoutNanos = new EnumMap<>(Part.class);
+    private final Map<Part, Timer> timers = new EnumMap<>(Part.class);
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("client-overview-", 0).factory());
+
+    @Autowired
+    public ClientOverviewService(ClientService clientService,
+            EmployeeService employeeService,
+            TransactionService transactionService,
+            MeterRegistry meterRegistry,
+            @Value("${tenpo.client-overview.recent-transactions:10}") int recentTransactions,
+            @Value("${tenpo.client-overview.timeout.client:2s}") Duration clientTimeout,
+            @Value("${tenpo.client-overview.timeout.employees:2s}") Duration employeesTimeout,
+            @Value("${tenpo.client-overview.timeout.transactions:2s}") Duration transactionsTimeout,
+            @Value("${tenpo.client-overview.timeout.recent-transactions:1s}") Duration recentTimeout) {
+        this(clientService, employeeService, transactionService, meterRegistry, recentTransactions,
+                Map.of(Part.CLIENT, clientTimeout, Part.EMPLOYEES, employeesTimeout,
+                        Part.TRANSACTIONS, transactionsTimeout, Part.RECENT_TRANSACTIONS, recentTimeout));
+    }
+
+    ClientOverviewService(ClientService clientService, EmployeeService employeeService,
+            TransactionService transactionService, MeterRegistry meterRegistry, int recentTransactions,
+            Map<Part, Duration> timeouts) {
+        this.clientService = clientService;
+        this.employeeService = employeeService;
+        this.transactionService = transactionService;
+        this.recentTransactions = recentTransactions;
+        for (Part part : Part.values()) {
+            timeoutNanos.put(part, timeouts.get(part).toNanos());
+            timers.put(part, Timer.builder(PART_METRIC)
+                    .description("Time to load one part of a client overview")
+                    .tag("part", part.field)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    public ClientOverviewDTO getOverview(Integer clientId) {
+        long start = System.nanoTime();
+        Future<ClientResponseDTO> client = fork(Part.CLIENT,
+                () -> clientService.getClientById(clientId));
+        Future<List<EmployeeResponseDTO>> employees = fork(Part.EMPLOYEES,
+                () -> employeeService.getEmployeesByClientId(clientId));
+        Future<TransactionTotalsDTO> totals = fork(Part.TRANSACTIONS,
+                () -> transactionService.getTransactionTotalsByClientId(clientId));
+        Future<List<TransactionResponseDTO>> recent = fork(Part.RECENT_TRANSACTIONS,
+                () -> transactionService.getRecentTransactionsByClientId(clientId, recentTransactions));
+        List<Future<?>> all = List.of(client, employees, totals, recent);
+
+        List<String> unavailable = new ArrayList<>();
+        try {
+            return new ClientOverviewDTO(
+                    join(Part.CLIENT, client, start, unavailable),
+                    join(Part.EMPLOYEES, employees, start, unavailable),
+                    join(Part.TRANSACTIONS, totals, start, unavailable),
+                    join(Part.RECENT_TRANSACTIONS, recent, start, unavailable),
+                    unavailable);
+        } finally {
+            all.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private <T> Future<T> fork(Part part, Supplier<T> read) {
+        Supplier<T> task = ReadYourWrites.propagate(read);
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Timer timer = timers.get(part);
+        return executor.submit(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            return timer.record(task);
+        });
+    }
+
+    // null, after noting the part as unavailable, when an optional part is late
+    private <T> T join(Part part, Future<T> future, long start, List<String> unavailable) {
+        long timeout = timeoutNanos.get(part);
+        try {
+            return future.get(Math.max(0, start + timeout - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            if (part == Part.CLIENT) {
+                throw new QueryTimeoutException("Client overview did not load the client within "
+                        + Duration.ofNanos(timeout));
+            }
+            log.debug("Client overview part {} did not finish within {}", part.field, Duration.ofNanos(timeout));
+            future.cancel(true);
+            unavailable.add(part.field);
+            return null;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading a client overview", ex);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,204 @@
+package com.tenpo.service;
+
+import com.tenpo.api.dto.ClientPurgeStatusDTO;
+import com.tenpo.model.ChangeLogEntry.EntityType;
+import com.tenpo.model.OutboxEvent;
+import com.tenpo.outbox.Outbox;
+import com.tenpo.repository.ClientRepository;
+import com.tenpo.repository.EmployeeRepository;
+import com.tenpo.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Deletes large clients in the background. Transactions, then employees, are
+ * removed in fixed-size chunks, each chunk in its own short transaction, and
+ * the client row goes last, together with its {@link ChangeLog} tombstone
+ * and outbox event.
+ * Nothing is loaded into the persistence context, so
+ * memory use and lock duration stay flat regardless of client size.
+ *
+ * <p>The status of a finished purge is kept for {@code status-retention}, then
+ * forgotten: its status URL answers {@code 404} like that of a client that was
+ * never purged.
+ */
+@Slf4j
+@Service
+@SuppressWarnings("null")
+public class ClientPurgeService {
+
+    private final ClientRepository clientRepository;
+    private final EmployeeRepository employeeRepository;
+    private final TransactionRepository transactionRepository;
+    private final ChangeLog changeLog;
+    private final Outbox outbox;
+    private final TransactionOperations transactionOperations;
+    private final ExecutorService executor;
+    private final long backgroundThreshold;
+    private final int chunkSize;
+    private final long retentionNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Integer, ClientPurgeStatusDTO> statuses = new ConcurrentHashMap<>();
+    // Finished statuses in the order they expire.
+    private final Queue<Finished> finished = new ConcurrentLinkedQueue<>();
+
+    @Autowired
+    public ClientPurgeService(ClientRepository clientRepository,
+            EmployeeRepository employeeRepository,
+            TransactionRepository transactionRepository,
+            ChangeLog changeLog,
+            Outbox outbox,
+            PlatformTransactionManager transactionManager,
+            @Value("${tenpo.client-purge.background-threshold:1000}") long backgroundThreshold,
+            @Value("${tenpo.client-purge.chunk-size:500}") int chunkSize,
+            @Value("${tenpo.client-purge.status-retention:1h}") Duration statusRetention) {
+        this(clientRepository, employeeRepository, transactionRepository, changeLog, outbox,
+                new TransactionTemplate(transactionManager), backgroundThreshold, chunkSize, statusRetention,
+                Executors.newSingleThreadExecutor(Thread.ofPlatform().name("client-purge-", 0).factory()),
+                System::nanoTime);
+    }
+
+    ClientPurgeService(ClientRepository clientRepository,
+            EmployeeRepository employeeRepository,
+            TransactionRepository transactionRepository,
+            ChangeLog changeLog,
+            Outbox outbox,
+            TransactionOperations transactionOperations,
+            long backgroundThreshold,
+            int chunkSize,
+            Duration statusRetention,
+            ExecutorService executor,
+            LongSupplier nanoClock) {
+        this.clientRepository = clientRepository;
+        this.employeeRepository = employeeRepository;
+        this.transactionRepository = transactionRepository;
+        this.changeLog = changeLog;
+        this.outbox = outbox;
+        this.transactionOperations = transactionOperations;
+        this.backgroundThreshold = backgroundThreshold;
+        this.chunkSize = chunkSize;
+        this.retentionNanos = statusRetention.toNanos();
+        this.executor = executor;
+        this.nanoClock = nanoClock;
+    }
+
+    public boolean requiresBackgroundPurge(Integer clientId) {
+        evictExpired();
+        ClientPurgeStatusDTO current = statuses.get(clientId);
+        if (current != null && !current.isFinished()) {
+            return true;
+        }
+        return employeeRepository.countByClientId(clientId) > backgroundThreshold;
+    }
+
+    public ClientPurgeStatusDTO startPurge(Integer clientId) {
+        evictExpired();
+        ClientPurgeStatusDTO pending = ClientPurgeStatusDTO.builder()
+                .clientId(clientId)
+                .state(ClientPurgeStatusDTO.State.PENDING)
+                .build();
+        ClientPurgeStatusDTO existing = statuses.compute(clientId,
+                (id, current) -> current != null && !current.isFinished() ? current : pending);
+        if (existing == pending) {
+            executor.execute(() -> purge(clientId));
+        }
+        return existing;
+    }
+
+    public Optional<ClientPurgeStatusDTO> getPurgeStatus(Integer clientId) {
+        evictExpired();
+        return Optional.ofNullable(statuses.get(clientId));
+    }
+
+    private void purge(Integer clientId) {
+        ClientPurgeStatusDTO status = update(clientId, statuses.get(clientId).toBuilder()
+                .state(ClientPurgeStatusDTO.State.RUNNING)
+                .startedAt(LocalDateTime.now())
+                .build());
+        try {
+            long transactions = deleteInChunks(clientId,
+                    () -> transactionRepository.deleteChunkByClientId(clientId, chunkSize), true);
+            long employees = deleteInChunks(clientId,
+                    () -> employeeRepository.deleteChunkByClientId(clientId, chunkSize), false);
+            transactionOperations.executeWithoutResult(tx -> {
+                clientRepository.deleteAllByIdInBatch(List.of(clientId));
+                changeLog.deleted(EntityType.CLIENT, clientId);
+                outbox.append(clientId, EntityType.CLIENT, clientId, OutboxEvent.EventType.DELETED, null);
+            });
+            update(clientId, statuses.get(clientId).toBuilder()
+                    .state(ClientPurgeStatusDTO.State.COMPLETED)
+                    .deletedTransactions(transactions)
+                    .deletedEmployees(employees)
+                    .finishedAt(LocalDateTime.now())
+                    .build());
+            log.info("Purged client {}: {} transactions, {} employees", clientId, transactions, employees);
+        } catch (RuntimeException ex) {
+            log.error("Purge of client {} failed", clientId, ex);
+            update(clientId, statuses.getOrDefault(clientId, status).toBuilder()
+                    .state(ClientPurgeStatusDTO.State.FAILED)
+                    .finishedAt(LocalDateTime.now())
+                    .error(ex.getMessage())
+                    .build());
+        }
+    }
+
+    private long deleteInChunks(Integer clientId, IntSupplier deleteChunk, boolean transactions) {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = deleteChunk.getAsInt();
+            total += deleted;
+            long progress = total;
+            statuses.computeIfPresent(clientId, (id, current) -> transactions
+                    ? current.toBuilder().deletedTransactions(progress).build()
+                    : current.toBuilder().deletedEmployees(progress).build());
+        } while (deleted > 0);
+        return total;
+    }
+
+    private ClientPurgeStatusDTO update(Integer clientId, ClientPurgeStatusDTO status) {
+        statuses.put(clientId, status);
+        if (status.isFinished()) {
+            finished.add(new Finished(clientId, status, nanoClock.getAsLong() + retentionNanos));
+        }
+        return status;
+    }
+
+    // Only removes the status that expired, not one a later purge of the client put in its place.
+    private void evictExpired() {
+        long now = nanoClock.getAsLong();
+        Finished head;
+        while ((head = finished.peek()) != null && head.expiresAt() - now <= 0) {
+            if (finished.remove(head)) {
+                statuses.remove(head.clientId(), head.status());
+            }
+        }
+    }
+
+    private record Finished(Integer clientId, ClientPurgeStatusDTO status, long expiresAt) {
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
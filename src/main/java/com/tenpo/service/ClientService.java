@@ -1,33 +1,68 @@
 package com.tenpo.service;
 
+import com.tenpo.api.dto.ClientPatchDTO;
 import com.tenpo.api.dto.ClientRequestDTO;
 import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.ClientUpsertDTO;
+import com.tenpo.api.dto.MultiGetItemDTO;
+import com.tenpo.api.dto.UpsertResultDTO;
+import com.tenpo.exception.BusinessRuleException;
+import com.tenpo.exception.DomainException;
+import com.tenpo.exception.DuplicateResourceException;
+import com.tenpo.exception.PreconditionFailedException;
+import com.tenpo.exception.ResourceNotFoundException;
+import com.tenpo.model.ChangeLogEntry.EntityType;
 import com.tenpo.model.Client;
+import com.tenpo.model.OutboxEvent;
+import com.tenpo.model.UpsertOutcome;
+import com.tenpo.outbox.Outbox;
 import com.tenpo.repository.ClientRepository;
+import com.tenpo.repository.MultiIdLoader;
+import com.tenpo.repository.RutUpsertResult;
+import com.tenpo.sharding.ScatterGather;
+import com.tenpo.sharding.ShardKey;
+import com.tenpo.util.RutUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static com.tenpo.sharding.ShardKey.Type.CLIENT;
+import static com.tenpo.sharding.ShardKey.Type.PLACEMENT;
+
 @Service
 @RequiredArgsConstructor
 @SuppressWarnings("null")
 public class ClientService {
 
     private final ClientRepository clientRepository;
+    private final MultiIdLoader multiIdLoader;
+    private final RutBloomFilters rutBloomFilters;
+    private final MissingIdCache missingIdCache;
+    private final ChangeLog changeLog;
+    private final Outbox outbox;
 
     @Transactional
-    public ClientResponseDTO createClient(ClientRequestDTO request) {
+    public ClientResponseDTO createClient(
+            @ShardKey(value = PLACEMENT, property = "rut") ClientRequestDTO request) {
+        requireUnusedRut(RutUtils.toKey(request.rut()));
         Client client = Client.builder()
                 .name(request.name())
                 .rut(request.rut())
                 .build();
         client = clientRepository.save(client);
-        return mapToResponse(client);
+        rutBloomFilters.addClient(client.getRutKey());
+        missingIdCache.recordCreated(Client.class, client.getId());
+        return published(OutboxEvent.EventType.CREATED, mapToResponse(client));
     }
 
+    @ScatterGather
     @Transactional(readOnly = true)
     public List<ClientResponseDTO> getAllClients() {
         return clientRepository.findAll().stream()
@@ -36,25 +71,183 @@ public class ClientService {
     }
 
     @Transactional(readOnly = true)
-    public ClientResponseDTO getClientById(Integer id) {
-        Client client = clientRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Client not found"));
+    public ClientResponseDTO getClientById(@ShardKey(CLIENT) Integer id) {
+        if (missingIdCache.isKnownMissing(Client.class, id)) {
+            throw ResourceNotFoundException.CLIENT;
+        }
+        Client client = clientRepository.findById(id).orElse(null);
+        if (client == null) {
+            missingIdCache.recordMissing(Client.class, id);
+            throw ResourceNotFoundException.CLIENT;
+        }
         return mapToResponse(client);
     }
 
+    /**
+     * Looks a client up by RUT in any common notation. Always queries: the
+     * Bloom filter lags writes made through other instances, so its negatives
+     * are only trusted to skip the duplicate check on create.
+     */
+    @ScatterGather(ScatterGather.Merge.FIRST)
+    @Transactional(readOnly = true)
+    public ClientResponseDTO getClientByRut(String rut) {
+        Long rutKey = RutUtils.toKey(rut);
+        Client client = (rutKey != null ? clientRepository.findByRutKey(rutKey) : clientRepository.findByRut(rut))
+                .orElseThrow(() -> ResourceNotFoundException.CLIENT);
+        return mapToResponse(client);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MultiGetItemDTO<ClientResponseDTO>> getClientsByIds(
+            @ShardKey(CLIENT) List<Integer> ids) {
+        List<Client> clients = multiIdLoader.findAllInRequestOrder(Client.class, ids);
+        return MultiGetItemDTO.zip(ids, clients, this::mapToResponse);
+    }
+
+    /**
+     * Full replacement. With an {@code expectedVersion} (from {@code If-Match})
+     * this is a single conditional UPDATE; the response is built from the
+     * request, so nothing is read back.
+     */
     @Transactional
-    public ClientResponseDTO updateClient(Integer id, ClientRequestDTO request) {
+    public ClientResponseDTO updateClient(@ShardKey(CLIENT) Integer id, ClientRequestDTO request,
+            Long expectedVersion) {
+        if (expectedVersion != null) {
+            Long rutKey = RutUtils.toKey(request.rut());
+            if (clientRepository.updateIfVersionMatches(id, request.name(), request.rut(), rutKey,
+                    expectedVersion) == 0) {
+                throw conditionalUpdateFailure(id);
+            }
+            rutBloomFilters.addClient(rutKey);
+            return published(OutboxEvent.EventType.UPDATED,
+                    new ClientResponseDTO(id, request.name(), request.rut(), expectedVersion + 1));
+        }
         Client client = clientRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Client not found"));
+                .orElseThrow(() -> ResourceNotFoundException.CLIENT);
         client.setName(request.name());
-        client.setRut(request.rut());
-        client = clientRepository.save(client);
-        return mapToResponse(client);
+        changeRut(client, request.rut());
+        client = clientRepository.saveAndFlush(client);
+        return published(OutboxEvent.EventType.UPDATED, mapToResponse(client));
+    }
+
+    @Transactional
+    public UpsertResultDTO<ClientResponseDTO> upsertClient(@ShardKey(PLACEMENT) String rut, ClientUpsertDTO request) {
+        return upsertClients(List.of(new ClientRequestDTO(request.name(), rut))).get(0);
     }
 
+    /**
+     * Idempotent create-or-update keyed by RUT, for bulk syncs. Runs as one
+     * {@code INSERT ... ON CONFLICT DO UPDATE} per chunk of rows instead of a
+     * statement (and a failure) per known client; rows whose stored values
+     * already match are reported as UNCHANGED and keep their version.
+     */
     @Transactional
-    public void deleteClient(Integer id) {
-        clientRepository.deleteById(id);
+    public List<UpsertResultDTO<ClientResponseDTO>> upsertClients(
+            @ShardKey(value = PLACEMENT, property = "rut") List<ClientRequestDTO> requests) {
+        Set<Long> rutKeys = new HashSet<>();
+        List<Client> clients = requests.stream()
+                .map(request -> Client.builder()
+                        .name(request.name())
+                        .rut(request.rut())
+                        .rutKey(requireUpsertKey(request.rut(), rutKeys))
+                        .build())
+                .toList();
+
+        List<RutUpsertResult> results = clientRepository.upsertAllByRut(clients);
+        List<UpsertResultDTO<ClientResponseDTO>> response = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            RutUpsertResult result = results.get(i);
+            Client client = clients.get(i);
+            rutBloomFilters.addClient(result.rutKey());
+            if (result.outcome() == UpsertOutcome.CREATED) {
+                missingIdCache.recordCreated(Client.class, result.id());
+            }
+            ClientResponseDTO dto = new ClientResponseDTO(result.id(), client.getName(), client.getRut(),
+                    result.version());
+            if (result.outcome() != UpsertOutcome.UNCHANGED) {
+                published(result.outcome() == UpsertOutcome.CREATED
+                        ? OutboxEvent.EventType.CREATED
+                        : OutboxEvent.EventType.UPDATED, dto);
+            }
+            response.add(new UpsertResultDTO<>(result.outcome(), dto));
+        }
+        return response;
+    }
+
+    /**
+     * JSON Merge Patch. Only members present in the patch are touched and, with
+     * {@code @DynamicUpdate}, only changed columns end up in the UPDATE.
+     */
+    @Transactional
+    public ClientResponseDTO patchClient(@ShardKey(CLIENT) Integer id, ClientPatchDTO patch,
+            Long expectedVersion) {
+        Client client = clientRepository.findById(id)
+                .orElseThrow(() -> ResourceNotFoundException.CLIENT);
+        if (expectedVersion != null && !expectedVersion.equals(client.getVersion())) {
+            throw new PreconditionFailedException("Client was modified by another request");
+        }
+        if (patch.getName() != null) {
+            client.setName(patch.getName());
+        }
+        if (patch.getRut() != null) {
+            changeRut(client, patch.getRut());
+        }
+        client = clientRepository.saveAndFlush(client);
+        return published(OutboxEvent.EventType.UPDATED, mapToResponse(client));
+    }
+
+    /**
+     * Single set-based DELETE; employees and transactions go with it through
+     * ON DELETE CASCADE, and the client's tombstone in the {@link ChangeLog}
+     * and its outbox event stand for all of them. Large clients go through {@link ClientPurgeService}.
+     */
+    @Transactional
+    public void deleteClient(@ShardKey(CLIENT) Integer id) {
+        clientRepository.deleteAllByIdInBatch(List.of(id));
+        changeLog.deleted(EntityType.CLIENT, id);
+        outbox.append(id, EntityType.CLIENT, id, OutboxEvent.EventType.DELETED, null);
+    }
+
+    private ClientResponseDTO published(OutboxEvent.EventType eventType, ClientResponseDTO client) {
+        outbox.append(client.id(), EntityType.CLIENT, client.id(), eventType, client);
+        return client;
+    }
+
+    private void changeRut(Client client, String rut) {
+        Long rutKey = RutUtils.toKey(rut);
+        if (!Objects.equals(rutKey, client.getRutKey())) {
+            requireUnusedRut(rutKey);
+        }
+        client.setRut(rut);
+        rutBloomFilters.addClient(rutKey);
+    }
+
+    // Rejects a known duplicate up front instead of failing on the unique index
+    // after the INSERT. Unparseable RUTs are left to the index.
+    private void requireUnusedRut(Long rutKey) {
+        if (rutKey != null && rutBloomFilters.mightContainClient(rutKey) && clientRepository.existsByRutKey(rutKey)) {
+            throw new DuplicateResourceException("A client with RUT " + RutUtils.format(rutKey) + " already exists");
+        }
+    }
+
+    // ON CONFLICT needs a key per row and cannot touch the same row twice.
+    private static Long requireUpsertKey(String rut, Set<Long> seen) {
+        Long rutKey = RutUtils.toKey(rut);
+        if (rutKey == null) {
+            throw new BusinessRuleException("Invalid RUT: " + rut);
+        }
+        if (!seen.add(rutKey)) {
+            throw new BusinessRuleException("RUT " + RutUtils.format(rutKey) + " appears more than once");
+        }
+        return rutKey;
+    }
+
+    // Only reached when the conditional UPDATE matched nothing.
+    private DomainException conditionalUpdateFailure(Integer id) {
+        if (clientRepository.findVersionById(id).isEmpty()) {
+            return ResourceNotFoundException.CLIENT;
+        }
+        return new PreconditionFailedException("Client was modified by another request");
     }
 
     private ClientResponseDTO mapToResponse(@org.springframework.lang.NonNull Client client) {
@@ -62,6 +255,7 @@ public class ClientService {
                 .id(client.getId())
                 .name(client.getName())
                 .rut(client.getRut())
+                .version(client.getVersion())
                 .build();
     }
 }
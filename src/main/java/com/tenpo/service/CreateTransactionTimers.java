@@ -0,0 +1,125 @@
+package com.tenpo.service;
+
+import com.tenpo.jfr.TransactionPhaseEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.EventType;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-phase latency of {@link TransactionService#createTransaction}, as the
+ * {@value #METRIC_NAME} timer tagged by {@code phase} and as
+ * {@link TransactionPhaseEvent}s for Flight Recorder:
+ * <ul>
+ * <li>{@code lookup}: the projection checking employee ownership and reading
+ * the client's transaction count, one query for both;</li>
+ * <li>{@code insert}: the {@code INSERT};</li>
+ * <li>{@code record}: change log, outbox and event, all in the same transaction;</li>
+ * <li>{@code commit}: after the method returns, the change log and outbox
+ * writes made just before commit, then flush and commit.</li>
+ * </ul>
+ * The timers are registered once. Each transaction creation allocates one
+ * {@link Timing}, which times every phase in turn and is also the commit's
+ * synchronization. JFR events are only created while a recording enables
+ * them.
+ */
+@Component
+public class CreateTransactionTimers {
+
+    public static final String METRIC_NAME = "tenpo.transaction.create.phase";
+
+    public static final String LOOKUP = "lookup";
+    public static final String INSERT = "insert";
+    public static final String RECORD = "record";
+    public static final String COMMIT = "commit";
+
+    private static final EventType PHASE_EVENT = EventType.getEventType(TransactionPhaseEvent.class);
+
+    private final Map<String, Timer> timers;
+
+    public CreateTransactionTimers(MeterRegistry meterRegistry) {
+        this.timers = Map.of(
+                LOOKUP, register(meterRegistry, LOOKUP),
+                INSERT, register(meterRegistry, INSERT),
+                RECORD, register(meterRegistry, RECORD),
+                COMMIT, register(meterRegistry, COMMIT));
+    }
+
+    public Timing start(int clientId) {
+        return new Timing(clientId);
+    }
+
+    private static Timer register(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder(METRIC_NAME)
+                .description("Time spent in each phase of creating a transaction")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * The phases of one transaction creation, timed one after the other.
+     */
+    public final class Timing implements TransactionSynchronization {
+
+        private final int clientId;
+        private String phase;
+        private long startNanos;
+        private TransactionPhaseEvent event;
+
+        private Timing(int clientId) {
+            this.clientId = clientId;
+        }
+
+        public void begin(String phase) {
+            this.phase = phase;
+            this.startNanos = System.nanoTime();
+            this.event = PHASE_EVENT.isEnabled() ? TransactionPhaseEvent.begin(phase, clientId) : null;
+        }
+
+        public void end() {
+            timers.get(phase).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.commit();
+                }
+                event = null;
+            }
+            phase = null;
+        }
+
+        /**
+         * Times the commit of the current transaction, if there is one, from
+         * ahead of every other {@code beforeCommit} callback.
+         */
+        public void timeCommit() {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(this);
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            begin(COMMIT);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (phase != null) {
+                end();
+            }
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.tenpo.service;
+
+import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.CsvImportErrorDTO;
+import com.tenpo.api.dto.CsvImportReportDTO;
+import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.exception.ResourceNotFoundException;
+import com.tenpo.model.ChangeLogEntry.EntityType;
+import com.tenpo.model.Client;
+import com.tenpo.model.Employee;
+import com.tenpo.model.OutboxEvent;
+import com.tenpo.outbox.Outbox;
+import com.tenpo.repository.ClientRepository;
+import com.tenpo.repository.EmployeeRepository;
+import com.tenpo.repository.RutKeyId;
+import com.tenpo.sharding.ShardKey;
+import com.tenpo.util.CsvReader;
+import com.tenpo.util.RutUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Bulk creation of clients and employees from CSV with a {@code name,rut}
+ * header. The body is parsed as it arrives and rows are written in JDBC
+ * batches of {@code tenpo.csv-import.chunk-size}, each chunk committed in its
+ * own transaction, so memory and lock duration do not grow with the file.
+ * Invalid rows are skipped and reported; the rest are imported.
+ */
+@Slf4j
+@Service
+@SuppressWarnings("null")
+public class CsvImportService {
+
+    private static final String NAME_COLUMN = "name";
+    private static final String RUT_COLUMN = "rut";
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final ClientRepository clientRepository;
+    private final EmployeeRepository employeeRepository;
+    private final RutBloomFilters rutBloomFilters;
+    private final MissingIdCache missingIdCache;
+    private final ChangeLog changeLog;
+    private final Outbox outbox;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public CsvImportService(ClientRepository clientRepository,
+            EmployeeRepository employeeRepository,
+            RutBloomFilters rutBloomFilters,
+            MissingIdCache missingIdCache,
+            ChangeLog changeLog,
+            Outbox outbox,
+            PlatformTransactionManager transactionManager,
+            @Value("${tenpo.csv-import.chunk-size:1000}") int chunkSize,
+            @Value("${tenpo.csv-import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.clientRepository = clientRepository;
+        this.employeeRepository = employeeRepository;
+        this.rutBloomFilters = rutBloomFilters;
+        this.missingIdCache = missingIdCache;
+        this.changeLog = changeLog;
+        this.outbox = outbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public CsvImportReportDTO importClients(InputStream csv) throws IOException {
+        return importRows(csv, new Target<>("client", Client.class,
+                rutBloomFilters::mightContainClient,
+                clientRepository::findExistingRutKeys,
+                (name, rut, rutKey) -> Client.builder().name(name).rut(rut).rutKey(rutKey).build(),
+                this::insertClients,
+                rutBloomFilters::addClient));
+    }
+
+    public CsvImportReportDTO importEmployees(@ShardKey(ShardKey.Type.CLIENT) Integer clientId, InputStream csv)
+            throws IOException {
+        if (!clientRepository.existsById(clientId)) {
+            throw ResourceNotFoundException.CLIENT;
+        }
+        // Only the id is read when inserting, so a detached stub is enough.
+        Client client = Client.builder().id(clientId).build();
+        return importRows(csv, new Target<>("employee", Employee.class,
+                rutBloomFilters::mightContainEmployee,
+                employeeRepository::findExistingRutKeys,
+                (name, rut, rutKey) -> Employee.builder().name(name).rut(rut).rutKey(rutKey).client(client).build(),
+                employees -> insertEmployees(clientId, employees),
+                rutBloomFilters::addEmployee));
+    }
+
+    // JDBC batches return no generated keys; the outbox and change log need
+    // the ids, so each chunk costs one more query to find them by RUT.
+    private void insertClients(List<Client> clients) {
+        clientRepository.insertAllInBatch(clients);
+        Map<Long, Integer> ids = idsByRutKey(clientRepository.findIdsByRutKeys(
+                clients.stream().map(Client::getRutKey).toList()));
+        for (Client client : clients) {
+            Integer id = ids.get(client.getRutKey());
+            outbox.append(id, EntityType.CLIENT, id, OutboxEvent.EventType.CREATED,
+                    new ClientResponseDTO(id, client.getName(), client.getRut(), 0L));
+        }
+    }
+
+    private void insertEmployees(Integer clientId, List<Employee> employees) {
+        employeeRepository.insertAllInBatch(employees);
+        Map<Long, Integer> ids = idsByRutKey(employeeRepository.findIdsByRutKeys(
+                employees.stream().map(Employee::getRutKey).toList()));
+        for (Employee employee : employees) {
+            Integer id = ids.get(employee.getRutKey());
+            changeLog.upserted(EntityType.EMPLOYEE, id);
+            outbox.append(clientId, EntityType.EMPLOYEE, id, OutboxEvent.EventType.CREATED,
+                    new EmployeeResponseDTO(id, employee.getName(), employee.getRut(), clientId, 0L));
+        }
+    }
+
+    private static Map<Long, Integer> idsByRutKey(List<RutKeyId> rows) {
+        Map<Long, Integer> ids = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> ids.put(row.rutKey(), row.id()));
+        return ids;
+    }
+
+    private <T> CsvImportReportDTO importRows(InputStream csv, Target<T> target) throws IOException {
+        Report report = new Report();
+        try (CsvReader reader = new CsvReader(
+                new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8)))) {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new RuntimeException("CSV file is empty");
+            }
+            int nameIndex = columnIndex(header, NAME_COLUMN);
+            int rutIndex = columnIndex(header, RUT_COLUMN);
+            if (nameIndex < 0 || rutIndex < 0) {
+                throw new RuntimeException("CSV header must contain the columns name and rut");
+            }
+
+            Set<Long> seen = new HashSet<>();
+            List<Row<T>> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                List<String> record;
+                try {
+                    record = reader.next();
+                } catch (IllegalArgumentException ex) {
+                    // Nothing after a broken quote can be parsed reliably.
+                    report.totalRows++;
+                    report.fail(reader.recordLine(), null, ex.getMessage());
+                    break;
+                }
+                if (record == null) {
+                    break;
+                }
+                report.totalRows++;
+                Row<T> row = parseRow(record, header.size(), nameIndex, rutIndex, reader.recordLine(), seen,
+                        target, report);
+                if (row != null) {
+                    chunk.add(row);
+                    if (chunk.size() == chunkSize) {
+                        flush(chunk, target, report);
+                        chunk.clear();
+                    }
+                }
+            }
+            flush(chunk, target, report);
+        }
+        log.info("Imported {} of {} {} rows", report.imported, report.totalRows, target.label());
+        return report.toDTO();
+    }
+
+    private <T> Row<T> parseRow(List<String> record, int columns, int nameIndex, int rutIndex, long line,
+            Set<Long> seen, Target<T> target, Report report) {
+        if (record.size() != columns) {
+            report.fail(line, null, "Expected " + columns + " columns but found " + record.size());
+            return null;
+        }
+        String name = record.get(nameIndex).trim();
+        String rut = record.get(rutIndex).trim();
+        if (rut.isEmpty()) {
+            report.fail(line, null, "RUT is required");
+            return null;
+        }
+        if (name.isEmpty()) {
+            report.fail(line, rut, "Name is required");
+            return null;
+        }
+        Long rutKey = RutUtils.toKey(rut);
+        if (rutKey == null) {
+            report.fail(line, rut, "Invalid RUT: " + rut);
+            return null;
+        }
+        if (!seen.add(rutKey)) {
+            report.fail(line, rut, "RUT " + RutUtils.format(rutKey) + " appears more than once in the file");
+            return null;
+        }
+        return new Row<>(line, rut, rutKey, target.factory().create(name, rut, rutKey));
+    }
+
+    /**
+     * One transaction per chunk: a single query for the RUTs the Bloom filter
+     * could not rule out, then one JDBC batch for the rest.
+     */
+    private <T> void flush(List<Row<T>> chunk, Target<T> target, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Row<T>> duplicates = new ArrayList<>();
+        List<Row<T>> fresh = new ArrayList<>(chunk.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> candidates = chunk.stream()
+                        .map(Row::rutKey)
+                        .filter(target.mightExist()::test)
+                        .toList();
+                Set<Long> existing = candidates.isEmpty()
+                        ? Set.of()
+                        : new HashSet<>(target.findExisting().apply(candidates));
+                for (Row<T> row : chunk) {
+                    (existing.contains(row.rutKey()) ? duplicates : fresh).add(row);
+                }
+                if (!fresh.isEmpty()) {
+                    target.insert().accept(fresh.stream().map(Row::entity).toList());
+                }
+            });
+        } catch (DataAccessException ex) {
+            log.warn("Rejected a chunk of {} {} rows", chunk.size(), target.label(), ex);
+            for (Row<T> row : chunk) {
+                report.fail(row.line(), row.rut(), "Not imported: the database rejected the batch containing this row");
+            }
+            return;
+        }
+        for (Row<T> row : duplicates) {
+            report.fail(row.line(), row.rut(), "A " + target.label() + " with RUT " + RutUtils.format(row.rutKey())
+                    + " already exists");
+        }
+        for (Row<T> row : fresh) {
+            target.remember().accept(row.rutKey());
+        }
+        if (!fresh.isEmpty()) {
+            missingIdCache.highWaterMarkChanged(target.entity());
+        }
+        report.imported += fresh.size();
+    }
+
+    private static int columnIndex(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (i == 0 && !name.isEmpty() && name.charAt(0) == BYTE_ORDER_MARK) {
+                name = name.substring(1);
+            }
+            if (name.equals(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @FunctionalInterface
+    private interface EntityFactory<T> {
+        T create(String name, String rut, Long rutKey);
+    }
+
+    private record Target<T>(
+            String label,
+            Class<T> entity,
+            LongPredicate mightExist,
+            Function<Collection<Long>, List<Long>> findExisting,
+            EntityFactory<T> factory,
+            Consumer<List<T>> insert,
+            LongConsumer remember) {
+    }
+
+    private record Row<T>(long line, String rut, long rutKey, T entity) {
+    }
+
+    private final class Report {
+        private long totalRows;
+        private long imported;
+        private long failed;
+        private final List<CsvImportErrorDTO> errors = new ArrayList<>();
+
+        void fail(long line, String rut, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new CsvImportErrorDTO(line, rut, message));
+            }
+        }
+
+        CsvImportReportDTO toDTO() {
+            return CsvImportReportDTO.builder()
+                    .totalRows(totalRows)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
@@ -1,18 +1,43 @@
 package com.tenpo.service;
 
+import com.tenpo.api.dto.EmployeePatchDTO;
 import com.tenpo.api.dto.EmployeeRequestDTO;
 import com.tenpo.api.dto.EmployeeResponseDTO;
-import com.tenpo.model.Client;
+import com.tenpo.api.dto.EmployeeUpsertDTO;
+import com.tenpo.api.dto.MultiGetItemDTO;
+import com.tenpo.api.dto.UpsertResultDTO;
+import com.tenpo.exception.BusinessRuleException;
+import com.tenpo.exception.DomainException;
+import com.tenpo.exception.DuplicateResourceException;
+import com.tenpo.exception.PreconditionFailedException;
+import com.tenpo.exception.ResourceNotFoundException;
+import com.tenpo.model.ChangeLogEntry.EntityType;
 import com.tenpo.model.Employee;
+import com.tenpo.model.OutboxEvent;
+import com.tenpo.model.UpsertOutcome;
+import com.tenpo.outbox.Outbox;
 import com.tenpo.repository.ClientRepository;
 import com.tenpo.repository.EmployeeRepository;
+import com.tenpo.repository.MultiIdLoader;
+import com.tenpo.repository.RutUpsertResult;
+import com.tenpo.sharding.ScatterGather;
+import com.tenpo.sharding.ShardKey;
+import com.tenpo.util.RutUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static com.tenpo.sharding.ShardKey.Type.CLIENT;
+import static com.tenpo.sharding.ShardKey.Type.EMPLOYEE;
+
 @Service
 @RequiredArgsConstructor
 @SuppressWarnings("null")
@@ -20,22 +45,32 @@ public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
     private final ClientRepository clientRepository;
+    private final MultiIdLoader multiIdLoader;
+    private final RutBloomFilters rutBloomFilters;
+    private final MissingIdCache missingIdCache;
+    private final ChangeLog changeLog;
+    private final Outbox outbox;
 
     @Transactional
-    public EmployeeResponseDTO createEmployee(EmployeeRequestDTO request) {
-        Client client = clientRepository.findById(request.clientId())
-                .orElseThrow(() -> new RuntimeException("Client not found"));
+    public EmployeeResponseDTO createEmployee(
+            @ShardKey(value = CLIENT, property = "clientId") EmployeeRequestDTO request) {
+        requireClient(request.clientId());
+        requireUnusedRut(RutUtils.toKey(request.rut()));
 
         Employee employee = Employee.builder()
                 .name(request.name())
                 .rut(request.rut())
-                .client(client)
+                .client(clientRepository.getReferenceById(request.clientId()))
                 .build();
 
         employee = employeeRepository.save(employee);
-        return mapToResponse(employee);
+        rutBloomFilters.addEmployee(employee.getRutKey());
+        missingIdCache.recordCreated(Employee.class, employee.getId());
+        changeLog.upserted(EntityType.EMPLOYEE, employee.getId());
+        return published(OutboxEvent.EventType.CREATED, mapToResponse(employee));
     }
 
+    @ScatterGather
     @Transactional(readOnly = true)
     public List<EmployeeResponseDTO> getAllEmployees() {
         return employeeRepository.findAll().stream()
@@ -44,31 +79,218 @@ public class EmployeeService {
     }
 
     @Transactional(readOnly = true)
-    public EmployeeResponseDTO getEmployeeById(Integer id) {
-        Employee employee = employeeRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Employee not found"));
+    public List<EmployeeResponseDTO> getEmployeesByClientId(@ShardKey(CLIENT) Integer clientId) {
+        return employeeRepository.findByClientId(clientId).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public EmployeeResponseDTO getEmployeeById(@ShardKey(EMPLOYEE) Integer id) {
+        if (missingIdCache.isKnownMissing(Employee.class, id)) {
+            throw ResourceNotFoundException.EMPLOYEE;
+        }
+        Employee employee = employeeRepository.findById(id).orElse(null);
+        if (employee == null) {
+            missingIdCache.recordMissing(Employee.class, id);
+            throw ResourceNotFoundException.EMPLOYEE;
+        }
+        return mapToResponse(employee);
+    }
+
+    /**
+     * RUT lookup in any common notation; see {@link ClientService#getClientByRut}.
+     */
+    @ScatterGather(ScatterGather.Merge.FIRST)
+    @Transactional(readOnly = true)
+    public EmployeeResponseDTO getEmployeeByRut(String rut) {
+        Long rutKey = RutUtils.toKey(rut);
+        Employee employee = (rutKey != null
+                ? employeeRepository.findByRutKey(rutKey)
+                : employeeRepository.findByRut(rut))
+                .orElseThrow(() -> ResourceNotFoundException.EMPLOYEE);
         return mapToResponse(employee);
     }
 
+    @Transactional(readOnly = true)
+    public List<MultiGetItemDTO<EmployeeResponseDTO>> getEmployeesByIds(
+            @ShardKey(EMPLOYEE) List<Integer> ids) {
+        List<Employee> employees = multiIdLoader.findAllInRequestOrder(Employee.class, ids);
+        return MultiGetItemDTO.zip(ids, employees, this::mapToResponse);
+    }
+
+    /**
+     * Full replacement. With an {@code expectedVersion} this is one conditional
+     * UPDATE that also checks the client exists; see
+     * {@link ClientService#updateClient}.
+     */
     @Transactional
-    public EmployeeResponseDTO updateEmployee(Integer id, EmployeeRequestDTO request) {
+    public EmployeeResponseDTO updateEmployee(@ShardKey(EMPLOYEE) Integer id, EmployeeRequestDTO request,
+            Long expectedVersion) {
+        if (expectedVersion != null) {
+            Long rutKey = RutUtils.toKey(request.rut());
+            if (employeeRepository.updateIfVersionMatches(id, request.name(), request.rut(), rutKey,
+                    request.clientId(), expectedVersion) == 0) {
+                throw conditionalUpdateFailure(id, expectedVersion);
+            }
+            rutBloomFilters.addEmployee(rutKey);
+            changeLog.upserted(EntityType.EMPLOYEE, id);
+            return published(OutboxEvent.EventType.UPDATED, new EmployeeResponseDTO(id, request.name(),
+                    request.rut(), request.clientId(), expectedVersion + 1));
+        }
         Employee employee = employeeRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Employee not found"));
+                .orElseThrow(() -> ResourceNotFoundException.EMPLOYEE);
+        employee.setName(request.name());
+        changeRut(employee, request.rut());
+        reassignClient(employee, request.clientId());
 
-        Client client = clientRepository.findById(request.clientId())
-                .orElseThrow(() -> new RuntimeException("Client not found"));
+        employee = employeeRepository.saveAndFlush(employee);
+        changeLog.upserted(EntityType.EMPLOYEE, id);
+        return published(OutboxEvent.EventType.UPDATED, mapToResponse(employee));
+    }
 
-        employee.setName(request.name());
-        employee.setRut(request.rut());
-        employee.setClient(client);
+    @Transactional
+    public UpsertResultDTO<EmployeeResponseDTO> upsertEmployee(String rut,
+            @ShardKey(value = CLIENT, property = "clientId") EmployeeUpsertDTO request) {
+        return upsertEmployees(List.of(new EmployeeRequestDTO(request.name(), rut, request.clientId()))).get(0);
+    }
 
-        employee = employeeRepository.save(employee);
-        return mapToResponse(employee);
+    /**
+     * Bulk create-or-update keyed by RUT; see {@link ClientService#upsertClients}.
+     * All referenced clients are checked with one query up front.
+     */
+    @Transactional
+    public List<UpsertResultDTO<EmployeeResponseDTO>> upsertEmployees(
+            @ShardKey(value = CLIENT, property = "clientId") List<EmployeeRequestDTO> requests) {
+        Set<Integer> clientIds = new HashSet<>();
+        requests.forEach(request -> clientIds.add(request.clientId()));
+        Set<Integer> existingClientIds = new HashSet<>(clientRepository.findExistingIds(clientIds));
+        clientIds.removeAll(existingClientIds);
+        if (!clientIds.isEmpty()) {
+            throw new BusinessRuleException("Client not found: " + clientIds.iterator().next());
+        }
+
+        Set<Long> rutKeys = new HashSet<>();
+        List<Employee> employees = requests.stream()
+                .map(request -> Employee.builder()
+                        .name(request.name())
+                        .rut(request.rut())
+                        .rutKey(requireUpsertKey(request.rut(), rutKeys))
+                        .client(clientRepository.getReferenceById(request.clientId()))
+                        .build())
+                .toList();
+
+        List<RutUpsertResult> results = employeeRepository.upsertAllByRut(employees);
+        List<UpsertResultDTO<EmployeeResponseDTO>> response = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            RutUpsertResult result = results.get(i);
+            EmployeeRequestDTO request = requests.get(i);
+            rutBloomFilters.addEmployee(result.rutKey());
+            if (result.outcome() == UpsertOutcome.CREATED) {
+                missingIdCache.recordCreated(Employee.class, result.id());
+            }
+            EmployeeResponseDTO employee = new EmployeeResponseDTO(result.id(), request.name(), request.rut(),
+                    request.clientId(), result.version());
+            if (result.outcome() != UpsertOutcome.UNCHANGED) {
+                changeLog.upserted(EntityType.EMPLOYEE, result.id());
+                published(result.outcome() == UpsertOutcome.CREATED
+                        ? OutboxEvent.EventType.CREATED
+                        : OutboxEvent.EventType.UPDATED, employee);
+            }
+            response.add(new UpsertResultDTO<>(result.outcome(), employee));
+        }
+        return response;
     }
 
     @Transactional
-    public void deleteEmployee(Integer id) {
-        employeeRepository.deleteById(id);
+    public EmployeeResponseDTO patchEmployee(@ShardKey(EMPLOYEE) Integer id, EmployeePatchDTO patch,
+            Long expectedVersion) {
+        Employee employee = employeeRepository.findById(id)
+                .orElseThrow(() -> ResourceNotFoundException.EMPLOYEE);
+        if (expectedVersion != null && !expectedVersion.equals(employee.getVersion())) {
+            throw new PreconditionFailedException("Employee was modified by another request");
+        }
+        if (patch.getName() != null) {
+            employee.setName(patch.getName());
+        }
+        if (patch.getRut() != null) {
+            changeRut(employee, patch.getRut());
+        }
+        if (patch.getClientId() != null) {
+            reassignClient(employee, patch.getClientId());
+        }
+
+        employee = employeeRepository.saveAndFlush(employee);
+        changeLog.upserted(EntityType.EMPLOYEE, id);
+        return published(OutboxEvent.EventType.UPDATED, mapToResponse(employee));
+    }
+
+    @Transactional
+    public void deleteEmployee(@ShardKey(EMPLOYEE) Integer id) {
+        // Transactions are removed by ON DELETE CASCADE, not loaded one by one.
+        Optional<Integer> clientId = employeeRepository.findClientIdById(id);
+        employeeRepository.deleteAllByIdInBatch(List.of(id));
+        clientId.ifPresent(client -> outbox.append(client, EntityType.EMPLOYEE, id, OutboxEvent.EventType.DELETED,
+                null));
+        changeLog.deleted(EntityType.EMPLOYEE, id);
+    }
+
+    private EmployeeResponseDTO published(OutboxEvent.EventType eventType, EmployeeResponseDTO employee) {
+        outbox.append(employee.clientId(), EntityType.EMPLOYEE, employee.id(), eventType, employee);
+        return employee;
+    }
+
+    // The client's id is on the employee row already; only a move costs a query.
+    private void reassignClient(Employee employee, Integer clientId) {
+        if (!clientId.equals(employee.getClient().getId())) {
+            requireClient(clientId);
+            employee.setClient(clientRepository.getReferenceById(clientId));
+        }
+    }
+
+    private void changeRut(Employee employee, String rut) {
+        Long rutKey = RutUtils.toKey(rut);
+        if (!Objects.equals(rutKey, employee.getRutKey())) {
+            requireUnusedRut(rutKey);
+        }
+        employee.setRut(rut);
+        rutBloomFilters.addEmployee(rutKey);
+    }
+
+    private void requireUnusedRut(Long rutKey) {
+        if (rutKey != null && rutBloomFilters.mightContainEmployee(rutKey)
+                && employeeRepository.existsByRutKey(rutKey)) {
+            throw new DuplicateResourceException("An employee with RUT " + RutUtils.format(rutKey)
+                    + " already exists");
+        }
+    }
+
+    private void requireClient(Integer clientId) {
+        if (!clientRepository.existsById(clientId)) {
+            throw BusinessRuleException.CLIENT_NOT_FOUND;
+        }
+    }
+
+    private static Long requireUpsertKey(String rut, Set<Long> seen) {
+        Long rutKey = RutUtils.toKey(rut);
+        if (rutKey == null) {
+            throw new BusinessRuleException("Invalid RUT: " + rut);
+        }
+        if (!seen.add(rutKey)) {
+            throw new BusinessRuleException("RUT " + RutUtils.format(rutKey) + " appears more than once");
+        }
+        return rutKey;
+    }
+
+    private DomainException conditionalUpdateFailure(Integer id, Long expectedVersion) {
+        Optional<Long> currentVersion = employeeRepository.findVersionById(id);
+        if (currentVersion.isEmpty()) {
+            return ResourceNotFoundException.EMPLOYEE;
+        }
+        if (!currentVersion.get().equals(expectedVersion)) {
+            return new PreconditionFailedException("Employee was modified by another request");
+        }
+        return BusinessRuleException.CLIENT_NOT_FOUND;
     }
 
     private EmployeeResponseDTO mapToResponse(@org.springframework.lang.NonNull Employee employee) {
@@ -77,6 +299,7 @@ public class EmployeeService {
                 .name(employee.getName())
                 .rut(employee.getRut())
                 .clientId(employee.getClient().getId())
+                .version(employee.getVersion())
                 .build();
     }
 }
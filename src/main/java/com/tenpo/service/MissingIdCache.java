@@ -0,0 +1,243 @@
+package com.tenpo.service;
+
+import com.tenpo.datasource.ReadYourWrites;
+import com.tenpo.model.Client;
+import com.tenpo.model.Employee;
+import com.tenpo.model.Transaction;
+import com.tenpo.repository.ClientRepository;
+import com.tenpo.repository.EmployeeRepository;
+import com.tenpo.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Answers "this id does not exist" for lookups by id without a query. Two
+ * checks per entity:
+ *
+ * <ul>
+ * <li>a high-water mark: ids are assigned by an identity column and never
+ * reused, so an id above the largest one seen cannot exist. A lookup above the
+ * mark reloads it, at most once per {@code high-water-refresh}, so rows
+ * created by other instances become visible after that delay. The mark is
+ * read from the primary in a transaction of its own, since a lagging replica
+ * would report a lower one, and it never goes down;</li>
+ * <li>a bounded LRU of ids that were looked up and missed, each remembered
+ * for {@code ttl}. Below the mark a missing id is a deleted row or a gap, and
+ * the TTL covers an insert that was still uncommitted when it was looked up.</li>
+ * </ul>
+ *
+ * <p>Created ids are recorded once their transaction commits. Until the marks
+ * are first loaded only the LRU is consulted.
+ */
+@Slf4j
+@Component
+public class MissingIdCache {
+
+    private static final int UNKNOWN = Integer.MAX_VALUE;
+
+    private final Map<Class<?>, Slot> slots;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long refreshNanos;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public MissingIdCache(ClientRepository clientRepository,
+            EmployeeRepository employeeRepository,
+            TransactionRepository transactionRepository,
+            @Value("${tenpo.missing-ids.max-entries:10000}") int maxEntries,
+            @Value("${tenpo.missing-ids.ttl:30s}") Duration ttl,
+            @Value("${tenpo.missing-ids.high-water-refresh:1s}") Duration highWaterRefresh,
+            PlatformTransactionManager transactionManager) {
+        this(clientRepository, employeeRepository, transactionRepository, maxEntries, ttl, highWaterRefresh,
+                primaryReads(transactionManager), System::nanoTime);
+    }
+
+    MissingIdCache(ClientRepository clientRepository,
+            EmployeeRepository employeeRepository,
+            TransactionRepository transactionRepository,
+            int maxEntries,
+            Duration ttl,
+            Duration highWaterRefresh,
+            TransactionOperations primaryReads,
+            LongSupplier nanoClock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshNanos = highWaterRefresh.toNanos();
+        this.nanoClock = nanoClock;
+        this.slots = Map.of(
+                Client.class, new Slot(onPrimary(primaryReads, clientRepository::findMaxId)),
+                Employee.class, new Slot(onPrimary(primaryReads, employeeRepository::findMaxId)),
+                Transaction.class, new Slot(onPrimary(primaryReads, transactionRepository::findMaxId)));
+    }
+
+    // A new transaction, so that the read gets a connection of its own rather
+    // than the caller's, which may be on a replica.
+    private static TransactionOperations primaryReads(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private static IntSupplier onPrimary(TransactionOperations primaryReads, IntSupplier maxIdLoader) {
+        return () -> ReadYourWrites.onPrimary(() -> primaryReads.execute(status -> maxIdLoader.getAsInt()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHighWaterMarks() {
+        slots.values().forEach(Slot::loadHighWater);
+        log.info("Id high-water marks loaded: clients={}, employees={}, transactions={}",
+                slots.get(Client.class).highWater, slots.get(Employee.class).highWater,
+                slots.get(Transaction.class).highWater);
+    }
+
+    public boolean isKnownMissing(Class<?> entity, Integer id) {
+        return id != null && slot(entity).isKnownMissing(id);
+    }
+
+    /**
+     * Call after {@code findById} came back empty.
+     */
+    public void recordMissing(Class<?> entity, Integer id) {
+        slot(entity).recordMissing(id);
+    }
+
+    /**
+     * Records the id once the current transaction commits, or at once outside
+     * one.
+     */
+    public void recordCreated(Class<?> entity, Integer id) {
+        Slot slot = slot(entity);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            slot.recordCreated(id);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Created> pending = (List<Created>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Created> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    created.forEach(entry -> entry.slot().recordCreated(entry.id()));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MissingIdCache.this);
+                }
+            });
+            pending = created;
+        }
+        pending.add(new Created(slot, id));
+    }
+
+    /**
+     * For writes that create rows without reporting their ids: the next lookup
+     * above the mark reloads it instead of being rejected.
+     */
+    public void highWaterMarkChanged(Class<?> entity) {
+        slot(entity).expireHighWater();
+    }
+
+    private Slot slot(Class<?> entity) {
+        Slot slot = slots.get(entity);
+        if (slot == null) {
+            throw new IllegalArgumentException("No missing-id cache for " + entity.getSimpleName());
+        }
+        return slot;
+    }
+
+    private final class Slot {
+
+        private final IntSupplier maxIdLoader;
+        private final LinkedHashMap<Integer, Long> missing = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        private volatile int highWater = UNKNOWN;
+        private long highWaterLoadedAt;
+
+        Slot(IntSupplier maxIdLoader) {
+            this.maxIdLoader = maxIdLoader;
+        }
+
+        boolean isKnownMissing(int id) {
+            if (id > highWater && aboveReloadedHighWater(id)) {
+                return true;
+            }
+            synchronized (missing) {
+                Long expiresAt = missing.get(id);
+                if (expiresAt == null) {
+                    return false;
+                }
+                if (expiresAt - nanoClock.getAsLong() > 0) {
+                    return true;
+                }
+                missing.remove(id);
+                return false;
+            }
+        }
+
+        // Rejects from the current mark while it is fresh; otherwise one caller reloads it.
+        private synchronized boolean aboveReloadedHighWater(int id) {
+            if (id > highWater && nanoClock.getAsLong() - highWaterLoadedAt >= refreshNanos) {
+                loadHighWater();
+            }
+            return id > highWater;
+        }
+
+        // Never lowers the mark: a load that raced with a local create may not see it yet.
+        synchronized void loadHighWater() {
+            highWaterLoadedAt = nanoClock.getAsLong();
+            int loaded = maxIdLoader.getAsInt();
+            highWater = highWater == UNKNOWN ? loaded : Math.max(highWater, loaded);
+        }
+
+        synchronized void expireHighWater() {
+            highWaterLoadedAt = nanoClock.getAsLong() - refreshNanos;
+        }
+
+        void recordMissing(int id) {
+            synchronized (missing) {
+                missing.put(id, nanoClock.getAsLong() + ttlNanos);
+            }
+        }
+
+        void recordCreated(int id) {
+            synchronized (missing) {
+                missing.remove(id);
+            }
+            synchronized (this) {
+                if (highWater != UNKNOWN && id > highWater) {
+                    highWater = id;
+                }
+            }
+        }
+    }
+
+    private record Created(Slot slot, int id) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.tenpo.service;
+
+import com.tenpo.repository.ClientRepository;
+import com.tenpo.repository.EmployeeRepository;
+import com.tenpo.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory Bloom filters over the client and employee RUT keys. A negative
+ * answer means the RUT was not stored when this instance last looked, which
+ * is only used to skip the duplicate check before an insert; the unique index
+ * on the key still rejects a duplicate the filter missed. Lookups by RUT
+ * always query.
+ *
+ * <p>The filters are local to this instance. Keys written here are added once
+ * their transaction commits; keys written by other instances are only seen by
+ * the next rebuild, which runs every {@code refresh-interval}. A rebuild is
+ * sized at twice the number of stored keys, and at least
+ * {@code expected-insertions}, and reads the keys in pages. Keys of deleted rows
+ * stay in until the next rebuild, which only costs extra queries. Until the
+ * first rebuild finishes every key is reported as possibly present.
+ */
+@Slf4j
+@Component
+public class RutBloomFilters implements DisposableBean {
+
+    static final int PAGE_SIZE = 10_000;
+
+    private final ClientRepository clientRepository;
+    private final EmployeeRepository employeeRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("rut-bloom-refresh").daemon().factory());
+
+    private final Slot clients = new Slot();
+    private final Slot employees = new Slot();
+
+    public RutBloomFilters(ClientRepository clientRepository,
+            EmployeeRepository employeeRepository,
+            @Value("${tenpo.rut-bloom.expected-insertions:100000}") long expectedInsertions,
+            @Value("${tenpo.rut-bloom.false-positive-probability:0.01}") double falsePositiveProbability,
+            @Value("${tenpo.rut-bloom.refresh-interval:30s}") Duration refreshInterval) {
+        this.clientRepository = clientRepository;
+        this.employeeRepository = employeeRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Builds the filters and starts the periodic rebuild.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        log.info("RUT Bloom filters built; rebuilding every {}", refreshInterval);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                log.warn("Rebuilding the RUT Bloom filters failed", ex);
+            }
+        }, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void rebuild() {
+        long clientCount = clients.rebuild(clientRepository::countByRutKeyIsNotNull,
+                clientRepository::findRutKeysAfter);
+        long employeeCount = employees.rebuild(employeeRepository::countByRutKeyIsNotNull,
+                employeeRepository::findRutKeysAfter);
+        log.debug("RUT Bloom filters built with {} client and {} employee keys", clientCount, employeeCount);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean mightContainClient(long rutKey) {
+        return clients.mightContain(rutKey);
+    }
+
+    /**
+     * Adds the key once the current transaction commits, or at once outside
+     * one.
+     */
+    public void addClient(Long rutKey) {
+        clients.putAfterCommit(rutKey);
+    }
+
+    public boolean mightContainEmployee(long rutKey) {
+        return employees.mightContain(rutKey);
+    }
+
+    public void addEmployee(Long rutKey) {
+        employees.putAfterCommit(rutKey);
+    }
+
+    @FunctionalInterface
+    interface KeyPages {
+        List<Long> after(long after, Limit limit);
+    }
+
+    private final class Slot {
+
+        private final Object swap = new Object();
+        private volatile BloomFilter current;
+        // Non-null while a rebuild is loading keys, so keys committed meanwhile land in both filters.
+        private volatile BloomFilter building;
+
+        synchronized long rebuild(LongSupplier count, KeyPages pages) {
+            BloomFilter next = BloomFilter.create(Math.max(expectedInsertions, 2 * count.getAsLong()),
+                    falsePositiveProbability);
+            synchronized (swap) {
+                building = next;
+            }
+            long loaded = 0;
+            long after = -1;
+            while (true) {
+                List<Long> page = new ArrayList<>(pages.after(after, Limit.of(PAGE_SIZE)));
+                if (page.size() < PAGE_SIZE) {
+                    page.forEach(next::put);
+                    loaded += page.size();
+                    break;
+                }
+                // Sharded, every shard returns up to a page; only keys up to the
+                // page-th smallest are known to be complete across all of them.
+                page.sort(null);
+                List<Long> complete = page.subList(0, PAGE_SIZE);
+                complete.forEach(next::put);
+                loaded += PAGE_SIZE;
+                after = complete.get(PAGE_SIZE - 1);
+            }
+            synchronized (swap) {
+                current = next;
+                building = null;
+            }
+            return loaded;
+        }
+
+        boolean mightContain(long rutKey) {
+            BloomFilter filter = current;
+            return filter == null || filter.mightContain(rutKey);
+        }
+
+        void putAfterCommit(Long rutKey) {
+            if (rutKey == null) {
+                return;
+            }
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                put(List.of(rutKey));
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            List<Long> pending = (List<Long>) TransactionSynchronizationManager.getResource(this);
+            if (pending == null) {
+                List<Long> created = new ArrayList<>();
+                TransactionSynchronizationManager.bindResource(this, created);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        put(created);
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(Slot.this);
+                    }
+                });
+                pending = created;
+            }
+            pending.add(rutKey);
+        }
+
+        // Under the same lock as the swap, so a key cannot miss both the old and the new filter.
+        private void put(List<Long> rutKeys) {
+            synchronized (swap) {
+                BloomFilter filter = current;
+                BloomFilter pending = building;
+                for (Long rutKey : rutKeys) {
+                    if (filter != null) {
+                        filter.put(rutKey);
+                    }
+                    if (pending != null) {
+                        pending.put(rutKey);
+                    }
+                }
+            }
+        }
+    }
+}
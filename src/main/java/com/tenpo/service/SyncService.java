@@ -0,0 +1,99 @@
+package com.tenpo.service;
+
+import com.tenpo.api.dto.MultiGetItemDTO;
+import com.tenpo.api.dto.SyncChangeDTO;
+import com.tenpo.api.dto.SyncResponseDTO;
+import com.tenpo.model.ChangeLogEntry;
+import com.tenpo.model.ChangeLogEntry.EntityType;
+import com.tenpo.model.ChangeLogEntry.Operation;
+import com.tenpo.repository.ChangeLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads the {@link ChangeLog} for {@code GET /sync}: one index range scan for
+ * the page, then at most one multi-get per entity type for the current rows,
+ * so the cost follows the page size, not the table sizes.
+ *
+ * <p>The token is the id of the last transaction returned, and pages end on a
+ * transaction boundary so that the next page can start after it. A single
+ * transaction larger than the limit is returned whole.
+ */
+@Service
+public class SyncService {
+
+    private final ChangeLogRepository changeLogRepository;
+    private final EmployeeService employeeService;
+    private final TransactionService transactionService;
+    private final int maxLimit;
+
+    public SyncService(ChangeLogRepository changeLogRepository,
+            EmployeeService employeeService,
+            TransactionService transactionService,
+            @Value("${tenpo.sync.max-limit:1000}") int maxLimit) {
+        this.changeLogRepository = changeLogRepository;
+        this.employeeService = employeeService;
+        this.transactionService = transactionService;
+        this.maxLimit = maxLimit;
+    }
+
+    @Transactional(readOnly = true)
+    public SyncResponseDTO getChangesSince(long since, int limit) {
+        if (since < 0) {
+            throw new RuntimeException("Invalid sync token: " + since);
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new RuntimeException("limit must be between 1 and " + maxLimit);
+        }
+        List<ChangeLogEntry> page = changeLogRepository.findCommittedAfter(since, limit + 1);
+        boolean hasMore = page.size() > limit;
+        if (hasMore) {
+            page = endOnTransaction(page, limit);
+        }
+
+        Map<Integer, Object> employees = currentRows(page, EntityType.EMPLOYEE, employeeService::getEmployeesByIds);
+        Map<Integer, Object> transactions = currentRows(page, EntityType.TRANSACTION,
+                transactionService::getTransactionsByIds);
+        List<SyncChangeDTO> changes = page.stream()
+                .map(entry -> new SyncChangeDTO(entry.getSeq(), entry.getEntityType(), entry.getEntityId(),
+                        entry.getOperation(), switch (entry.getEntityType()) {
+                            case EMPLOYEE -> employees.get(entry.getEntityId());
+                            case TRANSACTION -> transactions.get(entry.getEntityId());
+                            case CLIENT -> null;
+                        }))
+                .toList();
+        long next = page.isEmpty() ? since : page.get(page.size() - 1).getTxnId();
+        return new SyncResponseDTO(changes, Long.toString(next), hasMore);
+    }
+
+    private List<ChangeLogEntry> endOnTransaction(List<ChangeLogEntry> page, int limit) {
+        long cut = page.get(limit).getTxnId();
+        if (page.get(0).getTxnId() == cut) {
+            return changeLogRepository.findByTxnId(cut);
+        }
+        int end = limit;
+        while (page.get(end - 1).getTxnId() == cut) {
+            end--;
+        }
+        return page.subList(0, end);
+    }
+
+    private static <T> Map<Integer, Object> currentRows(List<ChangeLogEntry> page, EntityType type,
+            Function<List<Integer>, List<MultiGetItemDTO<T>>> multiGet) {
+        List<Integer> ids = page.stream()
+                .filter(entry -> entry.getEntityType() == type && entry.getOperation() == Operation.UPSERT)
+                .map(ChangeLogEntry::getEntityId)
+                .toList();
+        Map<Integer, Object> rows = new HashMap<>();
+        if (!ids.isEmpty()) {
+            multiGet.apply(ids).forEach(item -> rows.put(item.id(), item.data()));
+        }
+        return rows;
+    }
+}
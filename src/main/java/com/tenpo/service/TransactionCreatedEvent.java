@@ -0,0 +1,10 @@
+package com.tenpo.service;
+
+import com.tenpo.api.dto.TransactionResponseDTO;
+
+/**
+ * Published by {@link TransactionService} when a transaction is created;
+ * listeners bound to the commit see it only if the transaction commits.
+ */
+public record TransactionCreatedEvent(Integer clientId, TransactionResponseDTO transaction) {
+}
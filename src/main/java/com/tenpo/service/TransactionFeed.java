@@ -0,0 +1,297 @@
+package com.tenpo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Server-Sent Events feed of committed transactions, per client.
+ *
+ * <p>Each client with subscribers has a channel holding its last
+ * {@code buffer-size} events. Event ids are {@code <generation>-<sequence>},
+ * where the generation identifies the channel instance; a subscriber that
+ * reconnects with a {@code Last-Event-ID} still in the buffer is sent what it
+ * missed, and any other id (evicted, from another node, from before a
+ * restart) gets a {@code resync} event telling it to reload the list. A
+ * channel outlives its last subscriber by {@code retention}, so short
+ * disconnects resume without a reload.
+ *
+ * <p>Every subscriber has a bounded queue drained by its own virtual thread,
+ * so publishing never blocks on a connection. A subscriber whose queue fills
+ * up is disconnected; its browser reconnects and resumes from the buffer.
+ * Events are only seen by subscribers of the node that committed them.
+ */
+@Slf4j
+@Component
+public class TransactionFeed implements DisposableBean {
+
+    static final String TRANSACTION_EVENT = "transaction";
+    static final String RESYNC_EVENT = "resync";
+
+    private static final String RESYNC_DATA =
+            "{\"message\":\"Events since Last-Event-ID are no longer available; reload the transactions\"}";
+
+    private enum Signal { HEARTBEAT, RESYNC, CLOSE }
+
+    private record Event(String id, String json) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int queueSize;
+    private final long timeoutMillis;
+    private final long retentionNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Integer, Channel> channels = new ConcurrentHashMap<>();
+    private final ThreadFactory writers = Thread.ofVirtual().name("transaction-feed-", 0).factory();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("transaction-feed-heartbeat").daemon().factory());
+
+    @Autowired
+    public TransactionFeed(ObjectMapper objectMapper,
+            @Value("${tenpo.transaction-feed.buffer-size:100}") int bufferSize,
+            @Value("${tenpo.transaction-feed.subscriber-queue-size:64}") int queueSize,
+            @Value("${tenpo.transaction-feed.timeout:30m}") Duration timeout,
+            @Value("${tenpo.transaction-feed.heartbeat-interval:15s}") Duration heartbeatInterval,
+            @Value("${tenpo.transaction-feed.retention:5m}") Duration retention) {
+        this(objectMapper, bufferSize, queueSize, timeout, retention, System::nanoTime);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    TransactionFeed(ObjectMapper objectMapper, int bufferSize, int queueSize, Duration timeout,
+            Duration retention, LongSupplier nanoClock) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.queueSize = queueSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.retentionNanos = retention.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Opens a stream of the client's transactions committed from now on,
+     * preceded by the buffered ones after {@code lastEventId} when given.
+     */
+    public SseEmitter subscribe(Integer clientId, String lastEventId) {
+        return subscribe(clientId, lastEventId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Integer clientId, String lastEventId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        Channel channel = channels.compute(clientId, (id, existing) -> {
+            Channel target = existing != null ? existing : new Channel();
+            target.add(subscriber, lastEventId);
+            return target;
+        });
+        emitter.onTimeout(() -> {
+            subscriber.close();
+            emitter.complete();
+        });
+        emitter.onError(error -> subscriber.close());
+        emitter.onCompletion(() -> {
+            channel.remove(subscriber);
+            subscriber.close();
+        });
+        writers.newThread(subscriber::drain).start();
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onTransactionCreated(TransactionCreatedEvent event) {
+        Channel channel = channels.get(event.clientId());
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.publish(objectMapper.writeValueAsString(event.transaction()));
+        } catch (JsonProcessingException ex) {
+            log.warn("Cannot serialize transaction {} for the feed", event.transaction().id(), ex);
+        }
+    }
+
+    /**
+     * Keeps idle connections open through proxies, detects closed ones, and
+     * drops channels that have had no subscriber for {@code retention}.
+     */
+    void heartbeat() {
+        long now = nanoClock.getAsLong();
+        channels.keySet().forEach(clientId -> channels.computeIfPresent(clientId, (id, channel) -> {
+            channel.heartbeat();
+            return channel.expired(now) ? null : channel;
+        }));
+    }
+
+    int subscriberCount() {
+        return channels.values().stream().mapToInt(Channel::size).sum();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+        channels.values().forEach(Channel::closeAll);
+        channels.clear();
+    }
+
+    private final class Channel {
+
+        private final String generation = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+        private final Event[] ring = new Event[bufferSize];
+        private final Set<Subscriber> subscribers = new HashSet<>();
+        private long nextSequence = 1;
+        private long idleSince = nanoClock.getAsLong();
+
+        synchronized void add(Subscriber subscriber, String lastEventId) {
+            if (lastEventId != null) {
+                List<Object> missed = missedSince(lastEventId);
+                if (missed == null) {
+                    subscriber.offer(Signal.RESYNC);
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+
+        synchronized void remove(Subscriber subscriber) {
+            if (subscribers.remove(subscriber) && subscribers.isEmpty()) {
+                idleSince = nanoClock.getAsLong();
+            }
+        }
+
+        synchronized void publish(String json) {
+            long sequence = nextSequence++;
+            Event event = new Event(generation + "-" + sequence, json);
+            ring[(int) (sequence % bufferSize)] = event;
+            deliver(event);
+        }
+
+        synchronized void heartbeat() {
+            deliver(Signal.HEARTBEAT);
+        }
+
+        synchronized boolean expired(long now) {
+            return subscribers.isEmpty() && now - idleSince > retentionNanos;
+        }
+
+        synchronized int size() {
+            return subscribers.size();
+        }
+
+        synchronized void closeAll() {
+            subscribers.forEach(Subscriber::close);
+            subscribers.clear();
+        }
+
+        private void deliver(Object item) {
+            if (subscribers.removeIf(subscriber -> !subscriber.offer(item)) && subscribers.isEmpty()) {
+                idleSince = nanoClock.getAsLong();
+            }
+        }
+
+        // null when the events after lastEventId are not all in the buffer
+        private List<Object> missedSince(String lastEventId) {
+            int separator = lastEventId.lastIndexOf('-');
+            if (separator < 0 || !lastEventId.substring(0, separator).equals(generation)) {
+                return null;
+            }
+            long last;
+            try {
+                last = Long.parseLong(lastEventId.substring(separator + 1));
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+            long oldest = Math.max(1, nextSequence - bufferSize);
+            if (last < oldest - 1 || last >= nextSequence) {
+                return null;
+            }
+            List<Object> missed = new ArrayList<>();
+            for (long sequence = last + 1; sequence < nextSequence; sequence++) {
+                missed.add(ring[(int) (sequence % bufferSize)]);
+            }
+            return missed;
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        // Room for a full replay on top of the live backlog.
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueSize + bufferSize + 1);
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * @return false, after closing the subscriber, when its queue is full
+         */
+        boolean offer(Object item) {
+            if (queue.offer(item)) {
+                return true;
+            }
+            log.debug("Disconnecting a transaction feed subscriber that fell {} events behind", queue.size());
+            close();
+            return false;
+        }
+
+        void close() {
+            queue.clear();
+            queue.offer(Signal.CLOSE);
+        }
+
+        void drain() {
+            try {
+                while (true) {
+                    Object item = queue.take();
+                    if (item == Signal.CLOSE) {
+                        emitter.complete();
+                        return;
+                    }
+                    emitter.send(toSse(item));
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException ex) {
+                // The connection is gone; the container completes the emitter.
+            }
+        }
+
+        private SseEmitter.SseEventBuilder toSse(Object item) {
+            if (item instanceof Event event) {
+                return SseEmitter.event()
+                        .id(event.id())
+                        .name(TRANSACTION_EVENT)
+                        .data(event.json(), MediaType.APPLICATION_JSON);
+            }
+            if (item == Signal.RESYNC) {
+                return SseEmitter.event().name(RESYNC_EVENT).data(RESYNC_DATA, MediaType.APPLICATION_JSON);
+            }
+            return SseEmitter.event().comment("keep-alive");
+        }
+    }
+}
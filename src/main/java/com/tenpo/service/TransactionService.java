@@ -1,39 +1,73 @@
 package com.tenpo.service;
 
+import com.tenpo.api.dto.MultiGetItemDTO;
+import com.tenpo.api.dto.TransactionPatchDTO;
 import com.tenpo.api.dto.TransactionRequestDTO;
 import com.tenpo.api.dto.TransactionResponseDTO;
+import com.tenpo.api.dto.TransactionTotalsDTO;
+import com.tenpo.exception.BusinessRuleException;
+import com.tenpo.exception.DomainException;
+import com.tenpo.exception.PreconditionFailedException;
+import com.tenpo.exception.ResourceNotFoundException;
+import com.tenpo.model.ChangeLogEntry.EntityType;
 import com.tenpo.model.Employee;
+import com.tenpo.model.OutboxEvent;
 import com.tenpo.model.Transaction;
+import com.tenpo.repository.EmployeeOwnership;
 import com.tenpo.repository.EmployeeRepository;
+import com.tenpo.repository.MultiIdLoader;
+import com.tenpo.outbox.Outbox;
 import com.tenpo.repository.TransactionRepository;
+import com.tenpo.repository.TransactionTotals;
+import com.tenpo.sharding.ScatterGather;
+import com.tenpo.sharding.ShardKey;
+import com.tenpo.singleflight.SingleFlight;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static com.tenpo.sharding.ShardKey.Type.CLIENT;
+import static com.tenpo.sharding.ShardKey.Type.TRANSACTION;
+
 @Service
 @RequiredArgsConstructor
 @SuppressWarnings("null")
 public class TransactionService {
 
+    private static final int MAX_TRANSACTIONS_PER_CLIENT = 100;
+
     private final TransactionRepository transactionRepository;
     private final EmployeeRepository employeeRepository;
+    private final MultiIdLoader multiIdLoader;
+    private final MissingIdCache missingIdCache;
+    private final ChangeLog changeLog;
+    private final Outbox outbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CreateTransactionTimers createTimers;
 
+    /**
+     * Four statements: one projection validating ownership and the client
+     * quota, the INSERT, and at commit the change log merge and the outbox
+     * insert. The employee is attached as a reference, never loaded.
+     * Subscribers of the client's {@link TransactionFeed} get it after commit.
+     */
     @Transactional
-    public TransactionResponseDTO createTransaction(TransactionRequestDTO request) {
-        Employee employee = employeeRepository.findById(request.employeeId())
-                .orElseThrow(() -> new RuntimeException("Employee not found"));
-
-        if (employee.getClient().getId() != request.clientId()) {
-            throw new RuntimeException("Employee does not belong to the client");
-        }
+    public TransactionResponseDTO createTransaction(
+            @ShardKey(value = CLIENT, property = "clientId") TransactionRequestDTO request) {
+        CreateTransactionTimers.Timing timing = createTimers.start(request.clientId());
+        timing.begin(CreateTransactionTimers.LOOKUP);
+        EmployeeOwnership ownership = requireOwnership(request.employeeId(), request.clientId());
+        timing.end();
 
         // Constraint: Max 100 transactions per client
-        long transactionCount = transactionRepository.countByClientId(employee.getClient().getId());
-        if (transactionCount >= 100) {
-            throw new RuntimeException("Client has reached the maximum of 100 transactions");
+        if (ownership.clientTransactionCount() >= MAX_TRANSACTIONS_PER_CLIENT) {
+            throw BusinessRuleException.TRANSACTION_LIMIT_REACHED;
         }
 
         // Business rules from requirements:
@@ -44,13 +78,26 @@ public class TransactionService {
                 .amount(request.amount())
                 .merchantOrBusiness(request.merchantOrBusiness())
                 .date(request.date())
-                .employee(employee)
+                .employee(employeeRepository.getReferenceById(request.employeeId()))
                 .build();
 
+        timing.begin(CreateTransactionTimers.INSERT);
         transaction = transactionRepository.save(transaction);
-        return mapToResponse(transaction);
+        timing.end();
+
+        timing.begin(CreateTransactionTimers.RECORD);
+        missingIdCache.recordCreated(Transaction.class, transaction.getId());
+        changeLog.upserted(EntityType.TRANSACTION, transaction.getId());
+        TransactionResponseDTO response = mapToResponse(transaction, ownership.clientId());
+        outbox.append(ownership.clientId(), EntityType.TRANSACTION, response.id(), OutboxEvent.EventType.CREATED,
+                response);
+        eventPublisher.publishEvent(new TransactionCreatedEvent(ownership.clientId(), response));
+        timing.end();
+        timing.timeCommit();
+        return response;
     }
 
+    @ScatterGather
     @Transactional(readOnly = true)
     public List<TransactionResponseDTO> getAllTransactions() {
         return transactionRepository.findAll().stream()
@@ -58,50 +105,187 @@ public class TransactionService {
                 .collect(Collectors.toList());
     }
 
+    @SingleFlight("transactions-by-client")
     @Transactional(readOnly = true)
-    public List<TransactionResponseDTO> getTransactionsByClientId(Integer clientId) {
+    public List<TransactionResponseDTO> getTransactionsByClientId(@ShardKey(CLIENT) Integer clientId) {
         return transactionRepository.findByClientId(clientId).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
-    public TransactionResponseDTO getTransactionById(Integer id) {
-        Transaction transaction = transactionRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+    public List<TransactionResponseDTO> getRecentTransactionsByClientId(@ShardKey(CLIENT) Integer clientId,
+            int limit) {
+        return transactionRepository.findRecentByClientId(clientId, Limit.of(limit)).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @SingleFlight("transaction-totals-by-client")
+    @Transactional(readOnly = true)
+    public TransactionTotalsDTO getTransactionTotalsByClientId(@ShardKey(CLIENT) Integer clientId) {
+        TransactionTotals totals = transactionRepository.findTotalsByClientId(clientId);
+        return new TransactionTotalsDTO(totals.count(), MAX_TRANSACTIONS_PER_CLIENT,
+                Math.max(0, MAX_TRANSACTIONS_PER_CLIENT - totals.count()), totals.totalAmount());
+    }
+
+    @Transactional(readOnly = true)
+    public TransactionResponseDTO getTransactionById(@ShardKey(TRANSACTION) Integer id) {
+        if (missingIdCache.isKnownMissing(Transaction.class, id)) {
+            throw ResourceNotFoundException.TRANSACTION;
+        }
+        Transaction transaction = transactionRepository.findById(id).orElse(null);
+        if (transaction == null) {
+            missingIdCache.recordMissing(Transaction.class, id);
+            throw ResourceNotFoundException.TRANSACTION;
+        }
         return mapToResponse(transaction);
     }
 
-    @Transactional
-    public TransactionResponseDTO updateTransaction(Integer id, TransactionRequestDTO request) {
-        Transaction transaction = transactionRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Transaction not found"));
+    @Transactional(readOnly = true)
+    public List<MultiGetItemDTO<TransactionResponseDTO>> getTransactionsByIds(
+            @ShardKey(TRANSACTION) List<Integer> ids) {
+        List<Transaction> transactions = multiIdLoader.findAllInRequestOrder(Transaction.class, ids);
+        return MultiGetItemDTO.zip(ids, transactions, this::mapToResponse);
+    }
 
-        Employee employee = employeeRepository.findById(request.employeeId())
-                .orElseThrow(() -> new RuntimeException("Employee not found"));
+    /**
+     * Full replacement. With an {@code expectedVersion} the version, the
+     * employee's existence and its ownership are all checked by the WHERE clause
+     * of a single UPDATE.
+     */
+    @Transactional
+    public TransactionResponseDTO updateTransaction(@ShardKey(TRANSACTION) Integer id, TransactionRequestDTO request,
+            Long expectedVersion) {
+        if (expectedVersion != null) {
+            if (transactionRepository.updateIfVersionMatches(id, request.amount(), request.merchantOrBusiness(),
+                    request.date(), request.employeeId(), request.clientId(), expectedVersion) == 0) {
+                throw conditionalUpdateFailure(id, expectedVersion, request.employeeId(), request.clientId());
+            }
+            changeLog.upserted(EntityType.TRANSACTION, id);
+            return updated(new TransactionResponseDTO(id, request.amount(), request.merchantOrBusiness(),
+                    request.date(), request.employeeId(), request.clientId(), expectedVersion + 1));
+        }
+        Transaction transaction = transactionRepository.findWithEmployeeById(id)
+                .orElseThrow(() -> ResourceNotFoundException.TRANSACTION);
 
+        Integer clientId = reassignEmployee(transaction, request.employeeId(), request.clientId());
         transaction.setAmount(request.amount());
         transaction.setMerchantOrBusiness(request.merchantOrBusiness());
         transaction.setDate(request.date());
-        transaction.setEmployee(employee);
 
-        transaction = transactionRepository.save(transaction);
-        return mapToResponse(transaction);
+        transaction = transactionRepository.saveAndFlush(transaction);
+        changeLog.upserted(EntityType.TRANSACTION, id);
+        return updated(mapToResponse(transaction, clientId));
+    }
+
+    @Transactional
+    public TransactionResponseDTO patchTransaction(@ShardKey(TRANSACTION) Integer id, TransactionPatchDTO patch,
+            Long expectedVersion) {
+        Transaction transaction = transactionRepository.findWithEmployeeById(id)
+                .orElseThrow(() -> ResourceNotFoundException.TRANSACTION);
+        if (expectedVersion != null && !expectedVersion.equals(transaction.getVersion())) {
+            throw new PreconditionFailedException("Transaction was modified by another request");
+        }
+
+        Integer clientId = transaction.getEmployee().getClient().getId();
+        if (patch.getEmployeeId() != null || patch.getClientId() != null) {
+            Integer employeeId = patch.getEmployeeId() != null
+                    ? patch.getEmployeeId()
+                    : transaction.getEmployee().getId();
+            clientId = reassignEmployee(transaction, employeeId,
+                    patch.getClientId() != null ? patch.getClientId() : clientId);
+        }
+        if (patch.getAmount() != null) {
+            transaction.setAmount(patch.getAmount());
+        }
+        if (patch.getMerchantOrBusiness() != null) {
+            transaction.setMerchantOrBusiness(patch.getMerchantOrBusiness());
+        }
+        if (patch.getDate() != null) {
+            transaction.setDate(patch.getDate());
+        }
+
+        transaction = transactionRepository.saveAndFlush(transaction);
+        changeLog.upserted(EntityType.TRANSACTION, id);
+        return updated(mapToResponse(transaction, clientId));
     }
 
     @Transactional
-    public void deleteTransaction(Integer id) {
-        transactionRepository.deleteById(id);
+    public void deleteTransaction(@ShardKey(TRANSACTION) Integer id) {
+        // deleteById would load the row as well; fetching its employee too gives the client for the outbox.
+        transactionRepository.findWithEmployeeById(id).ifPresent(transaction -> {
+            transactionRepository.delete(transaction);
+            outbox.append(transaction.getEmployee().getClient().getId(), EntityType.TRANSACTION, id,
+                    OutboxEvent.EventType.DELETED, null);
+        });
+        changeLog.deleted(EntityType.TRANSACTION, id);
+    }
+
+    private TransactionResponseDTO updated(TransactionResponseDTO response) {
+        outbox.append(response.clientId(), EntityType.TRANSACTION, response.id(), OutboxEvent.EventType.UPDATED,
+                response);
+        return response;
+    }
+
+    /**
+     * Points the transaction at {@code employeeId} after checking it belongs to
+     * {@code clientId}. Keeping the current employee needs no query: its client
+     * id was fetched with the transaction.
+     */
+    private Integer reassignEmployee(Transaction transaction, Integer employeeId, Integer clientId) {
+        Employee current = transaction.getEmployee();
+        if (employeeId.equals(current.getId())) {
+            if (!clientId.equals(current.getClient().getId())) {
+                throw BusinessRuleException.EMPLOYEE_NOT_IN_CLIENT;
+            }
+            return clientId;
+        }
+        requireOwnership(employeeId, clientId);
+        transaction.setEmployee(employeeRepository.getReferenceById(employeeId));
+        return clientId;
+    }
+
+    private EmployeeOwnership requireOwnership(Integer employeeId, Integer clientId) {
+        EmployeeOwnership ownership = employeeRepository.findOwnershipById(employeeId)
+                .orElseThrow(() -> BusinessRuleException.EMPLOYEE_NOT_FOUND);
+        if (!ownership.clientId().equals(clientId)) {
+            throw BusinessRuleException.EMPLOYEE_NOT_IN_CLIENT;
+        }
+        return ownership;
+    }
+
+    private DomainException conditionalUpdateFailure(Integer id, Long expectedVersion, Integer employeeId,
+            Integer clientId) {
+        Optional<Long> currentVersion = transactionRepository.findVersionById(id);
+        if (currentVersion.isEmpty()) {
+            return ResourceNotFoundException.TRANSACTION;
+        }
+        if (!currentVersion.get().equals(expectedVersion)) {
+            return new PreconditionFailedException("Transaction was modified by another request");
+        }
+        try {
+            requireOwnership(employeeId, clientId);
+        } catch (BusinessRuleException ex) {
+            return ex;
+        }
+        return new PreconditionFailedException("Transaction was modified by another request");
     }
 
     private TransactionResponseDTO mapToResponse(@org.springframework.lang.NonNull Transaction transaction) {
+        return mapToResponse(transaction, transaction.getEmployee().getClient().getId());
+    }
+
+    private TransactionResponseDTO mapToResponse(@org.springframework.lang.NonNull Transaction transaction,
+            Integer clientId) {
         return TransactionResponseDTO.builder()
                 .id(transaction.getId())
                 .amount(transaction.getAmount())
                 .merchantOrBusiness(transaction.getMerchantOrBusiness())
                 .date(transaction.getDate())
                 .employeeId(transaction.getEmployee().getId())
-                .clientId(transaction.getEmployee().getClient().getId())
+                .clientId(clientId)
+                .version(transaction.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,111 @@
+package com.tenpo.sharding;
+
+import com.tenpo.exception.BusinessRuleException;
+import com.tenpo.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Moves a client, with its employees and transactions, to another shard.
+ *
+ * <ol>
+ * <li>On the source shard, the rows are read with {@code FOR UPDATE}; writes
+ * to them, including inserts that reference them, wait from here on.</li>
+ * <li>They are inserted on the target shard with their ids, and committed.</li>
+ * <li>The directory records the client's new location and routing switches
+ * over; employees and transactions follow their client (see
+ * {@link ShardMap}), so the directory gains one row per moved client.</li>
+ * <li>The source rows are deleted and the source transaction commits,
+ * releasing waiting writers, which then fail: their rows are gone.</li>
+ * </ol>
+ *
+ * If the copy fails nothing has changed; if the directory update fails the
+ * copy is deleted again.
+ */
+@Slf4j
+public class ClientShardMover {
+
+    private final ShardMap shardMap;
+    private final ShardDirectory shardDirectory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate sourceTransaction;
+    private final TransactionTemplate targetTransaction;
+
+    public ClientShardMover(ShardMap shardMap, ShardDirectory shardDirectory, DataSource dataSource,
+            PlatformTransactionManager transactionManager) {
+        this.shardMap = shardMap;
+        this.shardDirectory = shardDirectory;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.sourceTransaction = new TransactionTemplate(transactionManager);
+        this.targetTransaction = new TransactionTemplate(transactionManager);
+        this.targetTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @return the number of rows moved, 0 when the client already lives on
+     *         {@code target}
+     */
+    public int move(Integer clientId, int target) {
+        if (target < 0 || target >= shardMap.shardCount()) {
+            throw new BusinessRuleException("No shard " + target + "; shards are 0 to "
+                    + (shardMap.shardCount() - 1));
+        }
+        int source = shardMap.shardOf(ShardKey.Type.CLIENT, clientId);
+        if (source == target) {
+            return 0;
+        }
+        int moved = ShardContext.callOn(source, () -> sourceTransaction.execute(status -> {
+            List<Map<String, Object>> clients = jdbcTemplate.queryForList(
+                    "SELECT * FROM clients WHERE client_id = ? FOR UPDATE", clientId);
+            if (clients.isEmpty()) {
+                throw ResourceNotFoundException.CLIENT;
+            }
+            List<Map<String, Object>> employees = jdbcTemplate.queryForList(
+                    "SELECT * FROM employees WHERE client_id = ? FOR UPDATE", clientId);
+            List<Map<String, Object>> transactions = jdbcTemplate.queryForList(
+                    "SELECT * FROM transactions WHERE employee_id IN "
+                            + "(SELECT employee_id FROM employees WHERE client_id = ?) FOR UPDATE", clientId);
+
+            ShardContext.runOn(target, () -> targetTransaction.executeWithoutResult(copy -> {
+                insert("clients", clients);
+                insert("employees", employees);
+                insert("transactions", transactions);
+            }));
+
+            try {
+                shardDirectory.relocate(clientId, target);
+            } catch (RuntimeException ex) {
+                ShardContext.runOn(target, () -> targetTransaction.executeWithoutResult(undo ->
+                        jdbcTemplate.update("DELETE FROM clients WHERE client_id = ?", clientId)));
+                throw ex;
+            }
+
+            // Employees and transactions go with it through ON DELETE CASCADE.
+            jdbcTemplate.update("DELETE FROM clients WHERE client_id = ?", clientId);
+            return clients.size() + employees.size() + transactions.size();
+        }));
+        log.info("Moved client {} from shard {} to shard {} ({} rows)", clientId, source, target, moved);
+        return moved;
+    }
+
+    private void insert(String table, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+        jdbcTemplate.batchUpdate(sql, rows.stream()
+                .map(row -> columns.stream().map(row::get).toArray())
+                .toList());
+    }
+}
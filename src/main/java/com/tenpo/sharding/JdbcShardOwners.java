@@ -0,0 +1,36 @@
+package com.tenpo.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up the owner of an employee or transaction with one primary-key query
+ * on the shard's own pool, outside any transaction of the caller.
+ */
+public class JdbcShardOwners implements ShardMap.Owners {
+
+    private static final String EMPLOYEE_OWNER = "SELECT client_id FROM employees WHERE employee_id = ?";
+    private static final String TRANSACTION_OWNER = "SELECT e.client_id FROM transactions t "
+            + "JOIN employees e ON e.employee_id = t.employee_id WHERE t.transaction_id = ?";
+
+    private final Map<Integer, JdbcTemplate> shards = new HashMap<>();
+
+    public JdbcShardOwners(Map<Integer, ? extends DataSource> shards) {
+        shards.forEach((index, dataSource) -> this.shards.put(index, new JdbcTemplate(dataSource)));
+    }
+
+    @Override
+    public Integer clientOf(ShardKey.Type type, int id, int shard) {
+        String sql = switch (type) {
+            case EMPLOYEE -> EMPLOYEE_OWNER;
+            case TRANSACTION -> TRANSACTION_OWNER;
+            default -> throw new IllegalArgumentException("No owner lookup for " + type);
+        };
+        List<Integer> owners = shards.get(shard).queryForList(sql, Integer.class, id);
+        return owners.isEmpty() ? null : owners.get(0);
+    }
+}
@@ -0,0 +1,34 @@
+package com.tenpo.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the method on every shard in parallel and merges the results.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ScatterGather {
+
+    Merge value() default Merge.CONCAT;
+
+    enum Merge {
+        /** Collections, concatenated in shard order. */
+        CONCAT,
+        /** The largest result. */
+        MAX,
+        /** The sum of the results, as a {@code long}. */
+        SUM,
+        /** {@code true} when any shard returned {@code true}. */
+        ANY,
+        /**
+         * The first shard, in shard order, that returned instead of throwing;
+         * when all of them threw, the first exception.
+         */
+        FIRST
+    }
+}
@@ -0,0 +1,60 @@
+package com.tenpo.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's connections come from. Work that never
+ * binds one, such as schema validation at startup, runs on
+ * {@link #DEFAULT_SHARD}, which also holds the shard directory.
+ */
+public final class ShardContext {
+
+    public static final int DEFAULT_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the bound shard, or {@code null} when none is
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static int currentOrDefault() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : DEFAULT_SHARD;
+    }
+
+    public static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = bind(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runOn(int shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static Integer bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
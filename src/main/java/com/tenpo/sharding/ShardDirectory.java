@@ -0,0 +1,90 @@
+package com.tenpo.sharding;
+
+import com.tenpo.model.ShardDirectoryEntry;
+import com.tenpo.repository.ShardDirectoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The relocations of the {@link ShardMap}, stored on the default shard. Each
+ * instance reloads them every {@code refreshInterval}, so a move made by
+ * another instance is routed correctly here after at most that delay. Only
+ * clients are recorded, so the directory grows with the number of moved
+ * clients; employees and transactions are routed through their client.
+ * Entries for them written by earlier versions are still honoured.
+ */
+@Slf4j
+public class ShardDirectory implements AutoCloseable {
+
+    private final ShardDirectoryRepository repository;
+    private final ShardMap shardMap;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("shard-directory").daemon().factory());
+
+    public ShardDirectory(ShardDirectoryRepository repository, ShardMap shardMap,
+            PlatformTransactionManager transactionManager, Duration refreshInterval) {
+        this.repository = repository;
+        this.shardMap = shardMap;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Loads the directory and starts the periodic reload.
+     */
+    public void start() {
+        load();
+        log.info("Shard directory loaded: {} relocated rows", shardMap.relocationCount());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                load();
+            } catch (RuntimeException ex) {
+                log.warn("Reloading the shard directory failed", ex);
+            }
+        }, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void load() {
+        Map<ShardKey.Type, Map<Integer, Integer>> entries = new EnumMap<>(ShardKey.Type.class);
+        ShardContext.runOn(ShardContext.DEFAULT_SHARD, () -> repository.findAll().forEach(entry -> entries
+                .computeIfAbsent(entry.getEntityType(), type -> new HashMap<>())
+                .put(entry.getEntityId(), entry.getShard())));
+        shardMap.replaceRelocations(entries);
+    }
+
+    /**
+     * Records that the client now lives on {@code shard}, in the directory's
+     * own transaction, and applies it to the local map.
+     */
+    public void relocate(Integer clientId, int shard) {
+        List<Integer> ids = List.of(clientId);
+        ShardContext.runOn(ShardContext.DEFAULT_SHARD, () -> transactionTemplate.executeWithoutResult(status -> {
+            repository.deleteEntries(ShardKey.Type.CLIENT, ids);
+            repository.save(ShardDirectoryEntry.builder()
+                    .entityType(ShardKey.Type.CLIENT)
+                    .entityId(clientId)
+                    .shard(shard)
+                    .build());
+        }));
+        shardMap.relocate(ShardKey.Type.CLIENT, ids, shard);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,80 @@
+package com.tenpo.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Map;
+
+/**
+ * Interleaves the generated ids of the shards: on shard {@code i} of
+ * {@code n} the id columns increment by {@code n} and only produce ids with
+ * {@code (id - 1) % n == i}, so ids are unique across shards and name the
+ * shard that created them.
+ *
+ * <p>A shard whose columns already increment by {@code n} is left alone, so
+ * this is a one-time change per shard. Changing the shard count later needs a
+ * migration of its own.
+ */
+@Slf4j
+public final class ShardIdentityLayout {
+
+    private static final Map<String, String> ID_COLUMNS = Map.of(
+            "clients", "client_id",
+            "employees", "employee_id",
+            "transactions", "transaction_id");
+
+    private ShardIdentityLayout() {
+    }
+
+    public static void apply(Map<Integer, ? extends DataSource> shards) {
+        shards.forEach((index, dataSource) -> apply(dataSource, index, shards.size()));
+    }
+
+    static void apply(DataSource dataSource, int index, int shardCount) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        boolean postgres = isPostgres(dataSource);
+        ID_COLUMNS.forEach((table, column) -> {
+            Long increment = postgres
+                    ? jdbcTemplate.queryForObject("SELECT seqincrement FROM pg_sequence "
+                            + "WHERE seqrelid = pg_get_serial_sequence(?, ?)::regclass", Long.class, table, column)
+                    : jdbcTemplate.queryForObject("SELECT IDENTITY_INCREMENT FROM INFORMATION_SCHEMA.COLUMNS "
+                            + "WHERE LOWER(TABLE_NAME) = ? AND LOWER(COLUMN_NAME) = ?", Long.class, table, column);
+            if (increment != null && increment == shardCount) {
+                return;
+            }
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table,
+                    Long.class);
+            long next = firstIdAfter(maxId, index, shardCount);
+            if (postgres) {
+                String sequence = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence(?, ?)", String.class,
+                        table, column);
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + shardCount
+                        + " RESTART WITH " + next);
+            } else {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET INCREMENT BY "
+                        + shardCount + " RESTART WITH " + next);
+            }
+            log.info("Shard {}: {}.{} now generates {}, {}, ...", index, table, column, next, next + shardCount);
+        });
+    }
+
+    /**
+     * The smallest id above {@code maxId} that belongs to shard {@code index}.
+     */
+    static long firstIdAfter(long maxId, int index, int shardCount) {
+        long next = maxId + 1;
+        return next + Math.floorMod(index - (next - 1), shardCount);
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Cannot read the database product of a shard", ex);
+        }
+    }
+}
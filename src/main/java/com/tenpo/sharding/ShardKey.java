@@ -0,0 +1,38 @@
+package com.tenpo.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the parameter that decides which shard a call runs on. When the
+ * parameter is a collection, its elements are grouped by shard and the method
+ * runs once per shard with its share; a {@code List} result is reassembled in
+ * the order of the argument.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ShardKey {
+
+    Type value();
+
+    /**
+     * Accessor path to the key inside the argument, e.g. {@code clientId}
+     * on a request body. Empty when the argument is the key itself.
+     */
+    String property() default "";
+
+    enum Type {
+        /** A client id: the client's shard. */
+        CLIENT,
+        /** An employee id: the shard the employee lives on. */
+        EMPLOYEE,
+        /** A transaction id: the shard the transaction lives on. */
+        TRANSACTION,
+        /** The RUT of a client that may not exist yet: the shard it is placed on. */
+        PLACEMENT
+    }
+}
@@ -0,0 +1,127 @@
+package com.tenpo.sharding;
+
+import com.tenpo.util.RutUtils;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Which shard a client, employee or transaction lives on.
+ *
+ * <p>Ids are interleaved: shard {@code i} of {@code n} only generates ids
+ * with {@code (id - 1) % n == i} (see {@link ShardIdentityLayout}), so an id
+ * names the shard it was created on without a lookup. New clients are placed
+ * by a hash of their RUT, and employees and transactions follow their client.
+ * Rows moved with {@link ClientShardMover} keep their ids. Only the client's
+ * relocation is recorded in the shard directory, where it overrides the id's
+ * home shard; once any client has moved, an employee or transaction is routed
+ * to the shard of the client that owns it, looked up with {@link Owners}.
+ */
+public class ShardMap {
+
+    private final int shardCount;
+    private final Owners owners;
+    private volatile Map<ShardKey.Type, Map<Integer, Integer>> relocations = new EnumMap<>(ShardKey.Type.class);
+
+    public ShardMap(int shardCount, Owners owners) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shardCount = shardCount;
+        this.owners = owners;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @param key an id for CLIENT, EMPLOYEE and TRANSACTION, a RUT for
+     *            PLACEMENT
+     */
+    public int shardOf(ShardKey.Type type, Object key) {
+        if (key == null) {
+            return ShardContext.DEFAULT_SHARD;
+        }
+        if (type == ShardKey.Type.PLACEMENT) {
+            return placementShard(key.toString());
+        }
+        int id = ((Number) key).intValue();
+        Map<ShardKey.Type, Map<Integer, Integer>> current = relocations;
+        // Rows recorded one by one by earlier versions of the mover.
+        Integer relocated = current.getOrDefault(type, Map.of()).get(id);
+        if (relocated != null) {
+            return relocated;
+        }
+        if (type == ShardKey.Type.CLIENT || current.getOrDefault(ShardKey.Type.CLIENT, Map.of()).isEmpty()) {
+            return homeShard(id);
+        }
+        return ownerShard(type, id);
+    }
+
+    /**
+     * Searches the id's home shard first, where it is unless its client has
+     * moved, then the others; an id found nowhere stays on its home shard.
+     */
+    private int ownerShard(ShardKey.Type type, int id) {
+        int home = homeShard(id);
+        for (int i = 0; i < shardCount; i++) {
+            int shard = (home + i) % shardCount;
+            Integer clientId = owners.clientOf(type, id, shard);
+            if (clientId != null) {
+                return shardOf(ShardKey.Type.CLIENT, clientId);
+            }
+        }
+        return home;
+    }
+
+    /**
+     * The shard that generated {@code id}.
+     */
+    public int homeShard(int id) {
+        return Math.floorMod(id - 1, shardCount);
+    }
+
+    public int placementShard(String rut) {
+        Long rutKey = RutUtils.toKey(rut);
+        long hash = rutKey != null ? rutKey : rut.trim().hashCode();
+        // Spread consecutive RUTs, whose keys differ mostly in the low digits.
+        return Math.floorMod(Long.hashCode(hash * 0x9E3779B97F4A7C15L), shardCount);
+    }
+
+    public int relocationCount() {
+        return relocations.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Replaces every relocation with the directory's current content.
+     */
+    public synchronized void replaceRelocations(Map<ShardKey.Type, Map<Integer, Integer>> directory) {
+        Map<ShardKey.Type, Map<Integer, Integer>> copy = new EnumMap<>(ShardKey.Type.class);
+        directory.forEach((type, entries) -> copy.put(type, Map.copyOf(entries)));
+        relocations = copy;
+    }
+
+    public synchronized void relocate(ShardKey.Type type, Collection<Integer> ids, int shard) {
+        Map<ShardKey.Type, Map<Integer, Integer>> copy = new EnumMap<>(relocations);
+        Map<Integer, Integer> entries = new HashMap<>(copy.getOrDefault(type, Map.of()));
+        ids.forEach(id -> entries.put(id, shard));
+        copy.put(type, Map.copyOf(entries));
+        relocations = copy;
+    }
+
+    /**
+     * Finds the client that owns an employee or transaction stored on a shard.
+     */
+    @FunctionalInterface
+    public interface Owners {
+
+        /**
+         * @return the owning client's id, or {@code null} when {@code shard}
+         *         has no such row
+         */
+        Integer clientOf(ShardKey.Type type, int id, int shard);
+    }
+}
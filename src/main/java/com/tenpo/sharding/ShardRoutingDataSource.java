@@ -0,0 +1,26 @@
+package com.tenpo.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the shard bound to the calling thread by
+ * {@link ShardContext}.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(Map<Integer, ? extends DataSource> shards) {
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(ShardContext.DEFAULT_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.currentOrDefault();
+    }
+}
@@ -0,0 +1,306 @@
+package com.tenpo.sharding;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.MDC;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.core.Ordered;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs {@link ShardKey} and {@link ScatterGather} methods on their shards.
+ * Ordered ahead of the transaction interceptor, so a transaction begins
+ * once the shard is bound and takes its connection from that shard.
+ *
+ * <p>A call runs on the caller's thread when it targets the shard the caller
+ * is already on, or when the caller has no transaction; otherwise, and for
+ * every fan-out, it runs on a virtual thread, since a transaction cannot span
+ * two databases.
+ */
+public class ShardRoutingInterceptor implements MethodInterceptor, AutoCloseable {
+
+    private static final Route NONE = new Route(null, -1, null);
+    private static final Map<RouteKey, Route> ROUTES = new ConcurrentHashMap<>();
+
+    private final ShardMap shardMap;
+    private final long fanOutTimeoutNanos;
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shard-fan-out-", 0).factory());
+
+    public ShardRoutingInterceptor(ShardMap shardMap, Duration fanOutTimeout) {
+        this.shardMap = shardMap;
+        this.fanOutTimeoutNanos = fanOutTimeout.toNanos();
+    }
+
+    /**
+     * Applies the interceptor to every bean method carrying the annotations.
+     * Advisors are created before most beans, so the interceptor is only
+     * looked up on the first call.
+     */
+    public static Advisor advisor(Supplier<ShardRoutingInterceptor> interceptor) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(@NonNull Method method, @NonNull Class<?> targetClass) {
+                return resolve(method, targetClass) != NONE;
+            }
+        }, (MethodInterceptor) invocation -> interceptor.get().invoke(invocation));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        Object target = invocation.getThis();
+        Route route = resolve(invocation.getMethod(), target != null ? target.getClass() : Object.class);
+        if (route == NONE) {
+            return invocation.proceed();
+        }
+        Object[] args = invocation.getArguments();
+        if (route.scatter() != null) {
+            return scatter(invocation, args, route.scatter().value());
+        }
+        Object argument = args[route.keyIndex()];
+        if (argument instanceof Iterable<?> items) {
+            return partition(invocation, args, route, items);
+        }
+        int shard = shardMap.shardOf(route.key().value(), keyOf(argument, route.key()));
+        return invokeOn(shard, invocation, args);
+    }
+
+    private Object invokeOn(int shard, MethodInvocation invocation, Object[] args) throws Throwable {
+        if (ShardContext.currentOrDefault() != shard && TransactionSynchronizationManager.isSynchronizationActive()) {
+            return await(List.of(submit(shard, invocation, args)), deadline()).get(0);
+        }
+        Integer previous = ShardContext.bind(shard);
+        try {
+            return args == invocation.getArguments()
+                    ? invocation.proceed()
+                    : ((ProxyMethodInvocation) invocation).invocableClone(args).proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object scatter(MethodInvocation invocation, Object[] args, ScatterGather.Merge merge) throws Throwable {
+        List<Future<Object>> futures = new ArrayList<>(shardMap.shardCount());
+        for (int shard = 0; shard < shardMap.shardCount(); shard++) {
+            futures.add(submit(shard, invocation, args));
+        }
+        if (merge == ScatterGather.Merge.FIRST) {
+            return first(futures);
+        }
+        List<Object> results = await(futures, deadline());
+        return switch (merge) {
+            case CONCAT -> {
+                List<Object> all = new ArrayList<>();
+                results.forEach(result -> all.addAll((Collection<?>) result));
+                yield all;
+            }
+            case MAX -> results.stream()
+                    .map(result -> (Comparable<Object>) result)
+                    .max(Comparator.naturalOrder())
+                    .orElse(null);
+            case SUM -> results.stream().mapToLong(result -> ((Number) result).longValue()).sum();
+            case ANY -> results.stream().anyMatch(Boolean.TRUE::equals);
+            case FIRST -> throw new IllegalStateException();
+        };
+    }
+
+    private Object partition(MethodInvocation invocation, Object[] args, Route route, Iterable<?> items)
+            throws Throwable {
+        Map<Integer, List<Object>> itemsByShard = new TreeMap<>();
+        Map<Integer, List<Integer>> positionsByShard = new TreeMap<>();
+        int size = 0;
+        for (Object item : items) {
+            int shard = shardMap.shardOf(route.key().value(), keyOf(item, route.key()));
+            itemsByShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(item);
+            positionsByShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(size++);
+        }
+        if (itemsByShard.size() <= 1) {
+            int shard = itemsByShard.isEmpty()
+                    ? ShardContext.currentOrDefault()
+                    : itemsByShard.keySet().iterator().next();
+            return invokeOn(shard, invocation, args);
+        }
+
+        List<Future<Object>> futures = new ArrayList<>(itemsByShard.size());
+        itemsByShard.forEach((shard, share) -> {
+            Object[] shardArgs = args.clone();
+            shardArgs[route.keyIndex()] = share;
+            futures.add(submit(shard, invocation, shardArgs));
+        });
+        List<Object> results = await(futures, deadline());
+        if (!(results.get(0) instanceof List<?>)) {
+            return null;
+        }
+        Object[] merged = new Object[size];
+        int i = 0;
+        for (List<Integer> positions : positionsByShard.values()) {
+            List<?> result = (List<?>) results.get(i++);
+            for (int j = 0; j < positions.size(); j++) {
+                merged[positions.get(j)] = result.get(j);
+            }
+        }
+        return new ArrayList<>(Arrays.asList(merged));
+    }
+
+    private Future<Object> submit(int shard, MethodInvocation invocation, Object[] args) {
+        MethodInvocation call = ((ProxyMethodInvocation) invocation).invocableClone(args);
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return executor.submit(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            ShardContext.bind(shard);
+            try {
+                return call.proceed();
+            } catch (Exception | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new ExecutionException(ex);
+            }
+        });
+    }
+
+    private long deadline() {
+        return System.nanoTime() + fanOutTimeoutNanos;
+    }
+
+    private List<Object> await(List<Future<Object>> futures, long deadline) throws Throwable {
+        List<Object> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<Object> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return results;
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        } catch (TimeoutException ex) {
+            throw new QueryTimeoutException("Shard fan-out did not finish within "
+                    + Duration.ofNanos(fanOutTimeoutNanos));
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Object first(List<Future<Object>> futures) throws Throwable {
+        long deadline = deadline();
+        Throwable firstFailure = null;
+        for (Future<Object> future : futures) {
+            try {
+                return await(List.of(future), deadline).get(0);
+            } catch (QueryTimeoutException ex) {
+                futures.forEach(pending -> pending.cancel(true));
+                throw ex;
+            } catch (Throwable ex) {
+                if (firstFailure == null) {
+                    firstFailure = ex;
+                }
+            }
+        }
+        throw firstFailure;
+    }
+
+    private static Object keyOf(Object argument, ShardKey key) {
+        Object value = argument;
+        if (key.property().isEmpty()) {
+            return value;
+        }
+        for (String name : key.property().split("\\.")) {
+            if (value == null) {
+                return null;
+            }
+            value = read(value, name);
+        }
+        return value;
+    }
+
+    // Record accessors first, then bean getters.
+    private static Object read(Object target, String name) {
+        Method accessor = ClassUtils.getMethodIfAvailable(target.getClass(), name);
+        if (accessor == null) {
+            accessor = ClassUtils.getMethodIfAvailable(target.getClass(),
+                    "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1));
+        }
+        if (accessor == null) {
+            throw new IllegalStateException("No accessor for shard key " + name + " on " + target.getClass());
+        }
+        try {
+            return accessor.invoke(target);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot read shard key " + name, ex);
+        }
+    }
+
+    private static Route resolve(Method method, Class<?> targetClass) {
+        return ROUTES.computeIfAbsent(new RouteKey(method, targetClass), routeKey -> {
+            for (Method candidate : candidates(method, targetClass)) {
+                ScatterGather scatter = candidate.getAnnotation(ScatterGather.class);
+                if (scatter != null) {
+                    return new Route(scatter, -1, null);
+                }
+                for (int i = 0; i < candidate.getParameterCount(); i++) {
+                    ShardKey key = candidate.getParameters()[i].getAnnotation(ShardKey.class);
+                    if (key != null) {
+                        return new Route(null, i, key);
+                    }
+                }
+            }
+            return NONE;
+        });
+    }
+
+    // The annotations may sit on the implementation or, for repositories, on
+    // the interface that redeclares the method.
+    private static Set<Method> candidates(Method method, Class<?> targetClass) {
+        Set<Method> candidates = new LinkedHashSet<>();
+        candidates.add(method);
+        candidates.add(AopUtils.getMostSpecificMethod(method, targetClass));
+        for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(targetClass)) {
+            Method declared = ClassUtils.getMethodIfAvailable(ifc, method.getName(), method.getParameterTypes());
+            if (declared != null) {
+                candidates.add(declared);
+            }
+        }
+        return candidates;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private record Route(ScatterGather scatter, int keyIndex, ShardKey key) {
+    }
+
+    private record RouteKey(Method method, Class<?> targetClass) {
+    }
+}
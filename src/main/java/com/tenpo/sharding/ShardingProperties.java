@@ -0,0 +1,45 @@
+package com.tenpo.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "tenpo.sharding")
+public class ShardingProperties {
+
+    /**
+     * Spreads clients, with their employees and transactions, over
+     * {@link #shards}. When disabled the single {@code spring.datasource}
+     * pool holds everything.
+     */
+    private boolean enabled = false;
+
+    /**
+     * In shard order. The first one also holds the shard directory. The
+     * number of shards is part of every id generated, so it cannot change
+     * without migrating the data.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * How long a scatter-gather call waits for the slowest shard.
+     */
+    private Duration fanOutTimeout = Duration.ofSeconds(5);
+
+    /**
+     * How often each instance reloads the directory of moved clients.
+     */
+    private Duration directoryRefresh = Duration.ofSeconds(10);
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,24 @@
+package com.tenpo.singleflight;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Coalesces concurrent calls of a read method with equal arguments: the first
+ * one runs and the others wait for it and get its result, or its exception.
+ * Only for methods whose result callers do not modify, and whose arguments
+ * have value equality.
+ *
+ * <p>The name identifies the method in {@code tenpo.single-flight.methods}
+ * and in the metrics.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+
+    String value();
+}
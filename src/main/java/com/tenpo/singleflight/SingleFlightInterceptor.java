@@ -0,0 +1,141 @@
+package com.tenpo.singleflight;
+
+import com.tenpo.datasource.ReadYourWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs {@link SingleFlight} methods once per set of equal arguments at a time.
+ * Ordered ahead of the transaction interceptor, so the waiting callers never
+ * open a transaction or take a connection.
+ *
+ * <p>A call joins one in flight only when it would read the same data:
+ * never from inside a transaction, whose own uncommitted writes the shared
+ * result would not see, and never across different read-your-writes times.
+ * A call that joins may get a result read shortly before it arrived, as if it
+ * had been made a moment earlier.
+ */
+public class SingleFlightInterceptor implements MethodInterceptor {
+
+    public static final String EXECUTIONS_METRIC = "tenpo.singleflight.executions";
+    public static final String COALESCED_METRIC = "tenpo.singleflight.coalesced";
+
+    private static final Map<RouteKey, Optional<SingleFlight>> ANNOTATIONS = new ConcurrentHashMap<>();
+
+    private final SingleFlightProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public SingleFlightInterceptor(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Applies the interceptor to every bean method carrying the annotation,
+     * looking the interceptor up on the first call.
+     */
+    public static Advisor advisor(Supplier<SingleFlightInterceptor> interceptor) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(@NonNull Method method, @NonNull Class<?> targetClass) {
+                return resolve(method, targetClass).isPresent();
+            }
+        }, (MethodInterceptor) invocation -> interceptor.get().invoke(invocation));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        Object target = invocation.getThis();
+        SingleFlight flight = resolve(invocation.getMethod(), target != null ? target.getClass() : Object.class)
+                .orElse(null);
+        if (flight == null || !properties.isEnabled(flight.value())
+                || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        Key key = new Key(invocation.getMethod(), Arrays.asList(invocation.getArguments().clone()),
+                ReadYourWrites.readAfterMillis());
+        Meters counters = meters.computeIfAbsent(flight.value(), this::register);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            counters.coalesced().increment();
+            return await(leader);
+        }
+        counters.executions().increment();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable ex) {
+            inFlight.remove(key, mine);
+            mine.completeExceptionally(ex);
+            throw ex;
+        }
+        // Removed first, so a call arriving after the result exists runs again.
+        inFlight.remove(key, mine);
+        mine.complete(result);
+        return result;
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> leader) throws Throwable {
+        try {
+            return leader.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private Meters register(String name) {
+        return new Meters(
+                Counter.builder(EXECUTIONS_METRIC)
+                        .description("Calls to a single-flight method that ran it")
+                        .tag("method", name)
+                        .register(meterRegistry),
+                Counter.builder(COALESCED_METRIC)
+                        .description("Calls to a single-flight method that got the result of one in flight")
+                        .tag("method", name)
+                        .register(meterRegistry));
+    }
+
+    private static Optional<SingleFlight> resolve(Method method, Class<?> targetClass) {
+        return ANNOTATIONS.computeIfAbsent(new RouteKey(method, targetClass), routeKey -> Optional.ofNullable(
+                AnnotatedElementUtils.findMergedAnnotation(AopUtils.getMostSpecificMethod(method, targetClass),
+                        SingleFlight.class)));
+    }
+
+    private record Key(Method method, List<Object> arguments, long readAfterMillis) {
+    }
+
+    private record RouteKey(Method method, Class<?> targetClass) {
+    }
+
+    private record Meters(Counter executions, Counter coalesced) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.tenpo.singleflight;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "tenpo.single-flight")
+public class SingleFlightProperties {
+
+    /**
+     * Installs the interceptor. When disabled every {@link SingleFlight}
+     * method runs once per call.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Per-method settings, keyed by the {@link SingleFlight} name. Methods
+     * not listed are coalesced.
+     */
+    private Map<String, Method> methods = new LinkedHashMap<>();
+
+    public boolean isEnabled(String name) {
+        Method method = methods.get(name);
+        return method == null || method.isEnabled();
+    }
+
+    @Data
+    public static class Method {
+        private boolean enabled = true;
+    }
+}
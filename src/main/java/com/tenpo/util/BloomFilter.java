@@ -0,0 +1,77 @@
+package com.tenpo.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over {@code long} keys. {@link #mightContain}
+ * returning {@code false} proves the key was never added; {@code true} only
+ * means "possibly". Keys cannot be removed.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long numBits, int numHashes) {
+        this.words = new AtomicLongArray((int) ((numBits + 63) / 64));
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Sizes the filter for {@code expectedInsertions} keys at the given false
+     * positive probability, using the usual m = -n ln p / (ln 2)^2 and
+     * k = m/n ln 2.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        long numBits = Math.max(64,
+                (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2))));
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        return new BloomFilter(numBits, numHashes);
+    }
+
+    public void put(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combinedHash) {
+        return (combinedHash < 0 ? ~combinedHash : combinedHash) % numBits;
+    }
+
+    // SplitMix64 finalizer: spreads sequential RUT bodies over all 64 bits.
+    private static long mix(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,72 @@
+package com.tenpo.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe count-min sketch over {@code String} keys: approximate sums
+ * per key in fixed memory, however many keys are seen. Estimates never fall
+ * below the true sum and exceed it by at most {@code error} times the total
+ * added, with probability {@code confidence}. Updates are lock-free.
+ */
+public final class CountMinSketch {
+
+    private final AtomicLongArray counters;
+    private final int width;
+    private final int depth;
+
+    private CountMinSketch(int width, int depth) {
+        this.counters = new AtomicLongArray(width * depth);
+        this.width = width;
+        this.depth = depth;
+    }
+
+    /**
+     * Sizes the sketch with the usual width = e / error and
+     * depth = ln(1 / (1 - confidence)).
+     */
+    public static CountMinSketch create(double error, double confidence) {
+        if (error <= 0 || error >= 1 || confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("error and confidence must be between 0 and 1");
+        }
+        int width = (int) Math.ceil(Math.E / error);
+        int depth = Math.max(1, (int) Math.ceil(Math.log(1 / (1 - confidence))));
+        return new CountMinSketch(width, depth);
+    }
+
+    /**
+     * Adds {@code amount} to the key and returns its new estimate.
+     */
+    public long add(String key, long amount) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.addAndGet(index(row, h1 + row * h2), amount));
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, h1 + row * h2)));
+        }
+        return estimate;
+    }
+
+    private int index(int row, int combinedHash) {
+        return row * width + (combinedHash < 0 ? ~combinedHash : combinedHash) % width;
+    }
+
+    // SplitMix64 finalizer over the string hash, so short numeric ids spread over every row.
+    private static long mix(String key) {
+        long z = key.hashCode() + 0x9E3779B97F4A7C15L * (key.length() + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,39 @@
+package com.tenpo.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical form of a Chilean RUT. {@code "12.345.678-k"}, {@code "12345678-K"}
+ * and {@code "12345678K"} all map to the same numeric key: the body followed by
+ * two digits for the check digit, K being 10 ({@code 1234567810}). The check
+ * digit itself is not verified.
+ */
+public final class RutUtils {
+
+    private static final Pattern RUT = Pattern.compile("^(\\d{1,9})-?([\\dK])$");
+
+    private RutUtils() {
+    }
+
+    /**
+     * @return the numeric key, or {@code null} when {@code rut} does not look
+     *         like a RUT
+     */
+    public static Long toKey(String rut) {
+        if (rut == null) {
+            return null;
+        }
+        Matcher matcher = RUT.matcher(rut.replace(".", "").replace(" ", "").toUpperCase());
+        if (!matcher.matches()) {
+            return null;
+        }
+        char checkDigit = matcher.group(2).charAt(0);
+        return Long.parseLong(matcher.group(1)) * 100 + (checkDigit == 'K' ? 10 : checkDigit - '0');
+    }
+
+    public static String format(long key) {
+        long checkDigit = key % 100;
+        return (key / 100) + "-" + (checkDigit == 10 ? "K" : String.valueOf(checkDigit));
+    }
+}
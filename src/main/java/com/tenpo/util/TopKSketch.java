@@ -0,0 +1,88 @@
+package com.tenpo.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code k} keys with the largest sums in a stream, estimated with a
+ * {@link CountMinSketch} that also remembers the current top {@code k}.
+ * Adding a key that cannot enter the top is one sketch update and a
+ * volatile read; only keys whose estimate passes the smallest one in the
+ * top take a lock, to displace it. Since the sketch overestimates, a key
+ * whose true sum is close to the cut-off may be listed instead of the one
+ * just below it.
+ */
+public final class TopKSketch {
+
+    private final CountMinSketch sketch;
+    private final int k;
+    private final Set<String> top = ConcurrentHashMap.newKeySet();
+    private volatile long admissionThreshold;
+
+    public TopKSketch(int k, double error, double confidence) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        this.sketch = CountMinSketch.create(error, confidence);
+        this.k = k;
+    }
+
+    public void add(String key, long amount) {
+        long estimate = sketch.add(key, amount);
+        if (estimate < admissionThreshold || top.contains(key)) {
+            return;
+        }
+        admit(key, estimate);
+    }
+
+    /**
+     * The top keys with their estimates, largest first.
+     */
+    public List<Entry> top() {
+        List<Entry> entries = new ArrayList<>(k);
+        for (String key : top) {
+            entries.add(new Entry(key, sketch.estimate(key)));
+        }
+        entries.sort(Comparator.comparingLong(Entry::estimate).reversed());
+        return entries;
+    }
+
+    // k is small, so the smallest entry is found by a scan rather than kept in a heap
+    // whose keys keep growing under it.
+    private synchronized void admit(String key, long estimate) {
+        if (top.contains(key)) {
+            return;
+        }
+        if (top.size() < k) {
+            top.add(key);
+            if (top.size() == k) {
+                admissionThreshold = smallest().estimate();
+            }
+            return;
+        }
+        Entry smallest = smallest();
+        if (estimate > smallest.estimate()) {
+            top.remove(smallest.key());
+            top.add(key);
+            smallest = smallest();
+        }
+        admissionThreshold = smallest.estimate();
+    }
+
+    private Entry smallest() {
+        Entry smallest = null;
+        for (String key : top) {
+            long estimate = sketch.estimate(key);
+            if (smallest == null || estimate < smallest.estimate()) {
+                smallest = new Entry(key, estimate);
+            }
+        }
+        return smallest;
+    }
+
+    public record Entry(String key, long estimate) {
+    }
+}
@@ -0,0 +1,16 @@
+-- Let the database cascade client/employee deletes instead of Hibernate
+-- loading every child row and issuing one DELETE per entity.
+ALTER TABLE employees DROP CONSTRAINT employees_client_id_fkey;
+ALTER TABLE employees
+    ADD CONSTRAINT employees_client_id_fkey
+        FOREIGN KEY (client_id) REFERENCES clients (client_id) ON DELETE CASCADE;
+
+ALTER TABLE transactions DROP CONSTRAINT transactions_employee_id_fkey;
+ALTER TABLE transactions
+    ADD CONSTRAINT transactions_employee_id_fkey
+        FOREIGN KEY (employee_id) REFERENCES employees (employee_id) ON DELETE CASCADE;
+
+-- Postgres does not index referencing columns; without these every cascade
+-- (and every per-client lookup) is a sequential scan of the child table.
+CREATE INDEX IF NOT EXISTS idx_employees_client_id ON employees (client_id);
+CREATE INDEX IF NOT EXISTS idx_transactions_employee_id ON transactions (employee_id);
@@ -0,0 +1,5 @@
+-- Optimistic locking: every UPDATE is conditional on the version the caller
+-- read, which is also exposed to HTTP clients as the ETag.
+ALTER TABLE clients ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE employees ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE transactions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,57 @@
+-- Numeric, canonical RUT (see RutUtils): body * 100 + check digit, K = 10.
+-- Rows whose RUT does not parse keep a NULL key and are only reachable by the
+-- free-form rut column.
+ALTER TABLE clients ADD COLUMN client_rut_key BIGINT;
+ALTER TABLE employees ADD COLUMN employee_rut_key BIGINT;
+
+UPDATE clients
+SET client_rut_key = CAST(LEFT(r.clean, LENGTH(r.clean) - 1) AS BIGINT) * 100
+        + CASE RIGHT(r.clean, 1) WHEN 'K' THEN 10 ELSE CAST(RIGHT(r.clean, 1) AS INTEGER) END
+FROM (SELECT client_id, UPPER(REGEXP_REPLACE(client_rut, '[. -]', '', 'g')) AS clean FROM clients) r
+WHERE r.client_id = clients.client_id
+  AND clients.client_rut ~* '^[0-9. ]+-?[0-9K]$'
+  AND r.clean ~ '^[0-9]{1,9}[0-9K]$';
+
+UPDATE employees
+SET employee_rut_key = CAST(LEFT(r.clean, LENGTH(r.clean) - 1) AS BIGINT) * 100
+        + CASE RIGHT(r.clean, 1) WHEN 'K' THEN 10 ELSE CAST(RIGHT(r.clean, 1) AS INTEGER) END
+FROM (SELECT employee_id, UPPER(REGEXP_REPLACE(employee_rut, '[. -]', '', 'g')) AS clean FROM employees) r
+WHERE r.employee_id = employees.employee_id
+  AND employees.employee_rut ~* '^[0-9. ]+-?[0-9K]$'
+  AND r.clean ~ '^[0-9]{1,9}[0-9K]$';
+
+-- Notations that only differ in dots, dashes or case (12.345.678-9 and
+-- 12345678-9) were distinct RUTs until now, so the key can repeat. The oldest
+-- row keeps it; the others keep a NULL key, stay reachable by their rut
+-- column, and are reported here so they can be merged by hand.
+DO $$
+DECLARE
+    duplicate RECORD;
+BEGIN
+    FOR duplicate IN
+        SELECT client_id, client_rut FROM (
+            SELECT client_id, client_rut,
+                   ROW_NUMBER() OVER (PARTITION BY client_rut_key ORDER BY client_id) AS position
+            FROM clients WHERE client_rut_key IS NOT NULL) ranked
+        WHERE position > 1
+    LOOP
+        RAISE WARNING 'Client % has the same RUT as an older client (%); its RUT key is left NULL',
+            duplicate.client_id, duplicate.client_rut;
+        UPDATE clients SET client_rut_key = NULL WHERE client_id = duplicate.client_id;
+    END LOOP;
+
+    FOR duplicate IN
+        SELECT employee_id, employee_rut FROM (
+            SELECT employee_id, employee_rut,
+                   ROW_NUMBER() OVER (PARTITION BY employee_rut_key ORDER BY employee_id) AS position
+            FROM employees WHERE employee_rut_key IS NOT NULL) ranked
+        WHERE position > 1
+    LOOP
+        RAISE WARNING 'Employee % has the same RUT as an older employee (%); its RUT key is left NULL',
+            duplicate.employee_id, duplicate.employee_rut;
+        UPDATE employees SET employee_rut_key = NULL WHERE employee_id = duplicate.employee_id;
+    END LOOP;
+END $$;
+
+CREATE UNIQUE INDEX ux_clients_rut_key ON clients (client_rut_key);
+CREATE UNIQUE INDEX ux_employees_rut_key ON employees (employee_rut_key);
@@ -0,0 +1,10 @@
+-- Rows moved to another shard keep their ids; this directory, read from the
+-- first shard only, records where they went (see ShardMap). Unused unless
+-- tenpo.sharding.enabled is set.
+CREATE TABLE shard_directory (
+    entry_id SERIAL PRIMARY KEY,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id INTEGER NOT NULL,
+    shard INTEGER NOT NULL,
+    CONSTRAINT ux_shard_directory_entity UNIQUE (entity_type, entity_id)
+);
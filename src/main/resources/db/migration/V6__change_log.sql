@@ -0,0 +1,30 @@
+-- Delta sync (GET /sync): one row per employee or transaction, holding its
+-- latest change, plus client deletions, which stand for their employees and
+-- transactions. change_seq follows commit order (see ChangeLog), so
+-- "change_seq > :since" is a range scan of the primary key.
+CREATE TABLE change_log (
+    change_seq BIGINT PRIMARY KEY,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id INTEGER NOT NULL,
+    operation VARCHAR(8) NOT NULL,
+    changed_at TIMESTAMP NOT NULL,
+    CONSTRAINT ux_change_log_entity UNIQUE (entity_type, entity_id)
+);
+
+CREATE TABLE change_clock (
+    clock_id INTEGER PRIMARY KEY,
+    last_seq BIGINT NOT NULL
+);
+
+-- Existing rows count as changed once, so a first sync from 0 returns them all.
+INSERT INTO change_log (change_seq, entity_type, entity_id, operation, changed_at)
+SELECT ROW_NUMBER() OVER (ORDER BY employee_id), 'EMPLOYEE', employee_id, 'UPSERT', CURRENT_TIMESTAMP
+FROM employees;
+
+INSERT INTO change_log (change_seq, entity_type, entity_id, operation, changed_at)
+SELECT (SELECT COUNT(*) FROM employees) + ROW_NUMBER() OVER (ORDER BY transaction_id), 'TRANSACTION',
+       transaction_id, 'UPSERT', CURRENT_TIMESTAMP
+FROM transactions;
+
+INSERT INTO change_clock (clock_id, last_seq)
+SELECT 1, COALESCE(MAX(change_seq), 0) FROM change_log;
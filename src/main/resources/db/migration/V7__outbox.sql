@@ -0,0 +1,17 @@
+-- Transactional outbox: written in the same transaction as the change it
+-- describes, relayed and deleted by OutboxRelay. event_id is taken from
+-- change_clock row 2 under a lock held until commit, so ids follow commit order.
+CREATE TABLE outbox_event (
+    event_id BIGINT PRIMARY KEY,
+    client_id INTEGER NOT NULL,
+    aggregate_type VARCHAR(16) NOT NULL,
+    aggregate_id INTEGER NOT NULL,
+    event_type VARCHAR(8) NOT NULL,
+    payload VARCHAR(4000),
+    created_at TIMESTAMP NOT NULL
+);
+
+-- The relay checks each client's pending ids before delivering a batch.
+CREATE INDEX ix_outbox_event_client ON outbox_event (client_id, event_id);
+
+INSERT INTO change_clock (clock_id, last_seq) VALUES (2, 0);
@@ -0,0 +1,17 @@
+-- change_log without the change_clock lock (see ChangeLog): change_seq comes
+-- from a sequence and txn_id records the writing transaction
+-- (pg_current_xact_id), so readers stop below pg_snapshot_xmin, the oldest
+-- transaction still running, instead of writers queueing on one row.
+CREATE SEQUENCE change_log_seq;
+
+SELECT setval('change_log_seq', (SELECT COALESCE(MAX(change_seq), 0) + 1 FROM change_log), false);
+
+-- Existing rows belong to one transaction older than any later writer. Sync
+-- tokens now name transactions, so tokens issued before this migration are
+-- not comparable and clients sync again from 0.
+ALTER TABLE change_log ADD COLUMN txn_id BIGINT NOT NULL DEFAULT 1;
+ALTER TABLE change_log ALTER COLUMN txn_id DROP DEFAULT;
+
+CREATE INDEX ix_change_log_txn ON change_log (txn_id, change_seq);
+
+DELETE FROM change_clock WHERE clock_id = 1;
@@ -0,0 +1,7 @@
+-- Outbox ids from a sequence instead of the change_clock row (see Outbox), so
+-- writers no longer queue on one lock. The relay still reads by event_id.
+CREATE SEQUENCE outbox_event_seq;
+
+SELECT setval('outbox_event_seq', (SELECT COALESCE(MAX(event_id), 0) + 1 FROM outbox_event), false);
+
+DROP TABLE change_clock;
@@ -1,23 +1,44 @@
 package com.tenpo.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.api.dto.ClientOverviewDTO;
+import com.tenpo.api.dto.ClientPatchDTO;
+import com.tenpo.api.dto.ClientPurgeStatusDTO;
 import com.tenpo.api.dto.ClientRequestDTO;
 import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.ClientUpsertDTO;
+import com.tenpo.api.dto.CsvImportErrorDTO;
+import com.tenpo.api.dto.CsvImportReportDTO;
+import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.api.dto.MultiGetItemDTO;
+import com.tenpo.api.dto.TransactionTotalsDTO;
+import com.tenpo.api.dto.UpsertResultDTO;
+import com.tenpo.exception.DuplicateResourceException;
+import com.tenpo.exception.PreconditionFailedException;
+import com.tenpo.exception.ResourceNotFoundException;
+import com.tenpo.model.UpsertOutcome;
+import com.tenpo.service.ClientOverviewService;
+import com.tenpo.service.ClientPurgeService;
 import com.tenpo.service.ClientService;
+import com.tenpo.service.CsvImportService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +55,15 @@ class ClientControllerTest {
     @MockitoBean
     private ClientService clientService;
 
+    @MockitoBean
+    private ClientPurgeService clientPurgeService;
+
+    @MockitoBean
+    private CsvImportService csvImportService;
+
+    @MockitoBean
+    private ClientOverviewService clientOverviewService;
+
     @Test
     @DisplayName("Should create client when request is valid")
     void shouldCreateClientWhenRequestIsValid() throws Exception {
@@ -111,17 +141,153 @@ class ClientControllerTest {
     }
 
     @Test
-    @DisplayName("Should return 400 when client is not found")
-    void shouldReturn400WhenClientIsNotFound() throws Exception {
+    @DisplayName("Should return the client overview and omit the parts that were unavailable")
+    void shouldReturnClientOverview() throws Exception {
+        // Arrange
+        Integer clientId = 1;
+        ClientOverviewDTO overview = new ClientOverviewDTO(
+                new ClientResponseDTO(clientId, "Tenpo", "12345678-9"),
+                List.of(new EmployeeResponseDTO(5, "Worker", "5-5", clientId)),
+                new TransactionTotalsDTO(3, 100, 97, 4500),
+                null,
+                List.of("recent_transactions"));
+
+        when(clientOverviewService.getOverview(clientId)).thenReturn(overview);
+
+        // Act & Assert
+        mockMvc.perform(get("/client/{id}/overview", clientId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.client.name", is("Tenpo")))
+                .andExpect(jsonPath("$.employees", hasSize(1)))
+                .andExpect(jsonPath("$.transactions.remaining", is(97)))
+                .andExpect(jsonPath("$.transactions.total_amount", is(4500)))
+                .andExpect(jsonPath("$.recent_transactions").doesNotExist())
+                .andExpect(jsonPath("$.unavailable[0]", is("recent_transactions")));
+    }
+
+    @Test
+    @DisplayName("Should return 504 when the client overview times out")
+    void shouldReturn504WhenClientOverviewTimesOut() throws Exception {
+        // Arrange
+        when(clientOverviewService.getOverview(1))
+                .thenThrow(new QueryTimeoutException("Client overview did not load the client within PT2S"));
+
+        // Act & Assert
+        mockMvc.perform(get("/client/{id}/overview", 1))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.title", is("Timeout")));
+    }
+
+    @Test
+    @DisplayName("Should return clients for a list of ids with not-found markers")
+    void shouldReturnClientsForListOfIds() throws Exception {
+        // Arrange
+        List<MultiGetItemDTO<ClientResponseDTO>> items = List.of(
+                MultiGetItemDTO.of(2, new ClientResponseDTO(2, "Client 2", "2-2")),
+                MultiGetItemDTO.of(7, null));
+
+        when(clientService.getClientsByIds(List.of(2, 7))).thenReturn(items);
+
+        // Act & Assert
+        mockMvc.perform(get("/client").param("ids", "2,7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].found", is(true)))
+                .andExpect(jsonPath("$[0].data.name", is("Client 2")))
+                .andExpect(jsonPath("$[1].id", is(7)))
+                .andExpect(jsonPath("$[1].found", is(false)))
+                .andExpect(jsonPath("$[1].data").doesNotExist());
+
+        verify(clientService, never()).getAllClients();
+    }
+
+    @Test
+    @DisplayName("Should return client by RUT")
+    void shouldReturnClientByRut() throws Exception {
+        // Arrange
+        ClientResponseDTO response = new ClientResponseDTO(1, "Tenpo", "12345678-9", 0L);
+        when(clientService.getClientByRut("12.345.678-9")).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(get("/client/rut/{rut}", "12.345.678-9"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.name", is("Tenpo")));
+    }
+
+    @Test
+    @DisplayName("Should answer 201 when an upsert creates the client and 200 otherwise")
+    void shouldAnswerUpsertStatusByOutcome() throws Exception {
+        // Arrange
+        ClientResponseDTO client = new ClientResponseDTO(1, "Tenpo", "12345678-9", 0L);
+        when(clientService.upsertClient(eq("12345678-9"), any(ClientUpsertDTO.class)))
+                .thenReturn(new UpsertResultDTO<>(UpsertOutcome.CREATED, client))
+                .thenReturn(new UpsertResultDTO<>(UpsertOutcome.UNCHANGED, client));
+
+        // Act & Assert
+        mockMvc.perform(put("/client/rut/{rut}", "12345678-9")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Tenpo\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.outcome", is("CREATED")));
+        mockMvc.perform(put("/client/rut/{rut}", "12345678-9")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"Tenpo\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.outcome", is("UNCHANGED")))
+                .andExpect(jsonPath("$.data.id", is(1)));
+    }
+
+    @Test
+    @DisplayName("Should stream a CSV body to the importer and return its report")
+    void shouldImportEmployeesFromCsv() throws Exception {
+        // Arrange
+        CsvImportReportDTO report = CsvImportReportDTO.builder()
+                .totalRows(2)
+                .imported(1)
+                .failed(1)
+                .errors(List.of(new CsvImportErrorDTO(3, "x", "Invalid RUT: x")))
+                .build();
+        when(csvImportService.importEmployees(eq(7), any(InputStream.class))).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(post("/client/{id}/employees/import", 7)
+                .contentType("text/csv")
+                .content("name,rut\nAna,1-9\nBad,x\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(3)))
+                .andExpect(jsonPath("$.errors[0].message", is("Invalid RUT: x")));
+    }
+
+    @Test
+    @DisplayName("Should return 409 when the RUT is already taken")
+    void shouldReturn409WhenRutIsAlreadyTaken() throws Exception {
+        // Arrange
+        ClientRequestDTO request = new ClientRequestDTO("Tenpo", "12345678-9");
+        when(clientService.createClient(any(ClientRequestDTO.class)))
+                .thenThrow(new DuplicateResourceException("A client with RUT 12345678-9 already exists"));
+
+        // Act & Assert
+        mockMvc.perform(post("/client")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.detail", is("A client with RUT 12345678-9 already exists")));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when client is not found")
+    void shouldReturn404WhenClientIsNotFound() throws Exception {
         // Arrange
         Integer clientId = 99;
-        when(clientService.getClientById(clientId)).thenThrow(new RuntimeException("Client not found"));
+        when(clientService.getClientById(clientId)).thenThrow(ResourceNotFoundException.CLIENT);
 
         // Act & Assert
         mockMvc.perform(get("/client/{id}", clientId))
-                .andExpect(status().isBadRequest())
+                .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.detail", is("Client not found")))
-                .andExpect(jsonPath("$.title", is("Business Logic Error")));
+                .andExpect(jsonPath("$.title", is("Resource Not Found")));
 
         verify(clientService, times(1)).getClientById(clientId);
     }
@@ -134,7 +300,7 @@ class ClientControllerTest {
         ClientRequestDTO request = new ClientRequestDTO("Updated Name", "98765432-1");
         ClientResponseDTO response = new ClientResponseDTO(clientId, "Updated Name", "98765432-1");
 
-        when(clientService.updateClient(eq(clientId), any(ClientRequestDTO.class))).thenReturn(response);
+        when(clientService.updateClient(eq(clientId), any(ClientRequestDTO.class), isNull())).thenReturn(response);
 
         // Act & Assert
         mockMvc.perform(put("/client/{id}", clientId)
@@ -144,7 +310,76 @@ class ClientControllerTest {
                 .andExpect(jsonPath("$.name", is("Updated Name")))
                 .andExpect(jsonPath("$.rut", is("98765432-1")));
 
-        verify(clientService, times(1)).updateClient(eq(clientId), any(ClientRequestDTO.class));
+        verify(clientService, times(1)).updateClient(eq(clientId), any(ClientRequestDTO.class), isNull());
+    }
+
+    @Test
+    @DisplayName("Should pass If-Match version to update and return the new ETag")
+    void shouldPassIfMatchVersionAndReturnETag() throws Exception {
+        // Arrange
+        Integer clientId = 1;
+        ClientRequestDTO request = new ClientRequestDTO("Updated Name", "98765432-1");
+        ClientResponseDTO response = new ClientResponseDTO(clientId, "Updated Name", "98765432-1", 4L);
+
+        when(clientService.updateClient(eq(clientId), any(ClientRequestDTO.class), eq(3L))).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(put("/client/{id}", clientId)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version", is(4)));
+    }
+
+    @Test
+    @DisplayName("Should return 412 when If-Match version is stale")
+    void shouldReturn412WhenIfMatchVersionIsStale() throws Exception {
+        // Arrange
+        Integer clientId = 1;
+        ClientRequestDTO request = new ClientRequestDTO("Updated Name", "98765432-1");
+
+        when(clientService.updateClient(eq(clientId), any(ClientRequestDTO.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("Client was modified by another request"));
+
+        // Act & Assert
+        mockMvc.perform(put("/client/{id}", clientId)
+                .header("If-Match", "W/\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.title", is("Precondition Failed")));
+    }
+
+    @Test
+    @DisplayName("Should apply merge patch with only the sent members")
+    void shouldApplyMergePatch() throws Exception {
+        // Arrange
+        Integer clientId = 1;
+        ClientResponseDTO response = new ClientResponseDTO(clientId, "Patched", "12345678-9", 1L);
+
+        when(clientService.patchClient(clientId, new ClientPatchDTO("Patched", null), null)).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(patch("/client/{id}", clientId)
+                .contentType("application/merge-patch+json")
+                .content("{\"name\":\"Patched\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.name", is("Patched")));
+    }
+
+    @Test
+    @DisplayName("Should return 400 when merge patch nulls a mandatory member")
+    void shouldReturn400WhenMergePatchNullsMandatoryMember() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/client/{id}", 1)
+                .contentType("application/merge-patch+json")
+                .content("{\"rut\":null}"))
+                .andExpect(status().isBadRequest());
+
+        verify(clientService, never()).patchClient(any(), any(), any());
     }
 
     @Test
@@ -161,6 +396,59 @@ class ClientControllerTest {
         verify(clientService, times(1)).deleteClient(clientId);
     }
 
+    @Test
+    @DisplayName("Should accept delete of large client as background purge")
+    void shouldAcceptDeleteOfLargeClientAsBackgroundPurge() throws Exception {
+        // Arrange
+        Integer clientId = 7;
+        ClientPurgeStatusDTO status = ClientPurgeStatusDTO.builder()
+                .clientId(clientId)
+                .state(ClientPurgeStatusDTO.State.PENDING)
+                .build();
+        when(clientPurgeService.requiresBackgroundPurge(clientId)).thenReturn(true);
+        when(clientPurgeService.startPurge(clientId)).thenReturn(status);
+
+        // Act & Assert
+        mockMvc.perform(delete("/client/{id}", clientId))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/client/7/purge"))
+                .andExpect(jsonPath("$.client_id", is(clientId)))
+                .andExpect(jsonPath("$.state", is("PENDING")));
+
+        verify(clientService, never()).deleteClient(any());
+    }
+
+    @Test
+    @DisplayName("Should return purge status when purge exists")
+    void shouldReturnPurgeStatusWhenPurgeExists() throws Exception {
+        // Arrange
+        Integer clientId = 7;
+        ClientPurgeStatusDTO status = ClientPurgeStatusDTO.builder()
+                .clientId(clientId)
+                .state(ClientPurgeStatusDTO.State.RUNNING)
+                .deletedTransactions(100)
+                .deletedEmployees(0)
+                .build();
+        when(clientPurgeService.getPurgeStatus(clientId)).thenReturn(Optional.of(status));
+
+        // Act & Assert
+        mockMvc.perform(get("/client/{id}/purge", clientId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("RUNNING")))
+                .andExpect(jsonPath("$.deleted_transactions", is(100)));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when no purge exists for client")
+    void shouldReturn404WhenNoPurgeExists() throws Exception {
+        // Arrange
+        when(clientPurgeService.getPurgeStatus(99)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/client/{id}/purge", 99))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("Should return 500 when server error occurs")
     void shouldReturn500WhenServerErrorOccurs() throws Exception {
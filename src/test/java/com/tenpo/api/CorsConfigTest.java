@@ -24,9 +24,24 @@ class CorsConfigTest {
     @MockitoBean
     private com.tenpo.service.ClientService clientService;
 
+    @MockitoBean
+    private com.tenpo.service.ClientPurgeService clientPurgeService;
+
+    @MockitoBean
+    private com.tenpo.service.CsvImportService csvImportService;
+
+    @MockitoBean
+    private com.tenpo.service.ClientOverviewService clientOverviewService;
+
     @MockitoBean
     private com.tenpo.service.TransactionService transactionService;
 
+    @MockitoBean
+    private com.tenpo.service.TransactionFeed transactionFeed;
+
+    @MockitoBean
+    private com.tenpo.service.SyncService syncService;
+
     @Test
     @DisplayName("Should return CORS headers for preflight request")
     void shouldReturnCorsHeadersForPreflightRequest() throws Exception {
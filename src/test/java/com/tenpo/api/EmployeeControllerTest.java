@@ -3,6 +3,7 @@ package com.tenpo.api;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tenpo.api.dto.EmployeeRequestDTO;
 import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.exception.ResourceNotFoundException;
 import com.tenpo.service.EmployeeService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,6 +19,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -112,17 +114,17 @@ class EmployeeControllerTest {
     }
 
     @Test
-    @DisplayName("Should return 400 when employee is not found")
-    void shouldReturn400WhenEmployeeIsNotFound() throws Exception {
+    @DisplayName("Should return 404 when employee is not found")
+    void shouldReturn404WhenEmployeeIsNotFound() throws Exception {
         // Arrange
         Integer employeeId = 99;
-        when(employeeService.getEmployeeById(employeeId)).thenThrow(new RuntimeException("Employee not found"));
+        when(employeeService.getEmployeeById(employeeId)).thenThrow(ResourceNotFoundException.EMPLOYEE);
 
         // Act & Assert
         mockMvc.perform(get("/employee/{id}", employeeId))
-                .andExpect(status().isBadRequest())
+                .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.detail", is("Employee not found")))
-                .andExpect(jsonPath("$.title", is("Business Logic Error")));
+                .andExpect(jsonPath("$.title", is("Resource Not Found")));
 
         verify(employeeService, times(1)).getEmployeeById(employeeId);
     }
@@ -135,7 +137,7 @@ class EmployeeControllerTest {
         EmployeeRequestDTO request = new EmployeeRequestDTO("Updated Name", "12345678-k", 1);
         EmployeeResponseDTO response = new EmployeeResponseDTO(employeeId, "Updated Name", "12345678-k", 1);
 
-        when(employeeService.updateEmployee(eq(employeeId), any(EmployeeRequestDTO.class))).thenReturn(response);
+        when(employeeService.updateEmployee(eq(employeeId), any(EmployeeRequestDTO.class), isNull())).thenReturn(response);
 
         // Act & Assert
         mockMvc.perform(put("/employee/{id}", employeeId)
@@ -144,7 +146,7 @@ class EmployeeControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", is("Updated Name")));
 
-        verify(employeeService, times(1)).updateEmployee(eq(employeeId), any(EmployeeRequestDTO.class));
+        verify(employeeService, times(1)).updateEmployee(eq(employeeId), any(EmployeeRequestDTO.class), isNull());
     }
 
     @Test
@@ -1,8 +1,13 @@
 package com.tenpo.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.api.dto.MultiGetItemDTO;
+import com.tenpo.api.dto.MultiGetRequestDTO;
 import com.tenpo.api.dto.TransactionRequestDTO;
 import com.tenpo.api.dto.TransactionResponseDTO;
+import com.tenpo.exception.BusinessRuleException;
+import com.tenpo.exception.ResourceNotFoundException;
+import com.tenpo.service.TransactionFeed;
 import com.tenpo.service.TransactionService;
 import com.tenpo.config.WebConfig;
 import com.tenpo.config.ContentCachingFilter;
@@ -15,6 +20,8 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -23,6 +30,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -40,6 +48,9 @@ class TransactionControllerTest {
         @MockitoBean
         private TransactionService transactionService;
 
+        @MockitoBean
+        private TransactionFeed transactionFeed;
+
         @Test
         @DisplayName("Should create transaction when request is valid")
         void shouldCreateTransactionWhenRequestIsValid() throws Exception {
@@ -52,6 +63,7 @@ class TransactionControllerTest {
 
                 // Act & Assert
                 mockMvc.perform(post("/transaction")
+                                .with(fromAddress("10.0.0.1"))
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(request)))
                                 .andExpect(status().isCreated())
@@ -72,6 +84,7 @@ class TransactionControllerTest {
 
                 // Act & Assert
                 mockMvc.perform(post("/transaction")
+                                .with(fromAddress("10.0.0.2"))
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(invalidRequest)))
                                 .andExpect(status().isBadRequest())
@@ -142,22 +155,74 @@ class TransactionControllerTest {
         }
 
         @Test
-        @DisplayName("Should return 400 when transaction is not found")
-        void shouldReturn400WhenTransactionIsNotFound() throws Exception {
+        @DisplayName("Should return 404 when transaction is not found")
+        void shouldReturn404WhenTransactionIsNotFound() throws Exception {
                 // Arrange
                 Integer transactionId = 99;
                 when(transactionService.getTransactionById(transactionId))
-                                .thenThrow(new RuntimeException("Transaction not found"));
+                                .thenThrow(ResourceNotFoundException.TRANSACTION);
 
                 // Act & Assert
                 mockMvc.perform(get("/transaction/{id}", transactionId))
-                                .andExpect(status().isBadRequest())
+                                .andExpect(status().isNotFound())
                                 .andExpect(jsonPath("$.detail", is("Transaction not found")))
-                                .andExpect(jsonPath("$.title", is("Business Logic Error")));
+                                .andExpect(jsonPath("$.title", is("Resource Not Found")));
 
                 verify(transactionService, times(1)).getTransactionById(transactionId);
         }
 
+        @Test
+        @DisplayName("Should return 422 when a business rule rejects the transaction")
+        void shouldReturn422WhenBusinessRuleIsBroken() throws Exception {
+                // Arrange
+                TransactionRequestDTO request = new TransactionRequestDTO(100, "Starbucks", LocalDateTime.now(), 1, 20);
+                when(transactionService.createTransaction(any(TransactionRequestDTO.class)))
+                                .thenThrow(BusinessRuleException.TRANSACTION_LIMIT_REACHED);
+
+                // Act & Assert
+                mockMvc.perform(post("/transaction")
+                                .with(fromAddress("10.0.0.20"))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpect(status().isUnprocessableEntity())
+                                .andExpect(jsonPath("$.detail",
+                                                is("Client has reached the maximum of 100 transactions")))
+                                .andExpect(jsonPath("$.type", is("https://tenpo.com/errors/business-logic")));
+        }
+
+        @Test
+        @DisplayName("Should resolve transactions from a POST body of ids")
+        void shouldResolveTransactionsFromPostBody() throws Exception {
+                // Arrange
+                LocalDateTime now = LocalDateTime.now();
+                List<MultiGetItemDTO<TransactionResponseDTO>> items = List.of(
+                                MultiGetItemDTO.of(5, null),
+                                MultiGetItemDTO.of(1, new TransactionResponseDTO(1, 100, "Starbucks", now, 1, 1)));
+
+                when(transactionService.getTransactionsByIds(List.of(5, 1))).thenReturn(items);
+
+                // Act & Assert
+                mockMvc.perform(post("/transaction/multi-get")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(new MultiGetRequestDTO(List.of(5, 1)))))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].found", is(false)))
+                                .andExpect(jsonPath("$[1].data.merchant_or_business", is("Starbucks")));
+        }
+
+        @Test
+        @DisplayName("Should return 400 when multi-get body has no ids")
+        void shouldReturn400WhenMultiGetBodyHasNoIds() throws Exception {
+                // Act & Assert
+                mockMvc.perform(post("/transaction/multi-get")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"ids\": []}"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.title", is("Validation Error")));
+
+                verify(transactionService, never()).getTransactionsByIds(any());
+        }
+
         @Test
         @DisplayName("Should update transaction when data is valid")
         void shouldUpdateTransactionWhenDataIsValid() throws Exception {
@@ -168,7 +233,7 @@ class TransactionControllerTest {
                 TransactionResponseDTO response = new TransactionResponseDTO(transactionId, 150, "Updated Shop", now, 1,
                                 1);
 
-                when(transactionService.updateTransaction(eq(transactionId), any(TransactionRequestDTO.class)))
+                when(transactionService.updateTransaction(eq(transactionId), any(TransactionRequestDTO.class), isNull()))
                                 .thenReturn(response);
 
                 // Act & Assert
@@ -180,7 +245,7 @@ class TransactionControllerTest {
                                 .andExpect(jsonPath("$.amount", is(150)));
 
                 verify(transactionService, times(1)).updateTransaction(eq(transactionId),
-                                any(TransactionRequestDTO.class));
+                                any(TransactionRequestDTO.class), isNull());
         }
 
         @Test
@@ -188,10 +253,7 @@ class TransactionControllerTest {
         void shouldReturn429WhenRateLimitIsExceeded() throws Exception {
                 // Arrange
                 LocalDateTime now = LocalDateTime.now();
-                TransactionRequestDTO request = new TransactionRequestDTO(100, "Starbucks", now, 1, 10); // Using client
-                                                                                                         // 10 to
-                                                                                                         // avoid
-                                                                                                         // interference
+                TransactionRequestDTO request = new TransactionRequestDTO(100, "Starbucks", now, 1, 10);
                 TransactionResponseDTO response = new TransactionResponseDTO(1, 100, "Starbucks", now, 1, 1);
 
                 when(transactionService.createTransaction(any(TransactionRequestDTO.class))).thenReturn(response);
@@ -199,6 +261,7 @@ class TransactionControllerTest {
                 // Act: Perform 3 successful requests (limit is 3 per minute)
                 for (int i = 0; i < 3; i++) {
                         mockMvc.perform(post("/transaction")
+                                        .with(fromAddress("10.0.0.10")) // Own address to avoid interference
                                         .contentType(MediaType.APPLICATION_JSON)
                                         .content(objectMapper.writeValueAsString(request)))
                                         .andExpect(status().isCreated());
@@ -206,11 +269,12 @@ class TransactionControllerTest {
 
                 // Assert: The 4th request should be blocked by RateLimitInterceptor
                 mockMvc.perform(post("/transaction")
+                                .with(fromAddress("10.0.0.10"))
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(objectMapper.writeValueAsString(request)))
                                 .andExpect(status().isTooManyRequests())
                                 .andExpect(jsonPath("$.message",
-                                                is("Too many requests - Rate limit is 3 per minute for client 10")));
+                                                is("Too many requests - Rate limit is 3 per minute for address 10.0.0.10")));
 
                 // Service should only be called 3 times, as the 4th was blocked
                 verify(transactionService, times(3)).createTransaction(any(TransactionRequestDTO.class));
@@ -229,4 +293,26 @@ class TransactionControllerTest {
 
                 verify(transactionService, times(1)).deleteTransaction(transactionId);
         }
+
+        @Test
+        @DisplayName("Should open a transaction stream resuming from Last-Event-ID")
+        void shouldOpenTransactionStream() throws Exception {
+                // Arrange
+                when(transactionFeed.subscribe(1, "a1b2-7")).thenReturn(new SseEmitter());
+
+                // Act & Assert
+                mockMvc.perform(get("/transaction/client/{clientId}/stream", 1)
+                                .header("Last-Event-ID", "a1b2-7")
+                                .accept(MediaType.TEXT_EVENT_STREAM))
+                                .andExpect(request().asyncStarted());
+
+                verify(transactionFeed, times(1)).subscribe(1, "a1b2-7");
+        }
+
+        private static RequestPostProcessor fromAddress(String address) {
+                return request -> {
+                        request.setRemoteAddr(address);
+                        return request;
+                };
+        }
 }
@@ -0,0 +1,107 @@
+package com.tenpo.benchmark;
+
+import com.tenpo.api.dto.ClientOverviewDTO;
+import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.TransactionTotalsDTO;
+import com.tenpo.service.ClientOverviewService;
+import com.tenpo.service.ClientService;
+import com.tenpo.service.EmployeeService;
+import com.tenpo.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latency of the client page: the three calls the admin UI used to make one
+ * after another (client, all employees, the client's transactions) against
+ * {@code GET /client/{id}/overview}, whose four reads overlap. Each read is a
+ * stub that sleeps {@code readMillis}, standing in for a query plus its round
+ * trip; HTTP overhead of the extra requests is not counted, so the real
+ * saving is larger.
+ *
+ * <p>Not part of the test run; start {@link #main} as described on
+ * {@link ErrorPathBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientOverviewBenchmark {
+
+    @Param({ "2", "10" })
+    private int readMillis;
+
+    private ClientService clientService;
+    private EmployeeService employeeService;
+    private TransactionService transactionService;
+    private ClientOverviewService clientOverviewService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        clientService = mock(ClientService.class);
+        employeeService = mock(EmployeeService.class);
+        transactionService = mock(TransactionService.class);
+        when(clientService.getClientById(1)).thenAnswer(sleeping(new ClientResponseDTO(1, "Tenpo", "1-9")));
+        when(employeeService.getAllEmployees()).thenAnswer(sleeping(List.of()));
+        when(employeeService.getEmployeesByClientId(1)).thenAnswer(sleeping(List.of()));
+        when(transactionService.getTransactionsByClientId(1)).thenAnswer(sleeping(List.of()));
+        when(transactionService.getTransactionTotalsByClientId(1))
+                .thenAnswer(sleeping(new TransactionTotalsDTO(0, 100, 100, 0)));
+        when(transactionService.getRecentTransactionsByClientId(1, 10)).thenAnswer(sleeping(List.of()));
+        Duration timeout = Duration.ofSeconds(5);
+        clientOverviewService = new ClientOverviewService(clientService, employeeService, transactionService,
+                new SimpleMeterRegistry(), 10, timeout, timeout, timeout, timeout);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientOverviewService.destroy();
+    }
+
+    @Benchmark
+    public Object threeSequentialCalls() {
+        return List.of(clientService.getClientById(1),
+                employeeService.getAllEmployees(),
+                transactionService.getTransactionsByClientId(1));
+    }
+
+    @Benchmark
+    public ClientOverviewDTO overview() {
+        return clientOverviewService.getOverview(1);
+    }
+
+    private <T> Answer<T> sleeping(T result) {
+        return invocation -> {
+            Thread.sleep(readMillis);
+            return result;
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ClientOverviewBenchmark.class.getSimpleName()).build()).run();
+    }
+}
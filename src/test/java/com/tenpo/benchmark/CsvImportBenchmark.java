@@ -0,0 +1,114 @@
+package com.tenpo.benchmark;
+
+import com.tenpo.BackendApiApplication;
+import com.tenpo.api.dto.ClientRequestDTO;
+import com.tenpo.api.dto.CsvImportReportDTO;
+import com.tenpo.service.ClientService;
+import com.tenpo.service.CsvImportService;
+import com.tenpo.util.RutUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to create {@code rows} clients: one {@code POST /client/import} body
+ * through {@link CsvImportService}, against the same rows created one by one
+ * with {@link ClientService#createClient}, as a caller without the import
+ * would. Runs the application against in-memory H2, so it measures the
+ * application's own cost per row rather than network round trips, which
+ * only widen the gap. Every invocation uses RUTs not seen before.
+ *
+ * <p>Not part of the test run; start {@link #main} as described on
+ * {@link ErrorPathBenchmark}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CsvImportBenchmark {
+
+    @Param({ "100000" })
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private CsvImportService csvImportService;
+    private ClientService clientService;
+    private long nextRutBody = 10_000_000;
+    private long firstRutBody;
+    private byte[] csv;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BackendApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN");
+        csvImportService = context.getBean(CsvImportService.class);
+        clientService = context.getBean(ClientService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextRows() {
+        firstRutBody = nextRutBody;
+        nextRutBody += rows;
+        StringBuilder body = new StringBuilder(rows * 24).append("name,rut\n");
+        for (int i = 0; i < rows; i++) {
+            body.append("Client ").append(i).append(',').append(rut(i)).append('\n');
+        }
+        csv = body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CsvImportReportDTO csvImport() throws IOException {
+        CsvImportReportDTO report = csvImportService.importClients(new ByteArrayInputStream(csv));
+        if (report.imported() != rows) {
+            throw new IllegalStateException("Imported " + report.imported() + " of " + rows + " rows");
+        }
+        return report;
+    }
+
+    @Benchmark
+    public int oneByOne() {
+        for (int i = 0; i < rows; i++) {
+            clientService.createClient(new ClientRequestDTO("Client " + i, rut(i)));
+        }
+        return rows;
+    }
+
+    private String rut(int i) {
+        return RutUtils.format((firstRutBody + i) * 100 + i % 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CsvImportBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,96 @@
+package com.tenpo.benchmark;
+
+import com.tenpo.exception.BusinessRuleException;
+import com.tenpo.exception.GlobalExceptionHandler;
+import com.tenpo.exception.ResourceNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Throughput of a service failure turned into a {@link ProblemDetail}: the old
+ * path (a fresh {@link RuntimeException} plus {@link URI#create} per error)
+ * against the stackless domain exceptions. {@code stackDepth} adds frames
+ * below the throw, since filling in a stack trace costs more the deeper the
+ * thread is; a request thread inside Tomcat and Spring is well over 100 deep.
+ *
+ * <p>Not part of the test run. Start {@link #main} from the IDE, or after
+ * {@code mvn test-compile dependency:build-classpath -Dmdep.includeScope=test
+ * -Dmdep.outputFile=target/cp.txt} run {@code java -cp
+ * target/test-classes:target/classes:$(cat target/cp.txt)
+ * com.tenpo.benchmark.ErrorPathBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark {
+
+    @Param({ "10", "150" })
+    private int stackDepth;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Benchmark
+    public ProblemDetail legacyRuntimeException() {
+        try {
+            throwAt(stackDepth, () -> new RuntimeException("Client not found"));
+            return null;
+        } catch (RuntimeException ex) {
+            ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+            problemDetail.setTitle("Business Logic Error");
+            problemDetail.setType(URI.create("https://tenpo.com/errors/business-logic"));
+            return problemDetail;
+        }
+    }
+
+    @Benchmark
+    public ProblemDetail preallocatedNotFound() {
+        try {
+            throwAt(stackDepth, () -> ResourceNotFoundException.CLIENT);
+            return null;
+        } catch (ResourceNotFoundException ex) {
+            return handler.handleResourceNotFoundException(ex);
+        }
+    }
+
+    @Benchmark
+    public ProblemDetail stacklessBusinessRule() {
+        try {
+            throwAt(stackDepth, () -> new BusinessRuleException("Invalid RUT: x"));
+            return null;
+        } catch (BusinessRuleException ex) {
+            return handler.handleBusinessRuleException(ex);
+        }
+    }
+
+    private static void throwAt(int depth, Supplier<RuntimeException> exception) {
+        if (depth > 0) {
+            throwAt(depth - 1, exception);
+            return;
+        }
+        throw exception.get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ErrorPathBenchmark.class.getSimpleName()).build()).run();
+    }
+}
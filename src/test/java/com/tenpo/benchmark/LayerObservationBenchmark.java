@@ -0,0 +1,123 @@
+package com.tenpo.benchmark;
+
+import com.tenpo.BackendApiApplication;
+import com.tenpo.api.dto.ClientRequestDTO;
+import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.observability.LayerObservations;
+import com.tenpo.service.ClientService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the layer observations, with them off, at the default 10% sample
+ * rate and on every request:
+ * <ul>
+ * <li>{@code getClientById}: {@link ClientService#getClientById} through its
+ * proxy against in-memory H2, passing the service and repository layers;</li>
+ * <li>{@code requestLayers}: the observations alone of a request that passes
+ * every layer once (filter, interceptor, service, repository and JSON
+ * writing) inside an {@code http.server.requests} observation, with no work
+ * in them.</li>
+ * </ul>
+ * The first is noisy on small machines, since the differences are a few
+ * microseconds; the second gives the cost per request to weigh against a
+ * request's latency. Background polling is slowed down for both.
+ *
+ * <p>Not part of the test run; start {@link #main} as described on
+ * {@link ErrorPathBenchmark}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 2, jvmArgs = "-Xmx1g")
+@State(Scope.Benchmark)
+public class LayerObservationBenchmark {
+
+    @Param({ "off", "0.1", "1.0" })
+    private String observations;
+
+    private static final String[][] LAYERS = {
+            { LayerObservations.FILTER, "ContentCachingFilter" },
+            { LayerObservations.INTERCEPTOR, "RateLimitInterceptor.preHandle" },
+            { LayerObservations.SERVICE, "ClientService.getClientById" },
+            { LayerObservations.REPOSITORY, "ClientRepository.findById" },
+            { LayerObservations.SERIALIZATION, "write ClientResponseDTO" } };
+
+    private ConfigurableApplicationContext context;
+    private ClientService clientService;
+    private ObservationRegistry observationRegistry;
+    private Integer clientId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> args = new ArrayList<>(List.of("--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.generate_statistics=false",
+                "--logging.level.root=WARN",
+                "--tenpo.outbox.relay.poll-interval=1h",
+                "--tenpo.rut-bloom.refresh-interval=1h"));
+        if (observations.equals("off")) {
+            args.add("--tenpo.layer-observation.enabled=false");
+        } else {
+            args.add("--tenpo.layer-observation.sample-rate=" + observations);
+        }
+        context = new SpringApplicationBuilder(BackendApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        clientService = context.getBean(ClientService.class);
+        observationRegistry = context.getBean(ObservationRegistry.class);
+        clientId = clientService.createClient(new ClientRequestDTO("Tenpo", "12.345.678-5")).id();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ClientResponseDTO getClientById() {
+        return clientService.getClientById(clientId);
+    }
+
+    @Benchmark
+    public int requestLayers() {
+        return Observation.createNotStarted("http.server.requests", observationRegistry)
+                .lowCardinalityKeyValue("uri", "/client/{id}")
+                .observe(() -> layer(0));
+    }
+
+    private int layer(int depth) {
+        if (depth == LAYERS.length) {
+            return depth;
+        }
+        return LayerObservations.create(observationRegistry, LAYERS[depth][0], LAYERS[depth][1])
+                .observe(() -> layer(depth + 1));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LayerObservationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
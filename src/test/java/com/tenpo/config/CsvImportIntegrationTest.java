@@ -0,0 +1,94 @@
+package com.tenpo.config;
+
+import com.tenpo.api.dto.ClientRequestDTO;
+import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.repository.EmployeeRepository;
+import com.tenpo.service.ClientService;
+import com.tenpo.util.RutUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "tenpo.csv-import.chunk-size=100")
+@AutoConfigureMockMvc
+@DisplayName("CSV Import Integration Tests")
+class CsvImportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    @DisplayName("Should import valid client rows and report the rest by line")
+    void shouldImportClientsAndReportInvalidRows() throws Exception {
+        // Arrange
+        long base = ThreadLocalRandom.current().nextLong(100_000, 900_000) * 100;
+        String csv = "rut,name\n"
+                + base + "-1,First\n"
+                + base + "-1,Repeated\n"
+                + "not-a-rut,Invalid\n"
+                + (base + 1) + "-K,\n"
+                + "\"" + (base + 2) + "-2\",\"Second, Ltd\"\n";
+
+        // Act & Assert
+        mockMvc.perform(post("/client/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total_rows", is(5)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.failed", is(3)))
+                .andExpect(jsonPath("$.errors", hasSize(3)))
+                .andExpect(jsonPath("$.errors[0].line", is(3)))
+                .andExpect(jsonPath("$.errors[0].message", is("RUT " + base + "-1 appears more than once in the file")))
+                .andExpect(jsonPath("$.errors[1].message", is("Invalid RUT: not-a-rut")))
+                .andExpect(jsonPath("$.errors[2].message", is("Name is required")));
+        assertThat(clientService.getClientByRut((base + 2) + "-2").name()).isEqualTo("Second, Ltd");
+
+        // Importing the same file again creates nothing
+        mockMvc.perform(post("/client/import").contentType("text/csv").content(csv))
+                .andExpect(jsonPath("$.imported", is(0)))
+                .andExpect(jsonPath("$.failed", is(5)))
+                .andExpect(jsonPath("$.errors[4].message",
+                        is("A client with RUT " + (base + 2) + "-2 already exists")));
+    }
+
+    @Test
+    @DisplayName("Should import employees across several batches")
+    void shouldImportEmployeesAcrossBatches() throws Exception {
+        // Arrange
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        ClientResponseDTO client = clientService.createClient(new ClientRequestDTO("Client " + suffix, "C-" + suffix));
+        long base = ThreadLocalRandom.current().nextLong(100_000, 900_000) * 1000;
+        StringBuilder csv = new StringBuilder("name,rut\n");
+        for (int i = 0; i < 750; i++) {
+            csv.append("Employee ").append(i).append(',').append(base + i).append("-5\n");
+        }
+
+        // Act & Assert
+        mockMvc.perform(post("/client/{id}/employees/import", client.id())
+                .contentType("text/csv")
+                .content(csv.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(750)))
+                .andExpect(jsonPath("$.failed", is(0)));
+        assertThat(employeeRepository.countByClientId(client.id())).isEqualTo(750);
+        assertThat(employeeRepository.findByRutKey(RutUtils.toKey((base + 749) + "-5"))).isPresent();
+    }
+}
@@ -0,0 +1,143 @@
+package com.tenpo.config;
+
+import com.tenpo.datasource.ReadYourWrites;
+import com.tenpo.datasource.ReplicaLagMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "tenpo.datasource.routing.enabled=true",
+        "tenpo.datasource.routing.replicas[0].url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "tenpo.datasource.routing.replicas[0].username=sa",
+        "tenpo.datasource.routing.max-lag=5s",
+        "tenpo.datasource.routing.lag-check-interval=1h",
+        "tenpo.datasource.routing.lag-query=SELECT lag_ms FROM replica_status"
+})
+@AutoConfigureMockMvc
+@DisplayName("Read Replica Routing Integration Tests")
+class DataSourceRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        replicaJdbcTemplate = new JdbcTemplate(replicaLagMonitor.dataSources().get("replica-0"));
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(16))");
+        jdbcTemplate.execute("MERGE INTO whoami KEY (name) VALUES ('primary')");
+        replicaJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS whoami (name VARCHAR(16))");
+        replicaJdbcTemplate.execute("MERGE INTO whoami KEY (name) VALUES ('replica')");
+        replicaJdbcTemplate.execute("CREATE TABLE IF NOT EXISTS replica_status (lag_ms BIGINT)");
+        setReplicaLag(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        replicaJdbcTemplate.execute("DROP TABLE IF EXISTS replica_status");
+        replicaLagMonitor.refresh();
+    }
+
+    @Test
+    @DisplayName("Should read from the replica in read-only transactions and from the primary otherwise")
+    void shouldRouteByTransactionReadOnlyFlag() {
+        // Act & Assert
+        assertThat(whoami(true)).isEqualTo("replica");
+        assertThat(whoami(false)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica lags too far behind")
+    void shouldFallBackToPrimaryWhenReplicaLags() {
+        // Arrange
+        setReplicaLag(60_000);
+
+        // Act & Assert
+        assertThat(whoami(true)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica cannot be probed")
+    void shouldFallBackToPrimaryWhenProbeFails() {
+        // Arrange
+        replicaJdbcTemplate.execute("DROP TABLE replica_status");
+        replicaLagMonitor.refresh();
+
+        // Act & Assert
+        assertThat(whoami(true)).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should return the commit time of a write in the read-your-writes header")
+    void shouldReturnLastWriteHeaderOnWrite() throws Exception {
+        // Arrange
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        long before = System.currentTimeMillis();
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/client")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Routing " + suffix + "\",\"rut\":\"R-" + suffix + "\"}"))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        // Assert
+        String header = result.getResponse().getHeader(ReadYourWrites.HEADER);
+        assertThat(header).isNotNull();
+        assertThat(Long.parseLong(header)).isGreaterThanOrEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("Should only pick replicas that have replayed up to the caller's last write")
+    void shouldHonourReadAfterTime() {
+        // Arrange
+        long now = System.currentTimeMillis();
+
+        // Act & Assert
+        assertThat(replicaLagMonitor.select(now - 60_000)).contains("replica-0");
+        assertThat(replicaLagMonitor.select(now + 60_000)).isEmpty();
+    }
+
+    private String whoami(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private void setReplicaLag(long lagMillis) {
+        replicaJdbcTemplate.execute("DELETE FROM replica_status");
+        replicaJdbcTemplate.update("INSERT INTO replica_status VALUES (?)", lagMillis);
+        replicaLagMonitor.refresh();
+    }
+}
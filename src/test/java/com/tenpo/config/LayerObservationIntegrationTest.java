@@ -0,0 +1,46 @@
+package com.tenpo.config;
+
+import com.tenpo.observability.LayerObservations;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "tenpo.layer-observation.sample-rate=1")
+@AutoConfigureMockMvc
+@DisplayName("Layer Observation Integration Tests")
+class LayerObservationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should time every layer a request passes through")
+    void shouldTimeEveryLayer() throws Exception {
+        // Act
+        mockMvc.perform(get("/client")).andExpect(status().isOk());
+
+        // Assert
+        assertThat(meterRegistry.find(LayerObservations.NAME).timers())
+                .extracting(timer -> timer.getId().getTag(LayerObservations.LAYER_KEY))
+                .contains(LayerObservations.FILTER, LayerObservations.INTERCEPTOR, LayerObservations.SERVICE,
+                        LayerObservations.REPOSITORY, LayerObservations.SERIALIZATION);
+        Timer repository = meterRegistry.find(LayerObservations.NAME)
+                .tags(LayerObservations.LAYER_KEY, LayerObservations.REPOSITORY,
+                        LayerObservations.OPERATION_KEY, "ClientRepository.findAll")
+                .timer();
+        assertThat(repository).isNotNull();
+        assertThat(repository.count()).isPositive();
+    }
+}
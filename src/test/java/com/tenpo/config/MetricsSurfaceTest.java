@@ -0,0 +1,39 @@
+package com.tenpo.config;
+
+import com.tenpo.interceptor.RateLimitInterceptor;
+import com.tenpo.service.CreateTransactionTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayName("Metrics Surface Integration Tests")
+class MetricsSurfaceTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should register the rate limit meters of every endpoint at startup")
+    void shouldPreregisterRateLimitMeters() {
+        assertThat(meterRegistry.find(RateLimitInterceptor.REQUESTS_METRIC)
+                .tags("endpoint", "POST /transaction", "outcome", "rejected").counter()).isNotNull();
+        assertThat(meterRegistry.find(RateLimitInterceptor.TOKENS_METRIC)
+                .tags("endpoint", "GET /client/{id}", "outcome", "allowed").counter()).isNotNull();
+        assertThat(meterRegistry.find(RateLimitInterceptor.KEYS_METRIC).gauge()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should publish transaction create phases, pool and Hibernate meters")
+    void shouldPublishPipelinePoolAndHibernateMeters() {
+        assertThat(meterRegistry.find(CreateTransactionTimers.METRIC_NAME).timers())
+                .extracting(timer -> timer.getId().getTag("phase"))
+                .containsExactlyInAnyOrder("lookup", "insert", "record", "commit");
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").timer()).isNotNull();
+        assertThat(meterRegistry.find("hibernate.sessions.open").functionCounter()).isNotNull();
+    }
+}
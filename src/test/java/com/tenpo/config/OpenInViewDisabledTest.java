@@ -0,0 +1,92 @@
+package com.tenpo.config;
+
+import com.tenpo.model.Client;
+import com.tenpo.model.Employee;
+import com.tenpo.observability.ConnectionHoldTimeDataSource;
+import com.tenpo.repository.ClientRepository;
+import com.tenpo.repository.EmployeeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Open-Session-In-View Disabled Integration Tests")
+class OpenInViewDisabledTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should not register the OSIV interceptor")
+    void shouldNotRegisterOpenEntityManagerInViewInterceptor() {
+        assertThat(applicationContext.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should fail fast on lazy access outside a transaction")
+    void shouldFailFastOnLazyAccessOutsideTransaction() {
+        // Arrange
+        Client client = clientRepository.save(Client.builder().name("Lazy Corp").rut("osiv-1").build());
+        Employee employee = employeeRepository
+                .save(Employee.builder().name("Lazy Worker").rut("osiv-2").client(client).build());
+
+        // Act
+        Employee detached = employeeRepository.findById(employee.getId()).orElseThrow();
+
+        // Assert
+        assertThatThrownBy(() -> detached.getClient().getName()).isInstanceOf(LazyInitializationException.class);
+    }
+
+    @Test
+    @DisplayName("Should release the connection before the response is written")
+    void shouldReleaseConnectionBeforeResponseIsWritten() throws Exception {
+        // Arrange
+        Client client = clientRepository.save(Client.builder().name("Hold Corp").rut("osiv-3").build());
+        Timer holdTimer = meterRegistry.find(ConnectionHoldTimeDataSource.METRIC_NAME)
+                .tag("endpoint", "GET /client/{id}").timer();
+        long before = holdTimer != null ? holdTimer.count() : 0;
+
+        // Act
+        mockMvc.perform(get("/client/{id}", client.getId())).andExpect(status().isOk());
+
+        // Assert: exactly one checkout (the service transaction) and nothing left active
+        holdTimer = meterRegistry.find(ConnectionHoldTimeDataSource.METRIC_NAME)
+                .tag("endpoint", "GET /client/{id}").timer();
+        assertThat(holdTimer).isNotNull();
+        assertThat(holdTimer.count() - before).isEqualTo(1);
+        assertThat(dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections())
+                .isZero();
+    }
+}
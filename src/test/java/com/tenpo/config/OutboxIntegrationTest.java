@@ -0,0 +1,241 @@
+package com.tenpo.config;
+
+import com.tenpo.api.dto.ClientRequestDTO;
+import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.EmployeeRequestDTO;
+import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.api.dto.TransactionPatchDTO;
+import com.tenpo.api.dto.TransactionRequestDTO;
+import com.tenpo.api.dto.TransactionResponseDTO;
+import com.tenpo.model.ChangeLogEntry.EntityType;
+import com.tenpo.model.OutboxEvent;
+import com.tenpo.outbox.InMemoryOutboxSink;
+import com.tenpo.outbox.Outbox;
+import com.tenpo.outbox.OutboxRelay;
+import com.tenpo.service.ClientService;
+import com.tenpo.service.EmployeeService;
+import com.tenpo.service.TransactionService;
+import com.tenpo.util.RutUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+@SpringBootTest
+@DisplayName("Outbox Integration Tests")
+class OutboxIntegrationTest {
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should relay a client's changes in commit order and remove them from the outbox")
+    void shouldRelayInCommitOrder() {
+        // Arrange
+        ClientResponseDTO client = createClient();
+        EmployeeResponseDTO employee = createEmployee(client);
+        TransactionResponseDTO transaction = createTransaction(employee);
+        TransactionPatchDTO patch = new TransactionPatchDTO();
+        patch.setAmount(2500);
+        transactionService.patchTransaction(transaction.id(), patch, null);
+        transactionService.deleteTransaction(transaction.id());
+
+        // Act
+        outboxRelay.relayPending();
+
+        // Assert
+        List<OutboxEvent> events = eventsOf(client);
+        assertThat(events)
+                .extracting(OutboxEvent::getAggregateType, OutboxEvent::getAggregateId, OutboxEvent::getEventType)
+                .containsExactly(
+                        tuple(EntityType.CLIENT, client.id(), OutboxEvent.EventType.CREATED),
+                        tuple(EntityType.EMPLOYEE, employee.id(), OutboxEvent.EventType.CREATED),
+                        tuple(EntityType.TRANSACTION, transaction.id(), OutboxEvent.EventType.CREATED),
+                        tuple(EntityType.TRANSACTION, transaction.id(), OutboxEvent.EventType.UPDATED),
+                        tuple(EntityType.TRANSACTION, transaction.id(), OutboxEvent.EventType.DELETED));
+        assertThat(events).extracting(OutboxEvent::getId).isSorted();
+        assertThat(events.get(3).getPayload()).contains("\"amount\":2500", "\"client_id\":" + client.id());
+        assertThat(events.get(4).getPayload()).isNull();
+        assertThat(pendingCount(client)).isZero();
+        assertThat(meterRegistry.get(OutboxRelay.LAG_METRIC).timer().count()).isGreaterThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should write no event for a rolled back transaction")
+    void shouldWriteNothingOnRollback() {
+        // Arrange
+        EmployeeResponseDTO employee = createEmployee(createClient());
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            createTransaction(employee);
+            status.setRollbackOnly();
+        });
+        outboxRelay.relayPending();
+
+        // Assert
+        assertThat(sink.events())
+                .noneMatch(event -> event.getAggregateType() == EntityType.TRANSACTION
+                        && event.getClientId().equals(employee.clientId()));
+    }
+
+    @Test
+    @DisplayName("Should hold back a client's events behind one locked by another relay")
+    void shouldHoldBackEventsBehindLockedOne() throws Exception {
+        // Arrange
+        ClientResponseDTO blocked = createClient();
+        createEmployee(blocked);
+        ClientResponseDTO other = createClient();
+        Long first = jdbcTemplate.queryForObject("SELECT MIN(event_id) FROM outbox_event WHERE client_id = ?",
+                Long.class, blocked.id());
+
+        try (Connection otherRelay = dataSource.getConnection()) {
+            otherRelay.setAutoCommit(false);
+            try (PreparedStatement lock = otherRelay.prepareStatement(
+                    "SELECT event_id FROM outbox_event WHERE event_id = ? FOR UPDATE")) {
+                lock.setLong(1, first);
+                lock.executeQuery().close();
+            }
+
+            // Act
+            outboxRelay.relayPending();
+
+            // Assert
+            assertThat(eventsOf(blocked)).isEmpty();
+            assertThat(eventsOf(other)).hasSize(1);
+            assertThat(pendingCount(blocked)).isEqualTo(2);
+            otherRelay.rollback();
+        }
+        outboxRelay.relayPending();
+        assertThat(eventsOf(blocked)).extracting(OutboxEvent::getAggregateType)
+                .containsExactly(EntityType.CLIENT, EntityType.EMPLOYEE);
+    }
+
+    @Test
+    @DisplayName("Should keep a client's events in commit order when its writers overlap")
+    void shouldOrderConcurrentWritersOfOneClient() throws Exception {
+        // Arrange
+        EmployeeResponseDTO employee = createEmployee(createClient());
+        outboxRelay.relayPending();
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CompletableFuture<TransactionResponseDTO> first = CompletableFuture.supplyAsync(() ->
+                transactionTemplate.execute(status -> {
+                    TransactionResponseDTO created = createTransaction(employee);
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public int getOrder() {
+                            return Outbox.SYNCHRONIZATION_ORDER + 1;
+                        }
+
+                        @Override
+                        public void beforeCommit(boolean readOnly) {
+                            firstWritten.countDown();
+                            await(releaseFirst);
+                        }
+                    });
+                    return created;
+                }));
+        assertThat(firstWritten.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Act: the second writer starts after the first took its event id, then the relay runs.
+        CompletableFuture<TransactionResponseDTO> second = CompletableFuture.supplyAsync(
+                () -> createTransaction(employee));
+        Thread.sleep(200);
+        outboxRelay.relayPending();
+        List<OutboxEvent> whileFirstOpen = eventsOf(employee.clientId());
+        releaseFirst.countDown();
+        TransactionResponseDTO firstCreated = first.get(10, TimeUnit.SECONDS);
+        TransactionResponseDTO secondCreated = second.get(10, TimeUnit.SECONDS);
+        outboxRelay.relayPending();
+
+        // Assert
+        assertThat(whileFirstOpen).noneMatch(event -> event.getAggregateType() == EntityType.TRANSACTION);
+        List<OutboxEvent> transactions = eventsOf(employee.clientId()).stream()
+                .filter(event -> event.getAggregateType() == EntityType.TRANSACTION)
+                .toList();
+        assertThat(transactions).extracting(OutboxEvent::getAggregateId)
+                .containsExactly(firstCreated.id(), secondCreated.id());
+        assertThat(transactions).extracting(OutboxEvent::getId).isSorted();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<OutboxEvent> eventsOf(ClientResponseDTO client) {
+        return eventsOf(client.id());
+    }
+
+    private List<OutboxEvent> eventsOf(Integer clientId) {
+        return sink.events().stream()
+                .filter(event -> event.getClientId().equals(clientId))
+                .toList();
+    }
+
+    private int pendingCount(ClientResponseDTO client) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event WHERE client_id = ?", Integer.class,
+                client.id());
+    }
+
+    private ClientResponseDTO createClient() {
+        String rut = RutUtils.format(ThreadLocalRandom.current().nextLong(1_000_000, 99_999_999));
+        return clientService.createClient(new ClientRequestDTO("Client " + rut, rut));
+    }
+
+    private EmployeeResponseDTO createEmployee(ClientResponseDTO client) {
+        String rut = RutUtils.format(ThreadLocalRandom.current().nextLong(1_000_000, 99_999_999));
+        return employeeService.createEmployee(new EmployeeRequestDTO("Employee " + rut, rut, client.id()));
+    }
+
+    private TransactionResponseDTO createTransaction(EmployeeResponseDTO employee) {
+        return transactionService.createTransaction(new TransactionRequestDTO(
+                1000, "Store", LocalDateTime.now().minusDays(1), employee.id(), employee.clientId()));
+    }
+}
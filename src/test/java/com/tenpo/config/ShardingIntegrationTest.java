@@ -0,0 +1,206 @@
+package com.tenpo.config;
+
+import com.tenpo.api.dto.ClientOverviewDTO;
+import com.tenpo.api.dto.ClientRequestDTO;
+import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.EmployeeRequestDTO;
+import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.api.dto.MultiGetItemDTO;
+import com.tenpo.api.dto.TransactionRequestDTO;
+import com.tenpo.api.dto.TransactionResponseDTO;
+import com.tenpo.service.ClientOverviewService;
+import com.tenpo.service.ClientService;
+import com.tenpo.service.EmployeeService;
+import com.tenpo.service.TransactionService;
+import com.tenpo.sharding.ClientShardMover;
+import com.tenpo.sharding.ShardKey;
+import com.tenpo.sharding.ShardMap;
+import com.tenpo.util.RutUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "tenpo.sharding.enabled=true",
+        "tenpo.sharding.shards[0].url=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1",
+        "tenpo.sharding.shards[0].username=sa",
+        "tenpo.sharding.shards[1].url=jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1",
+        "tenpo.sharding.shards[1].username=sa",
+        "tenpo.sharding.shards[2].url=jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1",
+        "tenpo.sharding.shards[2].username=sa",
+        "tenpo.sharding.directory-refresh=1h"
+})
+@DisplayName("Sharding Integration Tests")
+class ShardingIntegrationTest {
+
+    private static final int SHARDS = 3;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ClientOverviewService clientOverviewService;
+
+    @Autowired
+    private ClientShardMover clientShardMover;
+
+    @Autowired
+    private ShardMap shardMap;
+
+    @Test
+    @DisplayName("Should place each client on its RUT's shard with an id naming that shard")
+    void shouldPlaceClientsByRut() {
+        // Arrange
+        List<ClientResponseDTO> clients = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 40; i++) {
+            clients.add(createClient());
+        }
+
+        // Assert
+        for (ClientResponseDTO client : clients) {
+            int shard = shardMap.shardOf(ShardKey.Type.PLACEMENT, client.rut());
+            assertThat(shardMap.homeShard(client.id())).isEqualTo(shard);
+            assertThat(countOn(shard, "clients", "client_id", client.id())).isEqualTo(1);
+        }
+        assertThat(clients).extracting(ClientResponseDTO::id).doesNotHaveDuplicates();
+        assertThat(clients).extracting(client -> shardMap.homeShard(client.id())).contains(0, 1, 2);
+    }
+
+    @Test
+    @DisplayName("Should keep employees and transactions on their client's shard and gather them across shards")
+    void shouldFollowClientAndGatherAcrossShards() {
+        // Arrange
+        List<TransactionResponseDTO> created = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            created.add(createTransaction(createEmployee(createClient())));
+        }
+
+        // Act
+        List<TransactionResponseDTO> all = transactionService.getAllTransactions();
+
+        // Assert
+        assertThat(all).extracting(TransactionResponseDTO::id)
+                .containsAll(created.stream().map(TransactionResponseDTO::id).toList());
+        for (TransactionResponseDTO transaction : created) {
+            int shard = shardMap.homeShard(transaction.clientId());
+            assertThat(shardMap.homeShard(transaction.id())).isEqualTo(shard);
+            assertThat(transactionService.getTransactionById(transaction.id()).id()).isEqualTo(transaction.id());
+        }
+    }
+
+    @Test
+    @DisplayName("Should find a client by RUT and by ids on any shard, in request order")
+    void shouldLookUpAcrossShards() {
+        // Arrange
+        List<ClientResponseDTO> clients = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            clients.add(createClient());
+        }
+        List<Integer> ids = new ArrayList<>(clients.stream().map(ClientResponseDTO::id).toList().reversed());
+        ids.add(1, Integer.MAX_VALUE);
+
+        // Act
+        List<MultiGetItemDTO<ClientResponseDTO>> items = clientService.getClientsByIds(ids);
+
+        // Assert
+        assertThat(items).extracting(MultiGetItemDTO::id).containsExactlyElementsOf(ids);
+        assertThat(items.get(1).found()).isFalse();
+        assertThat(items).filteredOn(MultiGetItemDTO::found).hasSize(clients.size());
+        for (ClientResponseDTO client : clients) {
+            assertThat(clientService.getClientByRut(client.rut()).id()).isEqualTo(client.id());
+        }
+    }
+
+    @Test
+    @DisplayName("Should load a client overview from the client's shard")
+    void shouldLoadOverviewFromClientShard() {
+        // Arrange
+        ClientResponseDTO client = createClient();
+        EmployeeResponseDTO employee = createEmployee(client);
+        TransactionResponseDTO first = createTransaction(employee);
+        TransactionResponseDTO second = createTransaction(employee);
+
+        // Act
+        ClientOverviewDTO overview = clientOverviewService.getOverview(client.id());
+
+        // Assert
+        assertThat(overview.client().id()).isEqualTo(client.id());
+        assertThat(overview.employees()).extracting(EmployeeResponseDTO::id).containsExactly(employee.id());
+        assertThat(overview.transactions().count()).isEqualTo(2);
+        assertThat(overview.transactions().totalAmount()).isEqualTo(first.amount() + second.amount());
+        assertThat(overview.recentTransactions()).extracting(TransactionResponseDTO::id)
+                .containsExactlyInAnyOrder(first.id(), second.id());
+        assertThat(overview.unavailable()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should move a client with its employees and transactions, keeping their ids, and record only the client")
+    void shouldMoveClientToAnotherShard() {
+        // Arrange
+        ClientResponseDTO client = createClient();
+        EmployeeResponseDTO employee = createEmployee(client);
+        TransactionResponseDTO transaction = createTransaction(employee);
+        int source = shardMap.homeShard(client.id());
+        int target = (source + 1) % SHARDS;
+        int relocations = shardMap.relocationCount();
+
+        // Act
+        int moved = clientShardMover.move(client.id(), target);
+
+        // Assert
+        assertThat(moved).isEqualTo(3);
+        assertThat(countOn(source, "clients", "client_id", client.id())).isZero();
+        assertThat(countOn(target, "clients", "client_id", client.id())).isEqualTo(1);
+        assertThat(countOn(target, "employees", "employee_id", employee.id())).isEqualTo(1);
+        assertThat(countOn(target, "transactions", "transaction_id", transaction.id())).isEqualTo(1);
+        assertThat(countOn(0, "shard_directory", "entity_id", client.id())).isEqualTo(1);
+        assertThat(countOn(0, "shard_directory", "entity_id", employee.id())).isZero();
+        assertThat(countOn(0, "shard_directory", "entity_id", transaction.id())).isZero();
+        assertThat(shardMap.relocationCount()).isEqualTo(relocations + 1);
+        assertThat(clientService.getClientById(client.id()).id()).isEqualTo(client.id());
+        assertThat(employeeService.getEmployeeById(employee.id()).id()).isEqualTo(employee.id());
+        assertThat(transactionService.getTransactionById(transaction.id()).id()).isEqualTo(transaction.id());
+        assertThat(transactionService.getTransactionsByClientId(client.id()))
+                .extracting(TransactionResponseDTO::id).containsExactly(transaction.id());
+    }
+
+    private ClientResponseDTO createClient() {
+        String rut = RutUtils.format(ThreadLocalRandom.current().nextLong(1_000_000, 99_999_999));
+        return clientService.createClient(new ClientRequestDTO("Client " + rut, rut));
+    }
+
+    private EmployeeResponseDTO createEmployee(ClientResponseDTO client) {
+        String rut = RutUtils.format(ThreadLocalRandom.current().nextLong(1_000_000, 99_999_999));
+        return employeeService.createEmployee(new EmployeeRequestDTO("Employee " + rut, rut, client.id()));
+    }
+
+    private TransactionResponseDTO createTransaction(EmployeeResponseDTO employee) {
+        return transactionService.createTransaction(new TransactionRequestDTO(
+                1000, "Store", LocalDateTime.now().minusDays(1), employee.id(), employee.clientId()));
+    }
+
+    private static int countOn(int shard, String table, String column, Integer id) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                new DriverManagerDataSource("jdbc:h2:mem:shard-" + shard + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?",
+                Integer.class, id);
+    }
+}
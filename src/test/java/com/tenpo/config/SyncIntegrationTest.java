@@ -0,0 +1,231 @@
+package com.tenpo.config;
+
+import com.jayway.jsonpath.JsonPath;
+import com.tenpo.api.dto.ClientRequestDTO;
+import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.EmployeeRequestDTO;
+import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.api.dto.TransactionPatchDTO;
+import com.tenpo.api.dto.TransactionRequestDTO;
+import com.tenpo.api.dto.TransactionResponseDTO;
+import com.tenpo.outbox.Outbox;
+import com.tenpo.service.ClientService;
+import com.tenpo.service.EmployeeService;
+import com.tenpo.service.TransactionService;
+import com.tenpo.util.RutUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Delta Sync Integration Tests")
+class SyncIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Should return changes after the token in commit order, one per entity")
+    void shouldReturnChangesInOrder() throws Exception {
+        // Arrange
+        long since = head();
+        EmployeeResponseDTO employee = createEmployee(createClient());
+        TransactionResponseDTO kept = createTransaction(employee);
+        TransactionResponseDTO deleted = createTransaction(employee);
+        TransactionPatchDTO patch = new TransactionPatchDTO();
+        patch.setAmount(2500);
+
+        // Act
+        transactionService.patchTransaction(kept.id(), patch, null);
+        transactionService.deleteTransaction(deleted.id());
+
+        // Assert
+        mockMvc.perform(get("/sync").param("since", Long.toString(since)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(3)))
+                .andExpect(jsonPath("$.changes[0].type", is("EMPLOYEE")))
+                .andExpect(jsonPath("$.changes[0].id", is(employee.id())))
+                .andExpect(jsonPath("$.changes[0].data.rut", is(employee.rut())))
+                .andExpect(jsonPath("$.changes[1].type", is("TRANSACTION")))
+                .andExpect(jsonPath("$.changes[1].id", is(kept.id())))
+                .andExpect(jsonPath("$.changes[1].operation", is("UPSERT")))
+                .andExpect(jsonPath("$.changes[1].data.amount", is(2500)))
+                .andExpect(jsonPath("$.changes[2].id", is(deleted.id())))
+                .andExpect(jsonPath("$.changes[2].operation", is("DELETE")))
+                .andExpect(jsonPath("$.changes[2].data").doesNotExist())
+                .andExpect(jsonPath("$.next_token", is(Long.toString(head()))))
+                .andExpect(jsonPath("$.has_more", is(false)));
+    }
+
+    @Test
+    @DisplayName("Should page through changes with next_token and has_more")
+    void shouldPageWithNextToken() throws Exception {
+        // Arrange
+        long since = head();
+        EmployeeResponseDTO employee = createEmployee(createClient());
+        createTransaction(employee);
+        createTransaction(employee);
+
+        // Act & Assert
+        String next = JsonPath.read(mockMvc.perform(get("/sync").param("since", Long.toString(since))
+                        .param("limit", "2"))
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.has_more", is(true)))
+                .andReturn().getResponse().getContentAsString(), "$.next_token");
+        mockMvc.perform(get("/sync").param("since", next).param("limit", "2"))
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.has_more", is(false)));
+        mockMvc.perform(get("/sync").param("since", Long.toString(head())))
+                .andExpect(jsonPath("$.changes", hasSize(0)))
+                .andExpect(jsonPath("$.next_token", is(Long.toString(head()))));
+    }
+
+    @Test
+    @DisplayName("Should hold back later commits until an earlier transaction completes")
+    void shouldHoldBackChangesBehindRunningTransaction() throws Exception {
+        // Arrange
+        EmployeeResponseDTO slow = createEmployee(createClient());
+        EmployeeResponseDTO fast = createEmployee(createClient());
+        long since = head();
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    createTransaction(slow);
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        // After both the change log and the outbox have written.
+                        @Override
+                        public int getOrder() {
+                            return Outbox.SYNCHRONIZATION_ORDER + 1;
+                        }
+
+                        @Override
+                        public void beforeCommit(boolean readOnly) {
+                            written.countDown();
+                            try {
+                                release.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException ex) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    });
+                }));
+        assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Act
+        TransactionResponseDTO committed = createTransaction(fast);
+
+        // Assert
+        mockMvc.perform(get("/sync").param("since", Long.toString(since)))
+                .andExpect(jsonPath("$.changes", hasSize(0)))
+                .andExpect(jsonPath("$.next_token", is(Long.toString(since))));
+        release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        mockMvc.perform(get("/sync").param("since", Long.toString(since)))
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[1].id", is(committed.id())));
+    }
+
+    @Test
+    @DisplayName("Should record nothing for a rolled back transaction")
+    void shouldIgnoreRolledBackChanges() throws Exception {
+        // Arrange
+        EmployeeResponseDTO employee = createEmployee(createClient());
+        long since = head();
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            createTransaction(employee);
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        mockMvc.perform(get("/sync").param("since", Long.toString(since)))
+                .andExpect(jsonPath("$.changes", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("Should replace the changes of a deleted client's rows with one client tombstone")
+    void shouldRecordClientTombstone() throws Exception {
+        // Arrange
+        ClientResponseDTO client = createClient();
+        createTransaction(createEmployee(client));
+        long since = head();
+
+        // Act
+        clientService.deleteClient(client.id());
+
+        // Assert
+        mockMvc.perform(get("/sync").param("since", Long.toString(since)))
+                .andExpect(jsonPath("$.changes", hasSize(1)))
+                .andExpect(jsonPath("$.changes[0].type", is("CLIENT")))
+                .andExpect(jsonPath("$.changes[0].id", is(client.id())))
+                .andExpect(jsonPath("$.changes[0].operation", is("DELETE")));
+    }
+
+    @Test
+    @DisplayName("Should reject a negative token or an out-of-range limit")
+    void shouldRejectInvalidParameters() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/sync").param("since", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/sync").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("limit must be between 1 and 1000")));
+    }
+
+    private long head() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(txn_id), 0) FROM change_log", Long.class);
+    }
+
+    private ClientResponseDTO createClient() {
+        String rut = RutUtils.format(ThreadLocalRandom.current().nextLong(1_000_000, 99_999_999));
+        return clientService.createClient(new ClientRequestDTO("Client " + rut, rut));
+    }
+
+    private EmployeeResponseDTO createEmployee(ClientResponseDTO client) {
+        String rut = RutUtils.format(ThreadLocalRandom.current().nextLong(1_000_000, 99_999_999));
+        return employeeService.createEmployee(new EmployeeRequestDTO("Employee " + rut, rut, client.id()));
+    }
+
+    private TransactionResponseDTO createTransaction(EmployeeResponseDTO employee) {
+        return transactionService.createTransaction(new TransactionRequestDTO(
+                1000, "Store", LocalDateTime.now().minusDays(1), employee.id(), employee.clientId()));
+    }
+}
@@ -0,0 +1,320 @@
+package com.tenpo.config;
+
+import com.tenpo.api.dto.ClientPatchDTO;
+import com.tenpo.api.dto.ClientRequestDTO;
+import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.ClientUpsertDTO;
+import com.tenpo.api.dto.EmployeePatchDTO;
+import com.tenpo.api.dto.EmployeeRequestDTO;
+import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.api.dto.EmployeeUpsertDTO;
+import com.tenpo.api.dto.TransactionPatchDTO;
+import com.tenpo.api.dto.TransactionRequestDTO;
+import com.tenpo.api.dto.TransactionResponseDTO;
+import com.tenpo.exception.PreconditionFailedException;
+import com.tenpo.service.ClientService;
+import com.tenpo.service.EmployeeService;
+import com.tenpo.service.TransactionService;
+import com.tenpo.util.RutUtils;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.ChainListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@DisplayName("Write Path Round-Trip Integration Tests")
+class WritePathRoundTripTest {
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final RoundTrips roundTrips = new RoundTrips(Thread.currentThread());
+    private String suffix;
+    private ClientResponseDTO client;
+    private EmployeeResponseDTO employee;
+
+    @BeforeEach
+    void setUp() {
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        client = clientService.createClient(new ClientRequestDTO("Client " + suffix, "C-" + suffix));
+        employee = employeeService.createEmployee(new EmployeeRequestDTO("Employee " + suffix, "E-" + suffix,
+                client.id()));
+        listeners().addListener(roundTrips);
+        roundTrips.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        listeners().getListeners().remove(roundTrips);
+    }
+
+    @Test
+    @DisplayName("Should create a client in the insert and the outbox insert, the Bloom filter skipping the RUT check")
+    void shouldCreateClient() {
+        // Act
+        clientService.createClient(new ClientRequestDTO("Client", "C2-" + suffix));
+
+        // Assert
+        assertThat(roundTrips.statements()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should update a client with If-Match in one UPDATE and the outbox insert")
+    void shouldUpdateClientConditionally() {
+        // Act
+        ClientResponseDTO updated = clientService.updateClient(client.id(),
+                new ClientRequestDTO("Renamed", client.rut()), client.version());
+
+        // Assert
+        assertThat(updated.version()).isEqualTo(client.version() + 1);
+        assertThat(roundTrips.statements()).hasSize(2);
+        assertThat(clientService.getClientById(client.id()).name()).isEqualTo("Renamed");
+    }
+
+    @Test
+    @DisplayName("Should update a client without If-Match in a read, the UPDATE and the outbox insert")
+    void shouldUpdateClientUnconditionally() {
+        // Act
+        clientService.updateClient(client.id(), new ClientRequestDTO("Renamed", client.rut()), null);
+
+        // Assert
+        assertThat(roundTrips.statements()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should patch a client in a read, the UPDATE and the outbox insert")
+    void shouldPatchClient() {
+        // Arrange
+        ClientPatchDTO patch = new ClientPatchDTO();
+        patch.setName("Patched");
+
+        // Act
+        clientService.patchClient(client.id(), patch, client.version());
+
+        // Assert
+        assertThat(roundTrips.statements()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should upsert a client in the upsert and the outbox insert")
+    void shouldUpsertClient() {
+        // Act
+        clientService.upsertClient(randomRut(), new ClientUpsertDTO("Client"));
+
+        // Assert: on H2 the upsert is a read, a MERGE and a read; PostgreSQL runs one statement.
+        assertThat(roundTrips.statements()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should create an employee in a client check, the insert, the change log and the outbox")
+    void shouldCreateEmployee() {
+        // Act
+        employeeService.createEmployee(new EmployeeRequestDTO("Employee", "E2-" + suffix, client.id()));
+
+        // Assert
+        assertThat(roundTrips.statements()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should update an employee with If-Match in one UPDATE, the change log and the outbox")
+    void shouldUpdateEmployeeConditionally() {
+        // Act
+        employeeService.updateEmployee(employee.id(),
+                new EmployeeRequestDTO("Renamed", employee.rut(), client.id()), employee.version());
+
+        // Assert
+        assertThat(roundTrips.statements()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should update an employee without If-Match in a read, the UPDATE, the change log and the outbox")
+    void shouldUpdateEmployeeUnconditionally() {
+        // Act
+        employeeService.updateEmployee(employee.id(),
+                new EmployeeRequestDTO("Renamed", employee.rut(), client.id()), null);
+
+        // Assert
+        assertThat(roundTrips.statements()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should patch an employee in a read, the UPDATE, the change log and the outbox")
+    void shouldPatchEmployee() {
+        // Arrange
+        EmployeePatchDTO patch = new EmployeePatchDTO();
+        patch.setName("Patched");
+
+        // Act
+        employeeService.patchEmployee(employee.id(), patch, employee.version());
+
+        // Assert
+        assertThat(roundTrips.statements()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should upsert an employee in a client check, the upsert, the change log and the outbox")
+    void shouldUpsertEmployee() {
+        // Act
+        employeeService.upsertEmployee(randomRut(), new EmployeeUpsertDTO("Employee", client.id()));
+
+        // Assert: on H2 the upsert is a read, a MERGE and a read; PostgreSQL runs one statement.
+        assertThat(roundTrips.statements()).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("Should create a transaction in one validation query, the insert, the change log and the outbox")
+    void shouldCreateTransaction() {
+        // Act
+        TransactionResponseDTO response = createTransaction();
+
+        // Assert
+        assertThat(response.clientId()).isEqualTo(client.id());
+        assertThat(response.version()).isZero();
+        assertThat(roundTrips.statements()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should update a transaction with If-Match in one UPDATE, the change log and the outbox")
+    void shouldUpdateTransactionConditionally() {
+        // Arrange
+        TransactionResponseDTO created = createTransaction();
+        roundTrips.clear();
+
+        // Act
+        TransactionResponseDTO updated = transactionService.updateTransaction(created.id(),
+                new TransactionRequestDTO(250, "Other Shop", created.date(), employee.id(), client.id()),
+                created.version());
+
+        // Assert
+        assertThat(updated.amount()).isEqualTo(250);
+        assertThat(roundTrips.statements()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should update a transaction without If-Match in a read, the UPDATE, the change log and the outbox")
+    void shouldUpdateTransactionUnconditionally() {
+        // Arrange
+        TransactionResponseDTO created = createTransaction();
+        roundTrips.clear();
+
+        // Act
+        transactionService.updateTransaction(created.id(),
+                new TransactionRequestDTO(250, "Other Shop", created.date(), employee.id(), client.id()), null);
+
+        // Assert
+        assertThat(roundTrips.statements()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should patch a transaction in a read, the UPDATE, the change log and the outbox")
+    void shouldPatchTransaction() {
+        // Arrange
+        TransactionResponseDTO created = createTransaction();
+        roundTrips.clear();
+        TransactionPatchDTO patch = new TransactionPatchDTO();
+        patch.setAmount(250);
+
+        // Act
+        transactionService.patchTransaction(created.id(), patch, created.version());
+
+        // Assert
+        assertThat(roundTrips.statements()).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should reject a stale If-Match version and keep the stored row")
+    void shouldRejectStaleVersion() {
+        // Arrange
+        clientService.updateClient(client.id(), new ClientRequestDTO("First", client.rut()), client.version());
+
+        // Act & Assert
+        assertThatThrownBy(() -> clientService.updateClient(client.id(),
+                new ClientRequestDTO("Second", client.rut()), client.version()))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(clientService.getClientById(client.id()).name()).isEqualTo("First");
+    }
+
+    @Test
+    @DisplayName("Should bump the version on an unconditional update")
+    void shouldBumpVersionOnUnconditionalUpdate() {
+        // Act
+        EmployeeResponseDTO updated = employeeService.updateEmployee(employee.id(),
+                new EmployeeRequestDTO("Renamed", employee.rut(), client.id()), null);
+
+        // Assert
+        assertThat(updated.version()).isEqualTo(employee.version() + 1);
+    }
+
+    private TransactionResponseDTO createTransaction() {
+        return transactionService.createTransaction(new TransactionRequestDTO(100, "Shop",
+                LocalDateTime.now().minusMinutes(1), employee.id(), client.id()));
+    }
+
+    private static String randomRut() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return RutUtils.format(random.nextLong(1_000_000, 99_999_999) * 100 + random.nextInt(10));
+    }
+
+    private ChainListener listeners() {
+        return ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener();
+    }
+
+    /**
+     * Statements sent by the test thread, a JDBC batch counting once. Other
+     * threads, such as background refreshes, are ignored.
+     */
+    private static final class RoundTrips implements QueryExecutionListener {
+
+        private final Thread thread;
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        RoundTrips(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (Thread.currentThread() == thread) {
+                statements.add(queryInfoList.get(0).getQuery());
+            }
+        }
+
+        List<String> statements() {
+            return statements;
+        }
+
+        void clear() {
+            statements.clear();
+        }
+    }
+}
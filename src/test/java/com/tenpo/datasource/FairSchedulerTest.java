@@ -0,0 +1,104 @@
+package com.tenpo.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FairScheduler Unit Tests")
+class FairSchedulerTest {
+
+    private static final long WAIT = TimeUnit.SECONDS.toNanos(5);
+
+    private final FairScheduler scheduler = new FairScheduler(1);
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<String> grants = new CopyOnWriteArrayList<>();
+    private final Semaphore granted = new Semaphore(0);
+
+    @AfterEach
+    void tearDown() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should alternate between tenants of equal weight however many requests each queues")
+    void shouldAlternateBetweenEqualTenants() throws Exception {
+        // Arrange
+        assertThat(scheduler.acquire("noisy", 1, WAIT)).isTrue();
+        queue("noisy", 1, 4);
+        queue("small", 1, 2);
+
+        // Act
+        grantAll(6);
+
+        // Assert
+        assertThat(grants).containsExactly("noisy", "small", "noisy", "small", "noisy", "noisy");
+    }
+
+    @Test
+    @DisplayName("Should give a heavier tenant as many turns as its weight")
+    void shouldHonourWeights() throws Exception {
+        // Arrange
+        assertThat(scheduler.acquire("standard", 1, WAIT)).isTrue();
+        queue("standard", 1, 3);
+        queue("premium", 3, 6);
+
+        // Act
+        grantAll(9);
+
+        // Assert
+        assertThat(grants).containsExactly("standard", "premium", "premium", "premium", "standard",
+                "premium", "premium", "premium", "standard");
+    }
+
+    @Test
+    @DisplayName("Should give up after the timeout and leave no trace in the queue")
+    void shouldTimeOut() throws Exception {
+        // Arrange
+        assertThat(scheduler.acquire("a", 1, WAIT)).isTrue();
+
+        // Act
+        boolean timedOut = scheduler.acquire("b", 1, TimeUnit.MILLISECONDS.toNanos(20));
+        scheduler.release();
+
+        // Assert
+        assertThat(timedOut).isFalse();
+        assertThat(scheduler.waiting()).isZero();
+        assertThat(scheduler.acquire("c", 1, 0)).isTrue();
+    }
+
+    // Queues the callers one at a time so their order within the tenant is known.
+    private void queue(String tenant, int weight, int count) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            int queued = scheduler.waiting();
+            threads.submit(() -> {
+                if (scheduler.acquire(tenant, weight, WAIT)) {
+                    grants.add(tenant);
+                    granted.release();
+                }
+                return null;
+            });
+            long deadline = System.nanoTime() + WAIT;
+            while (scheduler.waiting() == queued) {
+                assertThat(System.nanoTime()).as("caller did not queue within 5s").isLessThan(deadline);
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    // Each granted caller keeps its permit, so every release hands on exactly one.
+    private void grantAll(int count) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            scheduler.release();
+            assertThat(granted.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.tenpo.heavyhitters;
+
+import com.tenpo.util.TopKSketch;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LoadTracker Unit Tests")
+class LoadTrackerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(60_000);
+    private final LoadTracker tracker = new LoadTracker(properties(), meterRegistry, clock::get);
+
+    @Test
+    @DisplayName("Should rank clients per measure and publish the last window's top as gauges")
+    void shouldRankClientsAndPublishGauges() {
+        // Arrange
+        for (int i = 0; i < 30; i++) {
+            tracker.record("7", "GET /client/{id}", 1_000_000, 100);
+        }
+        for (int i = 0; i < 10; i++) {
+            tracker.record("9", "GET /transaction", 50_000_000, 20_000);
+        }
+        tracker.record(null, "GET /employee/{id}", 0, 10);
+
+        // Act
+        clock.addAndGet(60_000);
+        LoadTracker.Report report = tracker.report();
+
+        // Assert
+        assertThat(report.current().top().get("clients").get("requests")).isEmpty();
+        assertThat(report.previous().top().get("clients").get("requests"))
+                .extracting(TopKSketch.Entry::key).containsExactly("7", "9");
+        assertThat(report.previous().top().get("clients").get("database_micros"))
+                .extracting(TopKSketch.Entry::key).containsExactly("9", "7");
+        assertThat(report.previous().top().get("endpoints").get("requests")).hasSize(3);
+        Gauge top = meterRegistry.find(LoadTracker.GAUGE_METRIC)
+                .tags("dimension", "clients", "measure", "bytes", "rank", "1").gauge();
+        assertThat(top).isNotNull();
+        assertThat(top.getId().getTag("key")).isEqualTo("9");
+        assertThat(top.value()).isGreaterThanOrEqualTo(200_000);
+        assertThat(meterRegistry.find(LoadTracker.GAUGE_METRIC).tags("dimension", "clients", "measure", "bytes")
+                .gauges()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should drop the previous window after an idle gap")
+    void shouldForgetPreviousWindowAfterIdleGap() {
+        // Arrange
+        tracker.record("7", "GET /client/{id}", 0, 0);
+
+        // Act
+        clock.addAndGet(180_000);
+        LoadTracker.Report report = tracker.report();
+
+        // Assert
+        assertThat(report.previous()).isNull();
+        assertThat(meterRegistry.find(LoadTracker.GAUGE_METRIC).gauges()).isEmpty();
+    }
+
+    private static HeavyHitterProperties properties() {
+        HeavyHitterProperties properties = new HeavyHitterProperties();
+        properties.setGauges(1);
+        return properties;
+    }
+}
@@ -0,0 +1,86 @@
+package com.tenpo.interceptor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AdaptiveConcurrencyLimit Unit Tests")
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, 1.5, 0.2);
+
+    @Test
+    @DisplayName("Should reject requests beyond the limit until one is released")
+    void shouldRejectBeyondLimit() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+        }
+
+        // Act
+        int rejected = limit.tryAcquire();
+        limit.releaseWithoutSample();
+        int admitted = limit.tryAcquire();
+
+        // Assert
+        assertThat(rejected).isEqualTo(-1);
+        assertThat(admitted).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should grow while the limit is used and the RTT stays flat")
+    void shouldGrowUnderSteadyRtt() {
+        // Act
+        for (int i = 0; i < 500; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, limit.limit());
+        }
+
+        // Assert
+        assertThat(limit.limit()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should not grow while most of the limit is unused")
+    void shouldNotGrowWhenUnused() {
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, 1);
+        }
+
+        // Assert
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should shrink to the minimum when the RTT rises and recover once it drops")
+    void shouldShrinkWhenRttRises() {
+        // Arrange
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, 20);
+        }
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(SLOW, limit.limit());
+        }
+        int shrunk = limit.limit();
+        for (int i = 0; i < 200; i++) {
+            limit.tryAcquire();
+            limit.release(FAST, limit.limit());
+        }
+
+        // Assert
+        assertThat(shrunk).isEqualTo(5);
+        assertThat(limit.limit()).isGreaterThan(20);
+    }
+}
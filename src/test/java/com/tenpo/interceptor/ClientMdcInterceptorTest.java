@@ -0,0 +1,57 @@
+package com.tenpo.interceptor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ClientMdcInterceptor Unit Tests")
+class ClientMdcInterceptorTest {
+
+    private final ClientMdcInterceptor interceptor = new ClientMdcInterceptor();
+
+    @Test
+    @DisplayName("Should take the client from the path of client and transaction routes")
+    void shouldResolveClientFromPath() {
+        // Arrange
+        MockHttpServletRequest clientRoute = routed("/client/{id}/overview", Map.of("id", "7"));
+        MockHttpServletRequest transactionRoute = routed("/transaction/client/{clientId}", Map.of("clientId", "8"));
+        MockHttpServletRequest transactionById = routed("/transaction/{id}", Map.of("id", "9"));
+
+        // Act & Assert
+        assertThat(interceptor.clientIdOf(clientRoute)).isEqualTo(7);
+        assertThat(interceptor.clientIdOf(transactionRoute)).isEqualTo(8);
+        assertThat(interceptor.clientIdOf(transactionById)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the header and then to a JSON body")
+    void shouldResolveClientFromHeaderOrBody() {
+        // Arrange
+        MockHttpServletRequest withHeader = routed("/employee/{id}", Map.of("id", "1"));
+        withHeader.addHeader(ClientMdcInterceptor.HEADER, "11");
+        MockHttpServletRequest withBody = routed("/transaction", Map.of());
+        withBody.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        withBody.setContent("{\"amount\":100,\"client_id\":12}".getBytes());
+        MockHttpServletRequest csv = routed("/client/import", Map.of());
+        csv.setContentType("text/csv");
+        csv.setContent("name,rut\n".getBytes());
+
+        // Act & Assert
+        assertThat(interceptor.clientIdOf(withHeader)).isEqualTo(11);
+        assertThat(interceptor.clientIdOf(withBody)).isEqualTo(12);
+        assertThat(interceptor.clientIdOf(csv)).isNull();
+    }
+
+    private static MockHttpServletRequest routed(String pattern, Map<String, String> variables) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, variables);
+        return request;
+    }
+}
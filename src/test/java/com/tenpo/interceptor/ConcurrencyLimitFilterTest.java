@@ -0,0 +1,112 @@
+package com.tenpo.interceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ConcurrencyLimitFilter Unit Tests")
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties(), meterRegistry);
+
+    @Test
+    @DisplayName("Should answer 503 to a write beyond the write limit while reads still pass")
+    void shouldRejectWritesBeyondTheirLimit() throws Exception {
+        // Arrange
+        filter.writeLimit().tryAcquire();
+        filter.writeLimit().tryAcquire();
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        MockHttpServletResponse readResponse = new MockHttpServletResponse();
+        AtomicInteger handled = new AtomicInteger();
+        FilterChain chain = (request, response) -> handled.incrementAndGet();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("POST", "/transaction"), writeResponse, chain);
+        filter.doFilter(new MockHttpServletRequest("GET", "/transaction/1"), readResponse, chain);
+
+        // Assert
+        assertThat(writeResponse.getStatus()).isEqualTo(503);
+        assertThat(writeResponse.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(writeResponse.getContentAsString()).contains("\"status\":503");
+        assertThat(readResponse.getStatus()).isEqualTo(200);
+        assertThat(handled).hasValue(1);
+        assertThat(meterRegistry.get(ConcurrencyLimitFilter.REJECTED_METRIC).tag("route", "write").counter()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should give the slot back when the request completes")
+    void shouldReleaseOnCompletion() throws Exception {
+        // Act
+        for (int i = 0; i < 5; i++) {
+            filter.doFilter(new MockHttpServletRequest("POST", "/transaction"), new MockHttpServletResponse(),
+                    new MockFilterChain());
+        }
+
+        // Assert
+        assertThat(filter.writeLimit().inFlight()).isZero();
+        assertThat(meterRegistry.get(ConcurrencyLimitFilter.LIMIT_METRIC).tag("route", "write").gauge().value())
+                .isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should not lower the write limit for a long CSV import")
+    void shouldNotSampleImports() throws Exception {
+        // Arrange
+        ConcurrencyLimitProperties properties = properties();
+        properties.getWrite().setInitialLimit(20);
+        AtomicLong clock = new AtomicLong();
+        ConcurrencyLimitFilter timed = new ConcurrencyLimitFilter(properties, new SimpleMeterRegistry(), clock::get);
+        FilterChain write = (request, response) -> clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        FilterChain upload = (request, response) -> clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        timed.doFilter(new MockHttpServletRequest("POST", "/transaction"), new MockHttpServletResponse(), write);
+        int limit = timed.writeLimit().limit();
+
+        // Act
+        timed.doFilter(new MockHttpServletRequest("POST", "/client/1/employees/import"),
+                new MockHttpServletResponse(), upload);
+        timed.doFilter(new MockHttpServletRequest("POST", "/transaction"), new MockHttpServletResponse(), write);
+
+        // Assert
+        assertThat(timed.writeLimit().limit()).isEqualTo(limit);
+        assertThat(timed.writeLimit().inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should never limit actuator requests")
+    void shouldNotLimitActuator() throws Exception {
+        // Arrange
+        filter.readLimit().tryAcquire();
+        filter.readLimit().tryAcquire();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        request.setRequestURI("/actuator/health");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    private static ConcurrencyLimitProperties properties() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.getRead().setInitialLimit(2);
+        properties.getRead().setMinLimit(2);
+        properties.getWrite().setInitialLimit(2);
+        properties.getWrite().setMinLimit(2);
+        return properties;
+    }
+}
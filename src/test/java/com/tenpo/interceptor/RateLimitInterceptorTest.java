@@ -0,0 +1,149 @@
+package com.tenpo.interceptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RateLimitInterceptor Unit Tests")
+class RateLimitInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final RateLimitInterceptor interceptor = new RateLimitInterceptor(100, 60, 1, 100, meterRegistry,
+            clock::get);
+
+    @Test
+    @DisplayName("Should reject a caller once its tokens run out and admit it again as they refill")
+    void shouldRejectUntilRefilled() throws Exception {
+        // Arrange
+        HandlerMethod listing = handler("listing");
+
+        // Act
+        boolean first = interceptor.preHandle(from("10.0.0.7"), new MockHttpServletResponse(), listing);
+        boolean second = interceptor.preHandle(from("10.0.0.7"), new MockHttpServletResponse(), listing);
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        boolean third = interceptor.preHandle(from("10.0.0.7"), rejected, listing);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        boolean afterRefill = interceptor.preHandle(from("10.0.0.7"), new MockHttpServletResponse(), listing);
+
+        // Assert
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("21");
+        assertThat(rejected.getContentAsString())
+                .contains("Rate limit is 1 per minute for address 10.0.0.7");
+        assertThat(afterRefill).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep a bucket per address whatever client the request names")
+    void shouldKeepBucketsPerCaller() throws Exception {
+        // Arrange
+        HandlerMethod listing = handler("listing");
+        interceptor.preHandle(request("/list"), new MockHttpServletResponse(), listing);
+        interceptor.preHandle(request("/list"), new MockHttpServletResponse(), listing);
+        MockHttpServletRequest namingClient = request("/client/{id}/list");
+        namingClient.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", "99"));
+        namingClient.addHeader(ClientMdcInterceptor.HEADER, "99");
+        namingClient.addHeader("X-Api-Key", "fresh");
+
+        // Act
+        boolean sameAddress = interceptor.preHandle(namingClient, new MockHttpServletResponse(), listing);
+        boolean otherAddress = interceptor.preHandle(from("10.0.0.2"), new MockHttpServletResponse(), listing);
+        MockHttpServletRequest authenticated = request("/list");
+        authenticated.setUserPrincipal(() -> "partner");
+        boolean principal = interceptor.preHandle(authenticated, new MockHttpServletResponse(), listing);
+
+        // Assert
+        assertThat(sameAddress).isFalse();
+        assertThat(otherAddress).isTrue();
+        assertThat(principal).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should forget the least recently seen caller beyond max-buckets")
+    void shouldEvictLeastRecentlySeenCaller() throws Exception {
+        // Arrange
+        SimpleMeterRegistry boundedRegistry = new SimpleMeterRegistry();
+        RateLimitInterceptor bounded = new RateLimitInterceptor(100, 60, 1, 2, boundedRegistry, clock::get);
+        HandlerMethod listing = handler("listing");
+        bounded.preHandle(from("10.0.0.1"), new MockHttpServletResponse(), listing);
+        bounded.preHandle(from("10.0.0.1"), new MockHttpServletResponse(), listing);
+        bounded.preHandle(from("10.0.0.2"), new MockHttpServletResponse(), listing);
+        bounded.preHandle(from("10.0.0.2"), new MockHttpServletResponse(), listing);
+
+        // Act
+        boolean exhausted = bounded.preHandle(from("10.0.0.2"), new MockHttpServletResponse(), listing);
+        bounded.preHandle(from("10.0.0.3"), new MockHttpServletResponse(), listing);
+        boolean forgotten = bounded.preHandle(from("10.0.0.1"), new MockHttpServletResponse(), listing);
+
+        // Assert
+        assertThat(exhausted).isFalse();
+        assertThat(forgotten).isTrue();
+        assertThat(boundedRegistry.get(RateLimitInterceptor.KEYS_METRIC).gauge().value()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should charge per returned item after the request and count tokens per endpoint")
+    void shouldChargePerItem() throws Exception {
+        // Arrange
+        HandlerMethod listing = handler("listing");
+        HandlerMethod pointRead = handler("pointRead");
+        MockHttpServletRequest request = request("/list");
+        interceptor.preHandle(request, new MockHttpServletResponse(), listing);
+        request.setAttribute(RateLimitInterceptor.RESULT_SIZE_ATTRIBUTE, 200);
+
+        // Act
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), listing, null);
+        boolean pointReadInDebt = interceptor.preHandle(request("/item"), new MockHttpServletResponse(), pointRead);
+
+        // Assert
+        assertThat(pointReadInDebt).isFalse();
+        assertThat(meterRegistry.get(RateLimitInterceptor.TOKENS_METRIC).tag("endpoint", "GET /list")
+                .tag("outcome", "allowed").counter().count()).isEqualTo(140.0);
+        assertThat(meterRegistry.get(RateLimitInterceptor.REQUESTS_METRIC).tag("endpoint", "GET /item")
+                .tag("outcome", "rejected").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get(RateLimitInterceptor.KEYS_METRIC).gauge().value()).isEqualTo(1.0);
+    }
+
+    private static MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private static MockHttpServletRequest from(String address) {
+        MockHttpServletRequest request = request("/list");
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getDeclaredMethod(name));
+    }
+
+    static class Handlers {
+
+        @RateLimitCost(value = 40, perItem = 0.5)
+        List<String> listing() {
+            return List.of();
+        }
+
+        String pointRead() {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.tenpo.jfr;
+
+import com.tenpo.service.CreateTransactionTimers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("FlightRecordings Unit Tests")
+class FlightRecordingsTest {
+
+    @TempDir
+    private Path dumpDirectory;
+
+    private FlightRecordings recordings;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FlightRecorderProperties properties = new FlightRecorderProperties();
+        properties.getContinuous().setEnabled(false);
+        properties.setDumpDirectory(dumpDirectory);
+        recordings = new FlightRecordings(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recordings.destroy();
+    }
+
+    @Test
+    @DisplayName("Should record transaction phases on demand and summarize them from the dump")
+    void shouldRecordAndSummarizePhases() throws Exception {
+        // Arrange
+        CreateTransactionTimers timers = new CreateTransactionTimers(new SimpleMeterRegistry());
+        recordings.start(Duration.ofMinutes(1));
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            CreateTransactionTimers.Timing timing = timers.start(1);
+            timing.begin(CreateTransactionTimers.LOOKUP);
+            Thread.sleep(2);
+            timing.end();
+            timing.begin(CreateTransactionTimers.INSERT);
+            timing.end();
+        }
+        recordings.stop();
+        Path dump = recordings.dump(FlightRecordings.ON_DEMAND).orElseThrow();
+        List<JfrPhaseReport.PhaseStats> report = JfrPhaseReport.summarize(dump);
+
+        // Assert
+        assertThat(dump).isEqualTo(dumpDirectory.resolve("on-demand.jfr"));
+        assertThat(report).extracting(JfrPhaseReport.PhaseStats::phase)
+                .containsExactly("transaction.insert", "transaction.lookup");
+        JfrPhaseReport.PhaseStats lookup = report.get(1);
+        assertThat(lookup.count()).isEqualTo(3);
+        assertThat(lookup.p50()).isGreaterThanOrEqualTo(Duration.ofMillis(2));
+        assertThat(JfrPhaseReport.format(report)).contains("transaction.lookup");
+    }
+
+    @Test
+    @DisplayName("Should never record environment variables or system properties")
+    void shouldDisableSecretEvents() throws Exception {
+        // Arrange
+        FlightRecorderProperties defaults = new FlightRecorderProperties();
+
+        // Act
+        Map<String, String> continuous = FlightRecordings.settingsOf(defaults.getContinuous().getSettings());
+        Map<String, String> onDemand = FlightRecordings.settingsOf(defaults.getOnDemand().getSettings());
+
+        // Assert
+        for (Map<String, String> settings : List.of(continuous, onDemand)) {
+            assertThat(settings)
+                    .containsEntry("jdk.InitialEnvironmentVariable#enabled", "false")
+                    .containsEntry("jdk.InitialSystemProperty#enabled", "false")
+                    .containsEntry("jdk.ThreadSleep#enabled", "true");
+        }
+    }
+
+    @Test
+    @DisplayName("Should bound the duration and allow only one on-demand recording at a time")
+    void shouldBoundOnDemandRecordings() throws Exception {
+        // Act
+        FlightRecordings.RecordingStatus started = recordings.start(Duration.ofHours(1));
+
+        // Assert
+        assertThat(started.duration()).isEqualTo(Duration.ofMinutes(5));
+        assertThatThrownBy(() -> recordings.start(null)).isInstanceOf(IllegalStateException.class);
+        assertThat(recordings.dump(FlightRecordings.CONTINUOUS)).isEmpty();
+        assertThat(recordings.stop()).hasValueSatisfying(status -> assertThat(status.state()).isEqualTo("STOPPED"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.tenpo.observability;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LayerObservationSampler Unit Tests")
+class LayerObservationSamplerTest {
+
+    private final List<String> started = new ArrayList<>();
+
+    @Test
+    @DisplayName("Should observe either every layer of a request or none of them")
+    void shouldSampleWholeRequests() {
+        // Arrange
+        ObservationRegistry registry = registry(new LayerObservationSampler(true, 0.5));
+        List<Integer> layersPerRequest = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            started.clear();
+            request(registry);
+            layersPerRequest.add((int) started.stream().filter(LayerObservations.NAME::equals).count());
+        }
+
+        // Assert
+        assertThat(layersPerRequest).containsOnly(0, 3).contains(0, 3);
+    }
+
+    @Test
+    @DisplayName("Should drop layers but keep other observations when disabled")
+    void shouldKeepOtherObservationsWhenDisabled() {
+        // Arrange
+        ObservationRegistry registry = registry(new LayerObservationSampler(false, 1.0));
+
+        // Act
+        request(registry);
+
+        // Assert
+        assertThat(started).containsExactly("http.server.requests");
+    }
+
+    private ObservationRegistry registry(LayerObservationSampler sampler) {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig()
+                .observationPredicate(sampler)
+                .observationHandler(new ObservationHandler<>() {
+                    @Override
+                    public void onStart(Observation.Context context) {
+                        started.add(context.getName());
+                    }
+
+                    @Override
+                    public boolean supportsContext(Observation.Context context) {
+                        return true;
+                    }
+                });
+        return registry;
+    }
+
+    // A request whose service calls a repository, after a filter ran.
+    private static void request(ObservationRegistry registry) {
+        Observation.createNotStarted("http.server.requests", registry).observe(() -> {
+            LayerObservations.create(registry, LayerObservations.FILTER, "Filter.doFilter").observe(() -> {
+            });
+            LayerObservations.create(registry, LayerObservations.SERVICE, "Service.call").observe(() ->
+                    LayerObservations.create(registry, LayerObservations.REPOSITORY, "Repository.find")
+                            .observe(() -> {
+                            }));
+        });
+    }
+}
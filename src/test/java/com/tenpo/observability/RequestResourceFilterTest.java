@@ -0,0 +1,65 @@
+package com.tenpo.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RequestResourceFilter Unit Tests")
+class RequestResourceFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestResourceFilter filter = new RequestResourceFilter(new RequestResourceProperties(),
+            meterRegistry);
+
+    private volatile byte[] sink;
+
+    @Test
+    @DisplayName("Should attribute what the serving thread allocates to the matched endpoint")
+    void shouldRecordAllocationPerEndpoint() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/transaction");
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/transaction");
+            sink = new byte[4 * 1024 * 1024];
+        };
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        DistributionSummary allocated = meterRegistry.get(RequestResourceFilter.ALLOCATED_METRIC)
+                .tag("endpoint", "GET /transaction").summary();
+        assertThat(allocated.count()).isEqualTo(1);
+        assertThat(allocated.totalAmount()).isGreaterThanOrEqualTo(4 * 1024 * 1024);
+        assertThat(meterRegistry.get(RequestResourceFilter.CPU_METRIC).tag("endpoint", "GET /transaction")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip requests served on virtual threads")
+    void shouldSkipVirtualThreads() throws Exception {
+        // Act
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> {
+                filter.doFilter(new MockHttpServletRequest("GET", "/client/1"), new MockHttpServletResponse(),
+                        new MockFilterChain());
+                return null;
+            }).get();
+        }
+
+        // Assert
+        assertThat(meterRegistry.get(RequestResourceFilter.SKIPPED_METRIC).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find(RequestResourceFilter.ALLOCATED_METRIC).summaries()).isEmpty();
+    }
+}
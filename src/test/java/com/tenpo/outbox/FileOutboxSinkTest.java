@@ -0,0 +1,62 @@
+package com.tenpo.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenpo.model.ChangeLogEntry.EntityType;
+import com.tenpo.model.OutboxEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FileOutboxSink Unit Tests")
+class FileOutboxSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Should append one JSON line per event with the payload embedded")
+    void shouldAppendJsonLines() throws Exception {
+        // Arrange
+        Path file = directory.resolve("outbox/events.jsonl");
+        OutboxEvent created = event(1L, OutboxEvent.EventType.CREATED, "{\"id\":7,\"amount\":1000}");
+        OutboxEvent deleted = event(2L, OutboxEvent.EventType.DELETED, null);
+
+        // Act
+        try (FileOutboxSink sink = new FileOutboxSink(file, objectMapper)) {
+            sink.send(List.of(created));
+            sink.send(List.of(deleted));
+        }
+
+        // Assert
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("client_id").asInt()).isEqualTo(3);
+        assertThat(first.get("event_type").asText()).isEqualTo("CREATED");
+        assertThat(first.get("payload").get("amount").asInt()).isEqualTo(1000);
+        assertThat(objectMapper.readTree(lines.get(1)).has("payload")).isFalse();
+    }
+
+    private static OutboxEvent event(Long id, OutboxEvent.EventType type, String payload) {
+        return OutboxEvent.builder()
+                .id(id)
+                .clientId(3)
+                .aggregateType(EntityType.TRANSACTION)
+                .aggregateId(7)
+                .eventType(type)
+                .payload(payload)
+                .createdAt(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .build();
+    }
+}
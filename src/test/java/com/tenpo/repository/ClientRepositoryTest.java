@@ -1,12 +1,16 @@
 package com.tenpo.repository;
 
 import com.tenpo.model.Client;
+import com.tenpo.model.Employee;
+import com.tenpo.model.Transaction;
+import com.tenpo.model.UpsertOutcome;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -112,4 +116,51 @@ class ClientRepositoryTest {
         // Assert
         assertThat(found).isEmpty();
     }
+
+    @Test
+    @DisplayName("Should cascade set-based client delete to employees and transactions")
+    void shouldCascadeDeleteToEmployeesAndTransactions() {
+        // Arrange
+        Client client = entityManager.persistFlushFind(Client.builder().name("Cascade").rut("C-1").build());
+        Employee employee = entityManager
+                .persistFlushFind(Employee.builder().name("Worker").rut("C-2").client(client).build());
+        Transaction transaction = entityManager.persistFlushFind(Transaction.builder().amount(10)
+                .merchantOrBusiness("Shop").date(LocalDateTime.now()).employee(employee).build());
+        entityManager.clear();
+
+        // Act
+        clientRepository.deleteAllByIdInBatch(List.of(client.getId()));
+        entityManager.clear();
+
+        // Assert
+        assertThat(entityManager.find(Client.class, client.getId())).isNull();
+        assertThat(entityManager.find(Employee.class, employee.getId())).isNull();
+        assertThat(entityManager.find(Transaction.class, transaction.getId())).isNull();
+    }
+
+    @Test
+    @DisplayName("Should upsert clients by RUT and report created, updated and unchanged rows")
+    void shouldUpsertClientsByRut() {
+        // Arrange
+        Client existing = entityManager.persistFlushFind(Client.builder().name("Old").rut("11.111.111-1").build());
+        Client same = entityManager.persistFlushFind(Client.builder().name("Same").rut("22222222-2").build());
+        entityManager.clear();
+
+        // Act
+        List<RutUpsertResult> results = clientRepository.upsertAllByRut(List.of(
+                Client.builder().name("New").rut("33333333-3").rutKey(3333333303L).build(),
+                Client.builder().name("Renamed").rut("11.111.111-1").rutKey(1111111101L).build(),
+                Client.builder().name("Same").rut("22222222-2").rutKey(2222222202L).build()));
+
+        // Assert
+        assertThat(results).extracting(RutUpsertResult::outcome)
+                .containsExactly(UpsertOutcome.CREATED, UpsertOutcome.UPDATED, UpsertOutcome.UNCHANGED);
+        assertThat(results.get(1).id()).isEqualTo(existing.getId());
+        assertThat(results.get(1).version()).isEqualTo(existing.getVersion() + 1);
+        assertThat(results.get(2).version()).isEqualTo(same.getVersion());
+        assertThat(clientRepository.findByRutKey(3333333303L)).get()
+                .extracting(Client::getId).isEqualTo(results.get(0).id());
+        assertThat(clientRepository.findById(existing.getId())).get()
+                .extracting(Client::getName).isEqualTo("Renamed");
+    }
 }
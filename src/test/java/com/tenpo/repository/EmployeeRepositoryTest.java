@@ -2,12 +2,15 @@ package com.tenpo.repository;
 
 import com.tenpo.model.Client;
 import com.tenpo.model.Employee;
+import com.tenpo.model.UpsertOutcome;
+import com.tenpo.util.RutUtils;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -79,6 +82,23 @@ class EmployeeRepositoryTest {
         assertThat(found).isEmpty();
     }
 
+    @Test
+    @DisplayName("Should find employee by canonical RUT key regardless of notation")
+    void shouldFindEmployeeByRutKey() {
+        // Arrange
+        Client client = entityManager.persistFlushFind(Client.builder().name("Key Client").rut("7-7").build());
+        entityManager.persistAndFlush(Employee.builder().name("Keyed").rut("11.111.111-k").client(client).build());
+        entityManager.clear();
+
+        // Act
+        Optional<Employee> found = employeeRepository.findByRutKey(RutUtils.toKey("11111111-K"));
+
+        // Assert
+        assertThat(found).isPresent();
+        assertThat(found.get().getName()).isEqualTo("Keyed");
+        assertThat(employeeRepository.existsByRutKey(1111111110L)).isTrue();
+    }
+
     @Test
     @DisplayName("Should delete employee but keep client")
     void shouldDeleteEmployeeButKeepClient() {
@@ -98,4 +118,26 @@ class EmployeeRepositoryTest {
         assertThat(employeeRepository.findById(employee.getId())).isEmpty();
         assertThat(entityManager.find(Client.class, client.getId())).isNotNull();
     }
+
+    @Test
+    @DisplayName("Should treat a moved employee as updated and an identical one as unchanged")
+    void shouldUpsertEmployeesByRut() {
+        // Arrange
+        Client first = entityManager.persistFlushFind(Client.builder().name("First").rut("U-1").build());
+        Client second = entityManager.persistFlushFind(Client.builder().name("Second").rut("U-2").build());
+        entityManager.persistAndFlush(Employee.builder().name("Mover").rut("5-5").client(first).build());
+        entityManager.persistAndFlush(Employee.builder().name("Stayer").rut("6-6").client(first).build());
+        entityManager.clear();
+
+        // Act
+        List<RutUpsertResult> results = employeeRepository.upsertAllByRut(List.of(
+                Employee.builder().name("Mover").rut("5-5").rutKey(505L).client(second).build(),
+                Employee.builder().name("Stayer").rut("6-6").rutKey(606L).client(first).build()));
+
+        // Assert
+        assertThat(results).extracting(RutUpsertResult::outcome)
+                .containsExactly(UpsertOutcome.UPDATED, UpsertOutcome.UNCHANGED);
+        assertThat(employeeRepository.findByRutKey(505L)).get()
+                .extracting(employee -> employee.getClient().getId()).isEqualTo(second.getId());
+    }
 }
@@ -0,0 +1,92 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.Client;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@DisplayName("MultiIdLoader Integration Tests")
+class MultiIdLoaderTest {
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should return entities in request order with null for missing ids")
+    void shouldReturnEntitiesInRequestOrder() {
+        // Arrange
+        Client first = testEntityManager.persist(Client.builder().name("First").rut("M-1").build());
+        Client second = testEntityManager.persist(Client.builder().name("Second").rut("M-2").build());
+        testEntityManager.flush();
+        testEntityManager.clear();
+        MultiIdLoader loader = new MultiIdLoader(entityManager, 20, 100);
+
+        // Act
+        List<Client> result = loader.findAllInRequestOrder(Client.class,
+                List.of(second.getId(), -1, first.getId(), second.getId()));
+
+        // Assert
+        assertThat(result).hasSize(4);
+        assertThat(result.get(0).getName()).isEqualTo("Second");
+        assertThat(result.get(1)).isNull();
+        assertThat(result.get(2).getName()).isEqualTo("First");
+        assertThat(result.get(3)).isSameAs(result.get(0));
+    }
+
+    @Test
+    @DisplayName("Should load in chunks of the batch size and skip entities already in the session")
+    void shouldLoadInChunksAndSkipManagedEntities() {
+        // Arrange
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(testEntityManager.persist(Client.builder().name("C" + i).rut("MC-" + i).build()).getId());
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+        Client managed = testEntityManager.find(Client.class, ids.get(0));
+        MultiIdLoader loader = new MultiIdLoader(entityManager, 2, 100);
+        statistics.clear();
+
+        // Act
+        List<Client> result = loader.findAllInRequestOrder(Client.class, ids);
+
+        // Assert
+        assertThat(result).doesNotContainNull();
+        assertThat(result.get(0)).isSameAs(managed);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reject requests over the id limit")
+    void shouldRejectRequestsOverTheIdLimit() {
+        // Arrange
+        MultiIdLoader loader = new MultiIdLoader(entityManager, 20, 2);
+
+        // Act & Assert
+        assertThatThrownBy(() -> loader.findAllInRequestOrder(Client.class, List.of(1, 2, 3)))
+                .hasMessage("At most 2 ids can be requested at once");
+    }
+}
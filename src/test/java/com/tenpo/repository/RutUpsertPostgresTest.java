@@ -0,0 +1,138 @@
+package com.tenpo.repository;
+
+import com.tenpo.model.Client;
+import com.tenpo.model.UpsertOutcome;
+import com.tenpo.util.RutUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs the {@code ON CONFLICT} path of {@link RutUpsertTemplate}, which the
+ * H2 tests never reach. Skipped where Docker is not available.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect" })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("RutUpsertTemplate PostgreSQL Integration Tests")
+class RutUpsertPostgresTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should report created, updated and unchanged rows in input order")
+    void shouldClassifyRows() {
+        // Arrange
+        String unchanged = randomRut();
+        String updated = randomRut();
+        String created = randomRut();
+        upsert(client("Unchanged", unchanged), client("Before", updated));
+
+        // Act
+        List<RutUpsertResult> results = upsert(client("Unchanged", unchanged), client("After", updated),
+                client("Created", created));
+
+        // Assert
+        assertThat(results).extracting(RutUpsertResult::rutKey, RutUpsertResult::outcome, RutUpsertResult::version)
+                .containsExactly(
+                        tuple(RutUtils.toKey(unchanged), UpsertOutcome.UNCHANGED, 0L),
+                        tuple(RutUtils.toKey(updated), UpsertOutcome.UPDATED, 1L),
+                        tuple(RutUtils.toKey(created), UpsertOutcome.CREATED, 0L));
+    }
+
+    @Test
+    @DisplayName("Should return an identical row inserted concurrently as unchanged")
+    void shouldResolveConcurrentIdenticalInsert() throws Exception {
+        // Arrange
+        String rut = randomRut();
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            int id;
+            try (PreparedStatement insert = other.prepareStatement("INSERT INTO clients "
+                    + "(client_name, client_rut, client_rut_key, version) VALUES (?, ?, ?, 0) RETURNING client_id")) {
+                insert.setString(1, "Concurrent");
+                insert.setString(2, rut);
+                insert.setLong(3, RutUtils.toKey(rut));
+                try (ResultSet rs = insert.executeQuery()) {
+                    rs.next();
+                    id = rs.getInt(1);
+                }
+            }
+
+            // Act: the upsert waits on the uncommitted row, then finds it identical.
+            CompletableFuture<List<RutUpsertResult>> upsert = CompletableFuture.supplyAsync(
+                    () -> upsert(client("Concurrent", rut)));
+            awaitLockWait();
+            other.commit();
+            List<RutUpsertResult> results = upsert.get(10, TimeUnit.SECONDS);
+
+            // Assert
+            assertThat(results).extracting(RutUpsertResult::id, RutUpsertResult::outcome, RutUpsertResult::version)
+                    .containsExactly(tuple(id, UpsertOutcome.UNCHANGED, 0L));
+        }
+    }
+
+    private List<RutUpsertResult> upsert(Client... clients) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> clientRepository.upsertAllByRut(List.of(clients)));
+    }
+
+    private void awaitLockWait() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'",
+                Integer.class) == 0) {
+            assertThat(System.nanoTime()).as("upsert waiting on the row lock").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static Client client(String name, String rut) {
+        return Client.builder().name(name).rut(rut).rutKey(RutUtils.toKey(rut)).build();
+    }
+
+    private static String randomRut() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return RutUtils.format(random.nextLong(1_000_000, 99_999_999) * 100 + random.nextInt(10));
+    }
+}
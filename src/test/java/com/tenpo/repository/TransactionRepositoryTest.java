@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -73,6 +74,43 @@ class TransactionRepositoryTest {
         assertThat(transactions.get(0).getEmployee().getName()).isEqualTo("Worker");
     }
 
+    @Test
+    @DisplayName("Should find the most recent transactions of a client, newest first")
+    void shouldFindRecentByClientId() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        for (int days = 3; days >= 0; days--) {
+            entityManager.persist(Transaction.builder().amount(100 + days).merchantOrBusiness("A")
+                    .date(now.minusDays(days)).employee(employee).build());
+        }
+        entityManager.flush();
+
+        // Act
+        List<Transaction> transactions = transactionRepository.findRecentByClientId(client.getId(), Limit.of(2));
+
+        // Assert
+        assertThat(transactions).extracting(Transaction::getAmount).containsExactly(100, 101);
+    }
+
+    @Test
+    @DisplayName("Should count and sum the transactions of a client in one query")
+    void shouldFindTotalsByClientId() {
+        // Arrange
+        entityManager.persist(Transaction.builder().amount(100).merchantOrBusiness("A").date(LocalDateTime.now())
+                .employee(employee).build());
+        entityManager.persist(Transaction.builder().amount(250).merchantOrBusiness("B").date(LocalDateTime.now())
+                .employee(employee).build());
+        entityManager.flush();
+
+        // Act
+        TransactionTotals totals = transactionRepository.findTotalsByClientId(client.getId());
+        TransactionTotals none = transactionRepository.findTotalsByClientId(999);
+
+        // Assert
+        assertThat(totals).isEqualTo(new TransactionTotals(2, 350));
+        assertThat(none).isEqualTo(new TransactionTotals(0, 0));
+    }
+
     @Test
     @DisplayName("Should find transactions by employee id")
     void shouldFindByEmployeeId() {
@@ -122,4 +160,26 @@ class TransactionRepositoryTest {
         assertThat(found.getAmount()).isEqualTo(1000);
         assertThat(found.getEmployee().getId()).isEqualTo(employee.getId());
     }
+
+    @Test
+    @DisplayName("Should delete transactions of a client in bounded chunks")
+    void shouldDeleteTransactionsOfClientInChunks() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(Transaction.builder().amount(i).merchantOrBusiness("Chunk")
+                    .date(LocalDateTime.now()).employee(employee).build());
+        }
+        entityManager.flush();
+
+        // Act
+        int first = transactionRepository.deleteChunkByClientId(client.getId(), 2);
+        int second = transactionRepository.deleteChunkByClientId(client.getId(), 2);
+        int third = transactionRepository.deleteChunkByClientId(client.getId(), 2);
+
+        // Assert
+        assertThat(first).isEqualTo(2);
+        assertThat(second).isEqualTo(1);
+        assertThat(third).isZero();
+        assertThat(transactionRepository.countByClientId(client.getId())).isZero();
+    }
 }
@@ -0,0 +1,148 @@
+package com.tenpo.service;
+
+import com.tenpo.api.dto.ClientOverviewDTO;
+import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.api.dto.TransactionResponseDTO;
+import com.tenpo.api.dto.TransactionTotalsDTO;
+import com.tenpo.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ClientOverviewService Unit Tests")
+class ClientOverviewServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(500);
+
+    @Mock
+    private ClientService clientService;
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @Mock
+    private TransactionService transactionService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch never = new CountDownLatch(1);
+    private ClientOverviewService clientOverviewService;
+
+    @BeforeEach
+    void setUp() {
+        clientOverviewService = new ClientOverviewService(clientService, employeeService, transactionService,
+                meterRegistry, 5, Map.of(
+                        ClientOverviewService.Part.CLIENT, TIMEOUT,
+                        ClientOverviewService.Part.EMPLOYEES, TIMEOUT,
+                        ClientOverviewService.Part.TRANSACTIONS, TIMEOUT,
+                        ClientOverviewService.Part.RECENT_TRANSACTIONS, Duration.ofMillis(100)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        never.countDown();
+        clientOverviewService.destroy();
+    }
+
+    @Test
+    @DisplayName("Should run the reads concurrently and assemble the overview")
+    void shouldAssembleOverviewFromConcurrentReads() {
+        // Arrange
+        // Every read waits for the other three to start, so this only completes if they overlap.
+        CountDownLatch started = new CountDownLatch(4);
+        ClientResponseDTO client = new ClientResponseDTO(1, "Tenpo", "12345678-9");
+        List<EmployeeResponseDTO> employees = List.of(new EmployeeResponseDTO(2, "Worker", "5-5", 1));
+        TransactionTotalsDTO totals = new TransactionTotalsDTO(1, 100, 99, 1000);
+        List<TransactionResponseDTO> recent = List.of(
+                new TransactionResponseDTO(3, 1000, "Store", LocalDateTime.of(2024, 1, 1, 12, 0), 2, 1));
+        when(clientService.getClientById(1)).thenAnswer(afterAllStarted(started, client));
+        when(employeeService.getEmployeesByClientId(1)).thenAnswer(afterAllStarted(started, employees));
+        when(transactionService.getTransactionTotalsByClientId(1)).thenAnswer(afterAllStarted(started, totals));
+        when(transactionService.getRecentTransactionsByClientId(1, 5)).thenAnswer(afterAllStarted(started, recent));
+
+        // Act
+        ClientOverviewDTO overview = clientOverviewService.getOverview(1);
+
+        // Assert
+        assertThat(overview).isEqualTo(new ClientOverviewDTO(client, employees, totals, recent, List.of()));
+        assertThat(meterRegistry.get(ClientOverviewService.PART_METRIC).timers()).hasSize(4)
+                .allSatisfy(timer -> assertThat(timer.count()).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("Should leave out a late optional part and report it as unavailable")
+    void shouldReportLatePartAsUnavailable() {
+        // Arrange
+        ClientResponseDTO client = new ClientResponseDTO(1, "Tenpo", "12345678-9");
+        when(clientService.getClientById(1)).thenReturn(client);
+        when(employeeService.getEmployeesByClientId(1)).thenReturn(List.of());
+        when(transactionService.getTransactionTotalsByClientId(1))
+                .thenReturn(new TransactionTotalsDTO(0, 100, 100, 0));
+        when(transactionService.getRecentTransactionsByClientId(1, 5)).thenAnswer(blocked());
+
+        // Act
+        ClientOverviewDTO overview = clientOverviewService.getOverview(1);
+
+        // Assert
+        assertThat(overview.client()).isEqualTo(client);
+        assertThat(overview.transactions().remaining()).isEqualTo(100);
+        assertThat(overview.recentTransactions()).isNull();
+        assertThat(overview.unavailable()).containsExactly("recent_transactions");
+    }
+
+    @Test
+    @DisplayName("Should fail with not found when the client does not exist")
+    void shouldFailWhenClientDoesNotExist() {
+        // Arrange
+        when(clientService.getClientById(99)).thenThrow(ResourceNotFoundException.CLIENT);
+
+        // Act & Assert
+        assertThatThrownBy(() -> clientOverviewService.getOverview(99)).isSameAs(ResourceNotFoundException.CLIENT);
+    }
+
+    @Test
+    @DisplayName("Should fail with a timeout when the client is late")
+    void shouldFailWhenClientIsLate() {
+        // Arrange
+        when(clientService.getClientById(1)).thenAnswer(blocked());
+
+        // Act & Assert
+        assertThatThrownBy(() -> clientOverviewService.getOverview(1))
+                .isInstanceOf(QueryTimeoutException.class)
+                .hasMessageContaining("did not load the client");
+    }
+
+    private static <T> Answer<T> afterAllStarted(CountDownLatch started, T result) {
+        return invocation -> {
+            started.countDown();
+            assertThat(started.await(5, TimeUnit.SECONDS)).as("reads did not overlap").isTrue();
+            return result;
+        };
+    }
+
+    private <T> Answer<T> blocked() {
+        return invocation -> {
+            never.await();
+            return null;
+        };
+    }
+}
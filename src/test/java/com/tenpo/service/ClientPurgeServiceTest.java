@@ -0,0 +1,136 @@
+package com.tenpo.service;
+
+import com.tenpo.api.dto.ClientPurgeStatusDTO;
+import com.tenpo.model.ChangeLogEntry;
+import com.tenpo.model.OutboxEvent;
+import com.tenpo.outbox.Outbox;
+import com.tenpo.repository.ClientRepository;
+import com.tenpo.repository.EmployeeRepository;
+import com.tenpo.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ClientPurgeService Unit Tests")
+class ClientPurgeServiceTest {
+
+    private static final int CHUNK_SIZE = 2;
+    private static final Duration RETENTION = Duration.ofMinutes(10);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ChangeLog changeLog;
+
+    @Mock
+    private Outbox outbox;
+
+    private ClientPurgeService clientPurgeService;
+
+    @BeforeEach
+    void setUp() {
+        clientPurgeService = new ClientPurgeService(clientRepository, employeeRepository, transactionRepository,
+                changeLog, outbox, TransactionOperations.withoutTransaction(), 10, CHUNK_SIZE, RETENTION,
+                new ExecutorServiceAdapter(new SyncTaskExecutor()), clock::get);
+    }
+
+    @Test
+    @DisplayName("Should require background purge only above the threshold")
+    void shouldRequireBackgroundPurgeOnlyAboveThreshold() {
+        // Arrange
+        when(employeeRepository.countByClientId(1)).thenReturn(10L);
+        when(employeeRepository.countByClientId(2)).thenReturn(11L);
+
+        // Act & Assert
+        assertFalse(clientPurgeService.requiresBackgroundPurge(1));
+        assertTrue(clientPurgeService.requiresBackgroundPurge(2));
+    }
+
+    @Test
+    @DisplayName("Should delete transactions, then employees, then the client in chunks")
+    void shouldDeleteInChunksInDependencyOrder() {
+        // Arrange
+        Integer clientId = 5;
+        when(transactionRepository.deleteChunkByClientId(clientId, CHUNK_SIZE)).thenReturn(2, 1, 0);
+        when(employeeRepository.deleteChunkByClientId(clientId, CHUNK_SIZE)).thenReturn(2, 0);
+
+        // Act
+        clientPurgeService.startPurge(clientId);
+
+        // Assert
+        ClientPurgeStatusDTO status = clientPurgeService.getPurgeStatus(clientId).orElseThrow();
+        assertEquals(ClientPurgeStatusDTO.State.COMPLETED, status.state());
+        assertEquals(3, status.deletedTransactions());
+        assertEquals(2, status.deletedEmployees());
+        assertNotNull(status.finishedAt());
+
+        InOrder inOrder = inOrder(transactionRepository, employeeRepository, clientRepository);
+        inOrder.verify(transactionRepository, times(3)).deleteChunkByClientId(clientId, CHUNK_SIZE);
+        inOrder.verify(employeeRepository, times(2)).deleteChunkByClientId(clientId, CHUNK_SIZE);
+        inOrder.verify(clientRepository).deleteAllByIdInBatch(List.of(clientId));
+        verify(changeLog).deleted(ChangeLogEntry.EntityType.CLIENT, clientId);
+        verify(outbox).append(clientId, ChangeLogEntry.EntityType.CLIENT, clientId, OutboxEvent.EventType.DELETED,
+                null);
+    }
+
+    @Test
+    @DisplayName("Should mark purge as failed when a chunk fails")
+    void shouldMarkPurgeAsFailedWhenChunkFails() {
+        // Arrange
+        Integer clientId = 6;
+        when(transactionRepository.deleteChunkByClientId(clientId, CHUNK_SIZE))
+                .thenThrow(new RuntimeException("lock timeout"));
+
+        // Act
+        clientPurgeService.startPurge(clientId);
+
+        // Assert
+        ClientPurgeStatusDTO status = clientPurgeService.getPurgeStatus(clientId).orElseThrow();
+        assertEquals(ClientPurgeStatusDTO.State.FAILED, status.state());
+        assertEquals("lock timeout", status.error());
+        verify(clientRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    @DisplayName("Should forget a finished purge status after the retention period")
+    void shouldEvictFinishedStatusAfterRetention() {
+        // Arrange
+        Integer clientId = 7;
+        when(transactionRepository.deleteChunkByClientId(clientId, CHUNK_SIZE)).thenReturn(0);
+        when(employeeRepository.deleteChunkByClientId(clientId, CHUNK_SIZE)).thenReturn(0);
+        clientPurgeService.startPurge(clientId);
+
+        // Act
+        clock.addAndGet(RETENTION.toNanos() - 1);
+        boolean retained = clientPurgeService.getPurgeStatus(clientId).isPresent();
+        clock.addAndGet(1);
+
+        // Assert
+        assertTrue(retained);
+        assertTrue(clientPurgeService.getPurgeStatus(clientId).isEmpty());
+    }
+}
@@ -1,9 +1,19 @@
 package com.tenpo.service;
 
+import com.tenpo.api.dto.ClientPatchDTO;
 import com.tenpo.api.dto.ClientRequestDTO;
 import com.tenpo.api.dto.ClientResponseDTO;
+import com.tenpo.api.dto.UpsertResultDTO;
+import com.tenpo.exception.DuplicateResourceException;
+import com.tenpo.exception.PreconditionFailedException;
+import com.tenpo.exception.ResourceNotFoundException;
+import com.tenpo.model.ChangeLogEntry;
 import com.tenpo.model.Client;
+import com.tenpo.model.OutboxEvent;
+import com.tenpo.model.UpsertOutcome;
+import com.tenpo.outbox.Outbox;
 import com.tenpo.repository.ClientRepository;
+import com.tenpo.repository.RutUpsertResult;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,6 +26,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +36,18 @@ class ClientServiceTest {
     @Mock
     private ClientRepository clientRepository;
 
+    @Mock
+    private RutBloomFilters rutBloomFilters;
+
+    @Mock
+    private MissingIdCache missingIdCache;
+
+    @Mock
+    private ChangeLog changeLog;
+
+    @Mock
+    private Outbox outbox;
+
     @InjectMocks
     private ClientService clientService;
 
@@ -114,8 +137,21 @@ class ClientServiceTest {
         when(clientRepository.findById(id)).thenReturn(Optional.empty());
 
         // Act & Assert
-        assertThrows(RuntimeException.class, () -> clientService.getClientById(id));
+        assertThrows(ResourceNotFoundException.class, () -> clientService.getClientById(id));
         verify(clientRepository, times(1)).findById(id);
+        verify(missingIdCache, times(1)).recordMissing(Client.class, id);
+    }
+
+    @Test
+    @DisplayName("Should answer a known-missing client id without querying")
+    void shouldAnswerKnownMissingClientIdWithoutQuerying() {
+        // Arrange
+        Integer id = 1_000_000;
+        when(missingIdCache.isKnownMissing(Client.class, id)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> clientService.getClientById(id));
+        verifyNoInteractions(clientRepository);
     }
 
     @Test
@@ -128,17 +164,160 @@ class ClientServiceTest {
         Client updatedClient = Client.builder().id(id).name("Updated Name").rut("99-9").build();
 
         when(clientRepository.findById(id)).thenReturn(Optional.of(existingClient));
-        when(clientRepository.save(any(Client.class))).thenReturn(updatedClient);
+        when(clientRepository.saveAndFlush(any(Client.class))).thenReturn(updatedClient);
 
         // Act
-        ClientResponseDTO response = clientService.updateClient(id, request);
+        ClientResponseDTO response = clientService.updateClient(id, request, null);
 
         // Assert
         assertNotNull(response);
         assertEquals("Updated Name", response.name());
         assertEquals("99-9", response.rut());
         verify(clientRepository, times(1)).findById(id);
-        verify(clientRepository, times(1)).save(any(Client.class));
+        verify(clientRepository, times(1)).saveAndFlush(any(Client.class));
+    }
+
+    @Test
+    @DisplayName("Should update client with a single conditional statement when version is given")
+    void shouldUpdateClientConditionallyWhenVersionIsGiven() {
+        // Arrange
+        Integer id = 1;
+        ClientRequestDTO request = new ClientRequestDTO("Updated Name", "99-9");
+        when(clientRepository.updateIfVersionMatches(id, "Updated Name", "99-9", 9909L, 3L)).thenReturn(1);
+
+        // Act
+        ClientResponseDTO response = clientService.updateClient(id, request, 3L);
+
+        // Assert
+        assertEquals(4L, response.version());
+        verify(clientRepository, never()).findById(any());
+        verify(clientRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Should throw precondition failed when stored version differs")
+    void shouldThrowPreconditionFailedWhenStoredVersionDiffers() {
+        // Arrange
+        Integer id = 1;
+        ClientRequestDTO request = new ClientRequestDTO("Updated Name", "99-9");
+        when(clientRepository.updateIfVersionMatches(id, "Updated Name", "99-9", 9909L, 3L)).thenReturn(0);
+        when(clientRepository.findVersionById(id)).thenReturn(Optional.of(5L));
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> clientService.updateClient(id, request, 3L));
+    }
+
+    @Test
+    @DisplayName("Should patch only the members present in the merge patch")
+    void shouldPatchOnlyPresentMembers() {
+        // Arrange
+        Integer id = 1;
+        Client existingClient = Client.builder().id(id).name("Old Name").rut("00-0").version(2L).build();
+        when(clientRepository.findById(id)).thenReturn(Optional.of(existingClient));
+        when(clientRepository.saveAndFlush(existingClient)).thenReturn(existingClient);
+
+        // Act
+        ClientResponseDTO response = clientService.patchClient(id, new ClientPatchDTO("New Name", null), 2L);
+
+        // Assert
+        assertEquals("New Name", response.name());
+        assertEquals("00-0", response.rut());
+    }
+
+    @Test
+    @DisplayName("Should reject a duplicate RUT before inserting")
+    void shouldRejectDuplicateRutBeforeInserting() {
+        // Arrange
+        ClientRequestDTO request = new ClientRequestDTO("Google", "12.345.678-9");
+        when(rutBloomFilters.mightContainClient(1234567809L)).thenReturn(true);
+        when(clientRepository.existsByRutKey(1234567809L)).thenReturn(true);
+
+        // Act & Assert
+        DuplicateResourceException exception = assertThrows(DuplicateResourceException.class,
+                () -> clientService.createClient(request));
+        assertEquals("A client with RUT 12345678-9 already exists", exception.getMessage());
+        verify(clientRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should skip the duplicate query when the Bloom filter rules the RUT out")
+    void shouldSkipDuplicateQueryWhenBloomFilterRulesRutOut() {
+        // Arrange
+        ClientRequestDTO request = new ClientRequestDTO("Google", "12345678-9");
+        Client client = Client.builder().id(1).name("Google").rut("12345678-9").build();
+        when(rutBloomFilters.mightContainClient(1234567809L)).thenReturn(false);
+        when(clientRepository.save(any(Client.class))).thenReturn(client);
+
+        // Act
+        clientService.createClient(request);
+
+        // Assert
+        verify(clientRepository, never()).existsByRutKey(any());
+        verify(rutBloomFilters, times(1)).addClient(any());
+    }
+
+    @Test
+    @DisplayName("Should query a RUT lookup without consulting the Bloom filter")
+    void shouldQueryRutLookupWithoutBloomFilter() {
+        // Arrange
+        when(clientRepository.findByRutKey(1234567810L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> clientService.getClientByRut("12.345.678-k"));
+        verify(clientRepository, times(1)).findByRutKey(1234567810L);
+        verifyNoInteractions(rutBloomFilters);
+    }
+
+    @Test
+    @DisplayName("Should find a client by RUT in any notation")
+    void shouldFindClientByRutInAnyNotation() {
+        // Arrange
+        Client client = Client.builder().id(1).name("Google").rut("12345678-K").build();
+        when(clientRepository.findByRutKey(1234567810L)).thenReturn(Optional.of(client));
+
+        // Act
+        ClientResponseDTO response = clientService.getClientByRut("12.345.678-k");
+
+        // Assert
+        assertEquals("12345678-K", response.rut());
+    }
+
+    @Test
+    @DisplayName("Should upsert clients in one repository call and map outcomes in request order")
+    void shouldUpsertClientsInOneRepositoryCall() {
+        // Arrange
+        List<ClientRequestDTO> requests = List.of(
+                new ClientRequestDTO("A", "1-1"),
+                new ClientRequestDTO("B", "2.222-2"));
+        when(clientRepository.upsertAllByRut(anyList())).thenReturn(List.of(
+                new RutUpsertResult(101L, 1, 0L, UpsertOutcome.CREATED),
+                new RutUpsertResult(222202L, 2, 4L, UpsertOutcome.UNCHANGED)));
+
+        // Act
+        List<UpsertResultDTO<ClientResponseDTO>> response = clientService.upsertClients(requests);
+
+        // Assert
+        assertEquals(UpsertOutcome.CREATED, response.get(0).outcome());
+        assertEquals(UpsertOutcome.UNCHANGED, response.get(1).outcome());
+        assertEquals(4L, response.get(1).data().version());
+        assertEquals("2.222-2", response.get(1).data().rut());
+        verify(clientRepository, times(1)).upsertAllByRut(anyList());
+        verify(rutBloomFilters, times(1)).addClient(222202L);
+    }
+
+    @Test
+    @DisplayName("Should reject an upsert batch that repeats a RUT")
+    void shouldRejectUpsertBatchRepeatingRut() {
+        // Arrange
+        List<ClientRequestDTO> requests = List.of(
+                new ClientRequestDTO("A", "12.345.678-9"),
+                new ClientRequestDTO("B", "12345678-9"));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> clientService.upsertClients(requests));
+        assertEquals("RUT 12345678-9 appears more than once", exception.getMessage());
+        verifyNoInteractions(clientRepository);
     }
 
     @Test
@@ -146,12 +325,15 @@ class ClientServiceTest {
     void shouldDeleteClientById() {
         // Arrange
         Integer id = 1;
-        doNothing().when(clientRepository).deleteById(id);
+        doNothing().when(clientRepository).deleteAllByIdInBatch(List.of(id));
 
         // Act
         clientService.deleteClient(id);
 
         // Assert
-        verify(clientRepository, times(1)).deleteById(id);
+        verify(clientRepository, times(1)).deleteAllByIdInBatch(List.of(id));
+        verify(changeLog).deleted(ChangeLogEntry.EntityType.CLIENT, id);
+        verify(outbox).append(id, ChangeLogEntry.EntityType.CLIENT, id, OutboxEvent.EventType.DELETED, null);
+        verify(clientRepository, never()).deleteById(any());
     }
 }
@@ -0,0 +1,62 @@
+package com.tenpo.service;
+
+import com.tenpo.outbox.Outbox;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CreateTransactionTimers Unit Tests")
+class CreateTransactionTimersTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CreateTransactionTimers timers = new CreateTransactionTimers(meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("Should time the commit from before the change log and outbox writes")
+    void shouldCoverBeforeCommitWrites() throws Exception {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Outbox.SYNCHRONIZATION_ORDER;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        CreateTransactionTimers.Timing timing = timers.start(1);
+        timing.timeCommit();
+
+        // Act
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        // Assert
+        Timer commit = meterRegistry.get(CreateTransactionTimers.METRIC_NAME)
+                .tag("phase", CreateTransactionTimers.COMMIT).timer();
+        assertThat(commit.count()).isEqualTo(1);
+        assertThat(commit.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(20);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).filteredOn(timing::equals).hasSize(1);
+    }
+}
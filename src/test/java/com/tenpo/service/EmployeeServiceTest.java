@@ -2,8 +2,12 @@ package com.tenpo.service;
 
 import com.tenpo.api.dto.EmployeeRequestDTO;
 import com.tenpo.api.dto.EmployeeResponseDTO;
+import com.tenpo.exception.DuplicateResourceException;
+import com.tenpo.model.ChangeLogEntry;
 import com.tenpo.model.Client;
 import com.tenpo.model.Employee;
+import com.tenpo.model.OutboxEvent;
+import com.tenpo.outbox.Outbox;
 import com.tenpo.repository.ClientRepository;
 import com.tenpo.repository.EmployeeRepository;
 import org.junit.jupiter.api.DisplayName;
@@ -30,6 +34,18 @@ class EmployeeServiceTest {
     @Mock
     private ClientRepository clientRepository;
 
+    @Mock
+    private RutBloomFilters rutBloomFilters;
+
+    @Mock
+    private MissingIdCache missingIdCache;
+
+    @Mock
+    private ChangeLog changeLog;
+
+    @Mock
+    private Outbox outbox;
+
     @InjectMocks
     private EmployeeService employeeService;
 
@@ -47,7 +63,8 @@ class EmployeeServiceTest {
                 .client(client)
                 .build();
 
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+        when(clientRepository.existsById(clientId)).thenReturn(true);
+        when(clientRepository.getReferenceById(clientId)).thenReturn(client);
         when(employeeRepository.save(any(Employee.class))).thenReturn(employee);
 
         // Act
@@ -58,7 +75,8 @@ class EmployeeServiceTest {
         assertEquals(101, response.id());
         assertEquals("John Doe", response.name());
         assertEquals(clientId, response.clientId());
-        verify(clientRepository, times(1)).findById(clientId);
+        verify(clientRepository, times(1)).existsById(clientId);
+        verify(clientRepository, never()).findById(any());
         verify(employeeRepository, times(1)).save(any(Employee.class));
     }
 
@@ -69,11 +87,11 @@ class EmployeeServiceTest {
         Integer clientId = 99;
         EmployeeRequestDTO request = new EmployeeRequestDTO("John Doe", "12.345.678-9", clientId);
 
-        when(clientRepository.findById(clientId)).thenReturn(Optional.empty());
+        when(clientRepository.existsById(clientId)).thenReturn(false);
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> employeeService.createEmployee(request));
-        verify(clientRepository, times(1)).findById(clientId);
+        verify(clientRepository, times(1)).existsById(clientId);
         verifyNoInteractions(employeeRepository);
     }
 
@@ -139,18 +157,70 @@ class EmployeeServiceTest {
                 .build();
 
         when(employeeRepository.findById(empId)).thenReturn(Optional.of(existingEmployee));
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
-        when(employeeRepository.save(any(Employee.class))).thenReturn(updatedEmployee);
+        when(employeeRepository.saveAndFlush(any(Employee.class))).thenReturn(updatedEmployee);
 
         // Act
-        EmployeeResponseDTO response = employeeService.updateEmployee(empId, request);
+        EmployeeResponseDTO response = employeeService.updateEmployee(empId, request, null);
 
         // Assert
         assertNotNull(response);
         assertEquals("Jane Doe", response.name());
         verify(employeeRepository, times(1)).findById(empId);
-        verify(clientRepository, times(1)).findById(clientId);
-        verify(employeeRepository, times(1)).save(any(Employee.class));
+        verifyNoInteractions(clientRepository);
+        verify(employeeRepository, times(1)).saveAndFlush(any(Employee.class));
+    }
+
+    @Test
+    @DisplayName("Should check the new client only when the employee is moved")
+    void shouldCheckNewClientWhenEmployeeIsMoved() {
+        // Arrange
+        Integer empId = 101;
+        EmployeeRequestDTO request = new EmployeeRequestDTO("Jane Doe", "98.765.432-1", 2);
+        Client oldClient = Client.builder().id(1).build();
+        Client newClient = Client.builder().id(2).build();
+        Employee existingEmployee = Employee.builder().id(empId).name("Old Name").client(oldClient).build();
+
+        when(employeeRepository.findById(empId)).thenReturn(Optional.of(existingEmployee));
+        when(clientRepository.existsById(2)).thenReturn(true);
+        when(clientRepository.getReferenceById(2)).thenReturn(newClient);
+        when(employeeRepository.saveAndFlush(existingEmployee)).thenReturn(existingEmployee);
+
+        // Act
+        EmployeeResponseDTO response = employeeService.updateEmployee(empId, request, null);
+
+        // Assert
+        assertEquals(2, response.clientId());
+        verify(clientRepository, times(1)).existsById(2);
+    }
+
+    @Test
+    @DisplayName("Should report missing client when conditional update matches no row")
+    void shouldReportMissingClientWhenConditionalUpdateMatchesNoRow() {
+        // Arrange
+        Integer empId = 101;
+        EmployeeRequestDTO request = new EmployeeRequestDTO("Jane Doe", "98.765.432-1", 99);
+        when(employeeRepository.updateIfVersionMatches(empId, "Jane Doe", "98.765.432-1", 9876543201L, 99, 1L))
+                .thenReturn(0);
+        when(employeeRepository.findVersionById(empId)).thenReturn(Optional.of(1L));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> employeeService.updateEmployee(empId, request, 1L));
+        assertEquals("Client not found", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should reject an employee whose RUT is already taken")
+    void shouldRejectEmployeeWithTakenRut() {
+        // Arrange
+        EmployeeRequestDTO request = new EmployeeRequestDTO("John Doe", "12.345.678-9", 1);
+        when(clientRepository.existsById(1)).thenReturn(true);
+        when(rutBloomFilters.mightContainEmployee(1234567809L)).thenReturn(true);
+        when(employeeRepository.existsByRutKey(1234567809L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(DuplicateResourceException.class, () -> employeeService.createEmployee(request));
+        verify(employeeRepository, never()).save(any());
     }
 
     @Test
@@ -158,12 +228,16 @@ class EmployeeServiceTest {
     void shouldDeleteEmployeeById() {
         // Arrange
         Integer id = 101;
-        doNothing().when(employeeRepository).deleteById(id);
+        when(employeeRepository.findClientIdById(id)).thenReturn(Optional.of(1));
+        doNothing().when(employeeRepository).deleteAllByIdInBatch(List.of(id));
 
         // Act
         employeeService.deleteEmployee(id);
 
         // Assert
-        verify(employeeRepository, times(1)).deleteById(id);
+        verify(employeeRepository, times(1)).deleteAllByIdInBatch(List.of(id));
+        verify(changeLog).deleted(ChangeLogEntry.EntityType.EMPLOYEE, id);
+        verify(outbox).append(1, ChangeLogEntry.EntityType.EMPLOYEE, id, OutboxEvent.EventType.DELETED, null);
+        verify(employeeRepository, never()).deleteById(any());
     }
 }
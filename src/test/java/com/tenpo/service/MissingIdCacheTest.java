@@ -0,0 +1,139 @@
+package com.tenpo.service;
+
+import com.tenpo.model.Client;
+import com.tenpo.model.Employee;
+import com.tenpo.repository.ClientRepository;
+import com.tenpo.repository.EmployeeRepository;
+import com.tenpo.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MissingIdCacheTest {
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private final AtomicLong now = new AtomicLong();
+    private MissingIdCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new MissingIdCache(clientRepository, employeeRepository, transactionRepository, 2,
+                Duration.ofSeconds(30), Duration.ofSeconds(1), TransactionOperations.withoutTransaction(), now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject ids above the high-water mark and reload it at most once per interval")
+    void shouldRejectIdsAboveHighWaterMark() {
+        // Arrange
+        when(clientRepository.findMaxId()).thenReturn(10, 10, 20);
+        cache.loadHighWaterMarks();
+
+        // Act & Assert
+        assertFalse(cache.isKnownMissing(Client.class, 10));
+        assertTrue(cache.isKnownMissing(Client.class, 15));
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(cache.isKnownMissing(Client.class, 15));
+        assertTrue(cache.isKnownMissing(Client.class, 16));
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertFalse(cache.isKnownMissing(Client.class, 15));
+        verify(clientRepository, times(3)).findMaxId();
+    }
+
+    @Test
+    @DisplayName("Should raise the mark on create and reload it after a bulk insert")
+    void shouldFollowLocalCreates() {
+        // Arrange
+        when(employeeRepository.findMaxId()).thenReturn(5, 8);
+        cache.loadHighWaterMarks();
+
+        // Act & Assert
+        cache.recordCreated(Employee.class, 6);
+        assertFalse(cache.isKnownMissing(Employee.class, 6));
+        assertTrue(cache.isKnownMissing(Employee.class, 7));
+        cache.highWaterMarkChanged(Employee.class);
+        assertFalse(cache.isKnownMissing(Employee.class, 7));
+    }
+
+    @Test
+    @DisplayName("Should remember misses for the TTL, evict the least recently used and forget created ids")
+    void shouldRememberMissesForTtl() {
+        // Arrange
+        cache.recordMissing(Client.class, 1);
+        cache.recordMissing(Client.class, 2);
+
+        // Act & Assert
+        assertTrue(cache.isKnownMissing(Client.class, 1));
+        cache.recordMissing(Client.class, 3);
+        assertFalse(cache.isKnownMissing(Client.class, 2));
+        cache.recordCreated(Client.class, 3);
+        assertFalse(cache.isKnownMissing(Client.class, 3));
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertFalse(cache.isKnownMissing(Client.class, 1));
+        verifyNoInteractions(clientRepository);
+    }
+
+    @Test
+    @DisplayName("Should never lower the mark when a reload reads an older maximum")
+    void shouldNeverLowerHighWaterMark() {
+        // Arrange
+        when(clientRepository.findMaxId()).thenReturn(10, 8);
+        cache.loadHighWaterMarks();
+        cache.recordCreated(Client.class, 12);
+
+        // Act
+        cache.highWaterMarkChanged(Client.class);
+        boolean aboveReload = cache.isKnownMissing(Client.class, 13);
+
+        // Assert
+        assertTrue(aboveReload);
+        assertFalse(cache.isKnownMissing(Client.class, 12));
+        verify(clientRepository, times(2)).findMaxId();
+    }
+
+    @Test
+    @DisplayName("Should record a created id only once its transaction commits")
+    void shouldRecordCreatedAfterCommit() {
+        // Arrange
+        when(clientRepository.findMaxId()).thenReturn(10);
+        cache.loadHighWaterMarks();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        cache.recordCreated(Client.class, 11);
+        boolean beforeCommit = cache.isKnownMissing(Client.class, 11);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        // Assert
+        assertTrue(beforeCommit);
+        assertFalse(cache.isKnownMissing(Client.class, 11));
+    }
+}
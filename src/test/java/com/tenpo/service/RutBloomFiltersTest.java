@@ -0,0 +1,119 @@
+package com.tenpo.service;
+
+import com.tenpo.repository.ClientRepository;
+import com.tenpo.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RutBloomFilters Unit Tests")
+class RutBloomFiltersTest {
+
+    @Mock
+    private ClientRepository clientRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private RutBloomFilters filters;
+
+    @AfterEach
+    void tearDown() {
+        if (filters != null) {
+            filters.destroy();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should pick up RUTs written by other instances on the next rebuild")
+    void shouldPickUpOtherInstancesWritesOnRebuild() {
+        // Arrange
+        when(clientRepository.countByRutKeyIsNotNull()).thenReturn(1L, 2L);
+        when(clientRepository.findRutKeysAfter(eq(-1L), any()))
+                .thenReturn(List.of(1234567809L), List.of(1234567809L, 222202L));
+        when(employeeRepository.findRutKeysAfter(eq(-1L), any())).thenReturn(List.of());
+        filters = new RutBloomFilters(clientRepository, employeeRepository, 1000, 0.001, Duration.ofMillis(200));
+
+        // Act
+        filters.start();
+        assertFalse(filters.mightContainClient(222202L));
+
+        // Assert
+        verify(clientRepository, timeout(5000).atLeast(2)).findRutKeysAfter(eq(-1L), any());
+        verify(employeeRepository, timeout(5000).atLeast(2)).findRutKeysAfter(eq(-1L), any());
+        assertTrue(filters.mightContainClient(1234567809L));
+        assertTrue(filters.mightContainClient(222202L));
+    }
+
+    @Test
+    @DisplayName("Should add a RUT only once its transaction commits")
+    void shouldAddRutAfterCommit() {
+        // Arrange
+        when(clientRepository.findRutKeysAfter(eq(-1L), any())).thenReturn(List.of());
+        when(employeeRepository.findRutKeysAfter(eq(-1L), any())).thenReturn(List.of());
+        filters = new RutBloomFilters(clientRepository, employeeRepository, 1000, 0.001, Duration.ofMinutes(1));
+        filters.rebuild();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        filters.addClient(222202L);
+        filters.addClient(1234567809L);
+        boolean beforeCommit = filters.mightContainClient(222202L);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        // Assert
+        assertFalse(beforeCommit);
+        assertTrue(filters.mightContainClient(222202L));
+        assertTrue(filters.mightContainClient(1234567809L));
+    }
+
+    @Test
+    @DisplayName("Should load every key when shards return a page each")
+    void shouldLoadEveryKeyAcrossShardPages() {
+        // Arrange: two shards holding the even and the odd keys, merged per page as scatter-gather does
+        int perShard = RutBloomFilters.PAGE_SIZE + RutBloomFilters.PAGE_SIZE / 2;
+        when(clientRepository.countByRutKeyIsNotNull()).thenReturn(2L * perShard);
+        when(clientRepository.findRutKeysAfter(anyLong(), any())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(0);
+            int limit = invocation.<Limit>getArgument(1).max();
+            List<Long> merged = new ArrayList<>();
+            for (long shard = 0; shard < 2; shard++) {
+                long first = shard;
+                LongStream.range(0, perShard).map(i -> 100 + 2 * i + first)
+                        .filter(key -> key > after).limit(limit).forEach(merged::add);
+            }
+            return merged;
+        });
+        when(employeeRepository.findRutKeysAfter(eq(-1L), any())).thenReturn(List.of());
+        filters = new RutBloomFilters(clientRepository, employeeRepository, 1000, 0.001, Duration.ofMinutes(1));
+
+        // Act
+        filters.rebuild();
+
+        // Assert
+        for (long key = 100; key < 100 + 2L * perShard; key++) {
+            assertTrue(filters.mightContainClient(key), "key " + key);
+        }
+    }
+}
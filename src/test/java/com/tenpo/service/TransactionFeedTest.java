@@ -0,0 +1,193 @@
+package com.tenpo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.tenpo.api.dto.TransactionResponseDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TransactionFeed Unit Tests")
+class TransactionFeedTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+
+    private final TransactionFeed feed = new TransactionFeed(objectMapper, 3, 2, Duration.ofMinutes(1),
+            Duration.ofMinutes(1), System::nanoTime);
+
+    @AfterEach
+    void tearDown() {
+        feed.destroy();
+    }
+
+    @Test
+    @DisplayName("Should push a created transaction to the subscribers of its client only")
+    void shouldPushToSubscribersOfTheClient() {
+        // Arrange
+        RecordingEmitter subscriber = new RecordingEmitter();
+        RecordingEmitter otherClient = new RecordingEmitter();
+        feed.subscribe(1, null, subscriber);
+        feed.subscribe(2, null, otherClient);
+
+        // Act
+        publish(1, 10);
+
+        // Assert
+        await(() -> subscriber.events().size() == 1);
+        assertThat(subscriber.events().get(0))
+                .contains("event:" + TransactionFeed.TRANSACTION_EVENT)
+                .contains("\"id\":10")
+                .contains("\"client_id\":1");
+        assertThat(otherClient.events()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should replay the events after Last-Event-ID to a reconnecting subscriber")
+    void shouldResumeFromLastEventId() {
+        // Arrange
+        RecordingEmitter first = new RecordingEmitter();
+        feed.subscribe(1, null, first);
+        publish(1, 10);
+        publish(1, 11);
+        publish(1, 12);
+        await(() -> first.events().size() == 3);
+        String lastEventId = idOf(first.events().get(0));
+
+        // Act
+        RecordingEmitter reconnected = new RecordingEmitter();
+        feed.subscribe(1, lastEventId, reconnected);
+        publish(1, 13);
+
+        // Assert
+        await(() -> reconnected.events().size() == 3);
+        assertThat(reconnected.events())
+                .extracting(TransactionFeedTest::idOf)
+                .containsExactly(idOf(first.events().get(1)), idOf(first.events().get(2)),
+                        idOf(first.events().get(2)).replaceAll("-\\d+$", "-4"));
+    }
+
+    @Test
+    @DisplayName("Should ask for a reload when Last-Event-ID is no longer buffered")
+    void shouldSendResyncForUnknownLastEventId() {
+        // Arrange
+        RecordingEmitter first = new RecordingEmitter();
+        feed.subscribe(1, null, first);
+        for (int id = 10; id < 15; id++) {
+            publish(1, id);
+        }
+        await(() -> first.events().size() == 5);
+
+        // Act
+        RecordingEmitter evicted = new RecordingEmitter();
+        feed.subscribe(1, idOf(first.events().get(0)), evicted);
+        RecordingEmitter unknown = new RecordingEmitter();
+        feed.subscribe(1, "restarted-7", unknown);
+
+        // Assert
+        await(() -> evicted.events().size() == 1 && unknown.events().size() == 1);
+        assertThat(evicted.events().get(0)).contains("event:" + TransactionFeed.RESYNC_EVENT);
+        assertThat(unknown.events().get(0)).contains("event:" + TransactionFeed.RESYNC_EVENT);
+    }
+
+    @Test
+    @DisplayName("Should disconnect a subscriber that falls too far behind without blocking the others")
+    void shouldDropSlowSubscriber() {
+        // Arrange
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.block();
+        RecordingEmitter fast = new RecordingEmitter();
+        feed.subscribe(1, null, slow);
+        feed.subscribe(1, null, fast);
+
+        // Act
+        for (int id = 10; id < 20; id++) {
+            publish(1, id);
+            int delivered = id - 9;
+            await(() -> fast.events().size() == delivered);
+        }
+        slow.unblock();
+
+        // Assert
+        await(() -> slow.completed && fast.events().size() == 10);
+        assertThat(slow.events().size()).isLessThan(10);
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+    }
+
+    private void publish(Integer clientId, Integer transactionId) {
+        feed.onTransactionCreated(new TransactionCreatedEvent(clientId, new TransactionResponseDTO(
+                transactionId, 1000, "Store", LocalDateTime.of(2024, 1, 1, 12, 0), 5, clientId)));
+    }
+
+    private static String idOf(String event) {
+        return event.lines()
+                .filter(line -> line.startsWith("id:"))
+                .map(line -> line.substring(3))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Records what would be written to the connection; {@link #block()} makes
+     * sends hang like a client that stopped reading.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private volatile boolean completed;
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void unblock() {
+            gate.countDown();
+        }
+
+        List<String> events() {
+            return events;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            try {
+                gate.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            String event = builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining());
+            if (!event.startsWith(":")) {
+                events.add(event);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -2,17 +2,26 @@ package com.tenpo.service;
 
 import com.tenpo.api.dto.TransactionRequestDTO;
 import com.tenpo.api.dto.TransactionResponseDTO;
+import com.tenpo.exception.BusinessRuleException;
+import com.tenpo.exception.PreconditionFailedException;
+import com.tenpo.model.ChangeLogEntry;
 import com.tenpo.model.Client;
 import com.tenpo.model.Employee;
+import com.tenpo.model.OutboxEvent;
 import com.tenpo.model.Transaction;
+import com.tenpo.outbox.Outbox;
+import com.tenpo.repository.EmployeeOwnership;
 import com.tenpo.repository.EmployeeRepository;
 import com.tenpo.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -32,6 +41,21 @@ class TransactionServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private MissingIdCache missingIdCache;
+
+    @Mock
+    private ChangeLog changeLog;
+
+    @Mock
+    private Outbox outbox;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private CreateTransactionTimers createTimers = new CreateTransactionTimers(new SimpleMeterRegistry());
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -54,8 +78,9 @@ class TransactionServiceTest {
                 .employee(employee)
                 .build();
 
-        when(employeeRepository.findById(employeeId)).thenReturn(Optional.of(employee));
-        when(transactionRepository.countByClientId(clientId)).thenReturn(50L);
+        when(employeeRepository.findOwnershipById(employeeId))
+                .thenReturn(Optional.of(new EmployeeOwnership(employeeId, clientId, 50L)));
+        when(employeeRepository.getReferenceById(employeeId)).thenReturn(employee);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
 
         // Act
@@ -65,8 +90,14 @@ class TransactionServiceTest {
         assertNotNull(response);
         assertEquals(1001, response.id());
         assertEquals(500, response.amount());
-        verify(transactionRepository, times(1)).countByClientId(clientId);
+        assertEquals(clientId, response.clientId());
+        verify(employeeRepository, never()).findById(any());
+        verify(transactionRepository, never()).countByClientId(any());
         verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(changeLog).upserted(ChangeLogEntry.EntityType.TRANSACTION, 1001);
+        verify(outbox).append(clientId, ChangeLogEntry.EntityType.TRANSACTION, 1001, OutboxEvent.EventType.CREATED,
+                response);
+        verify(eventPublisher).publishEvent(new TransactionCreatedEvent(clientId, response));
     }
 
     @Test
@@ -79,10 +110,8 @@ class TransactionServiceTest {
         TransactionRequestDTO request = new TransactionRequestDTO(500, "Biz", LocalDateTime.now(), employeeId,
                 requestClientId);
 
-        Client client = Client.builder().id(actualClientId).build();
-        Employee employee = Employee.builder().id(employeeId).client(client).build();
-
-        when(employeeRepository.findById(employeeId)).thenReturn(Optional.of(employee));
+        when(employeeRepository.findOwnershipById(employeeId))
+                .thenReturn(Optional.of(new EmployeeOwnership(employeeId, actualClientId, 0L)));
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -100,17 +129,14 @@ class TransactionServiceTest {
         TransactionRequestDTO request = new TransactionRequestDTO(500, "Biz", LocalDateTime.now(), employeeId,
                 clientId);
 
-        Client client = Client.builder().id(clientId).build();
-        Employee employee = Employee.builder().id(employeeId).client(client).build();
-
-        when(employeeRepository.findById(employeeId)).thenReturn(Optional.of(employee));
-        when(transactionRepository.countByClientId(clientId)).thenReturn(100L);
+        when(employeeRepository.findOwnershipById(employeeId))
+                .thenReturn(Optional.of(new EmployeeOwnership(employeeId, clientId, 100L)));
 
         // Act & Assert
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        BusinessRuleException exception = assertThrows(BusinessRuleException.class,
                 () -> transactionService.createTransaction(request));
         assertEquals("Client has reached the maximum of 100 transactions", exception.getMessage());
-        verify(transactionRepository, times(1)).countByClientId(clientId);
+        assertEquals(0, exception.getStackTrace().length);
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
@@ -182,20 +208,54 @@ class TransactionServiceTest {
         Transaction updatedTransaction = Transaction.builder().id(transId).amount(600)
                 .merchantOrBusiness("Updated Store").date(now).employee(employee).build();
 
-        when(transactionRepository.findById(transId)).thenReturn(Optional.of(existingTransaction));
-        when(employeeRepository.findById(empId)).thenReturn(Optional.of(employee));
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(updatedTransaction);
+        when(transactionRepository.findWithEmployeeById(transId)).thenReturn(Optional.of(existingTransaction));
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenReturn(updatedTransaction);
 
         // Act
-        TransactionResponseDTO response = transactionService.updateTransaction(transId, request);
+        TransactionResponseDTO response = transactionService.updateTransaction(transId, request, null);
 
         // Assert
         assertNotNull(response);
         assertEquals(600, response.amount());
         assertEquals("Updated Store", response.merchantOrBusiness());
-        verify(transactionRepository, times(1)).findById(transId);
-        verify(employeeRepository, times(1)).findById(empId);
-        verify(transactionRepository, times(1)).save(any(Transaction.class));
+        verify(transactionRepository, times(1)).findWithEmployeeById(transId);
+        verifyNoInteractions(employeeRepository);
+        verify(transactionRepository, times(1)).saveAndFlush(any(Transaction.class));
+    }
+
+    @Test
+    @DisplayName("Should update transaction with a single conditional statement when version is given")
+    void shouldUpdateTransactionConditionallyWhenVersionIsGiven() {
+        // Arrange
+        Integer transId = 1001;
+        LocalDateTime now = LocalDateTime.now();
+        TransactionRequestDTO request = new TransactionRequestDTO(600, "Updated Store", now, 101, 1);
+        when(transactionRepository.updateIfVersionMatches(transId, 600, "Updated Store", now, 101, 1, 0L))
+                .thenReturn(1);
+
+        // Act
+        TransactionResponseDTO response = transactionService.updateTransaction(transId, request, 0L);
+
+        // Assert
+        assertEquals(1L, response.version());
+        verify(transactionRepository, never()).findWithEmployeeById(any());
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw precondition failed when transaction version is stale")
+    void shouldThrowPreconditionFailedWhenTransactionVersionIsStale() {
+        // Arrange
+        Integer transId = 1001;
+        LocalDateTime now = LocalDateTime.now();
+        TransactionRequestDTO request = new TransactionRequestDTO(600, "Updated Store", now, 101, 1);
+        when(transactionRepository.updateIfVersionMatches(transId, 600, "Updated Store", now, 101, 1, 0L))
+                .thenReturn(0);
+        when(transactionRepository.findVersionById(transId)).thenReturn(Optional.of(2L));
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class,
+                () -> transactionService.updateTransaction(transId, request, 0L));
     }
 
     @Test
@@ -203,12 +263,20 @@ class TransactionServiceTest {
     void shouldDeleteTransactionById() {
         // Arrange
         Integer id = 1001;
-        doNothing().when(transactionRepository).deleteById(id);
+        Integer clientId = 1;
+        Transaction transaction = Transaction.builder()
+                .id(id)
+                .employee(Employee.builder().id(101).client(Client.builder().id(clientId).build()).build())
+                .build();
+        when(transactionRepository.findWithEmployeeById(id)).thenReturn(Optional.of(transaction));
 
         // Act
         transactionService.deleteTransaction(id);
 
         // Assert
-        verify(transactionRepository, times(1)).deleteById(id);
+        verify(transactionRepository, times(1)).delete(transaction);
+        verify(changeLog).deleted(ChangeLogEntry.EntityType.TRANSACTION, id);
+        verify(outbox).append(clientId, ChangeLogEntry.EntityType.TRANSACTION, id, OutboxEvent.EventType.DELETED,
+                null);
     }
 }
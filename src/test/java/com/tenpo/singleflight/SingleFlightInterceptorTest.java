@@ -0,0 +1,187 @@
+package com.tenpo.singleflight;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("SingleFlightInterceptor Unit Tests")
+class SingleFlightInterceptorTest {
+
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlightProperties properties = new SingleFlightProperties();
+    private final SingleFlightInterceptor interceptor = new SingleFlightInterceptor(properties, meterRegistry);
+    private final Reads target = new Reads();
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        target.release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should run concurrent calls with equal arguments once and share the result")
+    void shouldCoalesceConcurrentEqualCalls() throws Exception {
+        // Arrange
+        ReadsApi reads = proxy();
+
+        // Act
+        List<Future<String>> results = callConcurrently(() -> reads.byClient(1));
+        target.release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("client-1");
+        }
+        assertThat(target.calls).hasValue(1);
+        assertThat(counter(SingleFlightInterceptor.EXECUTIONS_METRIC)).isEqualTo(1);
+        assertThat(counter(SingleFlightInterceptor.COALESCED_METRIC)).isEqualTo(CALLERS - 1);
+        assertThat(interceptor.inFlightCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should run calls with different arguments separately")
+    void shouldNotCoalesceDifferentArguments() throws Exception {
+        // Arrange
+        ReadsApi reads = proxy();
+        target.release.countDown();
+
+        // Act
+        String first = reads.byClient(1);
+        String second = reads.byClient(2);
+
+        // Assert
+        assertThat(List.of(first, second)).containsExactly("client-1", "client-2");
+        assertThat(target.calls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should give every waiting caller the leader's exception")
+    void shouldShareTheException() throws Exception {
+        // Arrange
+        ReadsApi reads = proxy();
+
+        // Act
+        List<Future<String>> results = callConcurrently(() -> reads.byClient(-1));
+        target.release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(target.calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should run every call when the method is disabled in the properties")
+    void shouldNotCoalesceDisabledMethod() throws Exception {
+        // Arrange
+        SingleFlightProperties.Method disabled = new SingleFlightProperties.Method();
+        disabled.setEnabled(false);
+        properties.getMethods().put("reads-by-client", disabled);
+        ReadsApi reads = proxy();
+        target.release.countDown();
+
+        // Act
+        for (Future<String> result : callConcurrently(() -> reads.byClient(1))) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        assertThat(target.calls).hasValue(CALLERS);
+    }
+
+    @Test
+    @DisplayName("Should not coalesce a call made inside a transaction")
+    void shouldNotCoalesceInsideTransaction() throws Exception {
+        // Arrange
+        ReadsApi reads = proxy();
+        List<Future<String>> outside = callConcurrently(() -> reads.byClient(1));
+
+        // Act
+        Future<String> inside = callers.submit(() -> {
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            return reads.byClient(1);
+        });
+        target.release.countDown();
+
+        // Assert
+        assertThat(inside.get(5, TimeUnit.SECONDS)).isEqualTo("client-1");
+        for (Future<String> result : outside) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(target.calls).hasValue(2);
+    }
+
+    private ReadsApi proxy() {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.addAdvisor(SingleFlightInterceptor.advisor(() -> interceptor));
+        return (ReadsApi) factory.getProxy();
+    }
+
+    // Starts the callers and returns once all of them but the leader are waiting on it.
+    private List<Future<String>> callConcurrently(Callable<String> call) throws Exception {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(call));
+        }
+        assertThat(target.started.await(5, TimeUnit.SECONDS)).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter(SingleFlightInterceptor.COALESCED_METRIC) < CALLERS - 1
+                && properties.isEnabled("reads-by-client")) {
+            assertThat(System.nanoTime()).as("callers did not join within 5s").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+        return results;
+    }
+
+    private double counter(String name) {
+        return meterRegistry.find(name).tag("method", "reads-by-client").counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    interface ReadsApi {
+        String byClient(Integer clientId) throws InterruptedException;
+    }
+
+    static class Reads implements ReadsApi {
+
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        @SingleFlight("reads-by-client")
+        public String byClient(Integer clientId) throws InterruptedException {
+            calls.incrementAndGet();
+            started.countDown();
+            release.await();
+            if (clientId < 0) {
+                throw new IllegalArgumentException("Invalid client id");
+            }
+            return "client-" + clientId;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.tenpo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BloomFilter Unit Tests")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should never report an added key as absent")
+    void shouldNeverReportAddedKeyAsAbsent() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (long key = 0; key < 10_000; key++) {
+            filter.put(key * 100 + 7);
+        }
+
+        // Act & Assert
+        for (long key = 0; key < 10_000; key++) {
+            assertTrue(filter.mightContain(key * 100 + 7));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the false positive rate near the configured probability")
+    void shouldKeepFalsePositiveRateNearConfiguredProbability() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (long key = 0; key < 10_000; key++) {
+            filter.put(key);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (long key = 1_000_000; key < 1_100_000; key++) {
+            if (filter.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,46 @@
+package com.tenpo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CountMinSketch Unit Tests")
+class CountMinSketchTest {
+
+    @Test
+    @DisplayName("Should never estimate a key below its true sum")
+    void shouldNeverUnderestimate() {
+        // Arrange
+        CountMinSketch sketch = CountMinSketch.create(0.01, 0.99);
+        for (int key = 0; key < 5_000; key++) {
+            sketch.add(Integer.toString(key), key % 7 + 1);
+        }
+
+        // Act & Assert
+        for (int key = 0; key < 5_000; key++) {
+            assertTrue(sketch.estimate(Integer.toString(key)) >= key % 7 + 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep overestimates within the error bound of the total")
+    void shouldKeepOverestimatesWithinErrorBound() {
+        // Arrange
+        CountMinSketch sketch = CountMinSketch.create(0.001, 0.99);
+        long total = 0;
+        for (int key = 0; key < 20_000; key++) {
+            sketch.add(Integer.toString(key), 5);
+            total += 5;
+        }
+        sketch.add("heavy", 10_000);
+        total += 10_000;
+
+        // Act
+        long estimate = sketch.estimate("heavy");
+
+        // Assert
+        assertTrue(estimate >= 10_000);
+        assertTrue(estimate <= 10_000 + 0.001 * total, "estimate " + estimate);
+    }
+}
@@ -0,0 +1,54 @@
+package com.tenpo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CsvReader Unit Tests")
+class CsvReaderTest {
+
+    @Test
+    @DisplayName("Should read plain and quoted fields with either line ending")
+    void shouldReadPlainAndQuotedFields() throws IOException {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader(
+                "name,rut\r\n\"Doe, John\",1-9\n\"Say \"\"hi\"\"\",2-7\n\nlast,"));
+
+        // Act & Assert
+        assertEquals(List.of("name", "rut"), reader.next());
+        assertEquals(List.of("Doe, John", "1-9"), reader.next());
+        assertEquals(2, reader.recordLine());
+        assertEquals(List.of("Say \"hi\"", "2-7"), reader.next());
+        assertEquals(List.of("last", ""), reader.next());
+        assertEquals(5, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Should keep line breaks inside quoted fields and count them")
+    void shouldKeepLineBreaksInsideQuotes() throws IOException {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader("\"two\nlines\",1-9\nnext,2-7\n"));
+
+        // Act & Assert
+        assertEquals(List.of("two\nlines", "1-9"), reader.next());
+        assertEquals(List.of("next", "2-7"), reader.next());
+        assertEquals(3, reader.recordLine());
+    }
+
+    @Test
+    @DisplayName("Should reject an unterminated quoted field")
+    void shouldRejectUnterminatedQuote() {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader("\"open,1-9\n"));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals("Unterminated quoted field starting on line 1", exception.getMessage());
+    }
+}
@@ -0,0 +1,38 @@
+package com.tenpo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RutUtils Unit Tests")
+class RutUtilsTest {
+
+    @Test
+    @DisplayName("Should map every common notation of a RUT to the same key")
+    void shouldMapNotationsToSameKey() {
+        // Act & Assert
+        assertEquals(1234567809L, RutUtils.toKey("12.345.678-9"));
+        assertEquals(1234567809L, RutUtils.toKey("12345678-9"));
+        assertEquals(1234567809L, RutUtils.toKey("123456789"));
+        assertEquals(1234567810L, RutUtils.toKey("12.345.678-k"));
+    }
+
+    @Test
+    @DisplayName("Should return null for values that are not RUTs")
+    void shouldReturnNullForNonRuts() {
+        // Act & Assert
+        assertNull(RutUtils.toKey(null));
+        assertNull(RutUtils.toKey("S-1"));
+        assertNull(RutUtils.toKey("1234567890-1"));
+        assertNull(RutUtils.toKey("12-34-5"));
+    }
+
+    @Test
+    @DisplayName("Should format a key back to its canonical notation")
+    void shouldFormatKey() {
+        // Act & Assert
+        assertEquals("12345678-9", RutUtils.format(1234567809L));
+        assertEquals("12345678-K", RutUtils.format(1234567810L));
+    }
+}
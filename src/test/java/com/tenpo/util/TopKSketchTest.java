@@ -0,0 +1,48 @@
+package com.tenpo.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TopKSketch Unit Tests")
+class TopKSketchTest {
+
+    @Test
+    @DisplayName("Should list the heaviest keys, largest first, among many light ones")
+    void shouldListHeaviestKeys() throws InterruptedException {
+        // Arrange
+        TopKSketch sketch = new TopKSketch(3, 0.001, 0.99);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread;
+            executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    sketch.add("light-" + (i * 4 + offset), 1);
+                    if (i % 10 == 0) {
+                        sketch.add("client-1", 3);
+                    }
+                    if (i % 20 == 0) {
+                        sketch.add("client-2", 3);
+                        sketch.add("client-3", 2);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Act
+        List<TopKSketch.Entry> top = sketch.top();
+
+        // Assert
+        assertEquals(List.of("client-1", "client-2", "client-3"),
+                top.stream().map(TopKSketch.Entry::key).toList());
+        assertTrue(top.get(0).estimate() >= 12_000);
+    }
+}